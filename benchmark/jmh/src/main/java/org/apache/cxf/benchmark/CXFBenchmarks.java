@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the CXF benchmarks with the settings used for release to release
+ * comparisons: throughput and sampled latency (which reports the p99 and
+ * p99.9 percentiles) with the GC profiler attached so that the allocation
+ * rate per operation is reported as well.  The results are written as JSON
+ * to the file given by the <code>cxf.benchmark.result</code> system property
+ * (<code>cxf-benchmarks.json</code> by default).
+ * <p>
+ * An optional argument restricts the run to the benchmarks matching the
+ * given regular expression.  For any other combination of options use the
+ * standard JMH command line, e.g. <code>java -cp cxf-benchmarks.jar
+ * org.openjdk.jmh.Main -prof gc SoapDocLit</code>.
+ */
+public final class CXFBenchmarks {
+
+    private CXFBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : CXFBenchmarks.class.getPackage().getName() + ".*";
+        Options opts = new OptionsBuilder()
+            .include(include)
+            .exclude(CXFBenchmarks.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(System.getProperty("cxf.benchmark.result", "cxf-benchmarks.json"))
+            .build();
+        new Runner(opts).run();
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.apache.cxf.jaxrs.JAXRSServiceImpl;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.jaxrs.model.ClassResourceInfo;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.model.URITemplate;
+import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.jaxrs.utils.ResourceUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the JAX-RS dispatch, root resource selection followed by resource method selection,
+ * against the number of root resources, each with seven resource methods.  The request 
+ * targets the last registered resource.  linearResourceSelection evaluates every root 
+ * resource template the way the dispatch works without the URITemplateIndex.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JAXRSDispatchBenchmark {
+    private static final List<MediaType> ACCEPT = Collections.singletonList(MediaType.WILDCARD_TYPE);
+
+    @Param({"1", "10", "60", "200" })
+    private int resourceCount;
+
+    private List<ClassResourceInfo> resources;
+    private JAXRSServiceImpl service;
+    private String path;
+
+    @Setup
+    public void setUp() {
+        resources = new ArrayList<ClassResourceInfo>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            ClassResourceInfo cri = 
+                ResourceUtils.createClassResourceInfo(DispatchResource.class, DispatchResource.class, 
+                                                      true, true);
+            cri.setURITemplate(URITemplate.createTemplate("/resource" + i));
+            resources.add(cri);
+        }
+        service = new JAXRSServiceImpl(resources);
+        path = "/resource" + (resourceCount - 1) + "/42/items/7";
+    }
+
+    @Benchmark
+    public OperationResourceInfo dispatch() {
+        Message message = newMessage(service);
+        Map<ClassResourceInfo, MultivaluedMap<String, String>> matched = 
+            JAXRSUtils.selectResourceClass(resources, path, message);
+        return JAXRSUtils.findTargetMethod(matched, message, "GET", new MetadataMap<String, String>(), 
+                                           "*/*", ACCEPT);
+    }
+
+    @Benchmark
+    public Map<ClassResourceInfo, MultivaluedMap<String, String>> resourceSelection() {
+        return JAXRSUtils.selectResourceClass(resources, path, newMessage(service));
+    }
+
+    @Benchmark
+    public Map<ClassResourceInfo, MultivaluedMap<String, String>> linearResourceSelection() {
+        return JAXRSUtils.selectResourceClass(resources, path, newMessage(null));
+    }
+
+    private static Message newMessage(Service service) {
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+        if (service != null) {
+            exchange.put(Service.class, service);
+        }
+        return message;
+    }
+
+    @Path("/resource")
+    @Produces("application/xml")
+    public static class DispatchResource {
+        @GET
+        public String list() {
+            return null;
+        }
+
+        @POST
+        public String create(String body) {
+            return null;
+        }
+
+        @GET
+        @Path("{id}")
+        public String get(@PathParam("id") String id) {
+            return null;
+        }
+
+        @PUT
+        @Path("{id}")
+        public String update(@PathParam("id") String id, String body) {
+            return null;
+        }
+
+        @DELETE
+        @Path("{id}")
+        public void delete(@PathParam("id") String id) {
+        }
+
+        @GET
+        @Path("{id}/items")
+        public String items(@PathParam("id") String id) {
+            return null;
+        }
+
+        @GET
+        @Path("{id}/items/{item}")
+        public String item(@PathParam("id") String id, @PathParam("item") String item) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.client.JAXRSClientFactoryBean;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.apache.cxf.jaxrs.provider.json.JSONProvider;
+import org.apache.cxf.transport.local.LocalConduit;
+import org.apache.cxf.transport.local.LocalTransportFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JAX-RS POST round trip over the local transport with either the default
+ * JAXB XML provider or the Jettison based {@link JSONProvider}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JAXRSRoundTripBenchmark {
+    private static final String ADDRESS = "local://benchmark/rs";
+
+    @Param({"application/xml", "application/json" })
+    private String mediaType;
+
+    @Param({"1", "100" })
+    private int itemCount;
+
+    private Bus bus;
+    private Server server;
+    private WebClient client;
+    private Payload payload;
+
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+
+        JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
+        sf.setBus(bus);
+        sf.setResourceClasses(EchoResource.class);
+        sf.setResourceProvider(EchoResource.class,
+                               new SingletonResourceProvider(new EchoResource(), true));
+        sf.setProvider(new JSONProvider<Object>());
+        sf.setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        sf.setAddress(ADDRESS);
+        server = sf.create();
+
+        JAXRSClientFactoryBean cf = new JAXRSClientFactoryBean();
+        cf.setBus(bus);
+        cf.setAddress(ADDRESS);
+        cf.setProvider(new JSONProvider<Object>());
+        client = cf.createWebClient().path("echo").type(mediaType).accept(mediaType);
+        WebClient.getConfig(client).getRequestContext().put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
+
+        payload = Payload.create(itemCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.destroy();
+        bus.shutdown(true);
+    }
+
+    @Benchmark
+    public Payload roundTrip() {
+        return client.post(payload, Payload.class);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseChainCache;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of building and running an interceptor chain the way
+ * the transports do it for every incoming message: a chain is obtained from a
+ * {@link PhaseChainCache} and {@link PhaseInterceptorChain#doIntercept(Message)}
+ * is called with a fresh message.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhaseInterceptorChainBenchmark {
+
+    @Param({"10", "30" })
+    private int interceptorCount;
+
+    private SortedSet<Phase> phases;
+    private List<Interceptor<? extends Message>> interceptors;
+    private PhaseChainCache chainCache;
+
+    @Setup
+    public void setUp() {
+        phases = new PhaseManagerImpl().getInPhases();
+        Phase[] all = phases.toArray(new Phase[phases.size()]);
+        interceptors = new ArrayList<Interceptor<? extends Message>>(interceptorCount);
+        for (int i = 0; i < interceptorCount; i++) {
+            interceptors.add(new NoOpInterceptor("noop" + i, all[i % all.length].getName()));
+        }
+        chainCache = new PhaseChainCache();
+    }
+
+    @Benchmark
+    public boolean cachedChainDoIntercept() {
+        PhaseInterceptorChain chain = chainCache.get(phases, interceptors);
+        Message message = newMessage();
+        message.setInterceptorChain(chain);
+        return chain.doIntercept(message);
+    }
+
+    @Benchmark
+    public PhaseInterceptorChain cachedChainOnly() {
+        return chainCache.get(phases, interceptors);
+    }
+
+    private static Message newMessage() {
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+        return message;
+    }
+
+    static class NoOpInterceptor extends AbstractPhaseInterceptor<Message> {
+        NoOpInterceptor(String id, String phase) {
+            super(id, phase);
+        }
+
+        public void handleMessage(Message message) throws Fault {
+            message.get(Message.PROTOCOL_HEADERS);
+        }
+    }
+}
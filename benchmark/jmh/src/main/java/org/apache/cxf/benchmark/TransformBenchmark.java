@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.cxf.staxutils.transform.InTransformReader;
+import org.apache.cxf.staxutils.transform.OutTransformWriter;
+import org.apache.cxf.staxutils.transform.TransformPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures InTransformReader and OutTransformWriter on a SOAP message where only the 
+ * payload wrapper is renamed and every other element passes through unchanged, the 
+ * typical TransformFeature setup.  The perMessage benchmarks parse the rules for every 
+ * message the way the transform interceptors did before the rules were compiled into a 
+ * shared TransformPlan; plainRead is the cost of the underlying parser alone.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransformBenchmark {
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String OLD_NS = "http://cxf.apache.org/benchmark/old";
+
+    @Param({"10", "100", "1000" })
+    private int itemCount;
+
+    @Param({"1", "10" })
+    private int ruleCount;
+
+    private byte[] document;
+    private Map<String, String> elementsMap;
+    private List<String> dropElements;
+    private TransformPlan plan;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<soap:Envelope xmlns:soap=\"").append(SOAP_NS).append("\"><soap:Body>");
+        sb.append("<ns:echo xmlns:ns=\"").append(OLD_NS).append("\">");
+        for (int i = 0; i < itemCount; i++) {
+            sb.append("<item id=\"").append(i).append("\"><name>name").append(i)
+                .append("</name><value>").append(i).append("</value></item>");
+        }
+        sb.append("</ns:echo></soap:Body></soap:Envelope>");
+        document = sb.toString().getBytes();
+
+        elementsMap = new HashMap<String, String>();
+        elementsMap.put("{" + OLD_NS + "}echo", "{http://cxf.apache.org/benchmark/new}echo");
+        for (int i = 1; i < ruleCount; i++) {
+            elementsMap.put("{" + OLD_NS + "}unused" + i, "{http://cxf.apache.org/benchmark/new}unused" + i);
+        }
+        dropElements = Collections.singletonList("{" + OLD_NS + "}dropped");
+        plan = new TransformPlan(elementsMap, null, dropElements, null);
+    }
+
+    @Benchmark
+    public int plainRead() throws XMLStreamException {
+        return drain(StaxUtils.createXMLStreamReader(new ByteArrayInputStream(document)));
+    }
+
+    @Benchmark
+    public int perMessageRead() throws XMLStreamException {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(document));
+        return drain(new InTransformReader(reader, elementsMap, null, dropElements, null, true));
+    }
+
+    @Benchmark
+    public int sharedPlanRead() throws XMLStreamException {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(document));
+        return drain(new InTransformReader(reader, plan, true));
+    }
+
+    @Benchmark
+    public int perMessageWrite() throws XMLStreamException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(document.length);
+        XMLStreamWriter writer = new OutTransformWriter(StaxUtils.createXMLStreamWriter(bos), elementsMap,
+                                                        null, dropElements, false, null);
+        return write(writer, bos);
+    }
+
+    @Benchmark
+    public int sharedPlanWrite() throws XMLStreamException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(document.length);
+        XMLStreamWriter writer = new OutTransformWriter(StaxUtils.createXMLStreamWriter(bos), plan,
+                                                        false, null);
+        return write(writer, bos);
+    }
+
+    private int write(XMLStreamWriter writer, ByteArrayOutputStream bos) throws XMLStreamException {
+        StaxUtils.copy(StaxUtils.createXMLStreamReader(new ByteArrayInputStream(document)), writer);
+        writer.flush();
+        return bos.size();
+    }
+
+    private static int drain(XMLStreamReader reader) throws XMLStreamException {
+        int hash = 0;
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                hash += reader.getLocalName().length() + reader.getNamespaceURI().length();
+            }
+        }
+        return hash;
+    }
+}
@@ -22,6 +22,7 @@ package org.apache.cxf.attachment;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
+import java.util.Arrays;
 
 public class MimeBodyPartInputStream extends InputStream {
 
@@ -33,6 +34,9 @@ public class MimeBodyPartInputStream extends InputStream {
     byte[] boundaryBuffer;
 
     private boolean closed;
+    // bytes that can precede the end of the body part: CRLF plus the boundary
+    private final int holdBack;
+    private final int[] skipTable = new int[256];
 
     public MimeBodyPartInputStream(PushbackInputStream inStreamParam, 
                                    byte[] boundaryParam,
@@ -41,6 +45,11 @@ public class MimeBodyPartInputStream extends InputStream {
         this.inStream = inStreamParam;
         this.boundary = boundaryParam;
         this.pbAmount = pbsize;
+        this.holdBack = boundaryParam.length + 2;
+        Arrays.fill(skipTable, boundaryParam.length);
+        for (int i = 0; i < boundaryParam.length - 1; i++) {
+            skipTable[boundaryParam[i] & 0xFF] = boundaryParam.length - 1 - i;
+        }
     }
 
     public int read(byte buf[], int origOff, int origLen) throws IOException {
@@ -58,12 +67,21 @@ public class MimeBodyPartInputStream extends InputStream {
         if (len == 0) {
             return 0;
         }
+        if (pbAmount < holdBack * 2) {
+            //can't push back enough to scan blocks, go byte by byte
+            int value = read();
+            if (value == -1) {
+                return -1;
+            }
+            buf[origOff] = (byte)value;
+            return 1;
+        }
         boolean bufferCreated = false;
-        if (len < boundary.length * 2) {
+        if (len < holdBack * 2) {
             //buffer is too short to detect boundaries with it.  We'll need to create a larger buffer   
             bufferCreated = true;
             if (boundaryBuffer == null) {
-                boundaryBuffer = new byte[boundary.length * 2];
+                boundaryBuffer = new byte[holdBack * 2];
             }
             b = boundaryBuffer;
             off = 0;
@@ -74,7 +92,7 @@ public class MimeBodyPartInputStream extends InputStream {
         }
         int read = 0;
         int idx = 0;
-        while (read >= 0 && idx < len && idx < (boundary.length * 2)) {
+        while (read >= 0 && idx < len && idx < (holdBack * 2)) {
             //make sure we read enough to detect the boundary
             read = inStream.read(b, off + idx, len - idx);
             if (read != -1) {
@@ -84,124 +102,76 @@ public class MimeBodyPartInputStream extends InputStream {
         if (read == -1 && idx == 0) {
             return -1;
         }
-        len = idx;
-        
-        int i = processBuffer(b, off, len);
-        if (bufferCreated && i > 0) {
-            // read more than we need, push it back
-            if (origLen >= i) {
-                System.arraycopy(b, 0, buf, origOff, i);
-            } else {
-                System.arraycopy(b, 0, buf, origOff, origLen);
-                inStream.unread(b, origLen, i - origLen);
-                i = origLen;
-            }
-        } else if (i == 0 && boundaryFound) {
-            return -1;
+        int end = off + idx;
+        int match = indexOfBoundary(b, off, end);
+        int count;
+        if (match == -1) {
+            // the tail may hold the start of a boundary (and the CRLF before it),
+            // keep it back for the next read unless the stream has ended
+            count = read == -1 ? idx : idx - holdBack;
+        } else if (match - off >= 2 && b[match - 2] == 13 && b[match - 1] == 10) {
+            count = match - 2 - off;
+        } else {
+            count = match - off;
         }
-        
-        return i;
-    }
-
-    //Has Data after encountering CRLF
-    private boolean hasData(byte[] b, int initialPointer, int pointer, int off, int len)
-        throws IOException {
-        if (pointer < (off + len)) {
-            return true;
-        } else if (pointer >= 1000000000) {
-            inStream.unread(b, initialPointer, (off + len) - initialPointer);
-            return false;            
+        if (count > origLen) {
+            // only for our own buffer: hand out what fits, the rest is scanned again
+            System.arraycopy(b, off, buf, origOff, origLen);
+            inStream.unread(b, off + origLen, end - off - origLen);
+            return origLen;
+        }
+        if (match == -1) {
+            if (off + count < end) {
+                inStream.unread(b, off + count, end - off - count);
+            }
         } else {
-            int x = inStream.read();
-            if (x != -1) {
-                inStream.unread(x);
-                inStream.unread(b, initialPointer, (off + len) - initialPointer);
-                return false;
+            boundaryFound = true;
+            int afterBoundary = match + boundary.length;
+            if (afterBoundary < end) {
+                inStream.unread(b, afterBoundary, end - afterBoundary);
             }
-            return true;
+            readBoundaryLineEnd();
+        }
+        if (count == 0) {
+            return -1;
         }
+        if (bufferCreated) {
+            System.arraycopy(b, off, buf, origOff, count);
+        }
+        return count;
     }
 
-    protected int processBuffer(byte[] buffer, int off, int len) throws IOException {
-        for (int i = off; i < (off + len); i++) {
-            boolean needUnread0d0a = false;
-            int value = buffer[i];
-            int initialI = i;
-            if (value == 13) {
-                if (!hasData(buffer, initialI, initialI + 1, off, len)) {
-                    return initialI - off;
-                }
-                value = buffer[initialI + 1];
-                if (value != 10) {
-                    continue;
-                } else {  //if it comes here then 13, 10 are values and will try to match boundaries
-                    if (!hasData(buffer, initialI, initialI + 2, off, len)) {
-                        return initialI - off;
-                    }
-                    value = buffer[initialI + 2];
-                    if ((byte) value != boundary[0]) {
-                        i++;
-                        continue;
-                    } else { //13, 10, boundaries first value matched
-                        needUnread0d0a = true;
-                        i += 2; //i after this points to boundary[0] element
-                    }
-                }
-            } else if (value != boundary[0]) {
-                continue;
-            }
-
-            int boundaryIndex = 0;
-            while ((boundaryIndex < boundary.length) && (value == boundary[boundaryIndex])) {
-                if (!hasData(buffer, initialI, i + 1, off, len)) {
-                    return initialI - off;
-                }                
-                value = buffer[++i];
-                boundaryIndex++;
-            }
-            if (boundaryIndex == boundary.length) {
-                // read the end of line character
-                if (initialI != off) {
-                    i = 1000000000;
-                }
-                if (initialI - off != 0 
-                    && !hasData(buffer, initialI, i + 1, off, len)) {
-                    return initialI - off;
+    /**
+     * Boyer-Moore-Horspool search for the boundary in b[from, to).
+     */
+    private int indexOfBoundary(byte[] b, int from, int to) {
+        int last = boundary.length - 1;
+        int pos = from;
+        while (pos + last < to) {
+            byte c = b[pos + last];
+            if (c == boundary[last]) {
+                int j = last - 1;
+                while (j >= 0 && b[pos + j] == boundary[j]) {
+                    j--;
                 }
-                boundaryFound = true;
-                int j = i + 1;
-                if (j < len && buffer[j] == 45 && value == 45) {
-                    // Last mime boundary should have a succeeding "--"
-                    // as we are on it, read the terminating CRLF
-                    i += 2;
-                    //last mime boundary
+                if (j < 0) {
+                    return pos;
                 }
-
-                //boundary matched (may or may not be last mime boundary)
-                int processed = initialI - off;
-                if ((len - ((i - off) + 2)) > 0) {
-                    inStream.unread(buffer, i + 2, len - (i + 2) + off);
-                }
-                return processed;
             }
+            pos += skipTable[c & 0xFF];
+        }
+        return -1;
+    }
 
-            // Boundary not found. Restoring bytes skipped.
-            // write first skipped byte, push back the rest
-            if (value != -1) { //pushing back first byte of boundary
-                // Stream might have ended
-                i--;
-            }
-            if (needUnread0d0a) { //Pushing all,  returning 13
-                i = i - boundaryIndex;
-                i--; //for 10
-                value = 13;
-            } else {
-                i = i - boundaryIndex;
-                i++;
-                value = boundary[0];
-            }
+    private void readBoundaryLineEnd() throws IOException {
+        int first = inStream.read();
+        int second = inStream.read();
+        if (first == 45 && second == 45) {
+            // Last mime boundary should have a succeeding "--"
+            // as we are on it, read the terminating CRLF
+            inStream.read();
+            inStream.read();
         }
-        return len;
     }
 
     public int read() throws IOException {
@@ -42,6 +42,7 @@ import org.apache.cxf.configuration.NullConfigurer;
 import org.apache.cxf.feature.Feature;
 import org.apache.cxf.feature.LoggingFeature;
 import org.apache.cxf.interceptor.AbstractBasicInterceptorProvider;
+import org.apache.cxf.message.ContextualPropertyCache;
 import org.apache.cxf.resource.DefaultResourceManager;
 import org.apache.cxf.resource.ObjectTypeResolver;
 import org.apache.cxf.resource.PropertiesResolver;
@@ -90,7 +91,7 @@ public class ExtensionManagerBus extends AbstractBasicInterceptorProvider implem
     protected String id;
     private BusState state;      
     private final Collection<Feature> features = new CopyOnWriteArrayList<Feature>();
-    private final Map<String, Object> properties = new ConcurrentHashMap<String, Object>(16, 0.75f, 4);
+    private final Map<String, Object> properties = new ContextualPropertyCache.TrackingMap(16, 0.75f, 4);
     
     
     private final ExtensionManagerImpl extensionManager;
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.bus.managers;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.io.DirectBufferPool;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedResource;
+
+@ManagedResource(componentName = "DirectBufferPool", 
+                 description = "The pool of direct buffers used by CachedOutputStream", 
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+public class DirectBufferPoolMBeanWrapper implements ManagedComponent {
+    private static final String TYPE_VALUE = "DirectBufferPool";
+    
+    private final DirectBufferPool pool;
+    private final Bus bus;
+    
+    public DirectBufferPoolMBeanWrapper(DirectBufferPool pool, Bus bus) {
+        this.pool = pool;
+        this.bus = bus;
+    }
+    
+    @ManagedAttribute(description = "The size of a slab in bytes")
+    public int getSlabSize() {
+        return pool.getSlabSize();
+    }
+    
+    @ManagedAttribute(description = "The maximum number of idle slabs kept in the pool")
+    public int getMaxPooledSlabs() {
+        return pool.getMaxPooledSlabs();
+    }
+    
+    @ManagedAttribute(description = "The number of idle slabs in the pool")
+    public int getIdleSlabs() {
+        return pool.getIdleSlabs();
+    }
+    
+    @ManagedAttribute(description = "The number of slabs handed out and not given back")
+    public int getInUseSlabs() {
+        return pool.getInUseSlabs();
+    }
+    
+    @ManagedAttribute(description = "The number of slabs allocated")
+    public long getAllocatedSlabs() {
+        return pool.getAllocatedSlabs();
+    }
+    
+    @ManagedAttribute(description = "The number of slab requests")
+    public long getAcquiredSlabs() {
+        return pool.getAcquiredSlabs();
+    }
+    
+    @ManagedAttribute(description = "The number of slab requests served from the pool")
+    public long getReusedSlabs() {
+        return pool.getReusedSlabs();
+    }
+    
+    @ManagedAttribute(description = "The number of slabs dropped because the pool was full")
+    public long getDiscardedSlabs() {
+        return pool.getDiscardedSlabs();
+    }
+    
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(bus.getId()).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(pool.hashCode());
+        return new ObjectName(buffer.toString());
+    }
+}
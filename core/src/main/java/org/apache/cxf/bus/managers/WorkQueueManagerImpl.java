@@ -37,6 +37,7 @@ import org.apache.cxf.configuration.ConfiguredBeanLocator;
 import org.apache.cxf.management.InstrumentationManager;
 import org.apache.cxf.workqueue.AutomaticWorkQueue;
 import org.apache.cxf.workqueue.AutomaticWorkQueueImpl;
+import org.apache.cxf.workqueue.ExecutorWorkQueueImpl;
 import org.apache.cxf.workqueue.WorkQueueManager;
 
 @NoJSR250Annotations(unlessNull = "bus")
@@ -51,6 +52,7 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
     boolean inShutdown;
     InstrumentationManager imanager;
     Bus bus;  
+    String executorMode;
     
     public WorkQueueManagerImpl() {
         
@@ -63,6 +65,19 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
         return bus;
     }
     
+    /**
+     * Sets the executor mode of the default work queue if one has to be created.  
+     * Null (the default) uses an {@link AutomaticWorkQueueImpl}, otherwise one of the 
+     * {@link ExecutorWorkQueueImpl} modes.  Can also be set with the 
+     * {@link ExecutorWorkQueueImpl#EXECUTOR_MODE_PROPERTY} bus property.
+     */
+    public void setExecutorMode(String mode) {
+        executorMode = mode;
+    }
+    public String getExecutorMode() {
+        return executorMode;
+    }
+    
     @Resource
     public final void setBus(Bus bus) {        
         this.bus = bus;
@@ -190,11 +205,23 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
                     LOG.log(Level.WARNING , jmex.getMessage(), jmex);
                 }
             }
+        } else if (q instanceof ExecutorWorkQueueImpl && imanager != null) {
+            try {
+                imanager.register(new ExecutorWorkQueueImplMBeanWrapper((ExecutorWorkQueueImpl)q, this));
+            } catch (JMException jmex) {
+                LOG.log(Level.WARNING , jmex.getMessage(), jmex);
+            }
         }
     }
     
     private AutomaticWorkQueue createAutomaticWorkQueue() {        
-        AutomaticWorkQueue q = new AutomaticWorkQueueImpl("default");
+        String mode = executorMode;
+        if (mode == null && bus != null) {
+            Object o = bus.getProperty(ExecutorWorkQueueImpl.EXECUTOR_MODE_PROPERTY);
+            mode = o == null ? null : o.toString();
+        }
+        AutomaticWorkQueue q = mode == null 
+            ? new AutomaticWorkQueueImpl("default") : new ExecutorWorkQueueImpl("default", mode);
         addNamedWorkQueue("default", q);
         return q;
     }
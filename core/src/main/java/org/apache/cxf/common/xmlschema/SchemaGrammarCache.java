@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.common.xmlschema;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.common.util.crypto.MessageDigestUtils;
+
+/**
+ * Bus wide cache of compiled schema grammars (javax.xml.validation.Schema, Woodstox
+ * XMLValidationSchema, ...), keyed by a digest of the schema documents they were compiled from.
+ * Endpoints deployed with identical schema sets share one compiled grammar instead of each
+ * compiling and holding their own copy.
+ */
+public final class SchemaGrammarCache {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ConcurrentMap<String, Object> grammars = new ConcurrentHashMap<String, Object>();
+
+    public SchemaGrammarCache() {
+    }
+
+    public static SchemaGrammarCache getInstance(Bus bus) {
+        if (bus == null) {
+            return null;
+        }
+        SchemaGrammarCache cache = bus.getExtension(SchemaGrammarCache.class);
+        if (cache == null) {
+            synchronized (bus) {
+                cache = bus.getExtension(SchemaGrammarCache.class);
+                if (cache == null) {
+                    cache = new SchemaGrammarCache();
+                    bus.setExtension(cache, SchemaGrammarCache.class);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Computes the cache key of a schema set.
+     * @param kind distinguishes the grammar types compiled from the same documents
+     * @param sources the serialized schema documents keyed by their system id (and namespace),
+     *                the iteration order of the map does not matter
+     */
+    public static String createKey(String kind, Map<String, byte[]> sources) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(MessageDigestUtils.ALGO_SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new SecurityException(e);
+        }
+        for (Map.Entry<String, byte[]> entry : new TreeMap<String, byte[]>(sources).entrySet()) {
+            md.update(entry.getKey().getBytes(UTF8));
+            md.update((byte)0);
+            md.update(entry.getValue());
+            md.update((byte)0);
+        }
+        return kind + ":" + StringUtils.toHexString(md.digest());
+    }
+
+    public <T> T get(String key, Class<T> type) {
+        Object grammar = grammars.get(key);
+        return type.isInstance(grammar) ? type.cast(grammar) : null;
+    }
+
+    /**
+     * Adds a compiled grammar unless another thread got there first.
+     * @return the grammar now held by the cache for the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T put(String key, T grammar) {
+        Object existing = grammars.putIfAbsent(key, grammar);
+        return existing == null ? grammar : (T)existing;
+    }
+
+    public int size() {
+        return grammars.size();
+    }
+
+    public void clear() {
+        grammars.clear();
+    }
+}
@@ -46,6 +46,7 @@ import org.apache.cxf.interceptor.ClientFaultConverter;
 import org.apache.cxf.interceptor.InFaultChainInitiatorObserver;
 import org.apache.cxf.interceptor.MessageSenderInterceptor;
 import org.apache.cxf.interceptor.OutFaultChainInitiatorObserver;
+import org.apache.cxf.message.ContextualPropertyCache;
 import org.apache.cxf.service.Service;
 import org.apache.cxf.service.model.BindingInfo;
 import org.apache.cxf.service.model.EndpointInfo;
@@ -66,6 +67,7 @@ public class EndpointImpl extends AbstractAttributedInterceptorProvider implemen
     private MessageObserver outFaultObserver;
     private List<Feature> activeFeatures;
     private List<Closeable> cleanupHooks;
+    private transient volatile ContextualPropertyCache contextualPropertyCache;
 
     public EndpointImpl(Bus bus, Service s, QName endpointName) throws EndpointException {
         this(bus, s, s.getEndpointInfo(endpointName));
@@ -106,6 +108,22 @@ public class EndpointImpl extends AbstractAttributedInterceptorProvider implemen
     public Service getService() {
         return service;
     }
+    
+    /**
+     * Returns the cache of the property values the messages exchanged with 
+     * this endpoint inherit from it, its model, the service and the bus
+     * @param s the service of the exchange
+     * @param b the bus of the exchange
+     * @return the cache or null if the properties can not be cached
+     */
+    public ContextualPropertyCache getContextualPropertyCache(Service s, Bus b) {
+        ContextualPropertyCache cache = contextualPropertyCache;
+        if (cache == null || !cache.isValid(s, b)) {
+            cache = ContextualPropertyCache.create(this, s, b);
+            contextualPropertyCache = cache;
+        }
+        return cache;
+    }
 
     public Binding getBinding() {
         return binding;
@@ -27,6 +27,7 @@ import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.feature.AbstractFeature;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.ws.addressing.EndpointReferenceUtils;
 
 /**
  * A feature to configure schema validation at the operation level, as an alternative to
@@ -40,19 +41,26 @@ public class SchemaValidationFeature extends AbstractFeature {
     }
     
     public void initialize(Server server, Bus bus) {
-        initialise(server.getEndpoint());
+        initialise(server.getEndpoint(), bus);
     }
     
     public void initialize(Client client, Bus bus) {
-        initialise(client.getEndpoint());
+        initialise(client.getEndpoint(), bus);
     }
     
-    private void initialise(Endpoint endpoint) {
+    private void initialise(Endpoint endpoint, Bus bus) {
+        boolean validating = false;
         for (BindingOperationInfo bop : endpoint.getEndpointInfo().getBinding().getOperations()) {
             SchemaValidationType type = provider.getSchemaValidationType(bop.getOperationInfo());
             if (type != null) {
                 bop.getOperationInfo().setProperty(Message.SCHEMA_VALIDATION_TYPE, type);
+                validating |= type != SchemaValidationType.NONE;
             }
         }
+        if (validating) {
+            // compile the schemas now rather than on the first message; endpoints with the
+            // same schemas pick the compiled Schema up from the bus SchemaGrammarCache
+            EndpointReferenceUtils.getSchema(endpoint.getService().getServiceInfos().get(0), bus);
+        }
     }
 }
@@ -20,9 +20,11 @@
 package org.apache.cxf.interceptor;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.cxf.common.util.ModCountCopyOnWriteArrayList;
+import org.apache.cxf.message.ContextualPropertyCache;
 import org.apache.cxf.message.Message;
 
 public abstract class AbstractAttributedInterceptorProvider extends ConcurrentHashMap<String, Object>
@@ -39,11 +41,51 @@ public abstract class AbstractAttributedInterceptorProvider extends ConcurrentHa
         = new ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>();
 
     
+    // the properties are inherited by the messages, see ContextualPropertyCache
     public Object put(String s, Object o) {
-        if (o == null) {
-            return super.remove(s);
-        }
-        return super.put(s, o);
+        Object old = o == null ? super.remove(s) : super.put(s, o);
+        ContextualPropertyCache.invalidateAll();
+        return old;
+    }
+    
+    public Object putIfAbsent(String s, Object o) {
+        Object old = super.putIfAbsent(s, o);
+        ContextualPropertyCache.invalidateAll();
+        return old;
+    }
+    
+    public void putAll(Map<? extends String, ? extends Object> m) {
+        super.putAll(m);
+        ContextualPropertyCache.invalidateAll();
+    }
+    
+    public Object remove(Object s) {
+        Object old = super.remove(s);
+        ContextualPropertyCache.invalidateAll();
+        return old;
+    }
+    
+    public boolean remove(Object s, Object o) {
+        boolean removed = super.remove(s, o);
+        ContextualPropertyCache.invalidateAll();
+        return removed;
+    }
+    
+    public Object replace(String s, Object o) {
+        Object old = super.replace(s, o);
+        ContextualPropertyCache.invalidateAll();
+        return old;
+    }
+    
+    public boolean replace(String s, Object oldValue, Object newValue) {
+        boolean replaced = super.replace(s, oldValue, newValue);
+        ContextualPropertyCache.invalidateAll();
+        return replaced;
+    }
+    
+    public void clear() {
+        super.clear();
+        ContextualPropertyCache.invalidateAll();
     }
     
     public List<Interceptor<? extends Message>> getOutFaultInterceptors() {
@@ -31,6 +31,7 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.staxutils.transform.TransformPlan;
 import org.apache.cxf.staxutils.transform.TransformUtils;
 
 
@@ -44,6 +45,7 @@ public class TransformInInterceptor extends AbstractPhaseInterceptor<Message> {
     private Map<String, String> inAppendMap;
     private boolean blockOriginalReader = true;
     private String contextPropertyName;
+    private volatile TransformPlan transformPlan;
     
     public TransformInInterceptor() {
         this(Phase.POST_STREAM);
@@ -85,22 +87,37 @@ public class TransformInInterceptor extends AbstractPhaseInterceptor<Message> {
     
     protected XMLStreamReader createTransformReaderIfNeeded(XMLStreamReader reader, InputStream is) {
         return TransformUtils.createTransformReaderIfNeeded(reader, is,
-                                                            inDropElements,
-                                                            inElementsMap,
-                                                            inAppendMap,
+                                                            getTransformPlan(),
                                                             blockOriginalReader);
     }
     
+    /**
+     * Returns the rules compiled from the current configuration, or null if
+     * no transformation is configured. The plan is built on first use and shared
+     * by all the messages until the configuration changes.
+     */
+    protected TransformPlan getTransformPlan() {
+        TransformPlan plan = transformPlan;
+        if (plan == null && (inElementsMap != null || inAppendMap != null || inDropElements != null)) {
+            plan = new TransformPlan(inElementsMap, inAppendMap, inDropElements, null);
+            transformPlan = plan;
+        }
+        return plan;
+    }
+    
     public void setInAppendElements(Map<String, String> inElements) {
         this.inAppendMap = inElements;
+        transformPlan = null;
     }
     
     public void setInDropElements(List<String> dropElementsSet) {
         this.inDropElements = dropElementsSet;
+        transformPlan = null;
     }
     
     public void setInTransformElements(Map<String, String> inElements) {
         this.inElementsMap = inElements;
+        transformPlan = null;
     }
    
     public void setBlockOriginalReader(boolean blockOriginalReader) {
@@ -34,6 +34,7 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.staxutils.transform.TransformPlan;
 import org.apache.cxf.staxutils.transform.TransformUtils;
 
 
@@ -54,6 +55,7 @@ public class TransformOutInterceptor extends AbstractPhaseInterceptor<Message> {
     private boolean skipOnFault;
     private String contextPropertyName;
     private String defaultNamespace;
+    private volatile TransformPlan transformPlan;
     
     public TransformOutInterceptor() {
         this(Phase.PRE_STREAM);
@@ -109,23 +111,38 @@ public class TransformOutInterceptor extends AbstractPhaseInterceptor<Message> {
    
     protected XMLStreamWriter createTransformWriterIfNeeded(XMLStreamWriter writer, OutputStream os) {
         return TransformUtils.createTransformWriterIfNeeded(writer, os, 
-                                                      outElementsMap,
-                                                      outDropElements,
-                                                      outAppendMap,
+                                                      getTransformPlan(),
                                                       attributesToElements,
                                                       defaultNamespace);
     }
     
+    /**
+     * Returns the rules compiled from the current configuration, or null if
+     * no transformation is configured. The plan is built on first use and shared
+     * by all the messages until the configuration changes.
+     */
+    protected TransformPlan getTransformPlan() {
+        TransformPlan plan = transformPlan;
+        if (plan == null && (outElementsMap != null || outAppendMap != null || outDropElements != null)) {
+            plan = new TransformPlan(outElementsMap, outAppendMap, outDropElements, null);
+            transformPlan = plan;
+        }
+        return plan;
+    }
+    
     public void setOutTransformElements(Map<String, String> outElements) {
         this.outElementsMap = outElements;
+        transformPlan = null;
     }
     
     public void setOutAppendElements(Map<String, String> map) {
         this.outAppendMap = map;
+        transformPlan = null;
     }
 
     public void setOutDropElements(List<String> dropElementsSet) {
         this.outDropElements = dropElementsSet;
+        transformPlan = null;
     }
 
     public void setAttributesToElements(boolean value) {
@@ -30,7 +30,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -51,6 +57,7 @@ public class CachedOutputStream extends OutputStream {
     private static int defaultThreshold;
     private static long defaultMaxSize;
     private static String defaultCipherTransformation;
+    private static boolean defaultPooledBuffers;
     static {
         
         String s = SystemPropertyAction.getPropertyOrNull("org.apache.cxf.io.CachedOutputStream.OutputDirectory");
@@ -68,6 +75,7 @@ public class CachedOutputStream extends OutputStream {
         setDefaultThreshold(-1);
         setDefaultMaxSize(-1);
         setDefaultCipherTransformation(null);
+        setDefaultPooledBuffers(null);
     }
 
     protected boolean outputLocked;
@@ -86,6 +94,7 @@ public class CachedOutputStream extends OutputStream {
     private boolean allowDeleteOfFile = true;
     private String cipherTransformation = defaultCipherTransformation;
     private CipherPair ciphers;
+    private boolean pooledBuffers = defaultPooledBuffers;
 
     private List<CachedOutputStreamCallback> callbacks;
     
@@ -97,9 +106,9 @@ public class CachedOutputStream extends OutputStream {
 
     public CachedOutputStream(long threshold) {
         this.threshold = threshold; 
-        currentStream = new LoadingByteArrayOutputStream(2048);
-        inmem = true;
         readBusProperties();
+        currentStream = createMemoryStream(2048);
+        inmem = true;
     }
 
     private void readBusProperties() {
@@ -117,6 +126,10 @@ public class CachedOutputStream extends OutputStream {
             if (v != null) {
                 cipherTransformation = v;
             }
+            v = getBusProperty(b, "bus.io.CachedOutputStream.PooledBuffers", null);
+            if (v != null) {
+                pooledBuffers = Boolean.parseBoolean(v);
+            }
         }
     }
 
@@ -211,6 +224,10 @@ public class CachedOutputStream extends OutputStream {
         }
         doClose();
         currentStream.close();
+        if (currentStream instanceof DirectBufferOutputStream && allowDeleteOfFile) {
+            // like the temp file, the slabs go back to the pool once the open input streams are closed
+            ((DirectBufferOutputStream)currentStream).release();
+        }
         maybeDeleteTempFile(currentStream);
         postClose();
     }
@@ -252,6 +269,9 @@ public class CachedOutputStream extends OutputStream {
                     if (copyOldContent && byteOut.size() > 0) {
                         byteOut.writeTo(out);
                     }
+                    if (byteOut instanceof DirectBufferOutputStream) {
+                        ((DirectBufferOutputStream)byteOut).release();
+                    }
                 } else {
                     throw new IOException("Unknown format of currentStream");
                 }
@@ -465,6 +485,9 @@ public class CachedOutputStream extends OutputStream {
             bout.writeTo(currentStream);
             inmem = false;
             streamList.add(currentStream);
+            if (bout instanceof DirectBufferOutputStream) {
+                ((DirectBufferOutputStream)bout).release();
+            }
         } catch (Exception ex) {
             //Could be IOException or SecurityException or other issues.
             //Don't care what, just keep it in memory.
@@ -485,7 +508,9 @@ public class CachedOutputStream extends OutputStream {
     public InputStream getInputStream() throws IOException {
         flush();
         if (inmem) {
-            if (currentStream instanceof LoadingByteArrayOutputStream) {
+            if (currentStream instanceof DirectBufferOutputStream) {
+                return ((DirectBufferOutputStream)currentStream).createInputStream();
+            } else if (currentStream instanceof LoadingByteArrayOutputStream) {
                 return ((LoadingByteArrayOutputStream) currentStream).createInputStream();
             } else if (currentStream instanceof ByteArrayOutputStream) {
                 return new ByteArrayInputStream(((ByteArrayOutputStream) currentStream).toByteArray());
@@ -494,6 +519,11 @@ public class CachedOutputStream extends OutputStream {
             }
         } else {
             try {
+                if (pooledBuffers && cipherTransformation == null) {
+                    InputStream mappedInputStream = new MappedFileInputStream(tempFile);
+                    streamList.add(mappedInputStream);
+                    return mappedInputStream;
+                }
                 InputStream fileInputStream = new TransferableFileInputStream(tempFile);
                 streamList.add(fileInputStream);
                 if (cipherTransformation != null) {
@@ -534,7 +564,7 @@ public class CachedOutputStream extends OutputStream {
                 }
             }
             deleteTempFile();
-            currentStream = new LoadingByteArrayOutputStream(1024);
+            currentStream = createMemoryStream(1024);
             inmem = true;
         }
     }
@@ -558,6 +588,29 @@ public class CachedOutputStream extends OutputStream {
         this.cipherTransformation = cipherTransformation;
     }
     
+    /**
+     * Keeps the in memory content in pooled direct buffers (see
+     * {@link DirectBufferPool}) instead of a byte[] on the heap and reads
+     * a spilled temporary file through a memory mapping.  Only takes effect
+     * for the buffer created after the next reset or while nothing was 
+     * written yet.  As with a temporary file, the content is released once
+     * the stream is closed and the input streams obtained before are closed,
+     * unless {@link #holdTempFile()} was called.
+     */
+    public void setPooledBuffers(boolean pooled) {
+        if (pooled != pooledBuffers && inmem && totalLength == 0 
+            && currentStream instanceof ByteArrayOutputStream) {
+            pooledBuffers = pooled;
+            currentStream = createMemoryStream(2048);
+        } else {
+            pooledBuffers = pooled;
+        }
+    }
+    
+    public boolean isPooledBuffers() {
+        return pooledBuffers;
+    }
+    
     public static void setDefaultMaxSize(long l) {
         if (l == -1) {
             String s = System.getProperty("org.apache.cxf.io.CachedOutputStream.MaxSize",
@@ -578,6 +631,16 @@ public class CachedOutputStream extends OutputStream {
         defaultThreshold = i;
         
     }
+    public static boolean isDefaultPooledBuffers() {
+        return defaultPooledBuffers;
+    }
+    public static void setDefaultPooledBuffers(Boolean b) {
+        if (b == null) {
+            b = Boolean.valueOf(SystemPropertyAction.getProperty(
+                "org.apache.cxf.io.CachedOutputStream.PooledBuffers", "false"));
+        }
+        defaultPooledBuffers = b;
+    }
     public static void setDefaultCipherTransformation(String n) {
         if (n == null) {
             n = SystemPropertyAction.getPropertyOrNull("org.apache.cxf.io.CachedOutputStream.CipherTransformation");
@@ -585,6 +648,13 @@ public class CachedOutputStream extends OutputStream {
         defaultCipherTransformation = n;
     }
 
+    private ByteArrayOutputStream createMemoryStream(int size) {
+        if (pooledBuffers) {
+            return new DirectBufferOutputStream();
+        }
+        return new LoadingByteArrayOutputStream(size);
+    }
+
     private OutputStream createOutputStream(File file) throws IOException {
         OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
         if (cipherTransformation != null) {
@@ -657,4 +727,122 @@ public class CachedOutputStream extends OutputStream {
             }
         }
     }
+
+    /**
+     * Reads the temporary file through memory mapped regions so the content
+     * is not copied through an intermediate heap buffer.
+     */
+    private class MappedFileInputStream extends InputStream implements Transferable {
+        private static final long REGION_SIZE = 64L * 1024 * 1024;
+        
+        private final File sourceFile;
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final long length;
+        private long regionEnd;
+        private MappedByteBuffer region;
+        private boolean closed;
+        
+        MappedFileInputStream(File sourceFile) throws IOException {
+            this.sourceFile = sourceFile;
+            file = new RandomAccessFile(sourceFile, "r");
+            channel = file.getChannel();
+            length = channel.size();
+        }
+        
+        private MappedByteBuffer currentRegion() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if ((region == null || !region.hasRemaining()) && regionEnd < length) {
+                if (region != null) {
+                    unmap(region);
+                }
+                long size = Math.min(REGION_SIZE, length - regionEnd);
+                region = channel.map(FileChannel.MapMode.READ_ONLY, regionEnd, size);
+                regionEnd += size;
+            }
+            return region != null && region.hasRemaining() ? region : null;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            MappedByteBuffer buf = currentRegion();
+            return buf == null ? -1 : buf.get() & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            MappedByteBuffer buf = currentRegion();
+            if (buf == null) {
+                return -1;
+            }
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            long available = length - regionEnd + (region == null ? 0 : region.remaining());
+            return (int)Math.min(Integer.MAX_VALUE, available);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                if (region != null) {
+                    // the mapping keeps the file open, unmap it before the file gets deleted
+                    unmap(region);
+                    region = null;
+                }
+                file.close();
+                maybeDeleteTempFile(this);
+            }
+        }
+        
+        @Override
+        public void transferTo(File destinationFile) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (!sourceFile.renameTo(destinationFile)) {
+                try (FileOutputStream fout = new FileOutputStream(destinationFile)) {
+                    IOUtils.copyAndCloseInput(this, fout);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unmaps the buffer right away rather than when it is garbage collected,
+     * which on some platforms keeps the file from being deleted.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe, buffer);
+            return;
+        } catch (Throwable t) {
+            // fall through
+        }
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Throwable t) {
+            // leave it to the garbage collector
+        }
+    }
 }
@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ByteArrayOutputStream that keeps its content in direct buffer slabs
+ * taken from a {@link DirectBufferPool} rather than in a growing byte[] on
+ * the heap.  It extends ByteArrayOutputStream so it can be used anywhere an
+ * in memory CachedOutputStream buffer is expected.
+ * <p>
+ * {@link #createInputStream()} reads the slabs in place, without copying the
+ * content.  The slabs are shared by this stream and the input streams created
+ * from it and only go back to the pool once all of them are done with them: 
+ * after {@link #release()} or {@link #reset()} was called and the last input
+ * stream reading them is closed.  {@link #reset()} continues with new slabs, 
+ * {@link #release()} keeps the content readable until the slabs are returned.
+ */
+public class DirectBufferOutputStream extends ByteArrayOutputStream {
+    private final DirectBufferPool pool;
+    private SlabGroup group = new SlabGroup();
+    private boolean released;
+    private int openInputs;
+    
+    public DirectBufferOutputStream() {
+        this(DirectBufferPool.getDefaultPool());
+    }
+    
+    public DirectBufferOutputStream(DirectBufferPool pool) {
+        super(0);
+        this.pool = pool;
+    }
+    
+    @Override
+    public synchronized void write(int b) {
+        SlabGroup g = writableGroup();
+        if (g.current == null || !g.current.hasRemaining()) {
+            nextSlab(g);
+        }
+        g.current.put((byte)b);
+        g.size++;
+    }
+    
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        SlabGroup g = writableGroup();
+        while (len > 0) {
+            if (g.current == null || !g.current.hasRemaining()) {
+                nextSlab(g);
+            }
+            int n = Math.min(len, g.current.remaining());
+            g.current.put(b, off, n);
+            off += n;
+            len -= n;
+            g.size += n;
+        }
+    }
+    
+    private SlabGroup writableGroup() {
+        if (released) {
+            // the released slabs may still be read, new content goes to new slabs
+            group = new SlabGroup();
+            released = false;
+        }
+        return group;
+    }
+    
+    private void nextSlab(SlabGroup g) {
+        g.current = pool.acquire();
+        g.slabs.add(g.current);
+    }
+    
+    @Override
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        byte[] chunk = new byte[Math.min(group.size, 8192)];
+        for (ByteBuffer slab : group.slabs) {
+            ByteBuffer view = readView(slab);
+            while (view.hasRemaining()) {
+                int n = Math.min(chunk.length, view.remaining());
+                view.get(chunk, 0, n);
+                out.write(chunk, 0, n);
+            }
+        }
+    }
+    
+    /**
+     * Writes the content to the file channel directly from the slabs.
+     */
+    public synchronized void writeTo(FileChannel channel) throws IOException {
+        for (ByteBuffer slab : group.slabs) {
+            ByteBuffer view = readView(slab);
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+    }
+    
+    @Override
+    public synchronized byte[] toByteArray() {
+        byte[] bytes = new byte[group.size];
+        int pos = 0;
+        for (ByteBuffer slab : group.slabs) {
+            ByteBuffer view = readView(slab);
+            int n = view.remaining();
+            view.get(bytes, pos, n);
+            pos += n;
+        }
+        return bytes;
+    }
+    
+    @Override
+    public synchronized int size() {
+        return group.size;
+    }
+    
+    /**
+     * Discards the content, the slabs go back to the pool once the input
+     * streams still reading them are closed.
+     */
+    @Override
+    public synchronized void reset() {
+        release();
+        group = new SlabGroup();
+        released = false;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return new String(toByteArray());
+    }
+    
+    @Override
+    public synchronized String toString(String charsetName) throws UnsupportedEncodingException {
+        return new String(toByteArray(), charsetName);
+    }
+    
+    public synchronized String toString(Charset charset) {
+        return new String(toByteArray(), charset);
+    }
+    
+    /**
+     * Creates a stream that reads the current content straight from the slabs.
+     */
+    public synchronized InputStream createInputStream() {
+        List<ByteBuffer> views = new ArrayList<ByteBuffer>(group.slabs.size());
+        for (ByteBuffer slab : group.slabs) {
+            views.add(readView(slab));
+        }
+        group.refs++;
+        openInputs++;
+        return new SlabInputStream(group, views);
+    }
+    
+    /**
+     * Gives the slabs back to the pool, immediately if no input stream is
+     * reading them or else once the last one is closed.
+     */
+    public synchronized void release() {
+        if (!released) {
+            released = true;
+            unref(group);
+        }
+    }
+    
+    public synchronized boolean hasOpenInputs() {
+        return openInputs > 0;
+    }
+    
+    private synchronized void inputClosed(SlabGroup g) {
+        openInputs--;
+        unref(g);
+    }
+    
+    private void unref(SlabGroup g) {
+        if (--g.refs == 0) {
+            for (ByteBuffer slab : g.slabs) {
+                pool.release(slab);
+            }
+            g.slabs.clear();
+            g.current = null;
+            g.size = 0;
+        }
+    }
+    
+    private static ByteBuffer readView(ByteBuffer slab) {
+        ByteBuffer view = slab.duplicate();
+        view.flip();
+        return view;
+    }
+    
+    /**
+     * The slabs holding one content, referenced by the output stream until it
+     * is released or reset and by every input stream reading them.
+     */
+    private static final class SlabGroup {
+        private final List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+        private ByteBuffer current;
+        private int size;
+        private int refs = 1;
+    }
+    
+    private class SlabInputStream extends InputStream implements Transferable {
+        private final SlabGroup source;
+        private final List<ByteBuffer> views;
+        private int index;
+        private boolean closed;
+        
+        SlabInputStream(SlabGroup source, List<ByteBuffer> views) {
+            this.source = source;
+            this.views = views;
+        }
+        
+        private ByteBuffer currentView() {
+            while (index < views.size()) {
+                ByteBuffer view = views.get(index);
+                if (view.hasRemaining()) {
+                    return view;
+                }
+                index++;
+            }
+            return null;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            ByteBuffer view = currentView();
+            return view == null ? -1 : view.get() & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer view = currentView();
+            if (view == null) {
+                return -1;
+            }
+            int n = Math.min(len, view.remaining());
+            view.get(b, off, n);
+            return n;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                ByteBuffer view = currentView();
+                if (view == null) {
+                    break;
+                }
+                int s = (int)Math.min(n - skipped, view.remaining());
+                view.position(view.position() + s);
+                skipped += s;
+            }
+            return skipped;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            long available = 0;
+            for (int x = index; x < views.size(); x++) {
+                available += views.get(x).remaining();
+            }
+            return (int)Math.min(Integer.MAX_VALUE, available);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                inputClosed(source);
+            }
+        }
+        
+        @Override
+        public void transferTo(File file) throws IOException {
+            try (FileOutputStream fout = new FileOutputStream(file)) {
+                FileChannel channel = fout.getChannel();
+                for (int x = index; x < views.size(); x++) {
+                    ByteBuffer view = views.get(x);
+                    while (view.hasRemaining()) {
+                        channel.write(view);
+                    }
+                }
+            }
+            close();
+        }
+    }
+}
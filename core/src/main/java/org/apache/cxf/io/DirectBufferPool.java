@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.common.util.SystemPropertyAction;
+
+/**
+ * A pool of fixed size, direct (off heap) {@link ByteBuffer} slabs.
+ * <p>
+ * Buffers that are not given back are not leaked, they are simply garbage
+ * collected like any other direct buffer, so a consumer that can not tell
+ * for sure when it is done with a slab may just drop it.  The pool keeps
+ * at most <code>maxPooledSlabs</code> idle slabs; the default pool is
+ * configured with the <code>org.apache.cxf.io.DirectBufferPool.SlabSize</code>
+ * and <code>org.apache.cxf.io.DirectBufferPool.MaxPooledSlabs</code> system
+ * properties.
+ */
+public class DirectBufferPool {
+    public static final int DEFAULT_SLAB_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_POOLED_SLABS = 256;
+    
+    private static volatile DirectBufferPool defaultPool;
+    
+    private final int slabSize;
+    private final int maxPooledSlabs;
+    private final Queue<ByteBuffer> idle = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger inUseCount = new AtomicInteger();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    
+    public DirectBufferPool(int slabSize, int maxPooledSlabs) {
+        if (slabSize <= 0) {
+            throw new IllegalArgumentException("Slab size must be positive: " + slabSize);
+        }
+        this.slabSize = slabSize;
+        this.maxPooledSlabs = maxPooledSlabs;
+    }
+    
+    public static DirectBufferPool getDefaultPool() {
+        DirectBufferPool pool = defaultPool;
+        if (pool == null) {
+            synchronized (DirectBufferPool.class) {
+                pool = defaultPool;
+                if (pool == null) {
+                    int size = Integer.parseInt(SystemPropertyAction.getProperty(
+                        "org.apache.cxf.io.DirectBufferPool.SlabSize", 
+                        Integer.toString(DEFAULT_SLAB_SIZE)));
+                    int max = Integer.parseInt(SystemPropertyAction.getProperty(
+                        "org.apache.cxf.io.DirectBufferPool.MaxPooledSlabs", 
+                        Integer.toString(DEFAULT_MAX_POOLED_SLABS)));
+                    pool = new DirectBufferPool(size, max);
+                    defaultPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+    
+    public static void setDefaultPool(DirectBufferPool pool) {
+        defaultPool = pool;
+    }
+    
+    /**
+     * Returns a cleared slab of {@link #getSlabSize()} bytes.
+     */
+    public ByteBuffer acquire() {
+        acquired.incrementAndGet();
+        inUseCount.incrementAndGet();
+        ByteBuffer buffer = idle.poll();
+        if (buffer != null) {
+            idleCount.decrementAndGet();
+            reused.incrementAndGet();
+            buffer.clear();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return ByteBuffer.allocateDirect(slabSize);
+    }
+    
+    /**
+     * Gives a slab obtained from {@link #acquire()} back to the pool.  The
+     * caller must not use the buffer, or any view of it, afterwards.
+     */
+    public void release(ByteBuffer buffer) {
+        inUseCount.decrementAndGet();
+        if (buffer.capacity() != slabSize || !buffer.isDirect()) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxPooledSlabs) {
+            idleCount.decrementAndGet();
+            discarded.incrementAndGet();
+            return;
+        }
+        buffer.clear();
+        idle.offer(buffer);
+    }
+    
+    public int getSlabSize() {
+        return slabSize;
+    }
+    
+    public int getMaxPooledSlabs() {
+        return maxPooledSlabs;
+    }
+    
+    public int getIdleSlabs() {
+        return idleCount.get();
+    }
+    
+    public int getInUseSlabs() {
+        return inUseCount.get();
+    }
+    
+    public long getAllocatedSlabs() {
+        return allocated.get();
+    }
+    
+    public long getAcquiredSlabs() {
+        return acquired.get();
+    }
+    
+    public long getReusedSlabs() {
+        return reused.get();
+    }
+    
+    public long getDiscardedSlabs() {
+        return discarded.get();
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.message;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.interceptor.AbstractAttributedInterceptorProvider;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+
+/**
+ * Caches the contextual property values a message inherits from its endpoint,
+ * the endpoint and binding model, the service and the bus, so that resolving
+ * a property only needs to probe the message and exchange maps.
+ * <p>
+ * The endpoint, service, model and bus property maps report every change
+ * through {@link #invalidateAll()}, which makes all the caches resolve their 
+ * values again.  A cache is only created if all the layers report changes,
+ * see {@link #create(Endpoint, Service, Bus)}.
+ */
+public final class ContextualPropertyCache {
+    private static final Object NULL = new Object();
+    private static final AtomicLong VERSION = new AtomicLong();
+    
+    private final Endpoint endpoint;
+    private final Service service;
+    private final Bus bus;
+    private final long version;
+    private final ConcurrentHashMap<String, Object> values = new ConcurrentHashMap<String, Object>(16, 0.75f, 4);
+    
+    private ContextualPropertyCache(Endpoint endpoint, Service service, Bus bus, long version) {
+        this.endpoint = endpoint;
+        this.service = service;
+        this.bus = bus;
+        this.version = version;
+    }
+    
+    /**
+     * Called when a property of an endpoint, service, model or bus changes
+     */
+    public static void invalidateAll() {
+        VERSION.incrementAndGet();
+    }
+    
+    /**
+     * Creates a cache for the given layers
+     * @return the cache or null if a layer does not report its changes
+     */
+    public static ContextualPropertyCache create(Endpoint endpoint, Service service, Bus bus) {
+        // read the version first, a change made while the cache is created makes it stale
+        long version = VERSION.get();
+        if (!(endpoint instanceof AbstractAttributedInterceptorProvider)
+            || service != null && !(service instanceof AbstractAttributedInterceptorProvider)
+            || bus != null && !(bus.getProperties() instanceof TrackingMap)) {
+            return null;
+        }
+        return new ContextualPropertyCache(endpoint, service, bus, version);
+    }
+    
+    /**
+     * @return true if the cache has been created for the given layers and none of them changed since
+     */
+    public boolean isValid(Service s, Bus b) {
+        return version == VERSION.get() && service == s && bus == b;
+    }
+    
+    public Object get(String key) {
+        Object o = values.get(key);
+        if (o == null) {
+            o = resolve(endpoint, service, bus, key);
+            values.put(key, o == null ? NULL : o);
+            return o;
+        }
+        return o == NULL ? null : o;
+    }
+    
+    /**
+     * Resolves the property from the endpoint, the endpoint and binding model 
+     * properties, the service and finally the bus, in that order
+     */
+    static Object resolve(Endpoint ep, Service sv, Bus b, String key) {
+        Object o;
+        if (ep != null) {
+            o = ep.get(key);
+            if (o != null) {
+                return o;
+            }
+            EndpointInfo ei = ep.getEndpointInfo();
+            if (ei != null) {
+                o = ei.getProperty(key);
+                if (o != null) {
+                    return o;
+                }
+                BindingInfo bi = ei.getBinding();
+                if (bi != null) {
+                    o = bi.getProperty(key);
+                    if (o != null) {
+                        return o;
+                    }
+                }
+            }
+        }
+        if (sv != null) {
+            o = sv.get(key);
+            if (o != null) {
+                return o;
+            }
+        }
+        return b != null ? b.getProperty(key) : null;
+    }
+    
+    /**
+     * A property map reporting its changes to the contextual property caches.
+     * The caches are invalidated after the change so that a cache created 
+     * meanwhile does not keep the old value.  Changes made through the key, 
+     * value or entry views are not reported. 
+     */
+    public static class TrackingMap extends ConcurrentHashMap<String, Object> {
+        private static final long serialVersionUID = 2870529135573474392L;
+        
+        public TrackingMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+            super(initialCapacity, loadFactor, concurrencyLevel);
+        }
+        
+        @Override
+        public Object put(String key, Object value) {
+            Object o = super.put(key, value);
+            invalidateAll();
+            return o;
+        }
+        
+        @Override
+        public Object putIfAbsent(String key, Object value) {
+            Object o = super.putIfAbsent(key, value);
+            invalidateAll();
+            return o;
+        }
+        
+        @Override
+        public void putAll(Map<? extends String, ? extends Object> m) {
+            super.putAll(m);
+            invalidateAll();
+        }
+        
+        @Override
+        public Object remove(Object key) {
+            Object o = super.remove(key);
+            invalidateAll();
+            return o;
+        }
+        
+        @Override
+        public boolean remove(Object key, Object value) {
+            boolean removed = super.remove(key, value);
+            invalidateAll();
+            return removed;
+        }
+        
+        @Override
+        public Object replace(String key, Object value) {
+            Object o = super.replace(key, value);
+            invalidateAll();
+            return o;
+        }
+        
+        @Override
+        public boolean replace(String key, Object oldValue, Object newValue) {
+            boolean replaced = super.replace(key, oldValue, newValue);
+            invalidateAll();
+            return replaced;
+        }
+        
+        @Override
+        public void clear() {
+            super.clear();
+            invalidateAll();
+        }
+    }
+}
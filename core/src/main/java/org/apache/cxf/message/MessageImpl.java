@@ -27,6 +27,7 @@ import java.util.Set;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.EndpointImpl;
 import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.interceptor.InterceptorChain;
 import org.apache.cxf.service.Service;
@@ -45,6 +46,7 @@ public class MessageImpl extends StringMapImpl implements Message {
     private Object[] contents = new Object[20];
     private int index;
     
+    // exchange properties removed while this message is processed
     private Map<String, Object> contextCache;
     
     
@@ -163,56 +165,79 @@ public class MessageImpl extends StringMapImpl implements Message {
     public void setInterceptorChain(InterceptorChain ic) {
         this.interceptorChain = ic;
     }
-    public Object put(String key, Object value) {
-        if (contextCache != null) {
-            contextCache.put(key, value);
-        }
-        return super.put(key, value);
-    }
+    /**
+     * Resolves the property from this message, the exchange, the endpoint,
+     * the endpoint and binding model properties, the service and finally the
+     * bus, in that order.  The values inherited from the endpoint, service and
+     * bus are cached per endpoint, see {@link ContextualPropertyCache}, so
+     * only the message and exchange properties are looked up for every call.
+     */
     public Object getContextualProperty(String key) {
-        if (contextCache == null) {
-            calcContextCache();
+        Object o = get(key);
+        if (o != null || containsKey(key)) {
+            return o;
         }
-        return contextCache.get(key);
-    }
-    public Set<String> getContextualPropertyKeys() {
-        return contextCache.keySet();
+        if (contextCache != null && contextCache.containsKey(key)) {
+            return null;
+        }
+        Exchange ex = getExchange();
+        if (ex == null) {
+            return null;
+        }
+        o = ex.get(key);
+        if (o != null) {
+            return o;
+        }
+        Endpoint ep = ex.getEndpoint();
+        Service sv = ex.getService();
+        Bus b = ex.getBus();
+        if (ep instanceof EndpointImpl) {
+            ContextualPropertyCache cache = ((EndpointImpl)ep).getContextualPropertyCache(sv, b);
+            if (cache != null) {
+                return cache.get(key);
+            }
+        }
+        return ContextualPropertyCache.resolve(ep, sv, b, key);
     }
     
-    private void calcContextCache() {
-        Map<String, Object> o = new HashMap<String, Object>() {
-            private static final long serialVersionUID = 7067290677790419348L;
-
-            public void putAll(Map<? extends String, ? extends Object> m) {
-                if (m != null && m.size() > 0) {
-                    super.putAll(m);
-                }
-            }
-        };
+    public Set<String> getContextualPropertyKeys() {
+        Set<String> keys = new HashSet<String>();
         Exchange ex = getExchange();
         if (ex != null) {
             Bus b = ex.getBus();
             if (b != null) {
-                o.putAll(b.getProperties());
+                addKeys(keys, b.getProperties());
             }
             Service sv = ex.getService(); 
             if (sv != null) {
-                o.putAll(sv);
+                keys.addAll(sv.keySet());
             }
             Endpoint ep = ex.getEndpoint(); 
             if (ep != null) {
                 EndpointInfo ei = ep.getEndpointInfo();
                 if (ei != null) {
-                    o.putAll(ep.getEndpointInfo().getBinding().getProperties());
-                    o.putAll(ep.getEndpointInfo().getProperties());
+                    if (ei.getBinding() != null) {
+                        addKeys(keys, ei.getBinding().getProperties());
+                    }
+                    addKeys(keys, ei.getProperties());
                 }
-                o.putAll(ep);
+                keys.addAll(ep.keySet());
             }
+            keys.addAll(ex.keySet());
         }
-        o.putAll(ex);
-        o.putAll(this);
-        contextCache = o;
+        if (contextCache != null) {
+            keys.removeAll(contextCache.keySet());
+        }
+        keys.addAll(keySet());
+        return keys;
     }
+    
+    private static void addKeys(Set<String> keys, Map<String, Object> props) {
+        if (props != null) {
+            keys.addAll(props.keySet());
+        }
+    }
+    
     public static void copyContent(Message m1, Message m2) {
         for (Class<?> c : m1.getContentFormats()) {
             m2.setContent(c, m1.getContent(c));
@@ -225,9 +250,21 @@ public class MessageImpl extends StringMapImpl implements Message {
         }
     }
 
+    /**
+     * Called when the exchange property changes.  A property removed from the
+     * exchange after the message was set up keeps hiding the endpoint, service
+     * and bus values for this message until the context is reset.
+     */
     void setContextualProperty(String key, Object v) {
-        if (contextCache != null && !containsKey(key)) {
-            contextCache.put(key, v);
+        if (v == null) {
+            if (!containsKey(key)) {
+                if (contextCache == null) {
+                    contextCache = new HashMap<String, Object>(4);
+                }
+                contextCache.put(key, null);
+            }
+        } else if (contextCache != null) {
+            contextCache.remove(key);
         }
     }
 }
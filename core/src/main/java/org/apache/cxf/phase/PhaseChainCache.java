@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.cxf.common.util.ModCountCopyOnWriteArrayList;
@@ -35,32 +37,44 @@ import org.apache.cxf.message.Message;
  * phases supplied in the get() methods of this class are defined by default
  * within org.apache.cxf.phase.PhaseManagerImpl.  For an example of this class 
  * in use, check the sourcecode of org.apache.cxf.endpoint.ClientImpl.
+ * <p>
+ * Each distinct combination of interceptor lists is compiled once into a
+ * read-only template chain.  The chains handed out by the get() methods share
+ * the template and only copy it if interceptors are added or removed while
+ * the message is processed.  When all the supplied lists are interceptor
+ * provider lists (ModCountCopyOnWriteArrayList) the templates are kept per
+ * combination of lists, so a cache shared by several endpoints on the same
+ * bus does not rebuild the chain every time the endpoint changes.
  */
 public final class PhaseChainCache {
+    private static final int MAX_CACHED_CHAINS = 256;
+    
     AtomicReference<ChainHolder> lastData = new AtomicReference<ChainHolder>();
+    private final ConcurrentMap<ChainKey, ChainHolder> chains 
+        = new ConcurrentHashMap<ChainKey, ChainHolder>();
     
     public PhaseInterceptorChain get(SortedSet<Phase> phaseList,
                                      List<Interceptor<? extends Message>> p1) {
-        return getChain(lastData, phaseList, p1);
+        return getChain(phaseList, p1);
     }
 
     public PhaseInterceptorChain get(SortedSet<Phase> phaseList,
                                      List<Interceptor<? extends Message>> p1,
                                      List<Interceptor<? extends Message>> p2) {
-        return getChain(lastData, phaseList, p1, p2);
+        return getChain(phaseList, p1, p2);
     }
     public PhaseInterceptorChain get(SortedSet<Phase> phaseList,
                                      List<Interceptor<? extends Message>> p1,
                                      List<Interceptor<? extends Message>> p2,
                                      List<Interceptor<? extends Message>> p3) {
-        return getChain(lastData, phaseList, p1, p2, p3);
+        return getChain(phaseList, p1, p2, p3);
     }
     public PhaseInterceptorChain get(SortedSet<Phase> phaseList,
                                      List<Interceptor<? extends Message>> p1,
                                      List<Interceptor<? extends Message>> p2,
                                      List<Interceptor<? extends Message>> p3,
                                      List<Interceptor<? extends Message>> p4) {
-        return getChain(lastData, phaseList, p1, p2, p3, p4);
+        return getChain(phaseList, p1, p2, p3, p4);
     }
     public PhaseInterceptorChain get(SortedSet<Phase> phaseList,
                                      List<Interceptor<? extends Message>> p1,
@@ -68,44 +82,120 @@ public final class PhaseChainCache {
                                      List<Interceptor<? extends Message>> p3,
                                      List<Interceptor<? extends Message>> p4,
                                      List<Interceptor<? extends Message>> p5) {
-        return getChain(lastData, phaseList, p1, p2, p3, p4, p5);
+        return getChain(phaseList, p1, p2, p3, p4, p5);
+    }
+    
+    int size() {
+        return chains.size();
     }
     
     @SafeVarargs
-    static PhaseInterceptorChain getChain(AtomicReference<ChainHolder> lastData,
-                                          SortedSet<Phase> phaseList,
-                                         List<Interceptor<? extends Message>> ... providers) {
+    private final PhaseInterceptorChain getChain(SortedSet<Phase> phaseList,
+                                                 List<Interceptor<? extends Message>> ... providers) {
         ChainHolder last = lastData.get();
+        if (last != null 
+            && last.matches(providers)) {
+            return last.newChain();
+        }
         
-        if (last == null 
-            || !last.matches(providers)) {
-            
-            PhaseInterceptorChain chain = new PhaseInterceptorChain(phaseList);
-            List<ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>> copy 
-                = new ArrayList<ModCountCopyOnWriteArrayList<
-                    Interceptor<? extends Message>>>(providers.length);
-            for (List<Interceptor<? extends Message>> p : providers) {
-                copy.add(new ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>(p));
-                chain.add(p);
+        ChainKey key = null;
+        ChainHolder holder = null;
+        if (isStable(providers)) {
+            key = new ChainKey(providers);
+            holder = chains.get(key);
+        }
+        if (holder == null 
+            || !holder.matches(providers)) {
+            holder = compile(phaseList, providers);
+            if (key != null) {
+                if (chains.size() >= MAX_CACHED_CHAINS) {
+                    chains.clear();
+                }
+                chains.put(key, holder);
+            }
+        }
+        lastData.set(holder);
+        return holder.newChain();
+    }
+    
+    @SafeVarargs
+    private static ChainHolder compile(SortedSet<Phase> phaseList,
+                                       List<Interceptor<? extends Message>> ... providers) {
+        PhaseInterceptorChain chain = new PhaseInterceptorChain(phaseList);
+        List<ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>> copy 
+            = new ArrayList<ModCountCopyOnWriteArrayList<
+                Interceptor<? extends Message>>>(providers.length);
+        for (List<Interceptor<? extends Message>> p : providers) {
+            copy.add(new ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>(p));
+            chain.add(p);
+        }
+        return new ChainHolder(chain, providers, copy);
+    }
+    
+    /**
+     * Only the interceptor provider lists live as long as the endpoints and
+     * can be used as a key, any other list is usually created per call.
+     */
+    private static boolean isStable(List<?>[] providers) {
+        for (List<?> p : providers) {
+            if (p == null || p.getClass() != ModCountCopyOnWriteArrayList.class) {
+                return false;
             }
-            last = new ChainHolder(chain, copy);
-            lastData.set(last);
         }
+        return true;
+    }
+    
+    private static final class ChainKey {
+        private final List<?>[] lists;
+        private final int hashCode;
         
+        ChainKey(List<?>[] lists) {
+            this.lists = lists;
+            int h = lists.length;
+            for (List<?> l : lists) {
+                h = 31 * h + System.identityHashCode(l);
+            }
+            hashCode = h;
+        }
         
-        return last.chain.cloneChain();
+        public int hashCode() {
+            return hashCode;
+        }
+        
+        public boolean equals(Object o) {
+            if (!(o instanceof ChainKey)) {
+                return false;
+            }
+            ChainKey other = (ChainKey)o;
+            if (other.lists.length != lists.length) {
+                return false;
+            }
+            for (int x = 0; x < lists.length; x++) {
+                if (other.lists[x] != lists[x]) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
     
     private static class ChainHolder {
+        List<?>[] sources;
         List<ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>> lists;
         PhaseInterceptorChain chain;
         
         ChainHolder(PhaseInterceptorChain c, 
+                    List<?>[] s,
                     List<ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>> l) {
+            sources = s;
             lists = l;
             chain = c;
         }
         
+        PhaseInterceptorChain newChain() {
+            return chain.newChainFromTemplate();
+        }
+        
         @SafeVarargs
         final boolean matches(List<Interceptor<? extends Message>> ... providers) {
             if (lists.size() == providers.length) {
@@ -115,7 +205,8 @@ public final class PhaseChainCache {
                     }
                     
                     if (providers[x].getClass() == ModCountCopyOnWriteArrayList.class) {
-                        if (((ModCountCopyOnWriteArrayList<?>)providers[x]).getModCount()
+                        if (sources[x] != providers[x]
+                            || ((ModCountCopyOnWriteArrayList<?>)providers[x]).getModCount()
                             != lists.get(x).getModCount()) {
                             return false;
                         }
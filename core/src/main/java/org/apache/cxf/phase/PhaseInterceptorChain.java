@@ -82,6 +82,10 @@ public class PhaseInterceptorChain implements InterceptorChain {
     // Note no hasBefores[] is needed because implementation adds subsequent
     // interceptors to the end of the list by default.
     private boolean hasAfters[];
+    // shared indicates that heads, tails and hasAfters, along with the
+    // holders they point to, belong to a template chain compiled by the
+    // PhaseChainCache and must be copied before this chain is modified
+    private boolean shared;
 
     
     private State state;
@@ -96,6 +100,10 @@ public class PhaseInterceptorChain implements InterceptorChain {
     private boolean faultOccurred;
     private boolean chainReleased;
     
+    // the timer of the running doIntercept() and the index of the phase it executes
+    private PhaseTimer phaseTimer;
+    private int currentPhase = -1;
+    
     
     private PhaseInterceptorChain(PhaseInterceptorChain src) {
         isFineLogging = LOG.isLoggable(Level.FINE);
@@ -107,31 +115,21 @@ public class PhaseInterceptorChain implements InterceptorChain {
         nameMap = src.nameMap;
         phases = src.phases;
         
-        int length = phases.length;
-        hasAfters = new boolean[length];
-        System.arraycopy(src.hasAfters, 0, hasAfters, 0, length);
+        copyHolders(src.heads, src.hasAfters);
+    }
+    
+    private PhaseInterceptorChain(PhaseInterceptorChain template, boolean share) {
+        isFineLogging = LOG.isLoggable(Level.FINE);
+        state = State.EXECUTING;
         
-        heads = new InterceptorHolder[length];
-        tails = new InterceptorHolder[length];
+        nameMap = template.nameMap;
+        phases = template.phases;
         
-        InterceptorHolder last = null;
-        for (int x = 0; x < length; x++) {
-            InterceptorHolder ih = src.heads[x];
-            while (ih != null
-                && ih.phaseIdx == x) {
-                InterceptorHolder ih2 = new InterceptorHolder(ih);
-                ih2.prev = last;
-                if (last != null) {
-                    last.next = ih2;
-                }
-                if (heads[x] == null) {
-                    heads[x] = ih2;
-                }
-                tails[x] = ih2;
-                last = ih2;
-                ih = ih.next;
-            }
-        }
+        //read-only until the first modification, see copyOnWrite()
+        heads = template.heads;
+        tails = template.tails;
+        hasAfters = template.hasAfters;
+        shared = share;
     }
     
     public PhaseInterceptorChain(SortedSet<Phase> ps) {
@@ -201,6 +199,57 @@ public class PhaseInterceptorChain implements InterceptorChain {
         return new PhaseInterceptorChain(this);
     }
     
+    /**
+     * Creates a chain that uses this chain as a read-only template.  No
+     * interceptor holders are allocated for the new chain unless interceptors
+     * are added to or removed from it, in which case it copies the template
+     * first.  This chain must not be modified once it is used as a template.
+     */
+    PhaseInterceptorChain newChainFromTemplate() {
+        return new PhaseInterceptorChain(this, true);
+    }
+    
+    private void copyHolders(InterceptorHolder srcHeads[], boolean srcHasAfters[]) {
+        int length = phases.length;
+        hasAfters = new boolean[length];
+        System.arraycopy(srcHasAfters, 0, hasAfters, 0, length);
+        
+        heads = new InterceptorHolder[length];
+        tails = new InterceptorHolder[length];
+        
+        InterceptorHolder last = null;
+        for (int x = 0; x < length; x++) {
+            InterceptorHolder ih = srcHeads[x];
+            while (ih != null
+                && ih.phaseIdx == x) {
+                InterceptorHolder ih2 = new InterceptorHolder(ih);
+                ih2.prev = last;
+                if (last != null) {
+                    last.next = ih2;
+                }
+                if (heads[x] == null) {
+                    heads[x] = ih2;
+                }
+                tails[x] = ih2;
+                if (iterator != null) {
+                    iterator.relocate(ih, ih2);
+                }
+                last = ih2;
+                ih = ih.next;
+            }
+        }
+        if (iterator != null) {
+            iterator.heads = heads;
+        }
+    }
+    
+    private void copyOnWrite() {
+        if (shared) {
+            shared = false;
+            copyHolders(heads, hasAfters);
+        }
+    }
+    
     private void updateIterator() {
         if (iterator == null) {
             iterator = new PhaseInterceptorIterator(heads);
@@ -289,6 +338,11 @@ public class PhaseInterceptorChain implements InterceptorChain {
         updateIterator();
 
         Message oldMessage = CURRENT_MESSAGE.get();
+        PhaseTimer oldTimer = phaseTimer;
+        int oldPhase = currentPhase;
+        Exchange exchange = message.getExchange();
+        phaseTimer = exchange == null ? null : exchange.get(PhaseTimer.class);
+        currentPhase = -1;
         try {
             CURRENT_MESSAGE.set(message);
             if (oldMessage != null 
@@ -299,7 +353,14 @@ public class PhaseInterceptorChain implements InterceptorChain {
             }
             while (state == State.EXECUTING && iterator.hasNext()) {
                 try {
-                    Interceptor<Message> currentInterceptor = (Interceptor<Message>)iterator.next();
+                    InterceptorHolder holder = iterator.nextInterceptorHolder();
+                    if (holder.phaseIdx != currentPhase) {
+                        currentPhase = holder.phaseIdx;
+                        if (phaseTimer != null) {
+                            phaseTimer.enterPhase(message, phases[currentPhase].getName(), System.nanoTime());
+                        }
+                    }
+                    Interceptor<Message> currentInterceptor = (Interceptor<Message>)holder.interceptor;
                     if (isFineLogging) {
                         LOG.fine("Invoking handleMessage on interceptor " + currentInterceptor);
                     }
@@ -330,9 +391,29 @@ public class PhaseInterceptorChain implements InterceptorChain {
             }
             return state == State.COMPLETE;
         } finally {
+            if (phaseTimer != null) {
+                phaseTimer.leaveChain(message, System.nanoTime());
+            }
+            phaseTimer = oldTimer;
+            currentPhase = oldPhase;
             CURRENT_MESSAGE.set(oldMessage);
         }
     }
+    
+    /**
+     * Sets the timer notified of the phase transitions of the running chain, starting with 
+     * the current phase.  The chain only looks the timer up in the exchange when it starts 
+     * executing, an interceptor storing a timer in the exchange afterwards calls this method
+     * to have the rest of the chain timed.
+     * @param message the message passing the chain
+     * @param timer the timer
+     */
+    public synchronized void setPhaseTimer(Message message, PhaseTimer timer) {
+        phaseTimer = timer;
+        if (timer != null && currentPhase != -1) {
+            timer.enterPhase(message, phases[currentPhase].getName(), System.nanoTime());
+        }
+    }
 
     private void wrapExceptionAsFault(Message message, RuntimeException ex) {
         String description = getServiceInfo(message);
@@ -498,6 +579,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
     }
 
     public void remove(Interceptor<? extends Message> i) {
+        copyOnWrite();
         PhaseInterceptorIterator it = new PhaseInterceptorIterator(heads);
         while (it.hasNext()) {
             InterceptorHolder holder = it.nextInterceptorHolder();
@@ -548,6 +630,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
     }
     
     private void insertInterceptor(int phase, PhaseInterceptor<? extends Message> interc, boolean force) {
+        copyOnWrite();
         InterceptorHolder ih = new InterceptorHolder(interc, phase);
         if (heads[phase] == null) {
             // no interceptors yet in this phase
@@ -756,6 +839,15 @@ public class PhaseInterceptorChain implements InterceptorChain {
             first = findFirst();
         }
         
+        void relocate(InterceptorHolder from, InterceptorHolder to) {
+            if (prev == from) {
+                prev = to;
+            }
+            if (first == from) {
+                first = to;
+            }
+        }
+        
         private InterceptorHolder findFirst() {
             for (int x = 0; x < heads.length; x++) {
                 if (heads[x] != null) {
@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.phase;
+
+import org.apache.cxf.message.Message;
+
+/**
+ * Receives the phase transitions of the interceptor chains of an exchange.  A PhaseTimer 
+ * stored in the Exchange under its class is notified by the {@link PhaseInterceptorChain} 
+ * whenever the first interceptor of a new phase is about to be invoked and whenever the chain
+ * stops executing, either because it is complete, aborted, paused or suspended.
+ */
+public interface PhaseTimer {
+    
+    /**
+     * @param message the message passing the chain
+     * @param phase the name of the phase being entered
+     * @param nanoTime the value of System.nanoTime() 
+     */
+    void enterPhase(Message message, String phase, long nanoTime);
+    
+    /**
+     * @param message the message passing the chain
+     * @param nanoTime the value of System.nanoTime() 
+     */
+    void leaveChain(Message message, long nanoTime);
+}
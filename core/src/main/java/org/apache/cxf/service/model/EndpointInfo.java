@@ -21,6 +21,7 @@ package org.apache.cxf.service.model;
 
 import javax.xml.namespace.QName;
 
+import org.apache.cxf.message.ContextualPropertyCache;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
 import org.apache.cxf.ws.addressing.EndpointReferenceUtils;
 
@@ -86,6 +87,8 @@ public class EndpointInfo extends AbstractDescriptionElement implements NamedIte
     
     public void setBinding(BindingInfo b) {
         binding = b;
+        // the binding properties are inherited by the messages
+        ContextualPropertyCache.invalidateAll();
     }    
     
     public String getAddress() {
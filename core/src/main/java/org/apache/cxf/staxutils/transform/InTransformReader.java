@@ -20,7 +20,6 @@ package org.apache.cxf.staxutils.transform;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -44,13 +43,15 @@ public class InTransformReader extends DepthXMLStreamReader {
     private static final String INTERN_NAMES = "org.codehaus.stax2.internNames";
     private static final String INTERN_NS = "org.codehaus.stax2.internNsUris";
     
+    private TransformPlan plan;
     private QNamesMap inElementsMap;
     private QNamesMap inAttributesMap;
-    private Map<QName, ElementProperty> inAppendMap = new HashMap<QName, ElementProperty>(5);
-    private Set<QName> inDropSet = new HashSet<QName>(5);
-    private Map<String, String> nsMap = new HashMap<String, String>(5);
+    private Map<QName, ElementProperty> inAppendMap;
+    private Set<QName> inDropSet;
+    private Map<String, String> nsMap;
     private List<ParsingEvent> pushedBackEvents = new LinkedList<ParsingEvent>();
-    private List<List<ParsingEvent>> pushedAheadEvents = new LinkedList<List<ParsingEvent>>();
+    // used as a stack, the top being the last entry
+    private List<List<ParsingEvent>> pushedAheadEvents = new ArrayList<List<ParsingEvent>>();
     private String replaceText;
     private ParsingEvent currentEvent;
     private List<Integer> attributesIndexes = new ArrayList<Integer>(); 
@@ -72,15 +73,21 @@ public class InTransformReader extends DepthXMLStreamReader {
                              List<String> dropESet,
                              Map<String, String> inAMap,
                              boolean blockOriginalReader) {
+        this(reader, new TransformPlan(inEMap, appendMap, dropESet, inAMap), blockOriginalReader);
+    }
+    
+    public InTransformReader(XMLStreamReader reader, 
+                             TransformPlan plan,
+                             boolean blockOriginalReader) {
         super(reader);
-        inElementsMap = new QNamesMap(inEMap == null ? 0 : inEMap.size());
-        inAttributesMap = new QNamesMap(inAMap == null ? 0 : inAMap.size());
+        this.plan = plan;
         this.blockOriginalReader = blockOriginalReader;
-        TransformUtils.convertToQNamesMap(inEMap, inElementsMap, nsMap);
-        TransformUtils.convertToQNamesMap(inAMap, inAttributesMap, null);
-        
-        TransformUtils.convertToMapOfElementProperties(appendMap, inAppendMap);
-        TransformUtils.convertToSetOfQNames(dropESet, inDropSet);
+        inElementsMap = plan.getElementsMap();
+        inAttributesMap = plan.getAttributesMap();
+        // the append rules are applied once per document, so each reader needs its own copy
+        inAppendMap = new HashMap<QName, ElementProperty>(plan.getAppendMap());
+        inDropSet = plan.getDropSet();
+        nsMap = plan.getNsMap();
         namespaceContext = new DelegatingNamespaceContext(
             reader.getNamespaceContext(), nsMap);
     }
@@ -112,6 +119,15 @@ public class InTransformReader extends DepthXMLStreamReader {
         if (event == XMLStreamConstants.START_ELEMENT) {
             attributesIndexed = false;
             namespaceContext.down();
+            if (inAppendMap.isEmpty() && plan.isUnchanged(super.getNamespaceURI(), super.getLocalName())) {
+                // pass the element through as is, the name is read from the underlying reader
+                if (doDebug) {
+                    LOG.fine("read StartElement " + super.getName() + " at " + getDepth());
+                }
+                currentEvent = null;
+                pushedAheadEvents.add(null);
+                return event;
+            }
             final QName theName = super.getName();
             final ElementProperty appendProp = inAppendMap.remove(theName);
             final boolean replaceContent = appendProp != null && theName.equals(appendProp.getName());
@@ -146,7 +162,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                     LOG.fine("replacing content with " + replaceText);    
                 }
                 currentEvent = TransformUtils.createStartElementEvent(expected);
-                pushedAheadEvents.add(0, null);
+                pushedAheadEvents.add(null);
             } else if (dropped) {
                 if (doDebug) {
                     LOG.fine("shallow-dropping start " + expected);
@@ -164,15 +180,14 @@ public class InTransformReader extends DepthXMLStreamReader {
                 handleDefaultMode(theName, expected);
             }
         } else if (event == XMLStreamConstants.END_ELEMENT) {
-            final QName theName = super.getName();
             if (doDebug) {
-                LOG.fine("read EndElement " + theName + " at " + getDepth());
+                LOG.fine("read EndElement " + super.getName() + " at " + getDepth());
             }
             
             namespaceContext.up();
-            final boolean dropped = inDropSet.contains(theName);
+            final boolean dropped = plan.isDropped(super.getNamespaceURI(), super.getLocalName());
             if (!dropped) {
-                List<ParsingEvent> pe = pushedAheadEvents.remove(0);
+                List<ParsingEvent> pe = pushedAheadEvents.remove(pushedAheadEvents.size() - 1);
                 if (null != pe) {
                     if (doDebug) {
                         LOG.fine("pushed event found");    
@@ -187,7 +202,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                 }
             } else {
                 if (doDebug) {
-                    LOG.fine("shallow-dropping end " + theName);    
+                    LOG.fine("shallow-dropping end " + super.getName());    
                 }
                 event = next();
             }
@@ -213,7 +228,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                 List<ParsingEvent> pe = new ArrayList<ParsingEvent>(2);
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
                 pe.add(TransformUtils.createEndElementEvent(expected));
-                pushedAheadEvents.add(0, pe);
+                pushedAheadEvents.add(pe);
             } else {
                 // ap-post-incl
                 currentEvent = TransformUtils.createStartElementEvent(expected);
@@ -223,7 +238,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                 pe.add(TransformUtils.createCharactersEvent(appendProp.getText()));
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
                 pe.add(TransformUtils.createEndElementEvent(expected));
-                pushedAheadEvents.add(0, pe);
+                pushedAheadEvents.add(pe);
             }
         } else { 
             // ap-pre-*
@@ -235,7 +250,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                 List<ParsingEvent> pe = new ArrayList<ParsingEvent>(2);
                 pe.add(TransformUtils.createEndElementEvent(expected));
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
-                pushedAheadEvents.add(0, pe);
+                pushedAheadEvents.add(pe);
             } else {
                 // ap-pre-incl
                 pushedBackEvents.add(0, TransformUtils.createStartElementEvent(expected));
@@ -245,7 +260,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                 if (doDebug) {
                     LOG.fine("ap-pre-incl " + appendProp.getName() + "=" + appendProp.getText());
                 }
-                pushedAheadEvents.add(0, null);
+                pushedAheadEvents.add(null);
             }
         }
     }
@@ -255,9 +270,9 @@ public class InTransformReader extends DepthXMLStreamReader {
         if (!name.equals(expected)) {
             List<ParsingEvent> pe = new ArrayList<ParsingEvent>(1);
             pe.add(TransformUtils.createEndElementEvent(expected));
-            pushedAheadEvents.add(0, pe);
+            pushedAheadEvents.add(pe);
         } else {
-            pushedAheadEvents.add(0, null);
+            pushedAheadEvents.add(null);
         }
     }
     
@@ -343,9 +358,13 @@ public class InTransformReader extends DepthXMLStreamReader {
     public String getNamespaceURI() {
         if (currentEvent != null) {
             return currentEvent.getName().getNamespaceURI();
-        } else {
-            return super.getNamespaceURI();
         }
+        String ns = super.getNamespaceURI();
+        if (ns == null && (isStartElement() || isEndElement())) {
+            // some parsers report unqualified elements with a null namespace
+            ns = XMLConstants.NULL_NS_URI;
+        }
+        return ns;
     }
 
     private QName readCurrentElement() {
@@ -499,8 +518,8 @@ public class InTransformReader extends DepthXMLStreamReader {
             attributesIndexes.clear();
             final int c = super.getAttributeCount();
             for (int i = 0; i < c; i++) {
-                QName aname = super.getAttributeName(i);
-                QName expected = inAttributesMap.get(aname);
+                QName expected = inAttributesMap.get(super.getAttributeNamespace(i), 
+                                                     super.getAttributeLocalName(i));
                 if (expected == null || !TransformUtils.isEmptyQName(expected)) {
                     attributesIndexes.add(i);
                 }
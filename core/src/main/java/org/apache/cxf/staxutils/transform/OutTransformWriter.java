@@ -34,15 +34,14 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.cxf.common.util.StringUtils;
-import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.staxutils.DelegatingXMLStreamWriter;
 
 public class OutTransformWriter extends DelegatingXMLStreamWriter {
     private String defaultNamespace;
     private QNamesMap elementsMap;
     private QNamesMap attributesMap;
-    private Map<QName, ElementProperty> appendMap = new HashMap<QName, ElementProperty>(5);
-    private Map<String, String> nsMap = new HashMap<String, String>(5);
+    private Map<QName, ElementProperty> appendMap;
+    private Map<String, String> nsMap;
     private List<Set<String>> writtenUris = new LinkedList<Set<String>>();
     
     private Set<QName> dropElements;
@@ -76,14 +75,20 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
                               Map<String, String> outAMap,
                               boolean attributesToElements,
                               String defaultNamespace) {
+        this(writer, new TransformPlan(outEMap, append, dropEls, outAMap), attributesToElements, defaultNamespace);
+    }
+    
+    public OutTransformWriter(XMLStreamWriter writer, 
+                              TransformPlan plan,
+                              boolean attributesToElements,
+                              String defaultNamespace) {
         super(writer);
-        elementsMap = new QNamesMap(outEMap == null ? 0 : outEMap.size());
-        attributesMap = new QNamesMap(outAMap == null ? 0 : outAMap.size());
-        TransformUtils.convertToQNamesMap(outEMap, elementsMap, nsMap);
-        TransformUtils.convertToQNamesMap(outAMap, attributesMap, null);
-
-        TransformUtils.convertToMapOfElementProperties(append, appendMap);
-        dropElements = DOMUtils.convertStringsToQNames(dropEls);
+        elementsMap = plan.getElementsMap();
+        attributesMap = plan.getAttributesMap();
+        nsMap = plan.getNsMap();
+        // the append rules are applied once per document, so each writer needs its own copy
+        appendMap = new HashMap<QName, ElementProperty>(plan.getAppendMap());
+        dropElements = plan.getDropSet();
         this.attributesToElements = attributesToElements;
         namespaceContext = new DelegatingNamespaceContext(
             writer.getNamespaceContext(), nsMap);
@@ -415,7 +420,7 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             return;
         }
         
-        QName expected = attributesMap.get(new QName(uri, local, prefix));
+        QName expected = attributesMap.get(uri, local);
         if (expected != null) {
             if (TransformUtils.isEmptyQName(expected)) {
                 return;
@@ -436,7 +441,7 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             return;
         }
         String uri = XMLConstants.NULL_NS_URI;
-        QName expected = attributesMap.get(new QName("", local));
+        QName expected = attributesMap.get(XMLConstants.NULL_NS_URI, local);
         if (expected != null) {
             if (TransformUtils.isEmptyQName(expected)) {
                 return;
@@ -16,39 +16,67 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package org.apache.cxf.staxutils.transform;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.xml.namespace.QName;
 
+/**
+ * Maps element or attribute names to their replacements. The entries are indexed
+ * by namespace first so that names which are not transformed can be looked up from
+ * the raw namespace and local name, without creating a QName for them.
+ */
 class QNamesMap {
-    private QName[] keys;
-    private QName[] values;
+    private Map<String, Map<String, QName>> names;
+    private Map<String, QName> wildcards;
     private int index;
     
     public QNamesMap(int size) {
-        keys = new QName[size];
-        values = new QName[size];
+        names = new HashMap<String, Map<String, QName>>(size);
+        wildcards = new HashMap<String, QName>(size);
     }
     
     public void put(QName key, QName value) {
-        keys[index] = key;
-        values[index] = value;
+        String ns = key.getNamespaceURI();
+        if ("*".equals(key.getLocalPart())) {
+            wildcards.put(ns, value);
+        } else {
+            Map<String, QName> locals = names.get(ns);
+            if (locals == null) {
+                locals = new HashMap<String, QName>();
+                names.put(ns, locals);
+            }
+            locals.put(key.getLocalPart(), value);
+        }
         index++;
     }
     
     public QName get(QName key) {
-        for (int i = 0; i < keys.length; i++) {
-            if (keys[i].getNamespaceURI().equals(key.getNamespaceURI())) {
-                if (keys[i].getLocalPart().equals(key.getLocalPart())) {
-                    return values[i];
-                } else if ("*".equals(keys[i].getLocalPart())) {
-                    // assume it is something like {somens}* => * or {somens}* => {anotherns}*
-                    // and return QName(nsuri, lcname) which covers both cases.
-                    return new QName(values[i].getNamespaceURI(), key.getLocalPart());
-                }
+        return get(key.getNamespaceURI(), key.getLocalPart());
+    }
+    
+    public QName get(String ns, String local) {
+        if (index == 0) {
+            return null;
+        }
+        if (ns == null) {
+            ns = "";
+        }
+        Map<String, QName> locals = names.get(ns);
+        if (locals != null) {
+            QName value = locals.get(local);
+            if (value != null) {
+                return value;
             }
         }
+        QName value = wildcards.get(ns);
+        if (value != null) {
+            // assume it is something like {somens}* => * or {somens}* => {anotherns}*
+            // and return QName(nsuri, lcname) which covers both cases.
+            return new QName(value.getNamespaceURI(), local);
+        }
         return null;    
     }
     
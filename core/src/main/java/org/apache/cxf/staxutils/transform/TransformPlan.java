@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.staxutils.transform;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+/**
+ * The compiled form of a set of transformation rules. The rule strings are parsed
+ * once into the lookup tables used by {@link InTransformReader} and
+ * {@link OutTransformWriter}; a plan is immutable and can be shared by all the
+ * readers or writers created for the same configuration.
+ */
+public final class TransformPlan {
+    private final QNamesMap elementsMap;
+    private final QNamesMap attributesMap;
+    private final Map<QName, ElementProperty> appendMap;
+    private final Set<QName> dropSet;
+    private final Set<String> dropNamespaces;
+    private final Map<String, String> nsMap;
+    
+    public TransformPlan(Map<String, String> elements,
+                         Map<String, String> append,
+                         List<String> drop,
+                         Map<String, String> attributes) {
+        Map<String, String> namespaces = new HashMap<String, String>(5);
+        elementsMap = new QNamesMap(elements == null ? 0 : elements.size());
+        attributesMap = new QNamesMap(attributes == null ? 0 : attributes.size());
+        TransformUtils.convertToQNamesMap(elements, elementsMap, namespaces);
+        TransformUtils.convertToQNamesMap(attributes, attributesMap, null);
+        
+        Map<QName, ElementProperty> props = new HashMap<QName, ElementProperty>(5);
+        TransformUtils.convertToMapOfElementProperties(append, props);
+        
+        Set<QName> dropped = new HashSet<QName>(5);
+        TransformUtils.convertToSetOfQNames(drop, dropped);
+        Set<String> droppedNs = new HashSet<String>(5);
+        for (QName name : dropped) {
+            droppedNs.add(name.getNamespaceURI());
+        }
+        
+        appendMap = Collections.unmodifiableMap(props);
+        dropSet = Collections.unmodifiableSet(dropped);
+        dropNamespaces = droppedNs;
+        nsMap = Collections.unmodifiableMap(namespaces);
+    }
+    
+    /**
+     * Returns true if an element with the given name is neither renamed nor
+     * dropped by this plan, not counting the append rules.
+     */
+    boolean isUnchanged(String ns, String local) {
+        if (ns == null) {
+            ns = "";
+        }
+        return !isDropped(ns, local) && elementsMap.get(ns, local) == null;
+    }
+    
+    boolean isDropped(String ns, String local) {
+        if (ns == null) {
+            ns = "";
+        }
+        return dropNamespaces.contains(ns) && dropSet.contains(new QName(ns, local));
+    }
+    
+    QNamesMap getElementsMap() {
+        return elementsMap;
+    }
+    
+    QNamesMap getAttributesMap() {
+        return attributesMap;
+    }
+    
+    Map<QName, ElementProperty> getAppendMap() {
+        return appendMap;
+    }
+    
+    Set<QName> getDropSet() {
+        return dropSet;
+    }
+    
+    Map<String, String> getNsMap() {
+        return nsMap;
+    }
+}
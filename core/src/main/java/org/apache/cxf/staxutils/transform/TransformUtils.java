@@ -62,6 +62,21 @@ public final class TransformUtils {
         return writer;
     }
     
+    public static XMLStreamWriter createTransformWriterIfNeeded(XMLStreamWriter writer,
+                                                                OutputStream os,
+                                                                TransformPlan plan,
+                                                                boolean attributesToElements,
+                                                                String defaultNamespace) {
+        if (plan != null || attributesToElements) {
+            if (plan == null) {
+                plan = new TransformPlan(null, null, null, null);
+            }
+            writer = createNewWriterIfNeeded(writer, os);
+            writer = new OutTransformWriter(writer, plan, attributesToElements, defaultNamespace);
+        }
+        return writer;
+    }
+    
     public static XMLStreamReader createTransformReaderIfNeeded(XMLStreamReader reader, 
                                                                 InputStream is,
                                                                 List<String> inDropElements,
@@ -89,6 +104,16 @@ public final class TransformUtils {
         return reader;
     }
     
+    public static XMLStreamReader createTransformReaderIfNeeded(XMLStreamReader reader, 
+                                                                InputStream is,
+                                                                TransformPlan plan,
+                                                                boolean blockOriginalReader) {
+        if (plan != null) {
+            reader = new InTransformReader(createNewReaderIfNeeded(reader, is), plan, blockOriginalReader);
+        }
+        return reader;
+    }
+    
     protected static void convertToQNamesMap(Map<String, String> map,
                                              QNamesMap elementsMap,
                                              Map<String, String> nsMap) {
@@ -19,6 +19,8 @@
 
 package org.apache.cxf.staxutils.validation;
 
+import java.nio.charset.Charset;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Level;
@@ -31,13 +33,16 @@ import javax.xml.stream.XMLStreamWriter;
 
 import org.w3c.dom.Element;
 
+import org.apache.cxf.BusFactory;
 import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.common.xmlschema.SchemaGrammarCache;
 import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.service.model.SchemaInfo;
 import org.apache.cxf.service.model.ServiceInfo;
 import org.apache.cxf.staxutils.DepthXMLStreamReader;
+import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.ws.commons.schema.XmlSchema;
 import org.codehaus.stax2.XMLStreamReader2;
 import org.codehaus.stax2.XMLStreamWriter2;
@@ -52,6 +57,7 @@ import org.codehaus.stax2.validation.XMLValidationSchema;
 class Stax2ValidationUtils {
     private static final Logger LOG = LogUtils.getL7dLogger(Stax2ValidationUtils.class);
     private static final String KEY = XMLValidationSchema.class.getName();
+    private static final Charset UTF8 = Charset.forName("UTF-8");
 
     private static final boolean HAS_WOODSTOX;
     static {
@@ -152,10 +158,30 @@ class Stax2ValidationUtils {
                     sources.put(sch.getTargetNamespace(), embeddedSchema);
                 }
         
+                // endpoints sharing the same schema documents share the compiled grammar
+                SchemaGrammarCache cache = SchemaGrammarCache.getInstance(BusFactory.getThreadDefaultBus(false));
+                String key = null;
+                if (cache != null) {
+                    Map<String, byte[]> serialized = new HashMap<String, byte[]>();
+                    for (Map.Entry<String, EmbeddedSchema> entry : sources.entrySet()) {
+                        serialized.put(entry.getValue().getSystemId() + ":" + entry.getKey(),
+                                       StaxUtils.toString(entry.getValue().getSchemaElement()).getBytes(UTF8));
+                    }
+                    key = SchemaGrammarCache.createKey(KEY, serialized);
+                    ret = cache.get(key, XMLValidationSchema.class);
+                    if (ret != null) {
+                        endpoint.put(KEY, ret);
+                        return ret;
+                    }
+                }
+        
                 W3CMultiSchemaFactory factory = new W3CMultiSchemaFactory();
                 // I don't think that we need the baseURI.
                 try {
                     ret = factory.loadSchemas(null, sources);
+                    if (cache != null) {
+                        ret = cache.put(key, ret);
+                    }
                     endpoint.put(KEY, ret);
                 } catch (XMLStreamException ex) {
                     LOG.log(Level.INFO, "Problem loading schemas. Falling back to slower method.", ret);
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.common.gzip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * HTTP content-coding which can be negotiated and applied by {@link GZIPOutInterceptor}
+ * and removed by {@link GZIPInInterceptor}. The gzip and deflate codings are available as
+ * {@link #GZIP} and {@link #DEFLATE}, other codings can be registered with the interceptors 
+ * or {@link GZIPFeature}.
+ */
+public interface ContentCoding {
+    
+    ContentCoding GZIP = new GZIPContentCoding();
+    ContentCoding DEFLATE = new DeflateContentCoding();
+    
+    /**
+     * Returns the content-coding names, the first one is the preferred name,
+     * the others are aliases such as "x-gzip"
+     * @return the names
+     */
+    List<String> getNames();
+    
+    /**
+     * Wraps the stream the encoded content will be written to
+     * @param os the stream
+     * @param level the compression level, {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     *        if no specific level has been configured
+     * @return the encoding stream, closing it has to close the original stream
+     * @throws IOException
+     */
+    OutputStream encode(OutputStream os, int level) throws IOException;
+    
+    /**
+     * Wraps the stream the encoded content will be read from
+     * @param is the stream
+     * @return the decoding stream
+     * @throws IOException
+     */
+    InputStream decode(InputStream is) throws IOException;
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.common.gzip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The "deflate" content-coding (zlib format), the Deflater and Inflater instances
+ * are pooled.
+ */
+public class DeflateContentCoding implements ContentCoding {
+    static final int BUFFER_SIZE = 8192;
+    
+    public List<String> getNames() {
+        return Collections.singletonList("deflate");
+    }
+
+    public OutputStream encode(OutputStream os, int level) throws IOException {
+        return new PooledDeflaterOutputStream(os, level, false);
+    }
+
+    public InputStream decode(InputStream is) throws IOException {
+        return new PooledInflaterInputStream(is, false);
+    }
+
+    static class PooledDeflaterOutputStream extends DeflaterOutputStream {
+        private final boolean nowrap;
+        private boolean released;
+        
+        PooledDeflaterOutputStream(OutputStream os, int level, boolean nowrap) {
+            super(os, ZipPool.getDeflater(level, nowrap), BUFFER_SIZE);
+            this.nowrap = nowrap;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (released) {
+                // the deflater may already be used by another stream
+                throw new IOException("Stream closed");
+            }
+            super.write(b, off, len);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!released) {
+                    released = true;
+                    ZipPool.release(def, nowrap);
+                }
+            }
+        }
+    }
+    
+    static class PooledInflaterInputStream extends InflaterInputStream {
+        private final boolean nowrap;
+        private boolean released;
+        
+        PooledInflaterInputStream(InputStream is, boolean nowrap) {
+            super(is, ZipPool.getInflater(nowrap), BUFFER_SIZE);
+            this.nowrap = nowrap;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!released) {
+                    released = true;
+                    ZipPool.release(inf, nowrap);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.common.gzip;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import org.apache.cxf.transport.common.gzip.DeflateContentCoding.PooledDeflaterOutputStream;
+import org.apache.cxf.transport.common.gzip.DeflateContentCoding.PooledInflaterInputStream;
+
+/**
+ * The "gzip" (and "x-gzip") content-coding, the streams follow the format written and 
+ * read by java.util.zip.GZIPOutputStream and GZIPInputStream, the Deflater and Inflater 
+ * instances are pooled.
+ */
+public class GZIPContentCoding implements ContentCoding {
+    private static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList("gzip", "x-gzip"));
+    
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final byte[] HEADER = {
+        (byte)GZIP_MAGIC, (byte)(GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+    
+    public List<String> getNames() {
+        return NAMES;
+    }
+
+    public OutputStream encode(OutputStream os, int level) throws IOException {
+        return new GZIPEncodingOutputStream(os, level);
+    }
+
+    public InputStream decode(InputStream is) throws IOException {
+        return new GZIPDecodingInputStream(is);
+    }
+    
+    static class GZIPEncodingOutputStream extends PooledDeflaterOutputStream {
+        private final CRC32 crc = new CRC32();
+        
+        GZIPEncodingOutputStream(OutputStream os, int level) throws IOException {
+            super(os, level, true);
+            out.write(HEADER);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            if (!def.finished()) {
+                def.finish();
+                while (!def.finished()) {
+                    deflate();
+                }
+                byte[] trailer = new byte[8];
+                writeInt((int)crc.getValue(), trailer, 0);
+                writeInt((int)def.getBytesRead(), trailer, 4);
+                out.write(trailer);
+            }
+        }
+        
+        private static void writeInt(int i, byte[] buf, int offset) {
+            buf[offset] = (byte)i;
+            buf[offset + 1] = (byte)(i >> 8);
+            buf[offset + 2] = (byte)(i >> 16);
+            buf[offset + 3] = (byte)(i >> 24);
+        }
+    }
+    
+    static class GZIPDecodingInputStream extends PooledInflaterInputStream {
+        private final CRC32 crc = new CRC32();
+        private boolean eos;
+        
+        GZIPDecodingInputStream(InputStream is) throws IOException {
+            super(is, true);
+            readHeader(in);
+        }
+        
+        @Override
+        public int read(byte[] buf, int off, int n) throws IOException {
+            if (eos) {
+                return -1;
+            }
+            int read = super.read(buf, off, n);
+            if (read == -1) {
+                if (readTrailer()) {
+                    eos = true;
+                } else {
+                    return read(buf, off, n);
+                }
+            } else {
+                crc.update(buf, off, read);
+            }
+            return read;
+        }
+        
+        private int readHeader(InputStream is) throws IOException {
+            CheckedInputStream cis = new CheckedInputStream(is, crc);
+            crc.reset();
+            if (readUShort(cis) != GZIP_MAGIC) {
+                throw new ZipException("Not in GZIP format");
+            }
+            if (readUByte(cis) != Deflater.DEFLATED) {
+                throw new ZipException("Unsupported compression method");
+            }
+            int flags = readUByte(cis);
+            // modification time, extra flags and operating system
+            skipBytes(cis, 6);
+            int n = 10;
+            if ((flags & FEXTRA) == FEXTRA) {
+                int extraLength = readUShort(cis);
+                skipBytes(cis, extraLength);
+                n += extraLength + 2;
+            }
+            if ((flags & FNAME) == FNAME) {
+                n += skipString(cis);
+            }
+            if ((flags & FCOMMENT) == FCOMMENT) {
+                n += skipString(cis);
+            }
+            if ((flags & FHCRC) == FHCRC) {
+                int v = (int)crc.getValue() & 0xffff;
+                if (readUShort(cis) != v) {
+                    throw new ZipException("Corrupt GZIP header");
+                }
+                n += 2;
+            }
+            crc.reset();
+            return n;
+        }
+        
+        private boolean readTrailer() throws IOException {
+            InputStream is = this.in;
+            int n = inf.getRemaining();
+            if (n > 0) {
+                is = new SequenceInputStream(new ByteArrayInputStream(buf, len - n, n),
+                                             new FilterInputStream(is) {
+                                                 public void close() throws IOException {
+                                                 }
+                                             });
+            }
+            if (readUInt(is) != crc.getValue() 
+                || readUInt(is) != (inf.getBytesWritten() & 0xffffffffL)) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+            // concatenated members
+            if (this.in.available() > 0 || n > 26) {
+                int m = 8;
+                try {
+                    m += readHeader(is);
+                } catch (IOException ex) {
+                    return true;
+                }
+                inf.reset();
+                if (n > m) {
+                    inf.setInput(buf, len - n + m, n - m);
+                }
+                return false;
+            }
+            return true;
+        }
+        
+        private static long readUInt(InputStream is) throws IOException {
+            long s = readUShort(is);
+            return ((long)readUShort(is) << 16) | s;
+        }
+        
+        private static int readUShort(InputStream is) throws IOException {
+            int b = readUByte(is);
+            return (readUByte(is) << 8) | b;
+        }
+        
+        private static int readUByte(InputStream is) throws IOException {
+            int b = is.read();
+            if (b == -1) {
+                throw new EOFException();
+            }
+            return b;
+        }
+        
+        private static void skipBytes(InputStream is, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                readUByte(is);
+            }
+        }
+        
+        private static int skipString(InputStream is) throws IOException {
+            int n = 1;
+            while (readUByte(is) != 0) {
+                n++;
+            }
+            return n;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.cxf.transport.common.gzip;
 
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
@@ -46,6 +47,8 @@ import org.apache.cxf.message.Message;
  * to be compressed and incoming compressed responses to be uncompressed. 
  * Accept-Encoding header is sent to let the service know 
  * that your client can accept compressed responses. 
+ * Content-codings other than gzip, for example {@link ContentCoding#DEFLATE},
+ * and the compression level can be configured per endpoint.
  */
 @NoJSR250Annotations
 public class GZIPFeature extends AbstractFeature {
@@ -62,17 +65,39 @@ public class GZIPFeature extends AbstractFeature {
      */
     boolean force;
     
+    /**
+     * The compression level to pass to the outgoing interceptor.
+     */
+    int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    
+    /**
+     * The supported content-codings, only gzip if not set
+     */
+    List<ContentCoding> contentCodings;
     
     @Override
     protected void initializeProvider(InterceptorProvider provider, Bus bus) {
-        provider.getInInterceptors().add(IN);
-        if (threshold == -1 && !force) {
+        if (contentCodings == null) {
+            provider.getInInterceptors().add(IN);
+        } else {
+            GZIPInInterceptor in = new GZIPInInterceptor();
+            in.setContentCodings(contentCodings);
+            provider.getInInterceptors().add(in);
+        }
+        if (threshold == -1 && !force && contentCodings == null 
+            && compressionLevel == Deflater.DEFAULT_COMPRESSION) {
             provider.getOutInterceptors().add(OUT);
             provider.getOutFaultInterceptors().add(OUT);
         } else {
             GZIPOutInterceptor out = new GZIPOutInterceptor();
-            out.setThreshold(threshold);
+            if (threshold != -1) {
+                out.setThreshold(threshold);
+            }
             out.setForce(force);
+            out.setCompressionLevel(compressionLevel);
+            if (contentCodings != null) {
+                out.setContentCodings(contentCodings);
+            }
             remove(provider.getOutInterceptors());
             remove(provider.getOutFaultInterceptors());
             provider.getOutInterceptors().add(out);
@@ -112,5 +137,30 @@ public class GZIPFeature extends AbstractFeature {
      */
     public boolean getForce() {
         return force;
-    }  
+    }
+    
+    /**
+     * Sets the compression level, from 0 (no compression) to 9 (best compression)
+     * @param level the level
+     */
+    public void setCompressionLevel(int level) {
+        compressionLevel = level;
+    }
+    
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+    
+    /**
+     * Sets the content-codings which can be used in addition to or instead of gzip,
+     * in the order of preference
+     * @param codings the codings
+     */
+    public void setContentCodings(List<ContentCoding> codings) {
+        contentCodings = codings;
+    }
+    
+    public List<ContentCoding> getContentCodings() {
+        return contentCodings;
+    }
 }
@@ -20,11 +20,11 @@ package org.apache.cxf.transport.common.gzip;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.logging.Logger;
-import java.util.zip.GZIPInputStream;
 
 import org.apache.cxf.common.i18n.BundleUtils;
 import org.apache.cxf.common.logging.LogUtils;
@@ -45,19 +45,34 @@ import org.apache.cxf.phase.Phase;
  * clients, you probably also want to use
  * {@link org.apache.cxf.transports.http.configuration.HTTPClientPolicy#setAcceptEncoding}
  * to let the server know you can handle compressed responses. To compress
- * outgoing messages, see {@link GZIPOutInterceptor}. This class was originally
- * based on one of the CXF samples (configuration_interceptor).
+ * outgoing messages, see {@link GZIPOutInterceptor}. Other {@link ContentCoding}s
+ * such as deflate can be registered with {@link #setContentCodings(List)}. 
+ * This class was originally based on one of the CXF samples (configuration_interceptor).
  */
 public class GZIPInInterceptor extends AbstractPhaseInterceptor<Message> {
 
 
     private static final ResourceBundle BUNDLE = BundleUtils.getBundle(GZIPInInterceptor.class);
     private static final Logger LOG = LogUtils.getL7dLogger(GZIPInInterceptor.class);
+    
+    private List<ContentCoding> contentCodings = Collections.singletonList(ContentCoding.GZIP);
 
     public GZIPInInterceptor() {
         super(Phase.RECEIVE);
         addBefore(AttachmentInInterceptor.class.getName());
     }
+    
+    /**
+     * Sets the content-codings which can be uncompressed, by default only gzip is supported
+     * @param codings the codings
+     */
+    public void setContentCodings(List<ContentCoding> codings) {
+        this.contentCodings = codings;
+    }
+    
+    public List<ContentCoding> getContentCodings() {
+        return contentCodings;
+    }
 
     public void handleMessage(Message message) throws Fault {
         if (isGET(message)) {
@@ -73,8 +88,8 @@ public class GZIPInInterceptor extends AbstractPhaseInterceptor<Message> {
             if (contentEncoding == null) {
                 contentEncoding = protocolHeaders.get(GZIPOutInterceptor.SOAP_JMS_CONTENTENCODING);
             }
-            if (contentEncoding != null
-                && (contentEncoding.contains("gzip") || contentEncoding.contains("x-gzip"))) {
+            ContentCoding coding = getContentCoding(contentEncoding);
+            if (coding != null) {
                 try {
                     LOG.fine("Uncompressing response");
                     InputStream is = message.getContent(InputStream.class);
@@ -83,8 +98,7 @@ public class GZIPInInterceptor extends AbstractPhaseInterceptor<Message> {
                     }
 
                     // wrap an unzipping stream around the original one
-                    GZIPInputStream zipInput = new GZIPInputStream(is);
-                    message.setContent(InputStream.class, zipInput);
+                    message.setContent(InputStream.class, coding.decode(is));
 
                     // remove content encoding header as we've now dealt with it
                     for (String key : protocolHeaders.keySet()) {
@@ -106,5 +120,18 @@ public class GZIPInInterceptor extends AbstractPhaseInterceptor<Message> {
             }
         }
     }
+    
+    private ContentCoding getContentCoding(List<String> contentEncoding) {
+        if (contentEncoding != null) {
+            for (ContentCoding coding : contentCodings) {
+                for (String name : coding.getNames()) {
+                    if (contentEncoding.contains(name)) {
+                        return coding;
+                    }
+                }
+            }
+        }
+        return null;
+    }
 
 }
@@ -21,15 +21,17 @@ package org.apache.cxf.transport.common.gzip;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.Deflater;
 
 import org.apache.cxf.common.i18n.BundleUtils;
 import org.apache.cxf.common.logging.LogUtils;
@@ -55,7 +57,9 @@ import org.apache.cxf.phase.Phase;
  * see {@link GZIPInInterceptor}. This interceptor supports a compression
  * {@link #threshold} (default 1kB) - messages smaller than this threshold will
  * not be compressed. To force compression of all messages, set the threshold to
- * 0. This class was originally based on one of the CXF samples
+ * 0. Besides gzip, other {@link ContentCoding}s such as deflate can be registered,
+ * the coding with the highest quality value in Accept-Encoding is used. 
+ * This class was originally based on one of the CXF samples
  * (configuration_interceptor).
  */
 public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
@@ -95,8 +99,9 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
     /**
      * Key under which we store the name which should be used for the
      * content-encoding of the outgoing message. Typically "gzip" but may be
-     * "x-gzip" if we are processing a response message and this is the name
-     * given by the client in Accept-Encoding.
+     * "x-gzip" or the name of another registered content-coding if we are 
+     * processing a response message and this is the name given by the client 
+     * in Accept-Encoding.
      */
     public static final String GZIP_ENCODING_KEY = GZIPOutInterceptor.class.getName() + ".gzipEncoding";
     
@@ -104,6 +109,13 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
 
     private static final ResourceBundle BUNDLE = BundleUtils.getBundle(GZIPOutInterceptor.class);
     private static final Logger LOG = LogUtils.getL7dLogger(GZIPOutInterceptor.class);
+    private static final List<ContentCoding> DEFAULT_CODINGS = Collections.singletonList(ContentCoding.GZIP);
+    
+    /**
+     * Quality of the identity encoding if it is not listed in Accept-Encoding,
+     * any listed coding is preferred to it 
+     */
+    private static final float IMPLICIT_IDENTITY_Q = 0.001f;
 
 
     /**
@@ -112,6 +124,8 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
      */
     private int threshold = 1024;
     private boolean force;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private List<ContentCoding> contentCodings = DEFAULT_CODINGS;
 
     public GZIPOutInterceptor() {
         super(Phase.PREPARE_SEND);
@@ -130,9 +144,34 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
     public int getThreshold() {
         return threshold;
     }
+    
+    /**
+     * Sets the compression level, from 0 to 9, the default level is used if not set
+     * @param level the level
+     */
+    public void setCompressionLevel(int level) {
+        this.compressionLevel = level;
+    }
+    
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+    
+    /**
+     * Sets the content-codings which may be used, by default only gzip is supported,
+     * the earlier codings are preferred if the client accepts several ones equally
+     * @param codings the codings
+     */
+    public void setContentCodings(List<ContentCoding> codings) {
+        this.contentCodings = codings;
+    }
+    
+    public List<ContentCoding> getContentCodings() {
+        return contentCodings;
+    }
 
     public void handleMessage(Message message) throws Fault {
-        UseGzip use = gzipPermitted(message, force);
+        UseGzip use = gzipPermitted(message, force, contentCodings);
         if (use != UseGzip.NO) {
             // remember the original output stream, we will write compressed
             // data to this later
@@ -148,7 +187,9 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
                 = new GZipThresholdOutputStream(threshold,
                                                 os,
                                                 use == UseGzip.FORCE,
-                                                message);
+                                                message,
+                                                getContentCoding((String)message.get(GZIP_ENCODING_KEY)),
+                                                compressionLevel);
             message.setContent(OutputStream.class, cs);
         }
     }
@@ -168,6 +209,19 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
      *                 that we can support (identity, gzip or x-gzip).
      */
     public static UseGzip gzipPermitted(Message message, boolean force) throws Fault {
+        return gzipPermitted(message, force, DEFAULT_CODINGS);
+    }
+    
+    private ContentCoding getContentCoding(String encoding) {
+        for (ContentCoding coding : contentCodings) {
+            if (coding.getNames().contains(encoding)) {
+                return coding;
+            }
+        }
+        return ContentCoding.GZIP;
+    }
+    
+    static UseGzip gzipPermitted(Message message, boolean force, List<ContentCoding> codings) throws Fault {
         UseGzip permitted = UseGzip.NO;
         if (MessageUtils.isRequestor(message)) {
             LOG.fine("Requestor role, so gzip enabled");
@@ -179,8 +233,13 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
             } else {
                 permitted = force ? UseGzip.YES : UseGzip.NO;
             }
-            message.put(GZIP_ENCODING_KEY, "gzip");
-            addHeader(message, "Accept-Encoding", "gzip;q=1.0, identity; q=0.5, *;q=0"); 
+            StringBuilder acceptEncoding = new StringBuilder();
+            for (ContentCoding coding : codings) {
+                acceptEncoding.append(coding.getNames().get(0)).append(";q=1.0, ");
+            }
+            acceptEncoding.append("identity; q=0.5, *;q=0");
+            message.put(GZIP_ENCODING_KEY, codings.get(0).getNames().get(0));
+            addHeader(message, "Accept-Encoding", acceptEncoding.toString()); 
         } else {
             LOG.fine("Response role, checking accept-encoding");
             Exchange exchange = message.getExchange();
@@ -199,57 +258,49 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
                     if (LOG.isLoggable(Level.FINE)) {
                         LOG.fine("Accept-Encoding header: " + acceptEncodingHeader);
                     }
-                    // Accept-Encoding is a comma separated list of entries, so
-                    // we split it into its component parts and build two
-                    // lists, one with all the "q=0" encodings and the other
-                    // with the rest (no q, or q=<non-zero>).
-                    List<String> zeros = new ArrayList<String>(3);
-                    List<String> nonZeros = new ArrayList<String>(3);
-
+                    // Accept-Encoding is a comma separated list of entries
+                    // with optional quality values
+                    Map<String, Float> qualities = new HashMap<String, Float>();
                     for (String headerLine : acceptEncodingHeader) {
                         String[] encodings = ENCODINGS.split(headerLine.trim());
-
                         for (String enc : encodings) {
-                            Matcher m = ZERO_Q.matcher(enc);
-                            if (m.find()) {
-                                zeros.add(enc.substring(0, m.start()));
-                            } else if (enc.indexOf(';') >= 0) {
-                                nonZeros.add(enc.substring(0, enc.indexOf(';')));
-                            } else {
-                                nonZeros.add(enc);
-                            }
+                            addQuality(qualities, enc);
                         }
                     }
 
-                    // identity encoding is permitted if (a) it is not
-                    // specifically disabled by an identity;q=0 and (b) if
-                    // there is a *;q=0 then there is also an explicit
-                    // identity[;q=<non-zero>]
+                    // identity encoding is permitted unless it is specifically 
+                    // disabled by an identity;q=0 or by a *;q=0 without an 
+                    // explicit identity[;q=<non-zero>].
                     //
-                    // [x-]gzip is permitted if (a) there is an explicit
-                    // [x-]gzip[;q=<non-zero>], or (b) there is a
-                    // *[;q=<non-zero>] and no [x-]gzip;q=0 to disable it.
-                    boolean identityEnabled = !zeros.contains("identity")
-                                              && (!zeros.contains("*") || nonZeros.contains("identity"));
-                    boolean gzipEnabled = nonZeros.contains("gzip")
-                                          || (nonZeros.contains("*") && !zeros.contains("gzip"));
-                    boolean xGzipEnabled = nonZeros.contains("x-gzip")
-                                           || (nonZeros.contains("*") && !zeros.contains("x-gzip"));
-
-                    if (identityEnabled && !gzipEnabled && !xGzipEnabled) {
+                    // a coding is permitted if there is an explicit 
+                    // coding[;q=<non-zero>] or a *[;q=<non-zero>] and no 
+                    // coding;q=0 to disable it, the one with the highest 
+                    // quality is selected.
+                    Float star = qualities.get("*");
+                    Float identity = qualities.get("identity");
+                    float identityQ = identity != null ? identity 
+                        : star != null && star == 0 ? 0 : IMPLICIT_IDENTITY_Q;
+                    
+                    String selected = null;
+                    float selectedQ = 0;
+                    for (ContentCoding coding : codings) {
+                        for (String name : coding.getNames()) {
+                            Float q = qualities.get(name);
+                            if (q == null) {
+                                q = star;
+                            }
+                            if (q != null && q > selectedQ) {
+                                selected = name;
+                                selectedQ = q;
+                            }
+                        }
+                    }
+                    
+                    if ((selected == null && identityQ > 0) || (selected != null && identityQ > selectedQ)) {
                         permitted = UseGzip.NO;
-                    } else if (identityEnabled && gzipEnabled) {
-                        permitted = UseGzip.YES;
-                        message.put(GZIP_ENCODING_KEY, "gzip");
-                    } else if (identityEnabled && xGzipEnabled) {
-                        permitted = UseGzip.YES;
-                        message.put(GZIP_ENCODING_KEY, "x-gzip");
-                    } else if (!identityEnabled && gzipEnabled) {
-                        permitted = UseGzip.FORCE;
-                        message.put(GZIP_ENCODING_KEY, "gzip");
-                    } else if (!identityEnabled && xGzipEnabled) {
-                        permitted = UseGzip.FORCE;
-                        message.put(GZIP_ENCODING_KEY, "x-gzip");
+                    } else if (selected != null) {
+                        permitted = identityQ > 0 ? UseGzip.YES : UseGzip.FORCE;
+                        message.put(GZIP_ENCODING_KEY, selected);
                     } else {
                         throw new Fault(new org.apache.cxf.common.i18n.Message("NO_SUPPORTED_ENCODING",
                                                                                BUNDLE));
@@ -266,21 +317,46 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
         return permitted;
     }
     
+    private static void addQuality(Map<String, Float> qualities, String enc) {
+        String[] parts = enc.split(";");
+        String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+        if (name.length() == 0) {
+            return;
+        }
+        float q = 1;
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    q = Float.parseFloat(param.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    // default quality
+                }
+            }
+        }
+        qualities.put(name, q);
+    }
+    
     static class GZipThresholdOutputStream extends AbstractThresholdOutputStream {
         Message message;
+        ContentCoding coding;
+        int level;
         
         public GZipThresholdOutputStream(int t, OutputStream orig,
                                          boolean force, Message msg) {
-            super(t);
-            super.wrappedStream = orig;
-            message = msg;
-            if (force) {
-                setupGZip();
-            }
+            this(t, orig, force, msg, ContentCoding.GZIP, Deflater.DEFAULT_COMPRESSION);
         }
         
-        private void setupGZip() {
-            
+        public GZipThresholdOutputStream(int t, OutputStream orig,
+                                         boolean force, Message msg,
+                                         ContentCoding coding, int level) {
+            // identity is not acceptable if compression is forced, 
+            // the data is compressed from the first byte
+            super(force ? 0 : t);
+            super.wrappedStream = orig;
+            this.message = msg;
+            this.coding = coding;
+            this.level = level;
         }
 
         @Override
@@ -300,9 +376,8 @@ public class GZIPOutInterceptor extends AbstractPhaseInterceptor<Message> {
                 addHeader(message, "Vary", "Accept-Encoding");
             } 
 
-            // gzip the result
-            GZIPOutputStream zipOutput = new GZIPOutputStream(wrappedStream);
-            wrappedStream = zipOutput;
+            // compress the result, the content is streamed from now on
+            wrappedStream = coding.encode(wrappedStream, level);
         }
     }
     
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.common.gzip;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps the Deflater and Inflater instances released by the content-coding streams
+ * so that their native resources are reused rather than allocated for every message. 
+ */
+final class ZipPool {
+    static final int MAX_POOL_SIZE = 
+        Integer.getInteger("org.apache.cxf.transport.common.gzip.poolSize", 32);
+    
+    private static final Pool<Deflater> DEFLATERS = new Pool<Deflater>();
+    private static final Pool<Deflater> RAW_DEFLATERS = new Pool<Deflater>();
+    private static final Pool<Inflater> INFLATERS = new Pool<Inflater>();
+    private static final Pool<Inflater> RAW_INFLATERS = new Pool<Inflater>();
+    
+    private ZipPool() {
+    }
+    
+    static Deflater getDeflater(int level, boolean nowrap) {
+        Deflater deflater = (nowrap ? RAW_DEFLATERS : DEFLATERS).poll();
+        if (deflater == null) {
+            return new Deflater(level, nowrap);
+        }
+        deflater.setLevel(level);
+        return deflater;
+    }
+    
+    static void release(Deflater deflater, boolean nowrap) {
+        deflater.reset();
+        if (!(nowrap ? RAW_DEFLATERS : DEFLATERS).offer(deflater)) {
+            deflater.end();
+        }
+    }
+    
+    static Inflater getInflater(boolean nowrap) {
+        Inflater inflater = (nowrap ? RAW_INFLATERS : INFLATERS).poll();
+        return inflater == null ? new Inflater(nowrap) : inflater;
+    }
+    
+    static void release(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!(nowrap ? RAW_INFLATERS : INFLATERS).offer(inflater)) {
+            inflater.end();
+        }
+    }
+    
+    private static class Pool<T> {
+        private final Queue<T> queue = new ConcurrentLinkedQueue<T>();
+        private final AtomicInteger size = new AtomicInteger();
+        
+        T poll() {
+            T t = queue.poll();
+            if (t != null) {
+                size.decrementAndGet();
+            }
+            return t;
+        }
+        
+        boolean offer(T t) {
+            if (size.incrementAndGet() > MAX_POOL_SIZE) {
+                size.decrementAndGet();
+                return false;
+            }
+            return queue.offer(t);
+        }
+    }
+}
@@ -0,0 +1,559 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.workqueue;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.classloader.ClassLoaderUtils;
+import org.apache.cxf.common.classloader.ClassLoaderUtils.ClassLoaderHolder;
+import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * An {@link AutomaticWorkQueue} that runs its work on a pluggable {@link Executor} rather than on 
+ * a private ThreadPoolExecutor.  The high water mark bounds the number of work items running 
+ * concurrently, the queue size bounds the number of items waiting for a free slot, and up to 
+ * low water mark idle workers are kept around for the dequeue timeout so that bursts do not 
+ * have to go back to the executor for every item.
+ * <p>
+ * Two executors are built in: {@link #MODE_FORK_JOIN} runs the workers on a work stealing 
+ * ForkJoinPool and {@link #MODE_THREAD} starts a new daemon thread per worker.  Any other 
+ * executor, for example a virtual-thread-per-task executor on a JDK that provides one, can be 
+ * injected with {@link #setExecutor(Executor)}.  An injected executor is not shut down when the 
+ * queue is shut down.
+ * <p>
+ * Admission is lock free, so unlike {@link AutomaticWorkQueueImpl} no JDK internals are needed to 
+ * grow the number of workers before the queue fills up.
+ */
+@NoJSR250Annotations
+public class ExecutorWorkQueueImpl implements AutomaticWorkQueue {
+    public static final String MODE_FORK_JOIN = "forkjoin";
+    public static final String MODE_THREAD = "thread";
+    
+    /**
+     * Bus property used by the WorkQueueManager to select the mode of the default queue.
+     */
+    public static final String EXECUTOR_MODE_PROPERTY = "org.apache.cxf.workqueue.executorMode";
+    
+    static final int DEFAULT_MAX_QUEUE_SIZE = AutomaticWorkQueueImpl.DEFAULT_MAX_QUEUE_SIZE;
+    static final int MAX_FORK_JOIN_PARALLELISM = 0x7fff;
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(ExecutorWorkQueueImpl.class);
+    private static final Runnable WAKE_UP = new Runnable() {
+        public void run() {
+        }
+    };
+
+    String name = "default";
+    String mode = MODE_FORK_JOIN;
+    int maxQueueSize;
+    int initialThreads;
+    volatile int lowWaterMark;
+    volatile int highWaterMark;
+    volatile long dequeueTimeout;
+    
+    final AtomicInteger workers = new AtomicInteger();
+    final AtomicInteger idleWorkers = new AtomicInteger();
+    final AtomicInteger largestPoolSize = new AtomicInteger();
+    final AtomicLong completedCount = new AtomicLong();
+    final AtomicLong rejectedCount = new AtomicLong();
+    
+    volatile boolean started;
+    volatile boolean shutdown;
+    BlockingQueue<Runnable> pending;
+    Executor executor;
+    boolean ownsExecutor;
+    volatile ScheduledThreadPoolExecutor scheduler;
+    
+    public ExecutorWorkQueueImpl() {
+        this("default");
+    }
+    public ExecutorWorkQueueImpl(String name) {
+        this(name, MODE_FORK_JOIN);
+    }
+    public ExecutorWorkQueueImpl(String name, String mode) {
+        this(DEFAULT_MAX_QUEUE_SIZE, 0, 25, 5, 2 * 60 * 1000L, name);
+        setMode(mode);
+    }
+    public ExecutorWorkQueueImpl(int mqs, 
+                                 int initialThreads, 
+                                 int highWaterMark, 
+                                 int lowWaterMark,
+                                 long dequeueTimeout,
+                                 String name) {
+        this.maxQueueSize = mqs == -1 ? DEFAULT_MAX_QUEUE_SIZE : mqs;
+        this.initialThreads = initialThreads;
+        this.highWaterMark = -1 == highWaterMark ? Integer.MAX_VALUE : highWaterMark;
+        this.lowWaterMark = -1 == lowWaterMark ? Integer.MAX_VALUE : lowWaterMark;
+        this.dequeueTimeout = dequeueTimeout;
+        this.name = name;
+    }
+    
+    public void setName(String s) {
+        name = s;
+    }
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Selects one of the built in executors, {@link #MODE_FORK_JOIN} or {@link #MODE_THREAD}.
+     * Has no effect once the queue has started or if an executor has been injected.
+     */
+    public void setMode(String m) {
+        if (m != null && !MODE_FORK_JOIN.equals(m) && !MODE_THREAD.equals(m)) {
+            throw new IllegalArgumentException("Unknown work queue executor mode: " + m);
+        }
+        mode = m == null ? MODE_FORK_JOIN : m;
+    }
+    public String getMode() {
+        return executor != null && !ownsExecutor ? executor.getClass().getName() : mode;
+    }
+    
+    /**
+     * Sets the executor the workers are submitted to.  Must be called before the first work item
+     * is executed.  The executor should not queue workers itself, the queueing is done here.
+     */
+    public synchronized void setExecutor(Executor ex) {
+        if (started) {
+            throw new IllegalStateException("Work queue " + name + " has already been started");
+        }
+        executor = ex;
+        ownsExecutor = false;
+    }
+    
+    private void ensureStarted() {
+        if (!started) {
+            start();
+        }
+    }
+    
+    private synchronized void start() {
+        if (started) {
+            return;
+        }
+        pending = new LinkedBlockingQueue<Runnable>(maxQueueSize);
+        if (executor == null) {
+            executor = createExecutor();
+            ownsExecutor = true;
+        }
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.fine("Constructing " + getMode() + " work queue " + name 
+                     + " with max queue size: " + maxQueueSize
+                     + ", initialThreads: " + initialThreads
+                     + ", lowWaterMark: " + lowWaterMark
+                     + ", highWaterMark: " + highWaterMark);
+        }
+        started = true;
+        
+        int initial = Math.min(initialThreads, highWaterMark);
+        int count = 0;
+        for (int x = 0; x < initial; x++) {
+            if (tryStartWorker(null)) {
+                count++;
+            }
+        }
+        if (count < initial) {
+            LOG.log(Level.WARNING, "THREAD_START_FAILURE_MSG", new Object[] {count, initial});
+        }
+    }
+    
+    private Executor createExecutor() {
+        final WorkerThreadFactory factory = new WorkerThreadFactory(name);
+        if (MODE_THREAD.equals(mode)) {
+            return new Executor() {
+                public void execute(Runnable r) {
+                    factory.newThread(r).start();
+                }
+            };
+        }
+        int parallelism = Math.min(highWaterMark, MAX_FORK_JOIN_PARALLELISM);
+        return new ForkJoinPool(Math.max(parallelism, 1), factory, null, true);
+    }
+    
+    public void execute(Runnable command) {
+        submit(wrap(command), 0);
+    }
+    
+    // WorkQueue interface
+    public void execute(Runnable work, long timeout) {
+        submit(wrap(work), timeout);
+    }
+    
+    private Runnable wrap(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        //Grab the context classloader of this thread.   We'll make sure we use that 
+        //on the thread the runnable actually runs on.
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return new Runnable() {
+            public void run() {
+                ClassLoaderHolder orig = ClassLoaderUtils.setThreadContextClassloader(loader);
+                try {
+                    command.run();
+                } finally {
+                    if (orig != null) {
+                        orig.reset();
+                    }
+                }
+            }
+        };
+    }
+    
+    private void submit(Runnable r, long timeout) {
+        ensureStarted();
+        if (shutdown) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Work queue " + name + " has been shut down");
+        }
+        // hand the item to an idle worker if there is one, otherwise grow up to the 
+        // high water mark before anything is queued
+        if (idleWorkers.get() > 0 && pending.offer(r)) {
+            wakeWorkerIfNeeded();
+            return;
+        }
+        if (tryStartWorker(r)) {
+            return;
+        }
+        boolean queued;
+        try {
+            queued = timeout > 0 ? pending.offer(r, timeout, TimeUnit.MILLISECONDS) : pending.offer(r);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Work queue " + name + " is full");
+        }
+        wakeWorkerIfNeeded();
+    }
+    
+    private void wakeWorkerIfNeeded() {
+        // all the workers may have finished between the checks and the offer
+        if (idleWorkers.get() == 0 && !pending.isEmpty()) {
+            tryStartWorker(null);
+        }
+    }
+    
+    private boolean tryStartWorker(Runnable first) {
+        while (true) {
+            int count = workers.get();
+            if (count >= highWaterMark) {
+                return false;
+            }
+            if (workers.compareAndSet(count, count + 1)) {
+                updateLargestPoolSize(count + 1);
+                break;
+            }
+        }
+        try {
+            executor.execute(new Worker(first));
+        } catch (RejectedExecutionException ex) {
+            workers.decrementAndGet();
+            LOG.log(Level.FINE, "Could not start a worker for work queue " + name, ex);
+            return false;
+        }
+        return true;
+    }
+    
+    private void updateLargestPoolSize(int size) {
+        int largest = largestPoolSize.get();
+        while (size > largest && !largestPoolSize.compareAndSet(largest, size)) {
+            largest = largestPoolSize.get();
+        }
+    }
+    
+    private boolean tryIdle() {
+        while (!shutdown) {
+            int idle = idleWorkers.get();
+            if (idle >= lowWaterMark) {
+                return false;
+            }
+            if (idleWorkers.compareAndSet(idle, idle + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    class Worker implements Runnable {
+        Runnable first;
+        
+        Worker(Runnable r) {
+            first = r;
+        }
+        
+        public void run() {
+            Runnable task = first;
+            first = null;
+            try {
+                while (true) {
+                    if (task == null) {
+                        task = pending.poll();
+                    }
+                    if (task == null && tryIdle()) {
+                        try {
+                            task = pending.poll(dequeueTimeout, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            idleWorkers.decrementAndGet();
+                        }
+                    }
+                    if (task == null) {
+                        break;
+                    }
+                    if (task != WAKE_UP) {
+                        runTask(task);
+                    }
+                    task = null;
+                }
+            } finally {
+                workers.decrementAndGet();
+                if (!pending.isEmpty()) {
+                    tryStartWorker(null);
+                }
+            }
+        }
+        
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                LOG.log(Level.WARNING, "WORK_ITEM_FAILURE_MSG", ex);
+            } finally {
+                completedCount.incrementAndGet();
+            }
+        }
+    }
+
+    public void schedule(final Runnable work, final long delay) {
+        ScheduledThreadPoolExecutor s = scheduler;
+        if (s == null) {
+            synchronized (this) {
+                s = scheduler;
+                if (s == null) {
+                    s = new ScheduledThreadPoolExecutor(1, new WorkerThreadFactory(name + "-scheduler"));
+                    scheduler = s;
+                }
+            }
+        }
+        s.schedule(new Runnable() {
+            public void run() {
+                try {
+                    execute(work);
+                } catch (Exception ex) {
+                    LOG.warning("Executing the scheduled task with exception: " + ex);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+    
+    // AutomaticWorkQueue interface
+    
+    public void shutdown(boolean processRemainingWorkItems) {
+        shutdown = true;
+        if (!started) {
+            return;
+        }
+        if (!processRemainingWorkItems) {
+            pending.clear();
+        }
+        // release the idle workers right away rather than after the dequeue timeout
+        for (int x = idleWorkers.get(); x > 0; x--) {
+            if (!pending.offer(WAKE_UP)) {
+                break;
+            }
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (ownsExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService)executor).shutdown();
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+    
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(super.toString());
+        buf.append(" [mode: ");
+        buf.append(getMode());
+        buf.append(", queue size: ");
+        buf.append(getSize());
+        buf.append(", max size: ");
+        buf.append(maxQueueSize);
+        buf.append(", threads: ");
+        buf.append(getPoolSize());
+        buf.append(", active threads: ");
+        buf.append(getActiveCount());
+        buf.append(", low water mark: ");
+        buf.append(getLowWaterMark());
+        buf.append(", high water mark: ");
+        buf.append(getHighWaterMark());
+        buf.append("]");
+        return buf.toString();
+    }
+
+    /**
+     * Gets the maximum size (capacity) of the backing queue.
+     * @return the maximum size (capacity) of the backing queue.
+     */
+    public long getMaxSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Gets the current size of the backing queue.
+     * @return the current size of the backing queue.
+     */
+    public long getSize() {
+        return started ? pending.size() : 0;
+    }
+
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    public boolean isFull() {
+        return started && pending.remainingCapacity() == 0;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark == Integer.MAX_VALUE ? -1 : highWaterMark;
+    }
+
+    public int getLowWaterMark() {
+        return lowWaterMark == Integer.MAX_VALUE ? -1 : lowWaterMark;
+    }
+    
+    public int getInitialSize() {
+        return initialThreads;
+    }
+
+    /**
+     * Sets the maximum number of concurrently running work items.  With the fork join mode the 
+     * pool parallelism is fixed when the queue starts, so raising it afterwards only lets
+     * more workers queue up inside the pool.
+     */
+    public void setHighWaterMark(int hwm) {
+        highWaterMark = hwm < 0 ? Integer.MAX_VALUE : hwm;
+    }
+
+    public void setLowWaterMark(int lwm) {
+        lowWaterMark = lwm < 0 ? 0 : lwm;
+    }
+
+    public void setInitialSize(int initialSize) {
+        initialThreads = initialSize;
+    }
+    
+    public void setQueueSize(int size) {
+        maxQueueSize = size;
+    }
+    
+    public void setDequeueTimeout(long l) {
+        dequeueTimeout = l;
+    }
+    
+    public int getLargestPoolSize() {
+        return largestPoolSize.get();
+    }
+    
+    /**
+     * Returns the number of workers, busy or idle.
+     */
+    public int getPoolSize() {
+        return workers.get();
+    }
+    
+    /**
+     * Returns the number of workers currently running a work item.
+     */
+    public int getActiveCount() {
+        return Math.max(0, workers.get() - idleWorkers.get());
+    }
+    
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+    
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+    
+    static class WorkerThreadFactory implements ThreadFactory, ForkJoinPool.ForkJoinWorkerThreadFactory {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String name;
+        final ClassLoader loader;
+        
+        WorkerThreadFactory(String nm) {
+            name = nm;
+            //force the loader to be the loader of CXF, not the application loader
+            loader = ExecutorWorkQueueImpl.class.getClassLoader();
+        }
+        
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, name + "-workqueue-" + threadNumber.getAndIncrement());
+            return init(t);
+        }
+        
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread t = new ForkJoinWorkerThread(pool) {
+            };
+            t.setName(name + "-workqueue-" + threadNumber.getAndIncrement());
+            return init(t);
+        }
+        
+        private <T extends Thread> T init(final T t) {
+            AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                public Boolean run() {
+                    t.setContextClassLoader(loader);
+                    return true;
+                }
+            });
+            t.setDaemon(true);
+            if (t.getPriority() != Thread.NORM_PRIORITY) {
+                t.setPriority(Thread.NORM_PRIORITY);
+            }
+            return t;
+        }
+    }
+}
@@ -66,6 +66,7 @@ import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.jaxb.JAXBContextCache;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.xmlschema.LSInputImpl;
+import org.apache.cxf.common.xmlschema.SchemaGrammarCache;
 import org.apache.cxf.endpoint.EndpointResolverRegistry;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.endpoint.ServerRegistry;
@@ -625,9 +626,21 @@ public final class EndpointReferenceUtils {
                 } 
 
 
-                factory.setResourceResolver(new SchemaLSResourceResolver(schemaSourcesMap, b));
-                schema = factory.newSchema(schemaSourcesMap2.values()
-                                           .toArray(new Source[schemaSourcesMap2.size()]));
+                // endpoints sharing the same schema documents share the compiled Schema
+                SchemaGrammarCache cache = SchemaGrammarCache.getInstance(b);
+                String key = null;
+                if (cache != null) {
+                    key = SchemaGrammarCache.createKey(Schema.class.getName(), schemaSourcesMap);
+                    schema = cache.get(key, Schema.class);
+                }
+                if (schema == null) {
+                    factory.setResourceResolver(new SchemaLSResourceResolver(schemaSourcesMap, b));
+                    schema = factory.newSchema(schemaSourcesMap2.values()
+                                               .toArray(new Source[schemaSourcesMap2.size()]));
+                    if (cache != null) {
+                        schema = cache.put(key, schema);
+                    }
+                }
                 
                 
             } catch (Exception ex) {
@@ -357,6 +357,34 @@ public class AttachmentDeserializerTest extends Assert {
         m.close();
     }
     
+    @Test
+    public void testPartWithBoundaryPrefixes() throws Exception {
+        byte[] boundary = "--uuid:0a1b2c3d".getBytes("UTF-8");
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            // fragments of the boundary that must not end the part
+            body.append("\r\n--uuid:0a1b").append(i).append("\r\n-").append('-');
+        }
+        byte[] expected = body.toString().getBytes("UTF-8");
+        byte[] messageBytes = (body + "\r\n--uuid:0a1b2c3d\r\nnext").getBytes("UTF-8");
+
+        for (int chunk : new int[] {1, 7, 33, 4096}) {
+            PushbackInputStream pushbackStream
+                = new PushbackInputStream(new ByteArrayInputStream(messageBytes), 2048);
+            MimeBodyPartInputStream m = new MimeBodyPartInputStream(pushbackStream, boundary, 2048);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[chunk];
+            int n = m.read(buf, 0, chunk);
+            while (n != -1) {
+                out.write(buf, 0, n);
+                n = m.read(buf, 0, chunk);
+            }
+            assertArrayEquals(expected, out.toByteArray());
+            assertEquals('n', pushbackStream.read());
+            m.close();
+        }
+    }
+
     @Test
     public void testCXF2542() throws Exception {
         StringBuilder buf = new StringBuilder();
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.common.xmlschema;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SchemaGrammarCacheTest extends Assert {
+
+    @Test
+    public void testKeyIgnoresOrderButNotContent() throws Exception {
+        Map<String, byte[]> first = new LinkedHashMap<String, byte[]>();
+        first.put("a.xsd:urn:a", "<schema a/>".getBytes("UTF-8"));
+        first.put("b.xsd:urn:b", "<schema b/>".getBytes("UTF-8"));
+        Map<String, byte[]> second = new LinkedHashMap<String, byte[]>();
+        second.put("b.xsd:urn:b", "<schema b/>".getBytes("UTF-8"));
+        second.put("a.xsd:urn:a", "<schema a/>".getBytes("UTF-8"));
+
+        String key = SchemaGrammarCache.createKey("kind", first);
+        assertEquals(key, SchemaGrammarCache.createKey("kind", second));
+        assertFalse(key.equals(SchemaGrammarCache.createKey("other", first)));
+
+        Map<String, byte[]> changed = new HashMap<String, byte[]>(first);
+        changed.put("b.xsd:urn:b", "<schema c/>".getBytes("UTF-8"));
+        assertFalse(key.equals(SchemaGrammarCache.createKey("kind", changed)));
+    }
+
+    @Test
+    public void testSharedPerBus() {
+        Bus bus = new ExtensionManagerBus();
+        try {
+            SchemaGrammarCache cache = SchemaGrammarCache.getInstance(bus);
+            assertSame(cache, SchemaGrammarCache.getInstance(bus));
+            assertNull(SchemaGrammarCache.getInstance(null));
+
+            Object grammar = new Object();
+            assertSame(grammar, cache.put("k", grammar));
+            assertSame(grammar, cache.put("k", new Object()));
+            assertSame(grammar, cache.get("k", Object.class));
+            assertNull(cache.get("k", String.class));
+            assertEquals(1, cache.size());
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+}
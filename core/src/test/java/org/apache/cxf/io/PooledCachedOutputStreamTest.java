@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Runs the CachedOutputStream tests with the pooled direct buffer backend.
+ */
+public class PooledCachedOutputStreamTest extends CachedOutputStreamTest {
+    
+    @Override
+    protected Object createCache() {
+        CachedOutputStream cos = new CachedOutputStream();
+        cos.setPooledBuffers(true);
+        return cos;
+    }
+    
+    @Override
+    protected Object createCache(long threshold, String transformation) {
+        CachedOutputStream cos = (CachedOutputStream)createCache();
+        cos.setThreshold(threshold);
+        cos.setCipherTransformation(transformation);
+        return cos;
+    }
+    
+    @Test
+    public void testSlabsReturnedAfterRead() throws IOException {
+        DirectBufferPool pool = new DirectBufferPool(1024, 8);
+        DirectBufferOutputStream out = new DirectBufferOutputStream(pool);
+        String result = initTestData(3);
+        out.write(result.getBytes("utf-8"));
+        assertEquals(result.length(), out.size());
+        assertEquals(3, pool.getInUseSlabs());
+        
+        InputStream in = out.createInputStream();
+        out.release();
+        assertEquals(3, pool.getInUseSlabs());
+        assertEquals(result, readFromStream(in));
+        in.close();
+        assertEquals(0, pool.getInUseSlabs());
+        assertEquals(3, pool.getIdleSlabs());
+        
+        out.write(result.getBytes("utf-8"));
+        assertEquals(3, pool.getReusedSlabs());
+        assertEquals(result, new String(out.toByteArray(), "utf-8"));
+    }
+    
+    @Test
+    public void testResetKeepsSlabsOfOpenInputs() throws IOException {
+        DirectBufferPool pool = new DirectBufferPool(1024, 8);
+        DirectBufferOutputStream out = new DirectBufferOutputStream(pool);
+        String result = initTestData(3);
+        out.write(result.getBytes("utf-8"));
+        InputStream in = out.createInputStream();
+        
+        out.reset();
+        assertEquals(0, out.size());
+        assertEquals(3, pool.getInUseSlabs());
+        // the new content must not go to the slabs which are still read
+        byte[] other = new byte[3 * 1024];
+        out.write(other);
+        assertEquals(6, pool.getInUseSlabs());
+        assertEquals(result, readFromStream(in));
+        in.close();
+        assertEquals(3, pool.getInUseSlabs());
+        assertEquals(other.length, out.toByteArray().length);
+        
+        out.release();
+        assertEquals(0, pool.getInUseSlabs());
+    }
+    
+    @Test
+    public void testPoolIsBounded() throws IOException {
+        DirectBufferPool pool = new DirectBufferPool(16, 2);
+        DirectBufferOutputStream out = new DirectBufferOutputStream(pool);
+        out.write(new byte[64]);
+        out.release();
+        assertEquals(2, pool.getIdleSlabs());
+        assertEquals(2, pool.getDiscardedSlabs());
+    }
+    
+    @Test
+    public void testReadFromCacheAfterClose() throws IOException {
+        CachedOutputStream cos = (CachedOutputStream)createCache();
+        String result = initTestData(16);
+        cos.write(result.getBytes("utf-8"));
+        InputStream in = cos.getInputStream();
+        cos.close();
+        assertEquals(result, new String(cos.getBytes(), "utf-8"));
+        assertEquals(result, readFromStream(in));
+        in.close();
+    }
+    
+    @Test
+    public void testReadLockedCacheMoreThanOnce() throws IOException {
+        DirectBufferPool pool = DirectBufferPool.getDefaultPool();
+        int inUse = pool.getInUseSlabs();
+        CachedOutputStream cos = (CachedOutputStream)createCache(1024 * 1024, null);
+        String result = initTestData(16);
+        cos.write(result.getBytes("utf-8"));
+        cos.lockOutputStream();
+        
+        InputStream in = cos.getInputStream();
+        assertEquals(result, readFromStream(in));
+        in.close();
+        in = cos.getInputStream();
+        assertEquals(result, readFromStream(in));
+        in.close();
+        assertEquals(result, new String(cos.getBytes(), "utf-8"));
+        
+        cos.close();
+        assertEquals(inUse, pool.getInUseSlabs());
+    }
+    
+    @Test
+    public void testHeldCacheKeptAfterClose() throws IOException {
+        CachedOutputStream cos = (CachedOutputStream)createCache();
+        String result = initTestData(16);
+        cos.write(result.getBytes("utf-8"));
+        cos.holdTempFile();
+        cos.close();
+        InputStream in = cos.getInputStream();
+        assertEquals(result, readFromStream(in));
+        in.close();
+        assertEquals(result, new String(cos.getBytes(), "utf-8"));
+    }
+}
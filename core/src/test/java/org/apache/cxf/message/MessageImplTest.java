@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.message;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.EndpointImpl;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.ServiceImpl;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MessageImplTest extends Assert {
+    
+    private IMocksControl control;
+    private Bus bus;
+    private Exchange exchange;
+    private Message message;
+    
+    @Before
+    public void setUp() {
+        control = EasyMock.createNiceControl();
+        bus = control.createMock(Bus.class);
+        EasyMock.expect(bus.getProperty("a")).andReturn("bus-a").anyTimes();
+        EasyMock.expect(bus.getProperty("b")).andReturn("bus-b").anyTimes();
+        EasyMock.expect(bus.getProperty("c")).andReturn("bus-c").anyTimes();
+        control.replay();
+        
+        exchange = new ExchangeImpl();
+        exchange.put(Bus.class, bus);
+        message = new MessageImpl();
+        exchange.setInMessage(message);
+    }
+    
+    @Test
+    public void testContextualPropertyPrecedence() {
+        exchange.put("b", "exchange-b");
+        exchange.put("c", "exchange-c");
+        message.put("c", "message-c");
+        
+        assertEquals("bus-a", message.getContextualProperty("a"));
+        assertEquals("exchange-b", message.getContextualProperty("b"));
+        assertEquals("message-c", message.getContextualProperty("c"));
+        assertNull(message.getContextualProperty("d"));
+    }
+    
+    @Test
+    public void testContextualPropertySeesLaterChanges() {
+        assertEquals("bus-a", message.getContextualProperty("a"));
+        exchange.put("a", "exchange-a");
+        assertEquals("exchange-a", message.getContextualProperty("a"));
+        message.put("a", "message-a");
+        assertEquals("message-a", message.getContextualProperty("a"));
+        message.remove("a");
+        assertEquals("exchange-a", message.getContextualProperty("a"));
+    }
+    
+    @Test
+    public void testExchangePropertyRemovalHidesLowerLayers() {
+        exchange.put("a", null);
+        assertNull(message.getContextualProperty("a"));
+        assertFalse(message.getContextualPropertyKeys().contains("a"));
+        
+        exchange.put("a", "exchange-a");
+        assertEquals("exchange-a", message.getContextualProperty("a"));
+        
+        exchange.put("a", null);
+        message.resetContextCache();
+        assertEquals("bus-a", message.getContextualProperty("a"));
+    }
+    
+    @Test
+    public void testContextualPropertyKeys() {
+        exchange.put("b", "exchange-b");
+        message.put("c", "message-c");
+        assertTrue(message.getContextualPropertyKeys().contains("b"));
+        assertTrue(message.getContextualPropertyKeys().contains("c"));
+    }
+    
+    @Test
+    public void testInheritedPropertiesCachedPerEndpoint() throws Exception {
+        ExtensionManagerBus b = new ExtensionManagerBus();
+        ServiceImpl service = new ServiceImpl();
+        EndpointInfo ei = new EndpointInfo();
+        EndpointImpl endpoint = new EndpointImpl(b, service, ei);
+        b.setProperty("a", "bus-a");
+        service.put("b", "service-b");
+        ei.setProperty("c", "model-c");
+        endpoint.put("d", "endpoint-d");
+        
+        Message m = createMessage(b, service, endpoint);
+        assertEquals("bus-a", m.getContextualProperty("a"));
+        assertEquals("service-b", m.getContextualProperty("b"));
+        assertEquals("model-c", m.getContextualProperty("c"));
+        assertEquals("endpoint-d", m.getContextualProperty("d"));
+        assertNull(m.getContextualProperty("e"));
+        
+        // the messages of the endpoint share the cache
+        ContextualPropertyCache cache = endpoint.getContextualPropertyCache(service, b);
+        assertNotNull(cache);
+        Message m2 = createMessage(b, service, endpoint);
+        assertEquals("endpoint-d", m2.getContextualProperty("d"));
+        assertSame(cache, endpoint.getContextualPropertyCache(service, b));
+        
+        // the next lookup sees a change of any layer
+        b.setProperty("e", "bus-e");
+        assertEquals("bus-e", m.getContextualProperty("e"));
+        b.getProperties().put("a", "bus-a2");
+        assertEquals("bus-a2", m.getContextualProperty("a"));
+        service.put("a", "service-a");
+        assertEquals("service-a", m.getContextualProperty("a"));
+        ei.setProperty("b", "model-b");
+        assertEquals("model-b", m.getContextualProperty("b"));
+        endpoint.put("c", "endpoint-c");
+        endpoint.remove("d");
+        assertEquals("endpoint-c", m.getContextualProperty("c"));
+        assertNull(m.getContextualProperty("d"));
+        assertNotSame(cache, endpoint.getContextualPropertyCache(service, b));
+        
+        // the message and exchange properties still take precedence
+        m.getExchange().put("c", "exchange-c");
+        assertEquals("exchange-c", m.getContextualProperty("c"));
+        m.put("c", "message-c");
+        assertEquals("message-c", m.getContextualProperty("c"));
+        assertEquals("endpoint-c", m2.getContextualProperty("c"));
+    }
+    
+    private static Message createMessage(Bus b, Service service, Endpoint endpoint) {
+        Exchange ex = new ExchangeImpl();
+        ex.put(Bus.class, b);
+        ex.put(Service.class, service);
+        ex.put(Endpoint.class, endpoint);
+        Message m = new MessageImpl();
+        ex.setInMessage(m);
+        return m;
+    }
+}
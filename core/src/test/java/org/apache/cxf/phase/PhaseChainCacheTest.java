@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.phase;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.cxf.common.util.ModCountCopyOnWriteArrayList;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Message;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PhaseChainCacheTest extends Assert {
+
+    private SortedSet<Phase> phases;
+    private PhaseChainCache cache;
+    
+    @Before
+    public void setUp() {
+        phases = new TreeSet<Phase>();
+        phases.add(new Phase("phase1", 1));
+        phases.add(new Phase("phase2", 2));
+        cache = new PhaseChainCache();
+    }
+    
+    @Test
+    public void testChainsPerInterceptorLists() {
+        List<Interceptor<? extends Message>> bus = newList(new TestInterceptor("phase1", "bus"));
+        TestInterceptor i1 = new TestInterceptor("phase2", "ep1");
+        TestInterceptor i2 = new TestInterceptor("phase2", "ep2");
+        List<Interceptor<? extends Message>> ep1 = newList(i1);
+        List<Interceptor<? extends Message>> ep2 = newList(i2);
+        
+        for (int x = 0; x < 3; x++) {
+            assertLast(i1, cache.get(phases, bus, ep1));
+            assertLast(i2, cache.get(phases, bus, ep2));
+        }
+        assertEquals(2, cache.size());
+    }
+    
+    @Test
+    public void testChainRebuiltAfterModification() {
+        List<Interceptor<? extends Message>> bus = newList(new TestInterceptor("phase1", "bus"));
+        TestInterceptor i1 = new TestInterceptor("phase2", "ep1");
+        List<Interceptor<? extends Message>> ep = newList(i1);
+        
+        assertLast(i1, cache.get(phases, bus, ep));
+        
+        TestInterceptor i2 = new TestInterceptor("phase2", "ep2");
+        ep.add(i2);
+        assertLast(i2, cache.get(phases, bus, ep));
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    public void testChainsDoNotShareModifications() {
+        TestInterceptor i1 = new TestInterceptor("phase1", "i1");
+        TestInterceptor i2 = new TestInterceptor("phase2", "i2");
+        List<Interceptor<? extends Message>> ep = newList(i1);
+        
+        PhaseInterceptorChain chain = cache.get(phases, ep);
+        chain.add(i2);
+        assertLast(i2, chain);
+        assertLast(i1, cache.get(phases, ep));
+    }
+    
+    private static List<Interceptor<? extends Message>> newList(Interceptor<? extends Message> i) {
+        List<Interceptor<? extends Message>> list 
+            = new ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>();
+        list.add(i);
+        return list;
+    }
+    
+    private static void assertLast(Interceptor<? extends Message> expected, PhaseInterceptorChain chain) {
+        Interceptor<? extends Message> last = null;
+        for (Iterator<Interceptor<? extends Message>> it = chain.iterator(); it.hasNext();) {
+            last = it.next();
+        }
+        assertSame(expected, last);
+    }
+    
+    static class TestInterceptor extends AbstractPhaseInterceptor<Message> {
+        TestInterceptor(String phase, String id) {
+            super(id, phase);
+        }
+        
+        public void handleMessage(Message message) {
+        }
+    }
+}
@@ -20,8 +20,11 @@
 package org.apache.cxf.phase;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -32,6 +35,8 @@ import org.apache.cxf.continuations.SuspendedInvocationException;
 import org.apache.cxf.interceptor.Interceptor;
 import org.apache.cxf.interceptor.InterceptorChain;
 import org.apache.cxf.logging.FaultListener;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.FaultMode;
 import org.apache.cxf.message.Message;
 import org.easymock.EasyMock;
@@ -392,6 +397,85 @@ public class PhaseInterceptorChainTest extends Assert {
         assertEquals(1, p3.invoked);
     }
     
+    @Test
+    public void testPhaseTimerNotified() throws Exception {
+        CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1", "p1");
+        CountingPhaseInterceptor p2 = new CountingPhaseInterceptor("phase1", "p2");
+        CountingPhaseInterceptor p3 = new CountingPhaseInterceptor("phase3", "p3");
+        chain.add(p1);
+        chain.add(p2);
+        chain.add(p3);
+        
+        RecordingPhaseTimer timer = new RecordingPhaseTimer();
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(PhaseTimer.class, timer);
+        message.getExchange();
+        EasyMock.expectLastCall().andReturn(exchange).anyTimes();
+        control.replay();
+        
+        assertTrue(chain.doIntercept(message));
+        assertEquals(Arrays.asList("phase1", "phase3", "leave"), timer.events);
+    }
+    
+    @Test
+    public void testPhaseTimerSetWhileRunning() throws Exception {
+        final RecordingPhaseTimer timer = new RecordingPhaseTimer();
+        CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1", "p1");
+        CountingPhaseInterceptor p2 = new CountingPhaseInterceptor("phase2", "p2") {
+            public void handleMessage(Message m) {
+                super.handleMessage(m);
+                chain.setPhaseTimer(m, timer);
+            }
+        };
+        CountingPhaseInterceptor p3 = new CountingPhaseInterceptor("phase3", "p3");
+        chain.add(p1);
+        chain.add(p2);
+        chain.add(p3);
+        control.replay();
+        
+        assertTrue(chain.doIntercept(message));
+        assertEquals(Arrays.asList("phase2", "phase3", "leave"), timer.events);
+    }
+    
+    @Test
+    public void testChainFromTemplateCopiedOnWrite() throws Exception {
+        CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1", "p1");
+        CountingPhaseInterceptor p2 = new CountingPhaseInterceptor("phase2", "p2");
+        CountingPhaseInterceptor p3 = new CountingPhaseInterceptor("phase3", "p3");
+        ChainInsertingPhaseInterceptor inserter = 
+            new ChainInsertingPhaseInterceptor(p2, "phase1", "inserter");
+        chain.add(p1);
+        chain.add(inserter);
+        chain.add(p3);
+        
+        PhaseInterceptorChain chain1 = chain.newChainFromTemplate();
+        message.getInterceptorChain();
+        EasyMock.expectLastCall().andReturn(chain1).anyTimes();
+        control.replay();
+        
+        assertTrue(chain1.doIntercept(message));
+        assertEquals(1, p1.invoked);
+        assertEquals(1, p2.invoked);
+        assertEquals(1, p3.invoked);
+        
+        Iterator<Interceptor<? extends Message>> it = chain.iterator();
+        assertSame(p1, it.next());
+        assertSame(inserter, it.next());
+        assertSame(p3, it.next());
+        assertFalse(it.hasNext());
+        
+        PhaseInterceptorChain chain2 = chain.newChainFromTemplate();
+        chain2.remove(inserter);
+        assertTrue(chain2.doIntercept(message));
+        assertEquals(2, p1.invoked);
+        assertEquals(1, p2.invoked);
+        assertEquals(2, p3.invoked);
+        
+        it = chain.iterator();
+        it.next();
+        assertSame(inserter, it.next());
+    }
+    
     AbstractPhaseInterceptor<Message> setUpPhaseInterceptor(String phase, String id) throws Exception {
         return setUpPhaseInterceptor(phase, id, null, null);
     }
@@ -501,6 +585,21 @@ public class PhaseInterceptorChainTest extends Assert {
         }
     }
 
+    public class ChainInsertingPhaseInterceptor extends
+            AbstractPhaseInterceptor<Message> {
+        private final AbstractPhaseInterceptor<? extends Message> insertionInterceptor;
+
+        public ChainInsertingPhaseInterceptor(AbstractPhaseInterceptor<? extends Message> i,
+                                              String phase, String id) {
+            super(id, phase);
+            insertionInterceptor = i;
+        }
+
+        public void handleMessage(Message m) {
+            m.getInterceptorChain().add(insertionInterceptor);
+        }
+    }
+
     public class CountingPhaseInterceptor extends
             AbstractPhaseInterceptor<Message> {
         int invoked;
@@ -514,6 +613,18 @@ public class PhaseInterceptorChainTest extends Assert {
         }
     }
     
+    static class RecordingPhaseTimer implements PhaseTimer {
+        final List<String> events = new ArrayList<String>();
+        
+        public void enterPhase(Message m, String phase, long nanoTime) {
+            events.add(phase);
+        }
+        
+        public void leaveChain(Message m, long nanoTime) {
+            events.add("leave");
+        }
+    }
+    
     public class WrapperingPhaseInterceptor extends CountingPhaseInterceptor {
         public WrapperingPhaseInterceptor(String phase, String id) {
             super(phase, id);
@@ -260,6 +260,43 @@ public class InTransformReaderTest extends Assert {
                                   transformElements, appendElements, null, null, null);
     }
 
+    @Test
+    public void testReadWithSharedTransformPlan() throws Exception {
+        Map<String, String> transformElements = new HashMap<String, String>();
+        transformElements.put("requestValue",
+                              "{http://cxf.apache.org/hello_world_soap_http/types}requestType");
+        
+        Map<String, String> appendElements = new HashMap<String, String>();
+        appendElements.put("requestValue",
+                           "{http://cxf.apache.org/hello_world_soap_http/types}greetMe");
+
+        TransformPlan plan = new TransformPlan(transformElements, appendElements, null, null);
+        // the append rules must be applied again by every reader sharing the plan
+        for (int i = 0; i < 2; i++) {
+            XMLStreamReader reader = new InTransformReader(StaxUtils.createXMLStreamReader(
+                InTransformReader.class.getResourceAsStream("../resources/greetMeReqIn1.xml")), plan, false);
+            XMLStreamReader teacher = StaxUtils.createXMLStreamReader(
+                InTransformReader.class.getResourceAsStream("../resources/greetMeReq.xml"));
+            TransformTestUtils.verifyReaders(teacher, reader, false, true);
+        }
+    }
+
+    @Test
+    public void testReadWithSpecificRuleBeforeWildcard() throws Exception {
+        InputStream is = new ByteArrayInputStream(
+                "<ns:test xmlns:ns=\"http://bar\"><ns:a>1</ns:a><ns:b>2</ns:b></ns:test>".getBytes());
+        Map<String, String> transformElements = new HashMap<String, String>();
+        transformElements.put("{http://bar}*", "{http://foo}*");
+        transformElements.put("{http://bar}a", "");
+        XMLStreamReader reader = new InTransformReader(StaxUtils.createXMLStreamReader(is),
+                                                       transformElements, null, null, null, false);
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(); 
+        StaxUtils.copy(reader, bos);
+        String value = bos.toString();
+        assertEquals("<ns:test xmlns:ns=\"http://foo\"><ns:b>2</ns:b></ns:test>", value);        
+    }
+
     @Test
     public void testReadWithReplaceAppendDelete() throws Exception {
         Map<String, String> transformElements = new HashMap<String, String>();
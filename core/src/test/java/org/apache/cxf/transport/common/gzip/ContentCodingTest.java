@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.transport.common.gzip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ContentCodingTest extends Assert {
+    
+    @Test
+    public void testGzipReadableByJdk() throws Exception {
+        byte[] data = createData(100000);
+        byte[] encoded = encode(ContentCoding.GZIP, data, Deflater.BEST_SPEED);
+        assertTrue(Arrays.equals(data, IOUtils.readBytesFromStream(
+            new GZIPInputStream(new ByteArrayInputStream(encoded)))));
+    }
+    
+    @Test
+    public void testGzipFromJdk() throws Exception {
+        byte[] data = createData(100000);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GZIPOutputStream gos = new GZIPOutputStream(bos);
+        gos.write(data);
+        gos.close();
+        assertTrue(Arrays.equals(data, decode(ContentCoding.GZIP, bos.toByteArray())));
+    }
+    
+    @Test
+    public void testDeflateRoundTrip() throws Exception {
+        byte[] data = createData(50000);
+        byte[] encoded = encode(ContentCoding.DEFLATE, data, Deflater.DEFAULT_COMPRESSION);
+        assertTrue(Arrays.equals(data, IOUtils.readBytesFromStream(
+            new InflaterInputStream(new ByteArrayInputStream(encoded)))));
+        assertTrue(Arrays.equals(data, decode(ContentCoding.DEFLATE, encoded)));
+    }
+    
+    @Test
+    public void testPooledStreamsReused() throws Exception {
+        for (int i = 0; i < ZipPool.MAX_POOL_SIZE * 2; i++) {
+            byte[] data = createData(i * 100);
+            assertTrue(Arrays.equals(data, decode(ContentCoding.GZIP, 
+                                                  encode(ContentCoding.GZIP, data, i % 10))));
+        }
+    }
+    
+    @Test(expected = IOException.class)
+    public void testWriteAfterClose() throws Exception {
+        OutputStream os = ContentCoding.DEFLATE.encode(new ByteArrayOutputStream(), Deflater.BEST_SPEED);
+        os.close();
+        os.write(1);
+    }
+    
+    @Test
+    public void testThresholdStreamCompressesAfterThreshold() throws Exception {
+        byte[] data = createData(5000);
+        Message message = new MessageImpl();
+        message.put(GZIPOutInterceptor.GZIP_ENCODING_KEY, "deflate");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        OutputStream os = new GZIPOutInterceptor.GZipThresholdOutputStream(1024, bos, false, message,
+                                                                            ContentCoding.DEFLATE, 
+                                                                            Deflater.BEST_SPEED);
+        os.write(data);
+        os.close();
+        assertTrue(Arrays.equals(data, decode(ContentCoding.DEFLATE, bos.toByteArray())));
+    }
+    
+    private static byte[] encode(ContentCoding coding, byte[] data, int level) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        OutputStream os = coding.encode(bos, level);
+        os.write(data, 0, data.length / 2);
+        os.write(data, data.length / 2, data.length - data.length / 2);
+        os.close();
+        return bos.toByteArray();
+    }
+    
+    private static byte[] decode(ContentCoding coding, byte[] data) throws IOException {
+        InputStream is = coding.decode(new ByteArrayInputStream(data));
+        try {
+            return IOUtils.readBytesFromStream(is);
+        } finally {
+            is.close();
+        }
+    }
+    
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte)('a' + (i * 31 % 7));
+        }
+        return data;
+    }
+}
@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -109,6 +110,29 @@ public class GZIPAcceptEncodingTest extends Assert {
         singleTest("gzip; q=0.00", false, null, null);
     }
 
+    @Test
+    public void testQualityValues() throws Exception {
+        interceptor.setContentCodings(Arrays.asList(ContentCoding.GZIP, ContentCoding.DEFLATE));
+        singleTest("gzip;q=0.5, deflate;q=0.8", true, YES, "deflate");
+    }
+
+    @Test
+    public void testEqualQualityValues() throws Exception {
+        interceptor.setContentCodings(Arrays.asList(ContentCoding.GZIP, ContentCoding.DEFLATE));
+        singleTest("deflate, gzip", true, YES, "gzip");
+    }
+
+    @Test
+    public void testIdentityPreferred() throws Exception {
+        singleTest("gzip;q=0.5, identity", false, null, null);
+    }
+
+    @Test
+    public void testDeflateOnly() throws Exception {
+        interceptor.setContentCodings(Collections.singletonList(ContentCoding.DEFLATE));
+        singleTest("deflate, identity;q=0", true, FORCE, "deflate");
+    }
+
     @Test(expected = Fault.class)
     public void testNoValidEncodings() throws Exception {
         EasyMock.replay();
@@ -0,0 +1,185 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.workqueue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExecutorWorkQueueTest extends Assert {
+
+    ExecutorWorkQueueImpl workqueue;
+    
+    @After
+    public void tearDown() throws Exception {
+        if (workqueue != null) {
+            workqueue.shutdown(false);
+            workqueue = null;
+        }
+    }
+    
+    @Test
+    public void testUnboundedConstructor() {
+        workqueue = new ExecutorWorkQueueImpl(-1, 0, -1, -1, 1000L, "test");
+        assertEquals(ExecutorWorkQueueImpl.DEFAULT_MAX_QUEUE_SIZE, workqueue.getMaxSize());
+        assertEquals(-1, workqueue.getHighWaterMark());
+        assertEquals(-1, workqueue.getLowWaterMark());
+        assertEquals(ExecutorWorkQueueImpl.MODE_FORK_JOIN, workqueue.getMode());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMode() {
+        new ExecutorWorkQueueImpl("test", "fibers");
+    }
+    
+    @Test
+    public void testForkJoinHighWaterMark() throws Exception {
+        doTestHighWaterMark(ExecutorWorkQueueImpl.MODE_FORK_JOIN);
+    }
+    
+    @Test
+    public void testThreadHighWaterMark() throws Exception {
+        doTestHighWaterMark(ExecutorWorkQueueImpl.MODE_THREAD);
+    }
+    
+    private void doTestHighWaterMark(String mode) throws Exception {
+        workqueue = new ExecutorWorkQueueImpl(2, 0, 3, 1, 1000L, "test");
+        workqueue.setMode(mode);
+        
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(5);
+        Runnable blocker = new Runnable() {
+            public void run() {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                done.countDown();
+            }
+        };
+        // three run straight away, two are queued and the sixth is rejected
+        for (int x = 0; x < 5; x++) {
+            workqueue.execute(blocker);
+        }
+        assertEquals(3, workqueue.getPoolSize());
+        assertEquals(2, workqueue.getSize());
+        assertTrue(workqueue.isFull());
+        try {
+            workqueue.execute(blocker);
+            fail("Work queue should be full");
+        } catch (RejectedExecutionException ex) {
+            assertEquals(1, workqueue.getRejectedCount());
+        }
+        try {
+            workqueue.execute(blocker, 50);
+            fail("Work queue should still be full");
+        } catch (RejectedExecutionException ex) {
+            assertEquals(2, workqueue.getRejectedCount());
+        }
+        
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(3, workqueue.getLargestPoolSize());
+        assertTrue(workqueue.isEmpty());
+        
+        // all but the low water mark workers go away once the work is done
+        for (int i = 0; i < 50 && workqueue.getPoolSize() > 1; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, workqueue.getPoolSize());
+        assertEquals(0, workqueue.getActiveCount());
+        assertEquals(5, workqueue.getCompletedCount());
+    }
+    
+    @Test
+    public void testInjectedExecutorAndContextClassLoader() throws Exception {
+        final AtomicInteger submitted = new AtomicInteger();
+        workqueue = new ExecutorWorkQueueImpl(10, 0, 2, 0, 1000L, "test");
+        workqueue.setExecutor(new Executor() {
+            public void execute(Runnable r) {
+                submitted.incrementAndGet();
+                new Thread(r).start();
+            }
+        });
+        
+        ClassLoader orig = Thread.currentThread().getContextClassLoader();
+        final ClassLoader loader = new ClassLoader(orig) { };
+        final ClassLoader[] seen = new ClassLoader[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                    seen[0] = Thread.currentThread().getContextClassLoader();
+                    done.countDown();
+                }
+            });
+        } finally {
+            Thread.currentThread().setContextClassLoader(orig);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertSame(loader, seen[0]);
+        assertEquals(1, submitted.get());
+    }
+    
+    @Test
+    public void testSchedule() throws Exception {
+        workqueue = new ExecutorWorkQueueImpl("test", ExecutorWorkQueueImpl.MODE_THREAD);
+        final CountDownLatch done = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        workqueue.schedule(new Runnable() {
+            public void run() {
+                done.countDown();
+            }
+        }, 100);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 90);
+    }
+    
+    @Test
+    public void testShutdown() throws Exception {
+        workqueue = new ExecutorWorkQueueImpl("test");
+        final CountDownLatch done = new CountDownLatch(1);
+        workqueue.execute(new Runnable() {
+            public void run() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        workqueue.shutdown(true);
+        assertTrue(workqueue.isShutdown());
+        try {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                }
+            });
+            fail("Shut down work queue should not accept work");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+    }
+}
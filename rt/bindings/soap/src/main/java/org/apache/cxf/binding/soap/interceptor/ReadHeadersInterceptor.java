@@ -23,8 +23,10 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -53,6 +55,7 @@ import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.databinding.DataBinding;
 import org.apache.cxf.headers.HeaderManager;
 import org.apache.cxf.headers.HeaderProcessor;
+import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.helpers.ServiceUtils;
 import org.apache.cxf.interceptor.Fault;
@@ -67,6 +70,12 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
     
     public static final String ENVELOPE_EVENTS = "envelope.events";
     public static final String BODY_EVENTS = "body.events";
+    /**
+     * Contextual property holding a Map&lt;QName, StreamingHeaderProcessor&gt;. Header blocks
+     * with a registered QName are read directly from the stream instead of being turned into
+     * DOM elements, unless the DOM is required anyway (for example when SAAJ is in use).
+     */
+    public static final String STREAMING_HEADER_PROCESSORS = "soap.streaming.header.processors";
     /**
      * 
      */
@@ -179,6 +188,7 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                 Node nd = message.getContent(Node.class);
                 W3CDOMStreamWriter writer = message.get(W3CDOMStreamWriter.class);
                 Document doc = null;
+                List<Object> streamedHeaders = null;
                 if (writer != null) {
                     StaxUtils.copy(filteredReader, writer);
                     doc = writer.getDocument();
@@ -186,10 +196,13 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                     doc = (Document)nd;
                     StaxUtils.readDocElements(doc, doc, filteredReader, false, false);
                 } else {
-                    HeadersProcessor processor = new HeadersProcessor(soapVersion);
+                    HeadersProcessor processor = new HeadersProcessor(soapVersion,
+                                                                      getStreamingHeaderProcessors(message),
+                                                                      message);
                     doc = processor.process(filteredReader);
                     if (doc != null) {
                         message.setContent(Node.class, doc);
+                        streamedHeaders = processor.getHeaders();
                     } else {
                         message.put(ENVELOPE_EVENTS, processor.getEnvAttributeAndNamespaceEvents());
                         message.put(BODY_EVENTS, processor.getBodyAttributeAndNamespaceEvents());
@@ -197,7 +210,16 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                 }
 
                 // Find header
-                if (doc != null) {
+                if (streamedHeaders != null) {
+                    for (Object o : streamedHeaders) {
+                        if (o instanceof SoapHeader) {
+                            message.getHeaders().add((SoapHeader)o);
+                        } else {
+                            Element hel = (Element)o;
+                            addHeader(message, soapVersion, (Element)hel.getParentNode(), hel);
+                        }
+                    }
+                } else if (doc != null) {
                     Element element = doc.getDocumentElement();
                     QName header = soapVersion.getHeader();
                     List<Element> elemList = DOMUtils.findAllElementsByTagNameNS(element,
@@ -206,53 +228,7 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                     for (Element elem : elemList) {
                         Element hel = DOMUtils.getFirstElement(elem);
                         while (hel != null) {
-                            // Need to add any attributes that are present on the parent element
-                            // which otherwise would be lost.
-                            if (elem.hasAttributes()) {
-                                NamedNodeMap nnp = elem.getAttributes();
-                                for (int ct = 0; ct < nnp.getLength(); ct++) {
-                                    Node attr = nnp.item(ct);
-                                    Node headerAttrNode = hel.hasAttributes() ? hel.getAttributes()
-                                        .getNamedItemNS(attr.getNamespaceURI(), attr.getLocalName()) : null;
-
-                                    if (headerAttrNode == null) {
-                                        Attr attribute = hel.getOwnerDocument()
-                                            .createAttributeNS(attr.getNamespaceURI(), attr.getNodeName());
-                                        attribute.setNodeValue(attr.getNodeValue());
-                                        hel.setAttributeNodeNS(attribute);
-                                    }
-                                }
-                            }
-
-                            HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
-                                .getHeaderProcessor(hel.getNamespaceURI());
-
-                            Object obj;
-                            DataBinding dataBinding = null;
-                            if (p == null || p.getDataBinding() == null) {
-                                obj = hel;
-                            } else {
-                                dataBinding = p.getDataBinding();
-                                obj = dataBinding.createReader(Node.class).read(hel);
-                            }
-                            // TODO - add the interceptors
-
-                            SoapHeader shead = new SoapHeader(new QName(hel.getNamespaceURI(),
-                                                                        hel.getLocalName()), obj, dataBinding);
-                            String mu = hel.getAttributeNS(soapVersion.getNamespace(),
-                                                           soapVersion.getAttrNameMustUnderstand());
-                            String act = hel.getAttributeNS(soapVersion.getNamespace(),
-                                                            soapVersion.getAttrNameRole());
-
-                            if (!StringUtils.isEmpty(act)) {
-                                shead.setActor(act);
-                            }
-                            shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
-                            // mark header as inbound header.(for distinguishing between the direction to
-                            // avoid piggybacking of headers from request->server->response.
-                            shead.setDirection(SoapHeader.Direction.DIRECTION_IN);
-                            message.getHeaders().add(shead);
-
+                            addHeader(message, soapVersion, elem, hel);
                             hel = DOMUtils.getNextElement(hel);
                         }
                     }
@@ -277,12 +253,74 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
         }
     }
 
+    private void addHeader(SoapMessage message, SoapVersion soapVersion, Element elem, Element hel) {
+        // Need to add any attributes that are present on the parent element
+        // which otherwise would be lost.
+        if (elem.hasAttributes()) {
+            NamedNodeMap nnp = elem.getAttributes();
+            for (int ct = 0; ct < nnp.getLength(); ct++) {
+                Node attr = nnp.item(ct);
+                Node headerAttrNode = hel.hasAttributes() ? hel.getAttributes()
+                    .getNamedItemNS(attr.getNamespaceURI(), attr.getLocalName()) : null;
+
+                if (headerAttrNode == null) {
+                    Attr attribute = hel.getOwnerDocument()
+                        .createAttributeNS(attr.getNamespaceURI(), attr.getNodeName());
+                    attribute.setNodeValue(attr.getNodeValue());
+                    hel.setAttributeNodeNS(attribute);
+                }
+            }
+        }
+
+        HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
+            .getHeaderProcessor(hel.getNamespaceURI());
+
+        Object obj;
+        DataBinding dataBinding = null;
+        if (p == null || p.getDataBinding() == null) {
+            obj = hel;
+        } else {
+            dataBinding = p.getDataBinding();
+            obj = dataBinding.createReader(Node.class).read(hel);
+        }
+        // TODO - add the interceptors
+
+        SoapHeader shead = new SoapHeader(new QName(hel.getNamespaceURI(),
+                                                    hel.getLocalName()), obj, dataBinding);
+        String mu = hel.getAttributeNS(soapVersion.getNamespace(),
+                                       soapVersion.getAttrNameMustUnderstand());
+        String act = hel.getAttributeNS(soapVersion.getNamespace(),
+                                        soapVersion.getAttrNameRole());
+        initInboundHeader(shead, mu, act);
+        message.getHeaders().add(shead);
+    }
+
+    private static void initInboundHeader(SoapHeader shead, String mu, String act) {
+        if (!StringUtils.isEmpty(act)) {
+            shead.setActor(act);
+        }
+        shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
+        // mark header as inbound header.(for distinguishing between the direction to
+        // avoid piggybacking of headers from request->server->response.
+        shead.setDirection(SoapHeader.Direction.DIRECTION_IN);
+    }
+
+    private static Map<QName, StreamingHeaderProcessor> getStreamingHeaderProcessors(SoapMessage message) {
+        Object o = message.getContextualProperty(STREAMING_HEADER_PROCESSORS);
+        if (o instanceof Map && !((Map<?, ?>)o).isEmpty()) {
+            return CastUtils.cast((Map<?, ?>)o);
+        }
+        return null;
+    }
+
     /**
      * A convenient class for parsing the message header stream into a DOM document;
      * the document is created only if a SOAP Header is actually found, keeping the
      * memory usage as low as possible (there's no reason for building the DOM doc
      * here if there's actually no header in the message, but we need to figure that
      * out while parsing the stream).
+     * When streaming header processors are registered, the header blocks they claim
+     * are handed the stream directly and never turn into DOM elements.
      */
     private static class HeadersProcessor {
         private static final XMLEventFactory FACTORY = XMLEventFactory.newInstance();
@@ -290,6 +328,9 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
         private final String header;
         private final String body;
         private final String envelope;
+        private final SoapVersion version;
+        private final Map<QName, StreamingHeaderProcessor> streamingProcessors;
+        private final SoapMessage message;
         private final List<XMLEvent> events = new ArrayList<XMLEvent>(8);
         private List<XMLEvent> envEvents;
         private List<XMLEvent> bodyEvents;
@@ -297,8 +338,14 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
         private Document doc;
         private Node parent;
         private QName lastStartElementQName;
+        private List<Object> headers;
 
-        public HeadersProcessor(SoapVersion version) {
+        public HeadersProcessor(SoapVersion version,
+                                Map<QName, StreamingHeaderProcessor> streamingProcessors,
+                                SoapMessage message) {
+            this.version = version;
+            this.streamingProcessors = streamingProcessors;
+            this.message = message;
             this.header = version.getHeader().getLocalPart();
             this.ns = version.getEnvelope().getNamespaceURI();
             this.envelope = version.getEnvelope().getLocalPart();
@@ -326,6 +373,10 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                                                          reader.getAttributeValue(i)));
                     }
                     if (doc != null) {
+                        if (streamingProcessors != null) {
+                            readHeaders(reader);
+                            reader.next();
+                        }
                         //go on parsing the stream directly till the end and stop generating events
                         StaxUtils.readDocElements(doc, parent, reader, context);
                     }
@@ -363,6 +414,79 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
             return doc;
         }
 
+        /**
+         * Reads the children of the Header element the reader is positioned on, leaving the
+         * reader on the Header END_ELEMENT. Claimed blocks become SoapHeaders straight away,
+         * the others are built into DOM elements below the Header element.
+         */
+        private void readHeaders(XMLStreamReader reader) throws XMLStreamException {
+            Element headerEl = doc.createElementNS(reader.getNamespaceURI(),
+                                                   StringUtils.isEmpty(reader.getPrefix())
+                                                   ? reader.getLocalName()
+                                                   : reader.getPrefix() + ":" + reader.getLocalName());
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                headerEl.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                                        StringUtils.isEmpty(prefix) ? "xmlns" : "xmlns:" + prefix,
+                                        reader.getNamespaceURI(i));
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String prefix = reader.getAttributePrefix(i);
+                String name = reader.getAttributeLocalName(i);
+                String attrNs = reader.getAttributeNamespace(i);
+                headerEl.setAttributeNS(StringUtils.isEmpty(attrNs) ? null : attrNs,
+                                        StringUtils.isEmpty(prefix) ? name : prefix + ":" + name,
+                                        reader.getAttributeValue(i));
+            }
+            parent.appendChild(headerEl);
+            String headerMu = reader.getAttributeValue(version.getNamespace(),
+                                                       version.getAttrNameMustUnderstand());
+            String headerAct = reader.getAttributeValue(version.getNamespace(), version.getAttrNameRole());
+
+            headers = new ArrayList<Object>();
+            Document blockDoc = null;
+            int event = reader.next();
+            while (event != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    QName name = reader.getName();
+                    StreamingHeaderProcessor sp = streamingProcessors.get(name);
+                    if (sp != null) {
+                        String mu = reader.getAttributeValue(version.getNamespace(),
+                                                             version.getAttrNameMustUnderstand());
+                        String act = reader.getAttributeValue(version.getNamespace(),
+                                                              version.getAttrNameRole());
+                        Object obj = sp.readHeader(reader, message);
+                        SoapHeader shead = new SoapHeader(name, obj, sp.getDataBinding());
+                        initInboundHeader(shead, mu == null ? headerMu : mu, act == null ? headerAct : act);
+                        headers.add(shead);
+                    } else {
+                        if (blockDoc == null) {
+                            blockDoc = DOMUtils.createDocument();
+                        }
+                        StaxUtils.readDocElements(blockDoc, blockDoc, reader, true, false);
+                        Element hel = blockDoc.getDocumentElement();
+                        Node adopted = doc.adoptNode(hel);
+                        if (adopted == null) {
+                            blockDoc.removeChild(hel);
+                            adopted = doc.importNode(hel, true);
+                        }
+                        headers.add(headerEl.appendChild(adopted));
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS) {
+                    headerEl.appendChild(doc.createTextNode(reader.getText()));
+                }
+                event = reader.next();
+            }
+        }
+
+        /**
+         * The headers read while streaming, in document order, either SoapHeaders or
+         * the DOM elements nobody claimed; null if the Header was not streamed.
+         */
+        public List<Object> getHeaders() {
+            return headers;
+        }
+
         private void addEvent(XMLEvent event) {
             if (event.isStartElement()) {
                 lastStartElementQName = event.asStartElement().getName();
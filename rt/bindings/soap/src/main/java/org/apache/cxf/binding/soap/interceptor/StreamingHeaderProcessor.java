@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.binding.soap.interceptor;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.databinding.DataBinding;
+
+/**
+ * Reads a SOAP header block straight off the {@link XMLStreamReader}, so that the
+ * {@link ReadHeadersInterceptor} does not need to build a DOM element for it.
+ * Processors are registered by header QName through the
+ * {@link ReadHeadersInterceptor#STREAMING_HEADER_PROCESSORS} contextual property.
+ */
+public interface StreamingHeaderProcessor {
+
+    /**
+     * Reads the header block the reader is currently positioned on. The reader is on
+     * the START_ELEMENT of the header when called and must be left on its matching
+     * END_ELEMENT.
+     * 
+     * @return the object to be exposed as {@link org.apache.cxf.headers.Header#getObject()}
+     */
+    Object readHeader(XMLStreamReader reader, SoapMessage message) throws XMLStreamException;
+
+    /**
+     * The data binding the returned header objects belong to, may be null.
+     */
+    DataBinding getDataBinding();
+
+}
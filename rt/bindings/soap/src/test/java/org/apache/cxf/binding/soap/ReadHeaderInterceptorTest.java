@@ -22,14 +22,19 @@ package org.apache.cxf.binding.soap;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 import javax.activation.DataHandler;
 import javax.mail.util.ByteArrayDataSource;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 import org.apache.cxf.BusFactory;
 import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
@@ -38,6 +43,8 @@ import org.apache.cxf.attachment.AttachmentUtil;
 import org.apache.cxf.binding.soap.interceptor.CheckFaultInterceptor;
 import org.apache.cxf.binding.soap.interceptor.ReadHeadersInterceptor;
 import org.apache.cxf.binding.soap.interceptor.StartBodyInterceptor;
+import org.apache.cxf.binding.soap.interceptor.StreamingHeaderProcessor;
+import org.apache.cxf.databinding.DataBinding;
 import org.apache.cxf.headers.Header;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.interceptor.Fault;
@@ -213,6 +220,54 @@ public class ReadHeaderInterceptorTest extends TestBase {
         }
     }
 
+    @Test
+    public void testHandleStreamedHeader() throws Exception {
+        prepareSoapMessage("test-soap-header.xml");
+        QName reservation = new QName("http://travelcompany.example.org/reservation", "reservation");
+        soapMessage.put(ReadHeadersInterceptor.STREAMING_HEADER_PROCESSORS,
+                        Collections.singletonMap(reservation, new StreamingHeaderProcessor() {
+                            public Object readHeader(XMLStreamReader reader, SoapMessage message)
+                                throws XMLStreamException {
+                                reader.nextTag();
+                                String reference = reader.getElementText();
+                                reader.nextTag();
+                                reader.getElementText();
+                                reader.nextTag();
+                                return reference;
+                            }
+                            public DataBinding getDataBinding() {
+                                return null;
+                            }
+                        }));
+
+        staxIntc.handleMessage(soapMessage);
+        soapMessage.getInterceptorChain().doIntercept(soapMessage);
+        XMLStreamReader xmlReader = soapMessage.getContent(XMLStreamReader.class);
+        assertEquals("check the first entry of body", "itinerary", xmlReader.getLocalName());
+
+        List<Header> headers = soapMessage.getHeaders();
+        assertEquals(2, headers.size());
+        SoapHeader streamed = (SoapHeader)headers.get(0);
+        assertEquals(reservation, streamed.getName());
+        assertEquals("uuid:093a2da1-q345-739r-ba5d-pqff98fe8j7d", streamed.getObject());
+        assertTrue(streamed.isMustUnderstand());
+        assertEquals("http://schemas.xmlsoap.org/soap/actor/next", streamed.getActor());
+        assertEquals(Header.Direction.DIRECTION_IN, streamed.getDirection());
+
+        Element passenger = (Element)headers.get(1).getObject();
+        assertEquals("passenger", passenger.getLocalName());
+        assertEquals("Bob", DOMUtils.getFirstElement(passenger).getTextContent());
+
+        // only the unclaimed header block ends up in the DOM
+        Document doc = (Document)soapMessage.getContent(Node.class);
+        Element envelope = doc.getDocumentElement();
+        Element header = DOMUtils.getFirstElement(envelope);
+        assertEquals("Header", header.getLocalName());
+        assertSame(passenger, DOMUtils.getFirstElement(header));
+        assertNull(DOMUtils.getNextElement(passenger));
+        assertEquals("Body", DOMUtils.getNextElement(header).getLocalName());
+    }
+
     private void prepareSoapMessage(String message) throws IOException {
 
         soapMessage = TestUtil.createEmptySoapMessage(Soap12.getInstance(), chain);
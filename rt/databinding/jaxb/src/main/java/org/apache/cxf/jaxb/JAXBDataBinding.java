@@ -206,6 +206,8 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
     private boolean unwrapJAXBElement = true;
     private boolean scanPackages = true;
     private boolean qualifiedSchemas;
+    private boolean poolMarshallers;
+    private volatile JAXBMarshallerPool marshallerPool;
 
     public JAXBDataBinding() {
     }
@@ -247,6 +249,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
 
     public final void setContext(JAXBContext ctx) {
         context = ctx;
+        marshallerPool = null;
     }
 
     @SuppressWarnings("unchecked")
@@ -522,6 +525,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
 
     public void setConfiguredXmlAdapters(List<XmlAdapter<?, ?>> adpters) {
         this.adapters = adpters;
+        marshallerPool = null;
     }
 
     /**
@@ -544,6 +548,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setMarshallerProperties(Map<String, Object> marshallerProperties) {
         this.marshallerProperties = marshallerProperties;
+        marshallerPool = null;
     }
 
 
@@ -567,6 +572,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setUnmarshallerProperties(Map<String, Object> unmarshallerProperties) {
         this.unmarshallerProperties = unmarshallerProperties;
+        marshallerPool = null;
     }
 
     /**
@@ -583,6 +589,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setUnmarshallerListener(Unmarshaller.Listener unmarshallerListener) {
         this.unmarshallerListener = unmarshallerListener;
+        marshallerPool = null;
     }
     /**
      * Returns the Marshaller.Listener that will be registered on the Marshallers
@@ -598,6 +605,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setMarshallerListener(Marshaller.Listener marshallerListener) {
         this.marshallerListener = marshallerListener;
+        marshallerPool = null;
     }
 
 
@@ -618,6 +626,51 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
         this.unwrapJAXBElement = unwrapJAXBElement;
     }
 
+    @Override
+    public void setNamespaceMap(Map<String, String> namespaceMap) {
+        super.setNamespaceMap(namespaceMap);
+        marshallerPool = null;
+    }
+
+    @Override
+    public void setContextualNamespaceMap(Map<String, String> contextualNamespaceMap) {
+        super.setContextualNamespaceMap(contextualNamespaceMap);
+        marshallerPool = null;
+    }
+
+    public boolean isPoolMarshallers() {
+        return poolMarshallers;
+    }
+
+    /**
+     * Enables reusing the Marshallers and Unmarshallers created by the readers and writers
+     * of this binding instead of creating and configuring new ones for every part.
+     * Disabled by default.
+     * @param poolMarshallers
+     */
+    public void setPoolMarshallers(boolean poolMarshallers) {
+        this.poolMarshallers = poolMarshallers;
+        marshallerPool = null;
+    }
+
+    /**
+     * Returns the pool of Marshallers and Unmarshallers for the current context, or null
+     * if pooling is not enabled. The pool is replaced whenever the context or the
+     * (un)marshaller configuration of this binding changes.
+     * @return
+     */
+    public JAXBMarshallerPool getMarshallerPool() {
+        if (!poolMarshallers || context == null) {
+            return null;
+        }
+        JAXBMarshallerPool pool = marshallerPool;
+        if (pool == null || pool.getContext() != context) {
+            pool = new JAXBMarshallerPool(context);
+            marshallerPool = pool;
+        }
+        return pool;
+    }
+
     public WrapperHelper createWrapperHelper(Class<?> wrapperType, QName wrapperName, List<String> partNames,
                                              List<String> elTypeNames, List<Class<?>> partClasses) {
         List<Method> getMethods = new ArrayList<Method>(partNames.size());
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxb;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * Keeps configured Marshallers and Unmarshallers of a single JAXBContext around for reuse.
+ * Instances are handed to one thread at a time; whatever is bound for a single use
+ * (event handler, schema, attachment (un)marshaller) is cleared when an instance is released,
+ * while the configuration applied at creation time (properties, listeners, adapters) is kept.
+ * The pool therefore has to be dropped whenever that configuration changes.
+ */
+public final class JAXBMarshallerPool {
+    public static final int DEFAULT_MAX_SIZE =
+        Integer.getInteger("org.apache.cxf.jaxb.marshallerPoolSize", 32);
+
+    private static final Logger LOG = LogUtils.getLogger(JAXBMarshallerPool.class);
+
+    private final JAXBContext context;
+    private final int maxSize;
+    private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<Marshaller>();
+    private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<Unmarshaller>();
+    private final AtomicInteger marshallerCount = new AtomicInteger();
+    private final AtomicInteger unmarshallerCount = new AtomicInteger();
+    private final AtomicLong marshallerHits = new AtomicLong();
+    private final AtomicLong marshallerMisses = new AtomicLong();
+    private final AtomicLong unmarshallerHits = new AtomicLong();
+    private final AtomicLong unmarshallerMisses = new AtomicLong();
+
+    public JAXBMarshallerPool(JAXBContext context) {
+        this(context, DEFAULT_MAX_SIZE);
+    }
+
+    public JAXBMarshallerPool(JAXBContext context, int maxSize) {
+        this.context = context;
+        this.maxSize = maxSize;
+    }
+
+    public JAXBContext getContext() {
+        return context;
+    }
+
+    /**
+     * @return a previously released Marshaller or null if the caller has to create a new one
+     */
+    public Marshaller pollMarshaller() {
+        Marshaller m = marshallers.poll();
+        if (m == null) {
+            marshallerMisses.incrementAndGet();
+        } else {
+            marshallerCount.decrementAndGet();
+            marshallerHits.incrementAndGet();
+        }
+        return m;
+    }
+
+    /**
+     * @return a previously released Unmarshaller or null if the caller has to create a new one
+     */
+    public Unmarshaller pollUnmarshaller() {
+        Unmarshaller u = unmarshallers.poll();
+        if (u == null) {
+            unmarshallerMisses.incrementAndGet();
+        } else {
+            unmarshallerCount.decrementAndGet();
+            unmarshallerHits.incrementAndGet();
+        }
+        return u;
+    }
+
+    public void release(Marshaller m) {
+        try {
+            m.setEventHandler(null);
+            m.setSchema(null);
+            m.setAttachmentMarshaller(null);
+        } catch (JAXBException ex) {
+            LOG.log(Level.FINE, "Marshaller could not be reset, discarding it", ex);
+            return;
+        }
+        if (marshallerCount.incrementAndGet() > maxSize) {
+            marshallerCount.decrementAndGet();
+        } else {
+            marshallers.offer(m);
+        }
+    }
+
+    public void release(Unmarshaller u) {
+        try {
+            u.setEventHandler(null);
+            u.setSchema(null);
+            u.setAttachmentUnmarshaller(null);
+        } catch (JAXBException ex) {
+            LOG.log(Level.FINE, "Unmarshaller could not be reset, discarding it", ex);
+            return;
+        }
+        if (unmarshallerCount.incrementAndGet() > maxSize) {
+            unmarshallerCount.decrementAndGet();
+        } else {
+            unmarshallers.offer(u);
+        }
+    }
+
+    public long getMarshallerHits() {
+        return marshallerHits.get();
+    }
+
+    public long getMarshallerMisses() {
+        return marshallerMisses.get();
+    }
+
+    public long getUnmarshallerHits() {
+        return unmarshallerHits.get();
+    }
+
+    public long getUnmarshallerMisses() {
+        return unmarshallerMisses.get();
+    }
+}
@@ -40,6 +40,8 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBase;
 import org.apache.cxf.jaxb.JAXBDataBinding;
 import org.apache.cxf.jaxb.JAXBEncoderDecoder;
+import org.apache.cxf.jaxb.JAXBMarshallerPool;
+import org.apache.cxf.jaxb.UnmarshallerAwareXMLReader;
 import org.apache.cxf.jaxb.UnmarshallerEventHandler;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.model.MessagePartInfo;
@@ -112,31 +114,38 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
         }
     }
     
-    private Unmarshaller createUnmarshaller() {
+    private JAXBMarshallerPool getMarshallerPool() {
+        JAXBMarshallerPool pool = databinding.getMarshallerPool();
+        return pool != null && pool.getContext() == context ? pool : null;
+    }
+    
+    private Unmarshaller createUnmarshaller(JAXBMarshallerPool pool) {
         try {
-            Unmarshaller um = null;
-            um = context.createUnmarshaller();
-            if (databinding.getUnmarshallerListener() != null) {
-                um.setListener(databinding.getUnmarshallerListener());
+            Unmarshaller um = pool == null ? null : pool.pollUnmarshaller();
+            if (um == null) {
+                um = context.createUnmarshaller();
+                if (databinding.getUnmarshallerListener() != null) {
+                    um.setListener(databinding.getUnmarshallerListener());
+                }
+                if (databinding.getUnmarshallerProperties() != null) {
+                    for (Map.Entry<String, Object> propEntry 
+                        : databinding.getUnmarshallerProperties().entrySet()) {
+                        try {
+                            um.setProperty(propEntry.getKey(), propEntry.getValue());
+                        } catch (PropertyException pe) {
+                            LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                        }
+                    }
+                }
+                for (XmlAdapter<?, ?> adapter : databinding.getConfiguredXmlAdapters()) {
+                    um.setAdapter(adapter);
+                }
             }
             if (setEventHandler) {
                 um.setEventHandler(new WSUIDValidationHandler(veventHandler));
             }
-            if (databinding.getUnmarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry 
-                    : databinding.getUnmarshallerProperties().entrySet()) {
-                    try {
-                        um.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
             um.setSchema(schema);
             um.setAttachmentUnmarshaller(getAttachmentUnmarshaller());
-            for (XmlAdapter<?, ?> adapter : databinding.getConfiguredXmlAdapters()) {
-                um.setAdapter(adapter);
-            }
             return um;
         } catch (JAXBException ex) {
             if (ex instanceof javax.xml.bind.UnmarshalException) {
@@ -173,22 +182,35 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
             }
         }
         
-        Object obj = JAXBEncoderDecoder.unmarshall(createUnmarshaller(), reader, part, 
+        JAXBMarshallerPool pool = getMarshallerPool();
+        Unmarshaller um = createUnmarshaller(pool);
+        Object obj = JAXBEncoderDecoder.unmarshall(um, reader, part, 
                                              unwrapJAXBElement);
+        releaseUnmarshaller(pool, um, reader);
         onCompleteUnmarshalling();
         
         return obj;
     }
 
     public Object read(QName name, T input, Class<?> type) {
-        Object obj = JAXBEncoderDecoder.unmarshall(createUnmarshaller(), input,
+        JAXBMarshallerPool pool = getMarshallerPool();
+        Unmarshaller um = createUnmarshaller(pool);
+        Object obj = JAXBEncoderDecoder.unmarshall(um, input,
                                              name, type, 
                                              unwrapJAXBElement);
+        releaseUnmarshaller(pool, um, input);
         onCompleteUnmarshalling();
         
         return obj;
     }
 
+    private static void releaseUnmarshaller(JAXBMarshallerPool pool, Unmarshaller um, Object input) {
+        // an UnmarshallerAwareXMLReader keeps hold of the unmarshaller, so it can't be handed out again
+        if (pool != null && !(input instanceof UnmarshallerAwareXMLReader)) {
+            pool.release(um);
+        }
+    }
+
     private void onCompleteUnmarshalling() {
         if (setEventHandler && veventHandler instanceof UnmarshallerEventHandler) {
             try {
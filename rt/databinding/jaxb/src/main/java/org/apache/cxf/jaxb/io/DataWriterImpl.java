@@ -21,7 +21,6 @@ package org.apache.cxf.jaxb.io;
 
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Map;
@@ -47,6 +46,8 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBase;
 import org.apache.cxf.jaxb.JAXBDataBinding;
 import org.apache.cxf.jaxb.JAXBEncoderDecoder;
+import org.apache.cxf.jaxb.JAXBMarshallerPool;
+import org.apache.cxf.jaxb.MarshallerAwareXMLWriter;
 import org.apache.cxf.jaxb.MarshallerEventHandler;
 import org.apache.cxf.jaxb.attachment.JAXBAttachmentMarshaller;
 import org.apache.cxf.message.MessageUtils;
@@ -113,27 +114,47 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
     }
     
     public Marshaller createMarshaller(Object elValue, MessagePartInfo part) {
-        Class<?> cls = null;
-        if (part != null) {
-            cls = part.getTypeClass();
-        }
-
-        if (cls == null) {
-            cls = null != elValue ? elValue.getClass() : null;
-        }
-
-        if (cls != null && cls.isArray() && elValue instanceof Collection) {
-            Collection<?> col = (Collection<?>)elValue;
-            elValue = col.toArray((Object[])Array.newInstance(cls.getComponentType(), col.size()));
-        }
-        Marshaller marshaller;
+        return createMarshaller(null);
+    }
+    
+    private JAXBMarshallerPool getMarshallerPool() {
+        JAXBMarshallerPool pool = databinding.getMarshallerPool();
+        return pool != null && pool.getContext() == context ? pool : null;
+    }
+    
+    private Marshaller createMarshaller(JAXBMarshallerPool pool) {
+        Marshaller marshaller = pool == null ? null : pool.pollMarshaller();
         try {
-            
-            marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
-            marshaller.setListener(databinding.getMarshallerListener());
+            if (marshaller == null) {
+                marshaller = context.createMarshaller();
+                marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+                marshaller.setListener(databinding.getMarshallerListener());
+                
+                final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
+                final Map<String, String> nsctxt = databinding.getContextualNamespaceMap();
+                // set the prefix mapper if either of the prefix map is configured
+                if (nspref != null || nsctxt != null) {
+                    Object mapper = JAXBUtils.setNamespaceMapper(nspref != null ? nspref : nsctxt, marshaller);
+                    if (nsctxt != null) {
+                        setContextualNamespaceDecls(mapper, nsctxt);
+                    }
+                }
+                if (databinding.getMarshallerProperties() != null) {
+                    for (Map.Entry<String, Object> propEntry 
+                        : databinding.getMarshallerProperties().entrySet()) {
+                        try {
+                            marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
+                        } catch (PropertyException pe) {
+                            LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                        }
+                    }
+                }
+                for (XmlAdapter<?, ?> adapter : databinding.getConfiguredXmlAdapters()) {
+                    marshaller.setAdapter(adapter);
+                }
+            }
             if (setEventHandler) {
                 ValidationEventHandler h = veventHandler;
                 if (veventHandler == null) {
@@ -147,26 +168,6 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 marshaller.setEventHandler(h);
             }
             
-            final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
-            final Map<String, String> nsctxt = databinding.getContextualNamespaceMap();
-            // set the prefix mapper if either of the prefix map is configured
-            if (nspref != null || nsctxt != null) {
-                Object mapper = JAXBUtils.setNamespaceMapper(nspref != null ? nspref : nsctxt, marshaller);
-                if (nsctxt != null) {
-                    setContextualNamespaceDecls(mapper, nsctxt);
-                }
-            }
-            if (databinding.getMarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry 
-                    : databinding.getMarshallerProperties().entrySet()) {
-                    try {
-                        marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
-            
             marshaller.setSchema(schema);
             AttachmentMarshaller atmarsh = getAttachmentMarshaller();
             marshaller.setAttachmentMarshaller(atmarsh);
@@ -187,12 +188,16 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 throw new Fault(new Message("MARSHAL_ERROR", LOG, ex.getMessage()), ex);
             }
         }
-        for (XmlAdapter<?, ?> adapter : databinding.getConfiguredXmlAdapters()) {
-            marshaller.setAdapter(adapter);
-        }
         return marshaller;
     }
     
+    private static void releaseMarshaller(JAXBMarshallerPool pool, Marshaller marshaller, Object output) {
+        // a MarshallerAwareXMLWriter keeps hold of the marshaller, so it can't be handed out again
+        if (pool != null && !(output instanceof MarshallerAwareXMLWriter)) {
+            pool.release(marshaller);
+        }
+    }
+    
     //REVISIT should this go into JAXBUtils?
     private static void setContextualNamespaceDecls(Object mapper, Map<String, String> nsctxt) {
         try {
@@ -226,15 +231,21 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 && part != null
                 && Boolean.TRUE.equals(part.getProperty(JAXBDataBinding.class.getName() 
                                                         + ".CUSTOM_EXCEPTION"))) {
-                JAXBEncoderDecoder.marshallException(createMarshaller(obj, part),
+                JAXBMarshallerPool pool = getMarshallerPool();
+                Marshaller marshaller = createMarshaller(pool);
+                JAXBEncoderDecoder.marshallException(marshaller,
                                                      (Exception)obj,
                                                      part, 
                                                      output);
+                releaseMarshaller(pool, marshaller, output);
                 onCompleteMarshalling();
             } else {
                 Annotation[] anns = getJAXBAnnotation(part);
                 if (!honorJaxbAnnotation || anns.length == 0) {
-                    JAXBEncoderDecoder.marshall(createMarshaller(obj, part), obj, part, output);
+                    JAXBMarshallerPool pool = getMarshallerPool();
+                    Marshaller marshaller = createMarshaller(pool);
+                    JAXBEncoderDecoder.marshall(marshaller, obj, part, output);
+                    releaseMarshaller(pool, marshaller, output);
                     onCompleteMarshalling();
                 } else if (honorJaxbAnnotation && anns.length > 0) {
                     //RpcLit will use the JAXB Bridge to marshall part message when it is 
@@ -251,8 +262,10 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 }
             }
         } else if (needToRender(part)) {
-            JAXBEncoderDecoder.marshallNullElement(createMarshaller(null, part),
-                                                   output, part);
+            JAXBMarshallerPool pool = getMarshallerPool();
+            Marshaller marshaller = createMarshaller(pool);
+            JAXBEncoderDecoder.marshallNullElement(marshaller, output, part);
+            releaseMarshaller(pool, marshaller, output);
             
             onCompleteMarshalling();
         }
@@ -21,6 +21,7 @@ package org.apache.cxf.jaxb.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.ValidationEventHandler;
@@ -31,6 +32,7 @@ import javax.xml.stream.XMLStreamReader;
 import org.apache.cxf.databinding.DataReader;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBinding;
+import org.apache.cxf.jaxb.JAXBMarshallerPool;
 import org.apache.cxf.service.model.MessagePartInfo;
 import org.apache.cxf.staxutils.StaxStreamFilter;
 import org.apache.hello_world_doc_lit_bare.types.TradePriceData;
@@ -126,6 +128,29 @@ public class XMLStreamDataReaderTest extends Assert {
         assertEquals("TestSOAPInputPMessage", ((GreetMe)val).getRequestType());
     }
 
+    @Test
+    public void testReadWrapperWithPooledUnmarshaller() throws Exception {
+        JAXBDataBinding db = getDataBinding(GreetMe.class);
+        db.setPoolMarshallers(true);
+        
+        for (int i = 0; i < 2; i++) {
+            if (is != null) {
+                is.close();
+            }
+            reader = getTestReader("../resources/GreetMeDocLiteralReq.xml");
+            DataReader<XMLStreamReader> dr = db.createReader(XMLStreamReader.class);
+            Object val = dr.read(reader);
+            assertTrue(val instanceof GreetMe);
+            assertEquals("TestSOAPInputPMessage", ((GreetMe)val).getRequestType());
+        }
+        JAXBMarshallerPool pool = db.getMarshallerPool();
+        assertEquals(1, pool.getUnmarshallerMisses());
+        assertEquals(1, pool.getUnmarshallerHits());
+        
+        db.setUnmarshallerProperties(Collections.<String, Object>emptyMap());
+        assertNotSame(pool, db.getMarshallerPool());
+    }
+
     @Test
     public void testReadWrapperReturn() throws Exception {
         JAXBDataBinding db = getDataBinding(GreetMeResponse.class);
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.apache.cxf.endpoint.Endpoint;
+
+/**
+ * Base class of the strategies choosing between the targets based on their 
+ * {@link AddressStatistics}.  Targets ejected by the {@link AddressStatisticsRegistry} are 
+ * skipped unless all of them are ejected.
+ * <p>
+ * When used with the {@link LoadDistributorTargetSelector} every request chooses between all 
+ * the addresses, rather than walking through the list as the other strategies do.
+ */
+public abstract class AbstractLatencyAwareStrategy extends AbstractStaticFailoverStrategy {
+    
+    private AddressStatisticsRegistry statistics = new AddressStatisticsRegistry();
+    
+    public AddressStatisticsRegistry getStatistics() {
+        return statistics;
+    }
+    
+    /**
+     * Sets the registry, which may be shared by the clients of the same cluster.
+     */
+    public void setStatistics(AddressStatisticsRegistry registry) {
+        statistics = registry;
+    }
+    
+    /**
+     * Get next alternate endpoint.
+     * 
+     * @param alternates non-empty List of alternate endpoints 
+     * @return
+     */
+    protected <T> T getNextAlternate(List<T> alternates) {
+        long now = System.nanoTime();
+        List<AddressStatistics> candidates = new ArrayList<AddressStatistics>(alternates.size());
+        List<Integer> positions = new ArrayList<Integer>(alternates.size());
+        for (int x = 0; x < alternates.size(); x++) {
+            AddressStatistics s = statistics.getStatistics(getAddress(alternates.get(x)));
+            if (!s.isEjected(now)) {
+                candidates.add(s);
+                positions.add(x);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // everything is ejected, better to try one of them than to fail
+            for (int x = 0; x < alternates.size(); x++) {
+                candidates.add(statistics.getStatistics(getAddress(alternates.get(x))));
+                positions.add(x);
+            }
+        }
+        int selected = candidates.size() == 1 ? 0 : select(candidates, now);
+        return alternates.remove(positions.get(selected).intValue());
+    }
+    
+    /**
+     * Selects one of the candidates.
+     * 
+     * @param candidates the statistics of the available targets, at least two
+     * @param now the current System.nanoTime()
+     * @return the index of the selected candidate
+     */
+    protected abstract int select(List<AddressStatistics> candidates, long now);
+    
+    /**
+     * Compares the expected cost of sending a request to the targets, the latency weighted by
+     * the outstanding requests, and the outstanding requests if the latency is not known yet.
+     */
+    protected int compare(AddressStatistics s1, AddressStatistics s2, long now) {
+        int c = Double.compare(s1.getCost(now), s2.getCost(now));
+        if (c == 0) {
+            c = s1.getOutstanding() - s2.getOutstanding();
+        }
+        return c;
+    }
+    
+    private static String getAddress(Object target) {
+        if (target instanceof Endpoint) {
+            return ((Endpoint)target).getEndpointInfo().getAddress();
+        }
+        return target.toString();
+    }
+    
+    @Override
+    protected Level getLogLevel() {
+        return Level.FINE;
+    }
+}
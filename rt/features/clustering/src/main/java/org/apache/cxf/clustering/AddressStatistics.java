@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request statistics of a single target address as seen by the client: the number of 
+ * outstanding requests, a peak sensitive moving average of the latency and the failures.
+ * <p>
+ * The latency average jumps to any sample above it and otherwise decays towards the samples
+ * with the time constant of the owning registry.  Between samples the average also decays
+ * towards zero, so an address that has not been used for a while is tried again.
+ */
+public class AddressStatistics {
+    private final String address;
+    private final AddressStatisticsRegistry registry;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong ejections = new AtomicLong();
+    private volatile long ejectedUntil;
+    private volatile boolean ejected;
+    
+    // guarded by this
+    private double ewmaNanos;
+    private long ewmaStamp;
+    
+    AddressStatistics(String address, AddressStatisticsRegistry registry) {
+        this.address = address;
+        this.registry = registry;
+        ewmaStamp = System.nanoTime();
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+    
+    public long getRequests() {
+        return requests.get();
+    }
+    
+    public long getFailures() {
+        return failures.get();
+    }
+    
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+    
+    public long getEjections() {
+        return ejections.get();
+    }
+    
+    /**
+     * @return the decayed peak moving average of the latency in nanoseconds, 0 if unknown
+     */
+    public double getLatency() {
+        return getLatency(System.nanoTime());
+    }
+    
+    synchronized double getLatency(long now) {
+        return ewmaNanos * decay(now - ewmaStamp);
+    }
+    
+    /**
+     * @return true if the address is currently ejected as an outlier
+     */
+    public boolean isEjected() {
+        return isEjected(System.nanoTime());
+    }
+    
+    boolean isEjected(long now) {
+        if (ejected && ejectedUntil - now <= 0) {
+            ejected = false;
+        }
+        return ejected;
+    }
+    
+    /**
+     * Returns the expected cost of sending a request to this address, the latency weighted by 
+     * the number of outstanding requests.  Addresses without latency samples cost the least.
+     */
+    public double getCost(long now) {
+        return getLatency(now) * (outstanding.get() + 1);
+    }
+    
+    long start() {
+        outstanding.incrementAndGet();
+        requests.incrementAndGet();
+        return System.nanoTime();
+    }
+    
+    void complete(long startNanos, boolean failed) {
+        complete(startNanos, System.nanoTime(), failed);
+    }
+    
+    void complete(long startNanos, long now, boolean failed) {
+        outstanding.decrementAndGet();
+        if (failed) {
+            failures.incrementAndGet();
+            if (consecutiveFailures.incrementAndGet() >= registry.getConsecutiveFailures()) {
+                registry.eject(this, now);
+            }
+            return;
+        }
+        consecutiveFailures.set(0);
+        long rtt = now - startNanos;
+        synchronized (this) {
+            double w = decay(now - ewmaStamp);
+            if (rtt > ewmaNanos * w) {
+                ewmaNanos = rtt;
+            } else {
+                ewmaNanos = ewmaNanos * w + rtt * (1 - w);
+            }
+            ewmaStamp = now;
+        }
+        registry.checkLatencyOutlier(this, now);
+    }
+    
+    void eject(long now, long durationNanos) {
+        ejectedUntil = now + durationNanos;
+        ejected = true;
+        ejections.incrementAndGet();
+        consecutiveFailures.set(0);
+    }
+    
+    private double decay(long elapsed) {
+        return Math.exp(-(double)Math.max(elapsed, 0) / registry.getDecayTimeNanos());
+    }
+    
+    @Override
+    public String toString() {
+        return address + " [outstanding: " + getOutstanding()
+            + ", requests: " + getRequests()
+            + ", failures: " + getFailures()
+            + ", latency: " + TimeUnit.NANOSECONDS.toMillis((long)getLatency()) + "ms"
+            + ", ejected: " + isEjected() + "]";
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.common.util.PropertyUtils;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+
+/**
+ * Keeps the {@link AddressStatistics} of the target addresses of a client and ejects the 
+ * outliers: an address is ejected after a number of consecutive transport failures or, if a 
+ * latency outlier factor is set, when its latency grows beyond that factor times the mean 
+ * latency of the other addresses.  An ejected address is skipped by the latency aware 
+ * strategies until the ejection time, which grows with every ejection, has passed.
+ * At most the configured percentage of the addresses is ejected at any time.
+ * <p>
+ * The statistics are recorded by the {@link FailoverTargetSelector} from the conduit selection 
+ * to the completion of each attempt, and are exposed through JMX once a bus is set.
+ */
+public class AddressStatisticsRegistry {
+    static final String SAMPLE = AddressStatisticsRegistry.class.getName() + ".SAMPLE";
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(AddressStatisticsRegistry.class);
+    
+    private final ConcurrentMap<String, AddressStatistics> statistics 
+        = new ConcurrentHashMap<String, AddressStatistics>();
+    private int consecutiveFailures = 5;
+    private long baseEjectionTimeNanos = TimeUnit.SECONDS.toNanos(30);
+    private long maxEjectionTimeNanos = TimeUnit.MINUTES.toNanos(5);
+    private int maxEjectionPercent = 50;
+    private double latencyOutlierFactor;
+    private long minRequests = 20;
+    private long decayTimeNanos = TimeUnit.SECONDS.toNanos(10);
+    private Bus bus;
+    private InstrumentationManager instrumentationManager;
+    
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+    
+    /**
+     * Sets the number of consecutive transport failures after which an address is ejected.
+     */
+    public void setConsecutiveFailures(int failures) {
+        consecutiveFailures = failures;
+    }
+    
+    public long getBaseEjectionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(baseEjectionTimeNanos);
+    }
+    
+    /**
+     * Sets the time in milliseconds an address is ejected for the first time, the time is 
+     * multiplied by the number of ejections up to the maximum ejection time.
+     */
+    public void setBaseEjectionTime(long ms) {
+        baseEjectionTimeNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+    
+    public long getMaxEjectionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxEjectionTimeNanos);
+    }
+    
+    public void setMaxEjectionTime(long ms) {
+        maxEjectionTimeNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+    
+    public int getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+    
+    public void setMaxEjectionPercent(int percent) {
+        maxEjectionPercent = percent;
+    }
+    
+    public double getLatencyOutlierFactor() {
+        return latencyOutlierFactor;
+    }
+    
+    /**
+     * Sets the factor of the mean latency above which an address is ejected, 0 (the default) 
+     * disables the latency based ejection.
+     */
+    public void setLatencyOutlierFactor(double factor) {
+        latencyOutlierFactor = factor;
+    }
+    
+    public long getMinRequests() {
+        return minRequests;
+    }
+    
+    /**
+     * Sets the number of requests an address needs before its latency is compared.
+     */
+    public void setMinRequests(long requests) {
+        minRequests = requests;
+    }
+    
+    public long getDecayTime() {
+        return TimeUnit.NANOSECONDS.toMillis(decayTimeNanos);
+    }
+    
+    /**
+     * Sets the time constant in milliseconds of the latency moving average.
+     */
+    public void setDecayTime(long ms) {
+        decayTimeNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+    
+    long getDecayTimeNanos() {
+        return decayTimeNanos;
+    }
+    
+    /**
+     * Registers the statistics of the addresses with the InstrumentationManager of the bus.
+     */
+    public synchronized void setBus(Bus b) {
+        if (bus != null || b == null) {
+            return;
+        }
+        bus = b;
+        instrumentationManager = b.getExtension(InstrumentationManager.class);
+        for (AddressStatistics s : statistics.values()) {
+            register(s);
+        }
+    }
+    
+    public AddressStatistics getStatistics(String address) {
+        AddressStatistics s = statistics.get(address);
+        if (s == null) {
+            s = new AddressStatistics(address, this);
+            AddressStatistics s2 = statistics.putIfAbsent(address, s);
+            if (s2 != null) {
+                s = s2;
+            } else {
+                register(s);
+            }
+        }
+        return s;
+    }
+    
+    public Collection<AddressStatistics> getAllStatistics() {
+        return Collections.unmodifiableCollection(statistics.values());
+    }
+    
+    /**
+     * @return true if the address is not currently ejected
+     */
+    public boolean isAvailable(String address) {
+        AddressStatistics s = statistics.get(address);
+        return s == null || !s.isEjected();
+    }
+    
+    private void register(AddressStatistics s) {
+        InstrumentationManager im;
+        synchronized (this) {
+            im = instrumentationManager;
+        }
+        if (im != null) {
+            try {
+                im.register(new ManagedAddressStatistics(s, bus, this));
+            } catch (JMException jmex) {
+                LOG.log(Level.WARNING, jmex.getMessage(), jmex);
+            }
+        }
+    }
+    
+    void start(Exchange exchange, String address) {
+        if (address != null && !exchange.containsKey(SAMPLE)) {
+            AddressStatistics s = getStatistics(address);
+            exchange.put(SAMPLE, new Sample(s, s.start()));
+        }
+    }
+    
+    void complete(Exchange exchange) {
+        Sample sample = (Sample)exchange.remove(SAMPLE);
+        if (sample != null) {
+            sample.statistics.complete(sample.start, isFailure(exchange));
+        }
+    }
+    
+    synchronized void eject(AddressStatistics s, long now) {
+        if (s.isEjected(now)) {
+            return;
+        }
+        int ejected = 0;
+        for (AddressStatistics other : statistics.values()) {
+            if (other.isEjected(now)) {
+                ejected++;
+            }
+        }
+        if ((ejected + 1) * 100 > maxEjectionPercent * statistics.size()) {
+            LOG.log(Level.FINE, "EJECTION_LIMIT_REACHED", s.getAddress());
+            return;
+        }
+        long duration = Math.min(baseEjectionTimeNanos * (s.getEjections() + 1), maxEjectionTimeNanos);
+        s.eject(now, duration);
+        LOG.log(Level.WARNING, "EJECTING_ADDRESS", 
+                new Object[] {s.getAddress(), TimeUnit.NANOSECONDS.toMillis(duration)});
+    }
+    
+    void checkLatencyOutlier(AddressStatistics s, long now) {
+        double factor = latencyOutlierFactor;
+        if (factor <= 0 || s.getRequests() < minRequests) {
+            return;
+        }
+        double total = 0;
+        int count = 0;
+        for (AddressStatistics other : statistics.values()) {
+            if (other != s && other.getRequests() >= minRequests && !other.isEjected(now)) {
+                total += other.getLatency(now);
+                count++;
+            }
+        }
+        if (count > 0 && s.getLatency(now) > factor * total / count) {
+            eject(s, now);
+        }
+    }
+    
+    /**
+     * Checks if the last attempt of the exchange failed at the transport level.
+     */
+    static boolean isFailure(Exchange exchange) {
+        if (PropertyUtils.isTrue(exchange.get("org.apache.cxf.transport.service_not_available"))) {
+            return true;
+        }
+        Message outMessage = exchange.getOutMessage();
+        Throwable curr = outMessage != null && outMessage.get(Exception.class) != null
+            ? outMessage.get(Exception.class) : exchange.get(Exception.class);
+        while (curr != null) {
+            if (curr instanceof java.io.IOException) {
+                return true;
+            }
+            curr = curr.getCause();
+        }
+        return false;
+    }
+    
+    static class Sample {
+        final AddressStatistics statistics;
+        final long start;
+        
+        Sample(AddressStatistics s, long l) {
+            statistics = s;
+            start = l;
+        }
+    }
+}
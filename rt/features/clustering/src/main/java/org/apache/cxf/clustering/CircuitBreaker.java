@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * The circuit breaker of a single target address.
+ * <p>
+ * While CLOSED the outcomes of the requests are counted in a sliding time window, and once the 
+ * failure rate over the window reaches the threshold the breaker OPENs.  No requests are sent
+ * to an open address until the open time has passed or a background probe succeeded, after 
+ * which the breaker is HALF_OPEN and lets a few trial requests through.  It closes again when 
+ * they all succeed, and opens again on the first failure.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    static final int BUCKETS = 10;
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(CircuitBreaker.class);
+    
+    private final String address;
+    private final CircuitBreakerRegistry registry;
+    
+    // guarded by this
+    private State state = State.CLOSED;
+    private final int[] successes = new int[BUCKETS];
+    private final int[] failures = new int[BUCKETS];
+    private final long[] bucketIds = new long[BUCKETS];
+    private long openedAt;
+    private int trialsInFlight;
+    private int trialSuccesses;
+    
+    CircuitBreaker(String address, CircuitBreakerRegistry registry) {
+        this.address = address;
+        this.registry = registry;
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    /**
+     * @return true if a request may be sent to the address
+     */
+    public boolean isAvailable() {
+        return isAvailable(System.nanoTime());
+    }
+    
+    synchronized boolean isAvailable(long now) {
+        updateState(now);
+        switch (state) {
+        case CLOSED:
+            return true;
+        case HALF_OPEN:
+            return trialsInFlight < registry.getHalfOpenRequests();
+        default:
+            return false;
+        }
+    }
+    
+    /**
+     * Checks that a request may be sent to the address and, while HALF_OPEN, reserves one 
+     * of the trial requests for it in the same step, so that concurrent callers cannot let 
+     * more trials through than configured.
+     * 
+     * @return true if the request may be sent, its outcome must then be passed to onComplete
+     */
+    synchronized boolean tryAcquire(long now) {
+        updateState(now);
+        switch (state) {
+        case CLOSED:
+            return true;
+        case HALF_OPEN:
+            if (trialsInFlight < registry.getHalfOpenRequests()) {
+                trialsInFlight++;
+                return true;
+            }
+            return false;
+        default:
+            return false;
+        }
+    }
+    
+    private void updateState(long now) {
+        if (state == State.OPEN && now - openedAt >= registry.getOpenTimeNanos()) {
+            transition(State.HALF_OPEN);
+        }
+    }
+    
+    synchronized void onComplete(boolean failed, long now) {
+        switch (state) {
+        case CLOSED:
+            record(failed, now);
+            break;
+        case HALF_OPEN:
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            if (failed) {
+                open(now);
+            } else if (++trialSuccesses >= registry.getHalfOpenRequests()) {
+                transition(State.CLOSED);
+            }
+            break;
+        default:
+            // a request started before the breaker opened
+            break;
+        }
+    }
+    
+    /**
+     * Records the result of a background probe.  A failed probe opens the breaker right away, 
+     * a successful one lets an open breaker try requests again without waiting for the open time.
+     */
+    synchronized void onProbe(boolean available, long now) {
+        if (!available) {
+            if (state != State.OPEN) {
+                open(now);
+            } else {
+                openedAt = now;
+            }
+        } else if (state == State.OPEN) {
+            transition(State.HALF_OPEN);
+        }
+    }
+    
+    private void record(boolean failed, long now) {
+        long bucketNanos = Math.max(registry.getWindowNanos() / BUCKETS, 1);
+        long id = now / bucketNanos;
+        int idx = (int)(id % BUCKETS);
+        if (idx < 0) {
+            idx += BUCKETS;
+        }
+        if (bucketIds[idx] != id) {
+            bucketIds[idx] = id;
+            successes[idx] = 0;
+            failures[idx] = 0;
+        }
+        if (failed) {
+            failures[idx]++;
+        } else {
+            successes[idx]++;
+            return;
+        }
+        int total = 0;
+        int failed2 = 0;
+        for (int x = 0; x < BUCKETS; x++) {
+            if (id - bucketIds[x] < BUCKETS) {
+                total += successes[x] + failures[x];
+                failed2 += failures[x];
+            }
+        }
+        if (total >= registry.getMinimumRequests() 
+            && failed2 * 100 >= registry.getFailureRateThreshold() * total) {
+            open(now);
+        }
+    }
+    
+    private void open(long now) {
+        openedAt = now;
+        transition(State.OPEN);
+    }
+    
+    private void transition(State newState) {
+        if (state != newState) {
+            Level level = newState == State.OPEN ? Level.WARNING : Level.INFO;
+            if (LOG.isLoggable(level)) {
+                LOG.log(level, "CIRCUIT_BREAKER_STATE_CHANGE", new Object[] {address, state, newState});
+            }
+        }
+        state = newState;
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+        for (int x = 0; x < BUCKETS; x++) {
+            successes[x] = 0;
+            failures[x] = 0;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return address + " [" + getState() + "]";
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.message.Exchange;
+
+/**
+ * Holds the {@link CircuitBreaker}s of the target addresses and their configuration.  Set on a 
+ * {@link FailoverFeature} or {@link LoadDistributorFeature}, the target selector skips the 
+ * addresses with an open circuit, failing over before the request is sent, and records the 
+ * outcome of every attempt.
+ */
+public class CircuitBreakerRegistry {
+    static final String ATTEMPT = CircuitBreakerRegistry.class.getName() + ".ATTEMPT";
+    
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+    private int failureRateThreshold = 50;
+    private int minimumRequests = 10;
+    private long windowNanos = TimeUnit.SECONDS.toNanos(10);
+    private long openTimeNanos = TimeUnit.SECONDS.toNanos(30);
+    private int halfOpenRequests = 3;
+    
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+    
+    /**
+     * Sets the percentage of failed requests over the window at which the circuit opens.
+     */
+    public void setFailureRateThreshold(int percent) {
+        failureRateThreshold = percent;
+    }
+    
+    public int getMinimumRequests() {
+        return minimumRequests;
+    }
+    
+    /**
+     * Sets the number of requests in the window below which the circuit does not open.
+     */
+    public void setMinimumRequests(int requests) {
+        minimumRequests = requests;
+    }
+    
+    public long getWindow() {
+        return TimeUnit.NANOSECONDS.toMillis(windowNanos);
+    }
+    
+    /**
+     * Sets the length in milliseconds of the window the failure rate is computed over.
+     */
+    public void setWindow(long ms) {
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+    
+    long getWindowNanos() {
+        return windowNanos;
+    }
+    
+    public long getOpenTime() {
+        return TimeUnit.NANOSECONDS.toMillis(openTimeNanos);
+    }
+    
+    /**
+     * Sets the time in milliseconds an open circuit waits before letting trial requests through.
+     */
+    public void setOpenTime(long ms) {
+        openTimeNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+    
+    long getOpenTimeNanos() {
+        return openTimeNanos;
+    }
+    
+    public int getHalfOpenRequests() {
+        return halfOpenRequests;
+    }
+    
+    /**
+     * Sets the number of trial requests that must succeed for a half open circuit to close.
+     */
+    public void setHalfOpenRequests(int requests) {
+        halfOpenRequests = requests;
+    }
+    
+    public CircuitBreaker getCircuitBreaker(String address) {
+        CircuitBreaker cb = breakers.get(address);
+        if (cb == null) {
+            cb = new CircuitBreaker(address, this);
+            CircuitBreaker cb2 = breakers.putIfAbsent(address, cb);
+            if (cb2 != null) {
+                cb = cb2;
+            }
+        }
+        return cb;
+    }
+    
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(breakers.values());
+    }
+    
+    /**
+     * @return true if a request may be sent to the address
+     */
+    public boolean isAvailable(String address) {
+        CircuitBreaker cb = breakers.get(address);
+        return cb == null || cb.isAvailable(System.nanoTime());
+    }
+    
+    /**
+     * Removes the addresses with an open circuit from the list, unless that would remove all.
+     * 
+     * @return the available addresses
+     */
+    public List<String> filterAvailable(List<String> addresses) {
+        if (addresses == null || breakers.isEmpty()) {
+            return addresses;
+        }
+        List<String> available = new ArrayList<String>(addresses.size());
+        for (String address : addresses) {
+            if (isAvailable(address)) {
+                available.add(address);
+            }
+        }
+        return available.isEmpty() ? addresses : available;
+    }
+    
+    /**
+     * Acquires the circuit of the address for the attempt of the exchange, unless the 
+     * exchange already holds one.  The outcome of the attempt is only recorded if its 
+     * circuit was acquired.
+     * 
+     * @return false if the circuit of the address does not let the attempt through
+     */
+    boolean start(Exchange exchange, String address) {
+        if (address == null || exchange.containsKey(ATTEMPT)) {
+            return true;
+        }
+        CircuitBreaker cb = getCircuitBreaker(address);
+        if (!cb.tryAcquire(System.nanoTime())) {
+            return false;
+        }
+        exchange.put(ATTEMPT, cb);
+        return true;
+    }
+    
+    void complete(Exchange exchange) {
+        CircuitBreaker cb = (CircuitBreaker)exchange.remove(ATTEMPT);
+        if (cb != null) {
+            cb.onComplete(AddressStatisticsRegistry.isFailure(exchange), System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.transport.Conduit;
+import org.apache.cxf.transport.ConduitInitiator;
+import org.apache.cxf.transport.ConduitInitiatorManager;
+import org.apache.cxf.transport.MessageObserver;
+import org.apache.cxf.ws.addressing.EndpointReferenceType;
+import org.apache.cxf.ws.addressing.EndpointReferenceUtils;
+
+/**
+ * Probes an address by sending an HTTP GET through a conduit configured like the ones of the 
+ * client, so that the TLS and timeout settings apply.  Any response means the address is 
+ * available, except for the 502, 503 and 504 status codes; no response means it is not.
+ */
+public class ConduitHealthProbe implements HealthProbe {
+    private String path;
+    
+    public String getPath() {
+        return path;
+    }
+    
+    /**
+     * Sets a path appended to the address, for example "?wsdl" or "/health".
+     */
+    public void setPath(String p) {
+        path = p;
+    }
+    
+    public boolean probe(Bus bus, Endpoint endpoint, String address) throws Exception {
+        EndpointInfo ei = endpoint.getEndpointInfo();
+        ConduitInitiatorManager cim = bus.getExtension(ConduitInitiatorManager.class);
+        ConduitInitiator ci = cim.getConduitInitiatorForUri(address);
+        if (ci == null) {
+            ci = cim.getConduitInitiator(ei.getTransportId());
+        }
+        String target = path == null ? address : address + path;
+        EndpointReferenceType epr = EndpointReferenceUtils.getEndpointReference(target);
+        Conduit conduit = ci.getConduit(ei, epr, bus);
+        try {
+            final Message[] response = new Message[1];
+            conduit.setMessageObserver(new MessageObserver() {
+                public void onMessage(Message m) {
+                    response[0] = m;
+                }
+            });
+            Message message = new MessageImpl();
+            Exchange exchange = new ExchangeImpl();
+            exchange.setOutMessage(message);
+            exchange.setSynchronous(true);
+            exchange.put(Bus.class, bus);
+            message.put(Message.HTTP_REQUEST_METHOD, "GET");
+            message.put(Message.ENDPOINT_ADDRESS, target);
+            
+            conduit.prepare(message);
+            OutputStream os = message.getContent(OutputStream.class);
+            if (os != null) {
+                os.close();
+            }
+            conduit.close(message);
+            
+            Message in = response[0];
+            if (in == null) {
+                // no response at all, the address is dead or hung
+                return false;
+            }
+            InputStream is = in.getContent(InputStream.class);
+            if (is != null) {
+                is.close();
+            }
+            Integer code = (Integer)in.get(Message.RESPONSE_CODE);
+            return code == null || code < 502 || code > 504;
+        } finally {
+            conduit.close();
+        }
+    }
+}
@@ -39,6 +39,8 @@ public class FailoverFeature extends AbstractFeature {
 
     private FailoverStrategy failoverStrategy;
     private FailoverTargetSelector targetSelector;
+    private CircuitBreakerRegistry circuitBreakers;
+    private HealthProber healthProber;
     
     @Override
     protected void initializeProvider(InterceptorProvider provider, Bus bus) {
@@ -47,6 +49,7 @@ public class FailoverFeature extends AbstractFeature {
             Endpoint endpoint = csHolder.getConduitSelector().getEndpoint();
             ConduitSelector conduitSelector = initTargetSelector(endpoint);
             csHolder.setConduitSelector(conduitSelector);
+            initTargetMonitoring(conduitSelector, bus);
         }
     }
 
@@ -54,6 +57,20 @@ public class FailoverFeature extends AbstractFeature {
     public void initialize(Client client, Bus bus) {
         ConduitSelector selector = initTargetSelector(client.getConduitSelector().getEndpoint());
         client.setConduitSelector(selector);
+        initTargetMonitoring(selector, bus);
+    }
+    
+    protected void initTargetMonitoring(ConduitSelector selector, Bus bus) {
+        if (selector instanceof FailoverTargetSelector && bus != null) {
+            FailoverTargetSelector fts = (FailoverTargetSelector)selector;
+            AddressStatisticsRegistry registry = fts.getStatistics();
+            if (registry != null) {
+                registry.setBus(bus);
+            }
+            if (healthProber != null) {
+                healthProber.start(bus, fts);
+            }
+        }
     }
 
     protected ConduitSelector initTargetSelector(Endpoint endpoint) {
@@ -62,6 +79,9 @@ public class FailoverFeature extends AbstractFeature {
         if (getStrategy() != null) {
             selector.setStrategy(getStrategy());
         }
+        if (circuitBreakers != null) {
+            selector.setCircuitBreakers(circuitBreakers);
+        }
         return selector;
     }
     
@@ -83,4 +103,26 @@ public class FailoverFeature extends AbstractFeature {
     public FailoverStrategy getStrategy()  {
         return failoverStrategy;
     }
+    
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return circuitBreakers;
+    }
+    
+    /**
+     * Enables circuit breaking of the target addresses.
+     */
+    public void setCircuitBreakers(CircuitBreakerRegistry registry) {
+        circuitBreakers = registry;
+    }
+    
+    public HealthProber getHealthProber() {
+        return healthProber;
+    }
+    
+    /**
+     * Enables background probing of the target addresses, which implies circuit breaking.
+     */
+    public void setHealthProber(HealthProber prober) {
+        healthProber = prober;
+    }
 }
@@ -53,6 +53,8 @@ public class FailoverTargetSelector extends AbstractConduitSelector {
         = new ConcurrentHashMap<InvocationKey, InvocationContext>();
     protected FailoverStrategy failoverStrategy;
     private boolean supportNotAvailableErrorsOnly = true;
+    private AddressStatisticsRegistry statistics;
+    private CircuitBreakerRegistry circuitBreakers;
     /**
      * Normal constructor.
      */
@@ -113,7 +115,56 @@ public class FailoverTargetSelector extends AbstractConduitSelector {
         if (c != null) {
             return c;
         }
-        return getSelectedConduit(message);
+        avoidOpenCircuit(message);
+        c = getSelectedConduit(message);
+        startAttempt(message);
+        return c;
+    }
+    
+    /**
+     * Starts recording the statistics and the circuit breaker outcome of the attempt 
+     * to the currently selected address.
+     * 
+     * @param message the current Message
+     */
+    protected void startAttempt(Message message) {
+        Exchange exchange = message.getExchange();
+        if (exchange == null) {
+            return;
+        }
+        String address = getEndpoint().getEndpointInfo().getAddress();
+        AddressStatisticsRegistry registry = getStatistics();
+        if (registry != null) {
+            registry.start(exchange, address);
+        }
+        if (circuitBreakers != null) {
+            circuitBreakers.start(exchange, address);
+        }
+    }
+    
+    /**
+     * Acquires the circuit of the current address for the attempt, failing over before 
+     * sending the request if the circuit is open or all its trial requests are taken.
+     * 
+     * @param message the current Message
+     */
+    protected void avoidOpenCircuit(Message message) {
+        Exchange exchange = message.getExchange();
+        if (circuitBreakers == null || exchange == null
+            || circuitBreakers.start(exchange, getEndpoint().getEndpointInfo().getAddress())) {
+            return;
+        }
+        InvocationContext invocation = inProgress.get(new InvocationKey(exchange));
+        if (invocation == null) {
+            return;
+        }
+        Endpoint target = getFailoverTarget(exchange, invocation);
+        if (target != null) {
+            setEndpoint(target);
+            message.put(Message.ENDPOINT_ADDRESS, target.getEndpointInfo().getAddress());
+            message.put(CONDUIT_COMPARE_FULL_URL, Boolean.TRUE);
+            overrideAddressProperty(invocation.getContext());
+        }
     }
 
     protected InvocationContext getInvocationContext(InvocationKey key) { 
@@ -126,6 +177,13 @@ public class FailoverTargetSelector extends AbstractConduitSelector {
      * @param exchange represents the completed MEP
      */
     public void complete(Exchange exchange) {
+        AddressStatisticsRegistry registry = getStatistics();
+        if (registry != null) {
+            registry.complete(exchange);
+        }
+        if (circuitBreakers != null) {
+            circuitBreakers.complete(exchange);
+        }
         InvocationKey key = new InvocationKey(exchange);
         InvocationContext invocation = getInvocationContext(key);
         if (invocation == null) {
@@ -228,6 +286,58 @@ public class FailoverTargetSelector extends AbstractConduitSelector {
         return failoverStrategy;
     }
 
+    /**
+     * @return the registry recording the statistics of the target addresses, 
+     *         by default the one of a latency aware strategy, otherwise null
+     */
+    public AddressStatisticsRegistry getStatistics() {
+        if (statistics == null) {
+            FailoverStrategy strategy = getStrategy();
+            if (strategy instanceof AbstractLatencyAwareStrategy) {
+                return ((AbstractLatencyAwareStrategy)strategy).getStatistics();
+            }
+        }
+        return statistics;
+    }
+    
+    /**
+     * @param registry the registry recording the statistics of the target addresses
+     */
+    public void setStatistics(AddressStatisticsRegistry registry) {
+        statistics = registry;
+    }
+    
+    /**
+     * @return the circuit breakers of the target addresses, null if not used
+     */
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return circuitBreakers;
+    }
+    
+    /**
+     * @param registry the circuit breakers of the target addresses
+     */
+    public void setCircuitBreakers(CircuitBreakerRegistry registry) {
+        circuitBreakers = registry;
+    }
+    
+    /**
+     * Selects one of the alternate addresses with the strategy, skipping the addresses
+     * with an open circuit.  The selected address is removed from the alternates.
+     * 
+     * @param alternates the alternate addresses
+     * @return the selected address
+     */
+    protected String selectAlternateAddress(List<String> alternates) {
+        List<String> available = circuitBreakers == null 
+            ? alternates : circuitBreakers.filterAvailable(alternates);
+        String selected = getStrategy().selectAlternateAddress(available);
+        if (available != alternates) {
+            alternates.remove(selected);
+        }
+        return selected;
+    }
+
     /**
      * @return the logger to use
      */
@@ -309,8 +419,7 @@ public class FailoverTargetSelector extends AbstractConduitSelector {
 
         Endpoint failoverTarget = null;
         if (alternateAddresses != null) {
-            String alternateAddress = 
-                getStrategy().selectAlternateAddress(alternateAddresses);
+            String alternateAddress = selectAlternateAddress(alternateAddresses);
             if (alternateAddress != null) {
                 // re-use current endpoint
                 //
@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.endpoint.Endpoint;
+
+/**
+ * Checks if a target address is alive, used by the {@link HealthProber}.  Implementations 
+ * can for example invoke a no-op operation of the service at the address.
+ */
+public interface HealthProbe {
+    
+    /**
+     * @param bus the bus of the client
+     * @param endpoint the endpoint of the client
+     * @param address the address to probe
+     * @return true if the address is available
+     * @throws Exception if the address could not be reached, same as returning false
+     */
+    boolean probe(Bus bus, Endpoint endpoint, String address) throws Exception;
+}
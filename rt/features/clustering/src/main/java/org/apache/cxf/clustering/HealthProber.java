@@ -0,0 +1,247 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.workqueue.AutomaticWorkQueue;
+import org.apache.cxf.workqueue.WorkQueueManager;
+
+/**
+ * Periodically probes the target addresses of the clients it was started for on the bus work 
+ * queue and feeds the results to the {@link CircuitBreakerRegistry} of each target selector, so 
+ * that a dead address is skipped before a request has to wait for its connect timeout, and a 
+ * recovered one is tried again without waiting for the open time of its circuit.
+ * <p>
+ * Unless set explicitly, the probed addresses are the alternate addresses of a static 
+ * strategy and the addresses the circuit breakers have seen.
+ */
+public class HealthProber {
+    private static final Logger LOG = LogUtils.getL7dLogger(HealthProber.class);
+    
+    private long interval = 5000;
+    private HealthProbe probe = new ConduitHealthProbe();
+    private List<String> addresses;
+    private final List<Target> targets = new CopyOnWriteArrayList<Target>();
+    
+    // a new generation of scheduled rounds on each start, the rounds of older ones do nothing
+    private volatile int generation;
+    private volatile boolean stopped = true;
+    private AutomaticWorkQueue workQueue;
+    
+    public long getInterval() {
+        return interval;
+    }
+    
+    /**
+     * Sets the time in milliseconds between two probes of an address.
+     */
+    public void setInterval(long ms) {
+        interval = ms;
+    }
+    
+    public HealthProbe getProbe() {
+        return probe;
+    }
+    
+    public void setProbe(HealthProbe p) {
+        probe = p;
+    }
+    
+    public List<String> getAddresses() {
+        return addresses;
+    }
+    
+    public void setAddresses(List<String> a) {
+        addresses = a;
+    }
+    
+    /**
+     * Starts probing for the selector, stops when the bus of the first client shuts down.  
+     * A prober shared by several clients probes the addresses of each of them.  Starting 
+     * a stopped prober resumes probing for all the selectors it was started for.
+     */
+    public synchronized void start(Bus b, FailoverTargetSelector s) {
+        if (s.getCircuitBreakers() == null) {
+            s.setCircuitBreakers(new CircuitBreakerRegistry());
+        }
+        boolean known = false;
+        for (Target t : targets) {
+            if (t.selector == s) {
+                known = true;
+                break;
+            }
+        }
+        if (!known) {
+            targets.add(new Target(b, s));
+        }
+        if (workQueue == null) {
+            workQueue = b.getExtension(WorkQueueManager.class).getAutomaticWorkQueue();
+            BusLifeCycleManager lcm = b.getExtension(BusLifeCycleManager.class);
+            if (lcm != null) {
+                lcm.registerLifeCycleListener(new BusLifeCycleListener() {
+                    public void initComplete() {
+                    }
+                    public void preShutdown() {
+                        stop();
+                    }
+                    public void postShutdown() {
+                    }
+                });
+            }
+        }
+        if (stopped) {
+            stopped = false;
+            schedule(++generation);
+        }
+    }
+    
+    /**
+     * Stops probing.  The round already scheduled does not run, and a later call to start 
+     * resumes probing.
+     */
+    public synchronized void stop() {
+        if (!stopped) {
+            stopped = true;
+            generation++;
+        }
+    }
+    
+    private void schedule(final int gen) {
+        if (gen != generation) {
+            return;
+        }
+        try {
+            workQueue.schedule(new Runnable() {
+                public void run() {
+                    if (gen != generation) {
+                        return;
+                    }
+                    try {
+                        probeAll();
+                    } finally {
+                        schedule(gen);
+                    }
+                }
+            }, interval);
+        } catch (RejectedExecutionException ex) {
+            synchronized (this) {
+                if (gen == generation) {
+                    stop();
+                }
+            }
+        }
+    }
+    
+    void probeAll() {
+        for (Target target : targets) {
+            for (String address : getProbedAddresses(target.selector)) {
+                probeAsync(target, address);
+            }
+        }
+    }
+    
+    private void probeAsync(final Target target, final String address) {
+        AtomicBoolean running = target.inProgress.get(address);
+        if (running == null) {
+            running = new AtomicBoolean();
+            AtomicBoolean r2 = target.inProgress.putIfAbsent(address, running);
+            if (r2 != null) {
+                running = r2;
+            }
+        }
+        // a probe hanging on a dead address does not hold up the others
+        if (!stopped && running.compareAndSet(false, true)) {
+            final AtomicBoolean r = running;
+            try {
+                workQueue.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            probe(target.bus, target.selector, address);
+                        } finally {
+                            r.set(false);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                running.set(false);
+            }
+        }
+    }
+    
+    void probe(Bus bus, FailoverTargetSelector selector, String address) {
+        boolean available;
+        try {
+            available = probe.probe(bus, selector.getEndpoint(), address);
+        } catch (Exception ex) {
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.log(Level.FINE, "HEALTH_PROBE_FAILED", new Object[] {address, ex});
+            }
+            available = false;
+        }
+        selector.getCircuitBreakers().getCircuitBreaker(address).onProbe(available, System.nanoTime());
+    }
+    
+    Set<String> getProbedAddresses(FailoverTargetSelector selector) {
+        Set<String> probed = new LinkedHashSet<String>();
+        if (addresses != null) {
+            probed.addAll(addresses);
+            return probed;
+        }
+        FailoverStrategy strategy = selector.getStrategy();
+        if (strategy instanceof AbstractStaticFailoverStrategy) {
+            List<String> alternates = strategy.getAlternateAddresses(null);
+            if (alternates != null) {
+                probed.addAll(alternates);
+            }
+        }
+        for (CircuitBreaker cb : selector.getCircuitBreakers().getCircuitBreakers()) {
+            probed.add(cb.getAddress());
+        }
+        return probed;
+    }
+    
+    /**
+     * The selector of a client and the probes in progress for its addresses.
+     */
+    private static class Target {
+        final Bus bus;
+        final FailoverTargetSelector selector;
+        final ConcurrentMap<String, AtomicBoolean> inProgress = new ConcurrentHashMap<String, AtomicBoolean>();
+        
+        Target(Bus bus, FailoverTargetSelector selector) {
+            this.bus = bus;
+            this.selector = selector;
+        }
+    }
+}
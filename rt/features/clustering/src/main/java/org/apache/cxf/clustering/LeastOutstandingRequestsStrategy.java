@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strategy selecting the target with the fewest requests awaiting a response, 
+ * choosing randomly between equally loaded targets.
+ */
+public class LeastOutstandingRequestsStrategy extends AbstractLatencyAwareStrategy {
+
+    protected int select(List<AddressStatistics> candidates, long now) {
+        int selected = 0;
+        int min = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int x = 0; x < candidates.size(); x++) {
+            int outstanding = candidates.get(x).getOutstanding();
+            if (outstanding < min) {
+                min = outstanding;
+                selected = x;
+                ties = 1;
+            } else if (outstanding == min && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                selected = x;
+            }
+        }
+        return selected;
+    }
+}
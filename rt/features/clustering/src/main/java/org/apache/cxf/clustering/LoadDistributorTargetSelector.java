@@ -18,6 +18,7 @@
  */
 package org.apache.cxf.clustering;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import org.apache.cxf.common.logging.LogUtils;
@@ -113,7 +114,9 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
                 invocation.getContext().put(IS_DISTRIBUTED, null);
             }
         }
-        return getSelectedConduit(message);
+        c = getSelectedConduit(message);
+        startAttempt(message);
+        return c;
     }
 
     /**
@@ -149,8 +152,7 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
 
         Endpoint failoverTarget = null;
         if (alternateAddresses != null) {
-            String alternateAddress = 
-                getStrategy().selectAlternateAddress(alternateAddresses);
+            String alternateAddress = selectAlternateAddress(alternateAddresses);
             if (alternateAddress != null) {
                 // re-use current endpoint
                 //
@@ -184,6 +186,10 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
             }
         }
         alternateAddresses = addressList;
+        if (alternateAddresses != null && getStrategy() instanceof AbstractLatencyAwareStrategy) {
+            // choose between all the addresses on every request rather than walking through them
+            alternateAddresses = new ArrayList<String>(alternateAddresses);
+        }
 
         if ((alternateAddresses == null) || (alternateAddresses.isEmpty())) {
             alternateAddresses = getStrategy().getAlternateAddresses(exchange);
@@ -197,8 +203,7 @@ public class LoadDistributorTargetSelector extends FailoverTargetSelector {
 
         Endpoint distributionTarget = null;
         if ((alternateAddresses != null) && !alternateAddresses.isEmpty()) {
-            String alternateAddress =
-                getStrategy().selectAlternateAddress(alternateAddresses);
+            String alternateAddress = selectAlternateAddress(alternateAddresses);
             if (alternateAddress != null) {
                 // re-use current endpoint
                 distributionTarget = getEndpoint();
@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedResource;
+
+@ManagedResource(componentName = "ClusteringAddress", 
+                 description = "Statistics of a clustering target address", 
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate")
+public class ManagedAddressStatistics implements ManagedComponent {
+    private static final String TYPE_VALUE = "Clustering.Address";
+    
+    private final AddressStatistics statistics;
+    private final Bus bus;
+    private final AddressStatisticsRegistry registry;
+    
+    public ManagedAddressStatistics(AddressStatistics statistics, Bus bus, AddressStatisticsRegistry registry) {
+        this.statistics = statistics;
+        this.bus = bus;
+        this.registry = registry;
+    }
+    
+    @ManagedAttribute(description = "The target address")
+    public String getAddress() {
+        return statistics.getAddress();
+    }
+    
+    @ManagedAttribute(description = "The number of requests awaiting a response")
+    public int getOutstanding() {
+        return statistics.getOutstanding();
+    }
+    
+    @ManagedAttribute(description = "The number of requests sent")
+    public long getRequests() {
+        return statistics.getRequests();
+    }
+    
+    @ManagedAttribute(description = "The number of transport failures")
+    public long getFailures() {
+        return statistics.getFailures();
+    }
+    
+    @ManagedAttribute(description = "The number of consecutive transport failures")
+    public int getConsecutiveFailures() {
+        return statistics.getConsecutiveFailures();
+    }
+    
+    @ManagedAttribute(description = "The peak moving average of the latency in milliseconds")
+    public double getLatency() {
+        return statistics.getLatency() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    @ManagedAttribute(description = "Is the address ejected as an outlier")
+    public boolean isEjected() {
+        return statistics.isEjected();
+    }
+    
+    @ManagedAttribute(description = "The number of times the address was ejected")
+    public long getEjections() {
+        return statistics.getEjections();
+    }
+    
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(bus.getId()).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.NAME_PROP).append('=')
+            .append(ObjectName.quote(statistics.getAddress())).append(',');
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(registry.hashCode());
+        return new ObjectName(buffer.toString());
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.clustering;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AddressStatisticsTest extends Assert {
+    private static final String A = "http://localhost:9000/a";
+    private static final long DECAY = TimeUnit.SECONDS.toNanos(1);
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(5);
+    
+    @Test
+    public void testConstantLatencyKeepsAverage() {
+        AddressStatistics s = createStatistics();
+        long now = System.nanoTime();
+        for (int x = 0; x < 50; x++) {
+            now += INTERVAL;
+            complete(s, now, RTT);
+            assertEquals(RTT, s.getLatency(now), RTT * 1e-9);
+        }
+    }
+    
+    @Test
+    public void testAverageDecaysTowardsLowerLatency() {
+        AddressStatistics s = createStatistics();
+        long now = System.nanoTime() + INTERVAL;
+        long peak = 20 * RTT;
+        complete(s, now, peak);
+        assertEquals(peak, s.getLatency(now), peak * 1e-9);
+        
+        // each sample below the decayed average weights the average by w and the sample by 1 - w
+        double w = Math.exp(-(double)INTERVAL / DECAY);
+        double expected = peak;
+        for (int x = 0; x < 5; x++) {
+            now += INTERVAL;
+            complete(s, now, RTT);
+            expected = expected * w + RTT * (1 - w);
+            assertEquals(expected, s.getLatency(now), expected * 1e-9);
+            assertTrue(s.getLatency(now) > RTT);
+        }
+    }
+    
+    private static AddressStatistics createStatistics() {
+        AddressStatisticsRegistry registry = new AddressStatisticsRegistry();
+        registry.setDecayTime(TimeUnit.NANOSECONDS.toMillis(DECAY));
+        return registry.getStatistics(A);
+    }
+    
+    private static void complete(AddressStatistics s, long now, long rtt) {
+        s.start();
+        s.complete(now - rtt, now, false);
+    }
+}
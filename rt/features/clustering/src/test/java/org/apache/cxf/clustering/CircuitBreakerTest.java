@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CircuitBreakerTest extends Assert {
+    private static final String A = "http://localhost:9000/a";
+    private static final String B = "http://localhost:9001/b";
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    public void testOpensOnFailureRate() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        registry.setMinimumRequests(4);
+        registry.setFailureRateThreshold(50);
+        CircuitBreaker cb = registry.getCircuitBreaker(A);
+        long now = SECOND;
+        cb.onComplete(false, now);
+        cb.onComplete(true, now);
+        cb.onComplete(false, now);
+        assertEquals(CircuitBreaker.State.CLOSED, cb.getState());
+        cb.onComplete(true, now);
+        assertEquals(CircuitBreaker.State.OPEN, cb.getState());
+        assertFalse(cb.isAvailable(now));
+    }
+    
+    @Test
+    public void testOldFailuresLeaveTheWindow() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        registry.setMinimumRequests(2);
+        registry.setWindow(1000);
+        CircuitBreaker cb = registry.getCircuitBreaker(A);
+        cb.onComplete(true, SECOND);
+        cb.onComplete(false, 5 * SECOND);
+        cb.onComplete(false, 5 * SECOND);
+        cb.onComplete(true, 5 * SECOND);
+        assertEquals(CircuitBreaker.State.CLOSED, cb.getState());
+    }
+    
+    @Test
+    public void testHalfOpenTrials() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        registry.setMinimumRequests(1);
+        registry.setOpenTime(1000);
+        registry.setHalfOpenRequests(2);
+        CircuitBreaker cb = registry.getCircuitBreaker(A);
+        cb.onComplete(true, SECOND);
+        assertFalse(cb.isAvailable(SECOND + SECOND / 2));
+        
+        assertTrue(cb.isAvailable(2 * SECOND));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, cb.getState());
+        assertTrue(cb.tryAcquire(2 * SECOND));
+        assertTrue(cb.tryAcquire(2 * SECOND));
+        assertFalse(cb.isAvailable(2 * SECOND));
+        assertFalse(cb.tryAcquire(2 * SECOND));
+        cb.onComplete(false, 2 * SECOND);
+        cb.onComplete(false, 2 * SECOND);
+        assertEquals(CircuitBreaker.State.CLOSED, cb.getState());
+        
+        cb.onComplete(true, 3 * SECOND);
+        assertTrue(cb.tryAcquire(4 * SECOND));
+        cb.onComplete(true, 4 * SECOND);
+        assertEquals(CircuitBreaker.State.OPEN, cb.getState());
+    }
+    
+    @Test
+    public void testConcurrentTrialsAreLimited() throws Exception {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        registry.setHalfOpenRequests(3);
+        final CircuitBreaker cb = registry.getCircuitBreaker(A);
+        cb.onProbe(false, SECOND);
+        cb.onProbe(true, SECOND);
+        
+        final AtomicInteger acquired = new AtomicInteger();
+        final CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[10];
+        for (int x = 0; x < threads.length; x++) {
+            threads[x] = new Thread() {
+                public void run() {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (cb.tryAcquire(SECOND)) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            };
+            threads[x].start();
+        }
+        go.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(3, acquired.get());
+    }
+    
+    @Test
+    public void testStartAcquiresTheCircuit() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        registry.setHalfOpenRequests(1);
+        CircuitBreaker cb = registry.getCircuitBreaker(A);
+        cb.onProbe(false, System.nanoTime());
+        cb.onProbe(true, System.nanoTime());
+        
+        Exchange first = new ExchangeImpl();
+        assertTrue(registry.start(first, A));
+        // the exchange keeps its trial when it asks again
+        assertTrue(registry.start(first, A));
+        Exchange second = new ExchangeImpl();
+        assertFalse(registry.start(second, A));
+        registry.complete(second);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, cb.getState());
+        
+        registry.complete(first);
+        assertEquals(CircuitBreaker.State.CLOSED, cb.getState());
+    }
+    
+    @Test
+    public void testProbeResults() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        CircuitBreaker cb = registry.getCircuitBreaker(A);
+        cb.onProbe(false, SECOND);
+        assertEquals(CircuitBreaker.State.OPEN, cb.getState());
+        cb.onProbe(true, SECOND);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, cb.getState());
+        assertTrue(cb.isAvailable(SECOND));
+    }
+    
+    @Test
+    public void testFilterAvailable() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry();
+        List<String> addresses = new ArrayList<String>(Arrays.asList(A, B));
+        assertSame(addresses, registry.filterAvailable(addresses));
+        
+        registry.getCircuitBreaker(A).onProbe(false, System.nanoTime());
+        assertEquals(Arrays.asList(B), registry.filterAvailable(addresses));
+        
+        registry.getCircuitBreaker(B).onProbe(false, System.nanoTime());
+        assertSame(addresses, registry.filterAvailable(addresses));
+    }
+}
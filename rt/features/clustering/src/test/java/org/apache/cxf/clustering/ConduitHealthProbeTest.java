@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.apache.cxf.transport.Conduit;
+import org.apache.cxf.transport.ConduitInitiator;
+import org.apache.cxf.transport.ConduitInitiatorManager;
+import org.apache.cxf.transport.MessageObserver;
+import org.apache.cxf.ws.addressing.EndpointReferenceType;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConduitHealthProbeTest extends Assert {
+    private static final String ADDRESS = "http://localhost:9000/a";
+    
+    @Test
+    public void testResponseMeansAvailable() throws Exception {
+        assertTrue(probe(new StubConduit(200)));
+        assertTrue(probe(new StubConduit(404)));
+        assertTrue(probe(new StubConduit(500)));
+    }
+    
+    @Test
+    public void testGatewayErrorsMeanUnavailable() throws Exception {
+        assertFalse(probe(new StubConduit(502)));
+        assertFalse(probe(new StubConduit(503)));
+        assertFalse(probe(new StubConduit(504)));
+    }
+    
+    @Test
+    public void testNoResponseMeansUnavailable() throws Exception {
+        StubConduit conduit = new StubConduit(null);
+        assertFalse(probe(conduit));
+        assertTrue(conduit.closed);
+    }
+    
+    @Test
+    public void testPathIsAppended() throws Exception {
+        StubConduit conduit = new StubConduit(200);
+        ConduitHealthProbe probe = new ConduitHealthProbe();
+        probe.setPath("/health");
+        assertTrue(probe(probe, conduit));
+        assertEquals(ADDRESS + "/health", conduit.address);
+        assertEquals("GET", conduit.method);
+    }
+    
+    private static boolean probe(StubConduit conduit) throws Exception {
+        return probe(new ConduitHealthProbe(), conduit);
+    }
+    
+    private static boolean probe(ConduitHealthProbe probe, StubConduit conduit) throws Exception {
+        IMocksControl control = EasyMock.createNiceControl();
+        Bus bus = control.createMock(Bus.class);
+        ConduitInitiatorManager cim = control.createMock(ConduitInitiatorManager.class);
+        ConduitInitiator ci = control.createMock(ConduitInitiator.class);
+        Endpoint endpoint = control.createMock(Endpoint.class);
+        EasyMock.expect(bus.getExtension(ConduitInitiatorManager.class)).andReturn(cim).anyTimes();
+        EasyMock.expect(cim.getConduitInitiatorForUri(ADDRESS)).andReturn(ci).anyTimes();
+        EasyMock.expect(endpoint.getEndpointInfo()).andReturn(new EndpointInfo()).anyTimes();
+        EasyMock.expect(ci.getConduit(EasyMock.anyObject(EndpointInfo.class), 
+                                      EasyMock.anyObject(EndpointReferenceType.class),
+                                      EasyMock.anyObject(Bus.class))).andReturn(conduit).anyTimes();
+        control.replay();
+        return probe.probe(bus, endpoint, ADDRESS);
+    }
+    
+    /**
+     * Answers with the given status code when the request is closed, or not at all.
+     */
+    private static class StubConduit implements Conduit {
+        private final Integer responseCode;
+        private MessageObserver observer;
+        private String address;
+        private String method;
+        private boolean closed;
+        
+        StubConduit(Integer responseCode) {
+            this.responseCode = responseCode;
+        }
+        
+        public void prepare(Message message) throws IOException {
+            address = (String)message.get(Message.ENDPOINT_ADDRESS);
+            method = (String)message.get(Message.HTTP_REQUEST_METHOD);
+            message.setContent(OutputStream.class, new ByteArrayOutputStream());
+        }
+        
+        public void close(Message message) throws IOException {
+            if (responseCode != null) {
+                Message response = new MessageImpl();
+                response.put(Message.RESPONSE_CODE, responseCode);
+                observer.onMessage(response);
+            }
+        }
+        
+        public EndpointReferenceType getTarget() {
+            return null;
+        }
+        
+        public void close() {
+            closed = true;
+        }
+        
+        public void setMessageObserver(MessageObserver o) {
+            observer = o;
+        }
+        
+        public MessageObserver getMessageObserver() {
+            return observer;
+        }
+    }
+}
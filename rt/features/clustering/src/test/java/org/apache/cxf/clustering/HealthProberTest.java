@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.workqueue.AutomaticWorkQueue;
+import org.apache.cxf.workqueue.WorkQueueManager;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HealthProberTest extends Assert {
+    private static final String A = "http://localhost:9000/a";
+    private static final String B = "http://localhost:9001/b";
+    
+    private ManualWorkQueue workQueue;
+    private Bus bus;
+    private StubProbe probe;
+    private HealthProber prober;
+    
+    @Before
+    public void setUp() {
+        workQueue = new ManualWorkQueue();
+        IMocksControl control = EasyMock.createNiceControl();
+        bus = control.createMock(Bus.class);
+        WorkQueueManager wqm = control.createMock(WorkQueueManager.class);
+        EasyMock.expect(bus.getExtension(WorkQueueManager.class)).andReturn(wqm).anyTimes();
+        EasyMock.expect(bus.getExtension(BusLifeCycleManager.class)).andReturn(null).anyTimes();
+        EasyMock.expect(wqm.getAutomaticWorkQueue()).andReturn(workQueue).anyTimes();
+        control.replay();
+        
+        probe = new StubProbe();
+        prober = new HealthProber();
+        prober.setInterval(1000);
+        prober.setProbe(probe);
+        prober.setAddresses(Arrays.asList(A, B));
+    }
+    
+    @Test
+    public void testProbesAreScheduled() {
+        FailoverTargetSelector selector = new FailoverTargetSelector();
+        prober.start(bus, selector);
+        assertNotNull(selector.getCircuitBreakers());
+        assertEquals(1, workQueue.scheduled.size());
+        assertEquals(Long.valueOf(1000), workQueue.delays.get(0));
+        assertTrue(workQueue.executed.isEmpty());
+        
+        // a round of probes runs every address and schedules the next round
+        workQueue.runScheduled();
+        assertEquals(2, workQueue.executed.size());
+        assertEquals(1, workQueue.scheduled.size());
+        workQueue.runExecuted();
+        assertEquals(Integer.valueOf(1), probe.calls.get(A));
+        assertEquals(Integer.valueOf(1), probe.calls.get(B));
+        
+        prober.stop();
+        workQueue.runScheduled();
+        assertTrue(workQueue.executed.isEmpty());
+        assertTrue(workQueue.scheduled.isEmpty());
+    }
+    
+    @Test
+    public void testRestartAfterStop() {
+        FailoverTargetSelector selector = new FailoverTargetSelector();
+        prober.start(bus, selector);
+        prober.stop();
+        prober.start(bus, selector);
+        // the round scheduled before the stop does nothing, the new one probes
+        assertEquals(2, workQueue.scheduled.size());
+        workQueue.runScheduled();
+        assertEquals(2, workQueue.executed.size());
+        assertEquals(1, workQueue.scheduled.size());
+        workQueue.runExecuted();
+        assertEquals(Integer.valueOf(1), probe.calls.get(A));
+        
+        prober.start(bus, selector);
+        assertEquals(1, workQueue.scheduled.size());
+    }
+    
+    @Test
+    public void testOneProbeInFlightPerAddress() {
+        FailoverTargetSelector selector = new FailoverTargetSelector();
+        prober.start(bus, selector);
+        prober.probeAll();
+        prober.probeAll();
+        assertEquals(2, workQueue.executed.size());
+        
+        workQueue.runExecuted();
+        prober.probeAll();
+        assertEquals(2, workQueue.executed.size());
+    }
+    
+    @Test
+    public void testProbeResultsFeedTheCircuitBreakers() {
+        FailoverTargetSelector selector = new FailoverTargetSelector();
+        prober.start(bus, selector);
+        probe.available.put(A, Boolean.FALSE);
+        prober.probeAll();
+        workQueue.runExecuted();
+        CircuitBreakerRegistry registry = selector.getCircuitBreakers();
+        assertEquals(CircuitBreaker.State.OPEN, registry.getCircuitBreaker(A).getState());
+        assertEquals(CircuitBreaker.State.CLOSED, registry.getCircuitBreaker(B).getState());
+        
+        probe.available.put(A, Boolean.TRUE);
+        prober.probeAll();
+        workQueue.runExecuted();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, registry.getCircuitBreaker(A).getState());
+    }
+    
+    @Test
+    public void testFailingProbeMeansUnavailable() {
+        FailoverTargetSelector selector = new FailoverTargetSelector();
+        prober.start(bus, selector);
+        probe.failure = new RuntimeException("connection refused");
+        prober.probeAll();
+        workQueue.runExecuted();
+        assertEquals(CircuitBreaker.State.OPEN, selector.getCircuitBreakers().getCircuitBreaker(A).getState());
+    }
+    
+    @Test
+    public void testSharedProberProbesEveryClient() {
+        FailoverTargetSelector selector1 = new FailoverTargetSelector();
+        FailoverTargetSelector selector2 = new FailoverTargetSelector();
+        prober.start(bus, selector1);
+        prober.start(bus, selector2);
+        prober.start(bus, selector2);
+        assertNotNull(selector2.getCircuitBreakers());
+        assertEquals(1, workQueue.scheduled.size());
+        
+        probe.available.put(B, Boolean.FALSE);
+        prober.probeAll();
+        assertEquals(4, workQueue.executed.size());
+        workQueue.runExecuted();
+        assertEquals(CircuitBreaker.State.OPEN, selector1.getCircuitBreakers().getCircuitBreaker(B).getState());
+        assertEquals(CircuitBreaker.State.OPEN, selector2.getCircuitBreakers().getCircuitBreaker(B).getState());
+    }
+    
+    private static class StubProbe implements HealthProbe {
+        private final Map<String, Boolean> available = new ConcurrentHashMap<String, Boolean>();
+        private final Map<String, Integer> calls = new ConcurrentHashMap<String, Integer>();
+        private RuntimeException failure;
+        
+        public boolean probe(Bus b, Endpoint endpoint, String address) throws Exception {
+            Integer count = calls.get(address);
+            calls.put(address, count == null ? 1 : count + 1);
+            if (failure != null) {
+                throw failure;
+            }
+            Boolean result = available.get(address);
+            return result == null || result;
+        }
+    }
+    
+    /**
+     * Keeps the work items until the test runs them.
+     */
+    private static class ManualWorkQueue implements AutomaticWorkQueue {
+        private final List<Runnable> executed = new ArrayList<Runnable>();
+        private final List<Runnable> scheduled = new ArrayList<Runnable>();
+        private final List<Long> delays = new ArrayList<Long>();
+        
+        void runExecuted() {
+            List<Runnable> work = new ArrayList<Runnable>(executed);
+            executed.clear();
+            for (Runnable r : work) {
+                r.run();
+            }
+        }
+        
+        void runScheduled() {
+            List<Runnable> work = new ArrayList<Runnable>(scheduled);
+            scheduled.clear();
+            delays.clear();
+            for (Runnable r : work) {
+                r.run();
+            }
+        }
+        
+        public void execute(Runnable work) {
+            executed.add(work);
+        }
+        
+        public void execute(Runnable work, long timeout) {
+            executed.add(work);
+        }
+        
+        public void schedule(Runnable work, long delay) {
+            scheduled.add(work);
+            delays.add(delay);
+        }
+        
+        public String getName() {
+            return "test";
+        }
+        
+        public void shutdown(boolean processRemainingWorkItems) {
+        }
+        
+        public boolean isShutdown() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyAwareStrategyTest extends Assert {
+    private static final String A = "http://localhost:9000/a";
+    private static final String B = "http://localhost:9001/b";
+    private static final String C = "http://localhost:9002/c";
+    
+    @Test
+    public void testLeastOutstandingRequests() {
+        LeastOutstandingRequestsStrategy strategy = new LeastOutstandingRequestsStrategy();
+        AddressStatisticsRegistry registry = strategy.getStatistics();
+        registry.getStatistics(A).start();
+        registry.getStatistics(A).start();
+        registry.getStatistics(B).start();
+        
+        assertEquals(C, strategy.selectAlternateAddress(addresses()));
+        registry.getStatistics(C).start();
+        registry.getStatistics(C).start();
+        assertEquals(B, strategy.selectAlternateAddress(addresses()));
+    }
+    
+    @Test
+    public void testSelectionConsumesAddress() {
+        LeastOutstandingRequestsStrategy strategy = new LeastOutstandingRequestsStrategy();
+        List<String> addresses = addresses();
+        String selected = strategy.selectAlternateAddress(addresses);
+        assertEquals(2, addresses.size());
+        assertFalse(addresses.contains(selected));
+    }
+    
+    @Test
+    public void testPeakEwmaAvoidsSlowAddress() throws Exception {
+        PeakEwmaStrategy strategy = new PeakEwmaStrategy();
+        AddressStatisticsRegistry registry = strategy.getStatistics();
+        complete(registry.getStatistics(A), 1, false);
+        complete(registry.getStatistics(B), 50, false);
+        complete(registry.getStatistics(C), 1, false);
+        
+        for (int x = 0; x < 10; x++) {
+            assertFalse(B.equals(strategy.selectAlternateAddress(addresses())));
+        }
+        assertTrue(registry.getStatistics(B).getLatency() > registry.getStatistics(A).getLatency());
+    }
+    
+    @Test
+    public void testPowerOfTwoChoicesNeverPicksWorst() {
+        PowerOfTwoChoicesStrategy strategy = new PowerOfTwoChoicesStrategy();
+        AddressStatisticsRegistry registry = strategy.getStatistics();
+        for (int x = 0; x < 3; x++) {
+            registry.getStatistics(B).start();
+        }
+        registry.getStatistics(A).start();
+        for (int x = 0; x < 50; x++) {
+            assertFalse(B.equals(strategy.selectAlternateAddress(addresses())));
+        }
+    }
+    
+    @Test
+    public void testConsecutiveFailuresEjectAddress() {
+        LeastOutstandingRequestsStrategy strategy = new LeastOutstandingRequestsStrategy();
+        AddressStatisticsRegistry registry = strategy.getStatistics();
+        registry.setConsecutiveFailures(2);
+        registry.getStatistics(A);
+        registry.getStatistics(C);
+        AddressStatistics b = registry.getStatistics(B);
+        // B is idle so it would be picked otherwise
+        registry.getStatistics(A).start();
+        registry.getStatistics(C).start();
+        
+        b.complete(b.start(), true);
+        assertTrue(registry.isAvailable(B));
+        b.complete(b.start(), true);
+        assertFalse(registry.isAvailable(B));
+        assertEquals(1, b.getEjections());
+        assertEquals(2, b.getFailures());
+        for (int x = 0; x < 10; x++) {
+            assertFalse(B.equals(strategy.selectAlternateAddress(addresses())));
+        }
+        
+        // no more than half of the addresses are ejected
+        AddressStatistics a = registry.getStatistics(A);
+        a.complete(a.start(), true);
+        a.complete(a.start(), true);
+        assertTrue(registry.isAvailable(A));
+    }
+    
+    @Test
+    public void testEjectionExpires() throws Exception {
+        AddressStatisticsRegistry registry = new AddressStatisticsRegistry();
+        registry.setConsecutiveFailures(1);
+        registry.setBaseEjectionTime(50);
+        registry.getStatistics(A);
+        AddressStatistics b = registry.getStatistics(B);
+        b.complete(b.start(), true);
+        assertTrue(b.isEjected());
+        Thread.sleep(100);
+        assertFalse(b.isEjected());
+    }
+    
+    @Test
+    public void testLatencyOutlierEjection() throws Exception {
+        AddressStatisticsRegistry registry = new AddressStatisticsRegistry();
+        registry.setLatencyOutlierFactor(3);
+        registry.setMinRequests(1);
+        registry.setMaxEjectionPercent(100);
+        complete(registry.getStatistics(A), 5, false);
+        complete(registry.getStatistics(B), 5, false);
+        assertTrue(registry.isAvailable(C));
+        complete(registry.getStatistics(C), 100, false);
+        assertFalse(registry.isAvailable(C));
+    }
+    
+    private static void complete(AddressStatistics s, long sleep, boolean failed) throws Exception {
+        long start = s.start();
+        Thread.sleep(sleep);
+        s.complete(start, failed);
+    }
+    
+    private static List<String> addresses() {
+        return new ArrayList<String>(Arrays.asList(A, B, C));
+    }
+}
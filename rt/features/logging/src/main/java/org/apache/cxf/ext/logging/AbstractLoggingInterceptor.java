@@ -54,6 +54,14 @@ abstract class AbstractLoggingInterceptor extends AbstractPhaseInterceptor<Messa
     public long getInMemThreshold() {
         return threshold;
     }
+    
+    public void setSender(LogEventSender sender) {
+        this.sender = sender;
+    }
+
+    public LogEventSender getSender() {
+        return sender;
+    }
 
     public void createExchangeId(Message message) {
         Exchange exchange = message.getExchange();
@@ -20,6 +20,7 @@ package org.apache.cxf.ext.logging;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.ext.logging.event.AsyncEventSender;
 import org.apache.cxf.ext.logging.event.LogEventSender;
 import org.apache.cxf.ext.logging.event.PrettyLoggingFilter;
 import org.apache.cxf.ext.logging.slf4j.Slf4jEventSender;
@@ -48,6 +49,7 @@ public class LoggingFeature extends AbstractFeature {
     private LoggingOutInterceptor out;
     private WireTapIn wireTapIn;
     private PrettyLoggingFilter prettyFilter;
+    private AsyncEventSender asyncSender;
 
     public LoggingFeature() {
         this.sender = new Slf4jEventSender();
@@ -87,4 +89,28 @@ public class LoggingFeature extends AbstractFeature {
     public void setPrettyLogging(boolean prettyLogging) {
         this.prettyFilter.setPrettyLogging(prettyLogging);
     }
+    
+    /**
+     * Sends the events from a background thread, so that pretty printing and the sender 
+     * do not add to the latency of the requests.  
+     */
+    public synchronized void setAsync(boolean async) {
+        if (async && asyncSender == null) {
+            asyncSender = new AsyncEventSender(prettyFilter);
+            in.setSender(asyncSender);
+            out.setSender(asyncSender);
+        } else if (!async && asyncSender != null) {
+            in.setSender(prettyFilter);
+            out.setSender(prettyFilter);
+            asyncSender.close();
+            asyncSender = null;
+        }
+    }
+    
+    /**
+     * @return the asynchronous sender, null unless async is enabled
+     */
+    public synchronized AsyncEventSender getAsyncSender() {
+        return asyncSender;
+    }
 }
@@ -102,7 +102,8 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
         public void write(char[] cbuf, int off, int len) throws IOException {
             super.write(cbuf, off, len);
             if (out2 != null && count < lim) {
-                out2.write(cbuf, off, len);
+                // only copy what will be logged
+                out2.write(cbuf, off, Math.min(len, lim - count));
             }
             count += len;
         }
@@ -110,7 +111,7 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
         public void write(String str, int off, int len) throws IOException {
             super.write(str, off, len);
             if (out2 != null && count < lim) {
-                out2.write(str, off, len);
+                out2.write(str, off, Math.min(len, lim - count));
             }
             count += len;
         }
@@ -66,8 +66,25 @@ public class WireTapIn extends AbstractPhaseInterceptor<Message> {
 
     private void handleReader(Message message, Reader reader) throws IOException {
         CachedWriter writer = new CachedWriter();
-        IOUtils.copyAndCloseInput(reader, writer);
-        message.setContent(Reader.class, writer.getReader());
+        if (threshold > 0) {
+            writer.setThreshold(threshold);
+        }
+        // only copy up to the limit since that's all we need to log, one more character
+        // tells if the payload is truncated, we can stream the rest
+        int remaining = limit == -1 || limit == Integer.MAX_VALUE ? Integer.MAX_VALUE : limit + 1;
+        char[] buffer = new char[Math.min(remaining, IOUtils.DEFAULT_BUFFER_SIZE)];
+        int n = 0;
+        while (remaining > 0 && (n = reader.read(buffer, 0, Math.min(remaining, buffer.length))) != -1) {
+            writer.write(buffer, 0, n);
+            remaining -= n;
+        }
+        writer.flush();
+        if (n == -1) {
+            reader.close();
+            message.setContent(Reader.class, writer.getReader());
+        } else {
+            message.setContent(Reader.class, new SequenceReader(writer.getReader(), reader));
+        }
         message.setContent(CachedWriter.class, writer);
     }
 
@@ -103,4 +120,35 @@ public class WireTapIn extends AbstractPhaseInterceptor<Message> {
     public void setThreshold(long threshold) {
         this.threshold = threshold;
     }
+    
+    private static class SequenceReader extends Reader {
+        private Reader first;
+        private final Reader second;
+        
+        SequenceReader(Reader first, Reader second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (first != null) {
+                int n = first.read(cbuf, off, len);
+                if (n != -1) {
+                    return n;
+                }
+                first.close();
+                first = null;
+            }
+            return second.read(cbuf, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (first != null) {
+                first.close();
+            }
+            second.close();
+        }
+    }
 }
@@ -0,0 +1,297 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ext.logging.event;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands the events over to a background thread which passes them in batches to the next 
+ * sender, so that formatting and appender I/O do not add to the latency of the request.
+ * The events are queued in a bounded lock-free ring buffer.  When the buffer is full, 
+ * new events are dropped; with the SAMPLE overflow policy only one in sampleRate events 
+ * is accepted once the buffer is three quarters full, so that some events of every kind 
+ * keep flowing under sustained overload.
+ */
+public class AsyncEventSender implements LogEventSender, Closeable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    
+    public enum OverflowPolicy {
+        DROP, SAMPLE
+    }
+    
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventSender.class);
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private final LogEventSender next;
+    private final int mask;
+    private final AtomicReferenceArray<LogEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicInteger sending = new AtomicInteger();
+    
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private volatile int sampleRate = 10;
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile Thread worker;
+    private volatile boolean idle;
+    private volatile boolean closed;
+    
+    public AsyncEventSender(LogEventSender next) {
+        this(next, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param next the sender the events are passed to
+     * @param capacity the capacity of the buffer, rounded up to a power of two
+     */
+    public AsyncEventSender(LogEventSender next, int capacity) {
+        this.next = next;
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        slots = new AtomicReferenceArray<LogEvent>(size);
+        sequences = new AtomicLongArray(size);
+        for (int x = 0; x < size; x++) {
+            sequences.set(x, x);
+        }
+    }
+    
+    @Override
+    public void send(LogEvent event) {
+        // closing waits for the sends which have already seen the sender open,
+        // so every event which is queued is also passed on
+        sending.incrementAndGet();
+        try {
+            if (closed || !accept() || !offer(event)) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } finally {
+            sending.decrementAndGet();
+        }
+        Thread t = worker;
+        if (t == null) {
+            startWorker();
+        } else if (idle) {
+            LockSupport.unpark(t);
+        }
+    }
+    
+    private boolean accept() {
+        if (overflowPolicy != OverflowPolicy.SAMPLE 
+            || tail.get() - head < (mask + 1) - ((mask + 1) >> 2)) {
+            return true;
+        }
+        return overflowCount.incrementAndGet() % Math.max(sampleRate, 1) == 0;
+    }
+    
+    private boolean offer(LogEvent event) {
+        long pos = tail.get();
+        while (true) {
+            int idx = (int)pos & mask;
+            long dif = sequences.get(idx) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(idx, event);
+                    sequences.lazySet(idx, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+    
+    private LogEvent poll() {
+        long pos = head;
+        int idx = (int)pos & mask;
+        if (sequences.get(idx) != pos + 1) {
+            return null;
+        }
+        LogEvent event = slots.get(idx);
+        slots.lazySet(idx, null);
+        sequences.lazySet(idx, pos + mask + 1);
+        head = pos + 1;
+        return event;
+    }
+    
+    private synchronized void startWorker() {
+        if (worker == null && !closed) {
+            Thread t = new Thread(new Runnable() {
+                public void run() {
+                    drainLoop();
+                }
+            }, "cxf-async-log-sender");
+            t.setDaemon(true);
+            worker = t;
+            t.start();
+        }
+    }
+    
+    private void drainLoop() {
+        while (true) {
+            int count = drain();
+            if (count == 0) {
+                if (closed && sending.get() == 0) {
+                    // no more events can be queued, pass on the ones queued meanwhile
+                    drainAll();
+                    return;
+                }
+                if (closed) {
+                    // only waiting for the last concurrent sends to finish
+                    Thread.yield();
+                    continue;
+                }
+                idle = true;
+                if (tail.get() == head) {
+                    LockSupport.parkNanos(this, IDLE_WAIT);
+                }
+                idle = false;
+            }
+        }
+    }
+    
+    /**
+     * Passes at most one batch of events to the next sender.
+     * 
+     * @return the number of events sent
+     */
+    private int drain() {
+        int max = batchSize;
+        int count = 0;
+        LogEvent event;
+        while (count < max && (event = poll()) != null) {
+            count++;
+            try {
+                next.send(event);
+                sent.incrementAndGet();
+            } catch (RuntimeException ex) {
+                dropped.incrementAndGet();
+                LOG.warn("Error while sending log event", ex);
+            }
+        }
+        return count;
+    }
+    
+    private void drainAll() {
+        while (drain() > 0) {
+            // keep sending
+        }
+    }
+    
+    /**
+     * Stops accepting events and waits until the queued ones are sent.
+     */
+    @Override
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            closed = true;
+            t = worker;
+            if (t == null) {
+                // the worker can not be started anymore, send the events queued 
+                // by the concurrent sends here
+                while (sending.get() != 0) {
+                    Thread.yield();
+                }
+                drainAll();
+            }
+        }
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+    
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+    
+    public int getSampleRate() {
+        return sampleRate;
+    }
+    
+    /**
+     * @param sampleRate with the SAMPLE policy, one in sampleRate events is accepted 
+     *        when the buffer is nearly full
+     */
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+    }
+    
+    public int getCapacity() {
+        return mask + 1;
+    }
+    
+    /**
+     * @return the number of events waiting to be sent
+     */
+    public int getQueued() {
+        return (int)Math.max(0, tail.get() - head);
+    }
+    
+    /**
+     * @return the number of events passed to the next sender
+     */
+    public long getSent() {
+        return sent.get();
+    }
+    
+    /**
+     * @return the number of events dropped or sampled out because the buffer was full, 
+     *         or because the next sender failed
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
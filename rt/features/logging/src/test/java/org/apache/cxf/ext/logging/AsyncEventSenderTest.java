@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ext.logging;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.ext.logging.event.AsyncEventSender;
+import org.apache.cxf.ext.logging.event.LogEvent;
+import org.apache.cxf.ext.logging.event.LogEventSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncEventSenderTest {
+
+    @Test
+    public void testAllEventsSentInOrder() throws Exception {
+        final List<LogEvent> received = new CopyOnWriteArrayList<LogEvent>();
+        AsyncEventSender sender = new AsyncEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                received.add(event);
+            }
+        }, 64);
+        sender.setBatchSize(8);
+        LogEvent[] events = new LogEvent[50];
+        for (int x = 0; x < events.length; x++) {
+            events[x] = new LogEvent();
+            sender.send(events[x]);
+        }
+        sender.close();
+        Assert.assertEquals(events.length, received.size());
+        for (int x = 0; x < events.length; x++) {
+            Assert.assertSame(events[x], received.get(x));
+        }
+        Assert.assertEquals(events.length, sender.getSent());
+        Assert.assertEquals(0, sender.getDropped());
+    }
+    
+    @Test
+    public void testDropWhenFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncEventSender sender = new AsyncEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 4);
+        sender.send(new LogEvent());
+        Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int x = 0; x < 10; x++) {
+            sender.send(new LogEvent());
+        }
+        Assert.assertEquals(4, sender.getQueued());
+        Assert.assertEquals(6, sender.getDropped());
+        release.countDown();
+        sender.close();
+        Assert.assertEquals(5, sender.getSent());
+    }
+    
+    @Test
+    public void testSampleWhenNearlyFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncEventSender sender = new AsyncEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 8);
+        sender.setOverflowPolicy(AsyncEventSender.OverflowPolicy.SAMPLE);
+        sender.setSampleRate(2);
+        sender.send(new LogEvent());
+        Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int x = 0; x < 6; x++) {
+            sender.send(new LogEvent());
+        }
+        Assert.assertEquals(6, sender.getQueued());
+        // above three quarters of the capacity only every second event is accepted
+        for (int x = 0; x < 4; x++) {
+            sender.send(new LogEvent());
+        }
+        Assert.assertEquals(8, sender.getQueued());
+        Assert.assertEquals(2, sender.getDropped());
+        release.countDown();
+        sender.close();
+        Assert.assertEquals(0, sender.getQueued());
+        Assert.assertEquals(9, sender.getSent());
+    }
+    
+    @Test
+    public void testCloseWhileSending() throws Exception {
+        for (int run = 0; run < 200; run++) {
+            final AtomicLong received = new AtomicLong();
+            final AsyncEventSender sender = new AsyncEventSender(new LogEventSender() {
+                public void send(LogEvent event) {
+                    received.incrementAndGet();
+                }
+            }, 1024);
+            final int perThread = 100;
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[4];
+            for (int x = 0; x < threads.length; x++) {
+                threads[x] = new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        for (int y = 0; y < perThread; y++) {
+                            sender.send(new LogEvent());
+                        }
+                    }
+                });
+                threads[x].start();
+            }
+            start.countDown();
+            sender.close();
+            for (Thread t : threads) {
+                t.join();
+            }
+            // every event is either passed on by close() or dropped, none is left in the buffer
+            Assert.assertEquals(0, sender.getQueued());
+            Assert.assertEquals(received.get(), sender.getSent());
+            Assert.assertEquals(threads.length * perThread, sender.getSent() + sender.getDropped());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ext.logging;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.ext.logging.event.LogEvent;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WireTapInTest {
+    private static final int LIMIT = 20;
+
+    @Test
+    public void testReaderTruncatedAtLimit() throws Exception {
+        String payload = createPayload(100);
+        Message message = createMessage(new StringReader(payload));
+
+        LogEvent event = wireTapAndLog(message);
+
+        Assert.assertEquals(payload.substring(0, LIMIT), event.getPayload());
+        Assert.assertTrue(event.isTruncated());
+        // the part which has been tapped is followed by the rest of the original reader,
+        // reading in small chunks makes the reads cross the boundary between the two
+        Assert.assertEquals(payload, IOUtils.toString(message.getContent(Reader.class), 7));
+    }
+
+    @Test
+    public void testReaderWithinLimit() throws Exception {
+        String payload = createPayload(LIMIT);
+        Message message = createMessage(new StringReader(payload));
+
+        LogEvent event = wireTapAndLog(message);
+
+        Assert.assertEquals(payload, event.getPayload());
+        Assert.assertFalse(event.isTruncated());
+        Assert.assertEquals(payload, IOUtils.toString(message.getContent(Reader.class)));
+    }
+
+    private LogEvent wireTapAndLog(Message message) {
+        WireTapIn wireTap = new WireTapIn();
+        wireTap.setLimit(LIMIT);
+        wireTap.handleMessage(message);
+
+        TestEventSender sender = new TestEventSender();
+        LoggingInInterceptor interceptor = new LoggingInInterceptor(sender);
+        interceptor.setLimit(LIMIT);
+        interceptor.handleMessage(message);
+        Assert.assertEquals(1, sender.getEvents().size());
+        return sender.getEvents().get(0);
+    }
+
+    private static Message createMessage(Reader reader) {
+        Endpoint endpoint = EasyMock.createMock(Endpoint.class);
+        EasyMock.expect(endpoint.getEndpointInfo()).andReturn(new EndpointInfo()).anyTimes();
+        EasyMock.replay(endpoint);
+
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Endpoint.class, endpoint);
+        message.setExchange(exchange);
+        Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        message.put(Message.PROTOCOL_HEADERS, headers);
+        message.setContent(Reader.class, reader);
+        return message;
+    }
+
+    private static String createPayload(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int x = 0; x < length; x++) {
+            sb.append((char)('a' + x % 26));
+        }
+        return sb.toString();
+    }
+}
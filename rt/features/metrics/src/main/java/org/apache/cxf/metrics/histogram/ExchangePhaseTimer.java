@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.histogram;
+
+import java.util.Arrays;
+
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageUtils;
+import org.apache.cxf.phase.PhaseTimer;
+
+/**
+ * Accumulates the time an exchange spends in each phase of its inbound and outbound chains.  
+ * The same phase name may occur in both directions, so the direction is kept with the phase.
+ */
+public class ExchangePhaseTimer implements PhaseTimer {
+    private String[] phases = new String[16];
+    private boolean[] outbound = new boolean[16];
+    private long[] times = new long[16];
+    private int size;
+    private int current = -1;
+    private long enteredAt;
+    
+    public synchronized void enterPhase(Message message, String phase, long nanoTime) {
+        close(nanoTime);
+        current = indexOf(phase, MessageUtils.isOutbound(message));
+        enteredAt = nanoTime;
+    }
+
+    public synchronized void leaveChain(Message message, long nanoTime) {
+        close(nanoTime);
+        current = -1;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public synchronized String getPhase(int index) {
+        return phases[index];
+    }
+    
+    public synchronized boolean isOutbound(int index) {
+        return outbound[index];
+    }
+    
+    /**
+     * @return the nanoseconds spent so far in the phase, including the running phase
+     */
+    public synchronized long getTime(int index) {
+        long time = times[index];
+        if (index == current) {
+            time += System.nanoTime() - enteredAt;
+        }
+        return time;
+    }
+    
+    private void close(long nanoTime) {
+        if (current != -1) {
+            times[current] += nanoTime - enteredAt;
+        }
+    }
+    
+    private int indexOf(String phase, boolean out) {
+        for (int x = size - 1; x >= 0; x--) {
+            if (outbound[x] == out && phase.equals(phases[x])) {
+                return x;
+            }
+        }
+        if (size == phases.length) {
+            phases = Arrays.copyOf(phases, size * 2);
+            outbound = Arrays.copyOf(outbound, size * 2);
+            times = Arrays.copyOf(times, size * 2);
+        }
+        phases[size] = phase;
+        outbound[size] = out;
+        return size++;
+    }
+}
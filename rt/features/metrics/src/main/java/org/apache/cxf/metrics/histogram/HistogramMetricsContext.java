@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.histogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedOperationParameter;
+import org.apache.cxf.management.annotation.ManagedOperationParameters;
+import org.apache.cxf.management.annotation.ManagedResource;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.FaultMode;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.metrics.MetricsContext;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.phase.PhaseTimer;
+
+/**
+ * Records the latency distribution of an endpoint or operation and, if enabled, the 
+ * distribution of the time spent in each phase of the interceptor chains.
+ */
+@ManagedResource(componentName = "LatencyHistogram", 
+                 description = "Latency percentiles of an endpoint or operation", 
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate")
+public class HistogramMetricsContext implements MetricsContext, Closeable, ManagedComponent {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    protected final LatencyHistogram totals = new LatencyHistogram();
+    protected final AtomicLong inFlight = new AtomicLong();
+    protected final AtomicLong faults = new AtomicLong();
+    protected final AtomicLong incomingData = new AtomicLong();
+    protected final AtomicLong outgoingData = new AtomicLong();
+    protected final ConcurrentMap<String, LatencyHistogram> inPhases;
+    protected final ConcurrentMap<String, LatencyHistogram> outPhases;
+    
+    protected final String name;
+    private InstrumentationManager instrumentationManager;
+    
+    /**
+     * @param name the object name of the context
+     * @param phaseBreakdown record the time spent in each phase 
+     */
+    public HistogramMetricsContext(String name, boolean phaseBreakdown) {
+        this.name = name;
+        if (phaseBreakdown) {
+            inPhases = new ConcurrentHashMap<String, LatencyHistogram>();
+            outPhases = new ConcurrentHashMap<String, LatencyHistogram>();
+        } else {
+            inPhases = null;
+            outPhases = null;
+        }
+    }
+    
+    public void register(InstrumentationManager im) throws JMException {
+        im.register(this);
+        instrumentationManager = im;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (instrumentationManager != null) {
+            try {
+                instrumentationManager.unregister(this);
+            } catch (JMException e) {
+                throw new IOException(e);
+            }
+            instrumentationManager = null;
+        }
+    }
+    
+    public void start(Exchange ex) {
+        inFlight.incrementAndGet();
+        if (inPhases != null && ex.get(PhaseTimer.class) == null) {
+            PhaseTimer timer = new ExchangePhaseTimer();
+            ex.put(PhaseTimer.class, timer);
+            // the running chain has looked for a timer already, it starts timing the current phase now
+            Message m = PhaseInterceptorChain.getCurrentMessage();
+            if (m != null && m.getExchange() == ex && m.getInterceptorChain() instanceof PhaseInterceptorChain) {
+                ((PhaseInterceptorChain)m.getInterceptorChain()).setPhaseTimer(m, timer);
+            }
+        }
+    }
+    
+    public void stop(long timeInNS, long inSize, long outSize, Exchange ex) {
+        totals.record(timeInNS);
+        if (inSize != -1) {
+            incomingData.addAndGet(inSize);
+        }
+        if (outSize != -1) {
+            outgoingData.addAndGet(outSize);
+        }
+        if (ex.get(FaultMode.class) != null) {
+            faults.incrementAndGet();
+        }
+        if (inPhases != null) {
+            PhaseTimer timer = ex.get(PhaseTimer.class);
+            if (timer instanceof ExchangePhaseTimer) {
+                recordPhases((ExchangePhaseTimer)timer);
+            }
+        }
+        inFlight.decrementAndGet();
+    }
+    
+    private void recordPhases(ExchangePhaseTimer timer) {
+        for (int x = 0; x < timer.size(); x++) {
+            ConcurrentMap<String, LatencyHistogram> phases = timer.isOutbound(x) ? outPhases : inPhases;
+            String phase = timer.getPhase(x);
+            LatencyHistogram h = phases.get(phase);
+            if (h == null) {
+                h = new LatencyHistogram();
+                LatencyHistogram h2 = phases.putIfAbsent(phase, h);
+                if (h2 != null) {
+                    h = h2;
+                }
+            }
+            h.record(timer.getTime(x));
+        }
+    }
+    
+    public LatencyHistogram getTotals() {
+        return totals;
+    }
+    
+    /**
+     * @param outbound the direction of the chain
+     * @param phase the name of the phase
+     * @return the histogram of the time spent in the phase, null if not recorded
+     */
+    public LatencyHistogram getPhase(boolean outbound, String phase) {
+        ConcurrentMap<String, LatencyHistogram> phases = outbound ? outPhases : inPhases;
+        return phases == null ? null : phases.get(phase);
+    }
+    
+    @ManagedAttribute(description = "The number of completed invocations")
+    public long getCount() {
+        return totals.getCount();
+    }
+    
+    @ManagedAttribute(description = "The number of invocations in progress")
+    public long getInFlight() {
+        return inFlight.get();
+    }
+    
+    @ManagedAttribute(description = "The number of invocations completed with a fault")
+    public long getFaults() {
+        return faults.get();
+    }
+    
+    @ManagedAttribute(description = "The number of bytes read")
+    public long getDataRead() {
+        return incomingData.get();
+    }
+    
+    @ManagedAttribute(description = "The number of bytes written")
+    public long getDataWritten() {
+        return outgoingData.get();
+    }
+    
+    @ManagedAttribute(description = "The mean latency in milliseconds")
+    public double getMean() {
+        return totals.getMean() / NANOS_PER_MILLI;
+    }
+    
+    @ManagedAttribute(description = "The maximum latency in milliseconds")
+    public double getMax() {
+        return totals.getMax() / NANOS_PER_MILLI;
+    }
+    
+    @ManagedAttribute(description = "The median latency in milliseconds")
+    public double getP50() {
+        return getPercentile(50);
+    }
+    
+    @ManagedAttribute(description = "The 99th percentile of the latency in milliseconds")
+    public double getP99() {
+        return getPercentile(99);
+    }
+    
+    @ManagedAttribute(description = "The 99.9th percentile of the latency in milliseconds")
+    public double getP999() {
+        return getPercentile(99.9);
+    }
+    
+    @ManagedOperation(description = "The latency at a percentile in milliseconds")
+    @ManagedOperationParameters({
+        @ManagedOperationParameter(name = "percentile", description = "The percentile, 0 to 100") 
+    })
+    public double getPercentile(double percentile) {
+        return totals.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+    
+    @ManagedAttribute(description = "The p50/p99/p999 time spent in each phase in milliseconds")
+    public String[] getPhaseBreakdown() {
+        List<String> result = new ArrayList<String>();
+        if (inPhases != null) {
+            addPhases(result, "in", inPhases);
+            addPhases(result, "out", outPhases);
+        }
+        return result.toArray(new String[result.size()]);
+    }
+    
+    private static void addPhases(List<String> result, String direction, 
+                                  Map<String, LatencyHistogram> phases) {
+        for (Map.Entry<String, LatencyHistogram> e : phases.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            result.add(direction + ":" + e.getKey() 
+                       + " p50=" + h.getValueAtPercentile(50) / NANOS_PER_MILLI
+                       + " p99=" + h.getValueAtPercentile(99) / NANOS_PER_MILLI
+                       + " p999=" + h.getValueAtPercentile(99.9) / NANOS_PER_MILLI);
+        }
+    }
+    
+    @ManagedOperation(description = "Clear the recorded latencies")
+    public void reset() {
+        totals.reset();
+        if (inPhases != null) {
+            inPhases.clear();
+            outPhases.clear();
+        }
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        return new ObjectName(name);
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.histogram;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.metrics.MetricsContext;
+import org.apache.cxf.metrics.MetricsProvider;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+/**
+ * A MetricsProvider recording latency percentiles per endpoint and operation in lock-free 
+ * histograms, exposed through JMX.  With phaseBreakdown enabled the endpoint contexts also 
+ * record the time each exchange spends in every phase of the interceptor chains, which tells 
+ * apart the time spent in, for example, unmarshalling, security and the service invocation.
+ */
+@NoJSR250Annotations
+public class HistogramMetricsProvider implements MetricsProvider {
+    private static final Logger LOG = LogUtils.getL7dLogger(HistogramMetricsProvider.class);
+    private static final String QUESTION_MARK = "?";
+    private static final String ESCAPED_QUESTION_MARK = "\\?";
+    
+    protected Bus bus;
+    private boolean phaseBreakdown;
+    
+    public HistogramMetricsProvider(Bus b) {
+        this.bus = b;
+    }
+    
+    public HistogramMetricsProvider(Bus b, boolean phaseBreakdown) {
+        this.bus = b;
+        this.phaseBreakdown = phaseBreakdown;
+    }
+    
+    public boolean isPhaseBreakdown() {
+        return phaseBreakdown;
+    }
+    
+    public void setPhaseBreakdown(boolean phaseBreakdown) {
+        this.phaseBreakdown = phaseBreakdown;
+    }
+    
+    protected String escapePatternChars(String value) {
+        if (value.lastIndexOf(QUESTION_MARK) != -1) {
+            value = value.replace(QUESTION_MARK, ESCAPED_QUESTION_MARK);
+        }
+        return value;
+    }
+
+    StringBuilder getBaseServiceName(Endpoint endpoint, boolean isClient, String clientId) {
+        StringBuilder buffer = new StringBuilder();
+        if (endpoint.get("org.apache.cxf.management.service.counter.name") != null) {
+            buffer.append((String)endpoint.get("org.apache.cxf.management.service.counter.name"));
+        } else {
+            Service service = endpoint.getService();
+
+            String serviceName = "\"" + escapePatternChars(service.getName().toString()) + "\"";
+            String portName = "\"" + endpoint.getEndpointInfo().getName().getLocalPart() + "\"";
+
+            buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME + ":");
+            buffer.append(ManagementConstants.BUS_ID_PROP + "=" + bus.getId() + ",");
+            buffer.append(ManagementConstants.TYPE_PROP).append("=Metrics");
+            if (isClient) {
+                buffer.append(".Client,");
+            } else {
+                buffer.append(".Server,");
+            }
+            buffer.append(ManagementConstants.SERVICE_NAME_PROP + "=" + serviceName + ",");
+            buffer.append(ManagementConstants.PORT_NAME_PROP + "=" + portName + ",");
+            if (clientId != null) {
+                buffer.append("Client=" + clientId + ",");
+            }
+        }
+        return buffer;
+    }
+    
+    /** {@inheritDoc}*/
+    @Override
+    public MetricsContext createEndpointContext(Endpoint endpoint, boolean isClient, String clientId) {
+        StringBuilder buffer = getBaseServiceName(endpoint, isClient, clientId);
+        return createContext(buffer, phaseBreakdown);
+    }
+
+    /** {@inheritDoc}*/
+    @Override
+    public MetricsContext createOperationContext(Endpoint endpoint, BindingOperationInfo boi,
+                                                 boolean asClient, String clientId) {
+        StringBuilder buffer = getBaseServiceName(endpoint, asClient, clientId);
+        buffer.append("Operation=").append(boi.getName().getLocalPart()).append(',');
+        return createContext(buffer, false);
+    }
+    
+    private MetricsContext createContext(StringBuilder buffer, boolean phases) {
+        buffer.append("Attribute=Latency Histogram");
+        HistogramMetricsContext ctx = new HistogramMetricsContext(buffer.toString(), phases);
+        InstrumentationManager im = bus.getExtension(InstrumentationManager.class);
+        if (im != null) {
+            try {
+                ctx.register(im);
+            } catch (JMException jmex) {
+                LOG.log(Level.WARNING, jmex.getMessage(), jmex);
+            }
+        }
+        return ctx;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.histogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free log-linear histogram of latencies in nanoseconds, in the spirit of HdrHistogram.
+ * Values below 64 are counted exactly, larger values in one of 32 linear sub-buckets of their 
+ * power of two, which bounds the relative error of the reported percentiles to about 3%.
+ * Values above 2^40 ns (about 18 minutes) are clamped.  Recording a value never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+        counts.incrementAndGet(index(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long m = max.get();
+        while (value > m && !max.compareAndSet(m, value)) {
+            m = max.get();
+        }
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    public double getMean() {
+        long c = count.get();
+        return c == 0 ? 0 : (double)sum.get() / c;
+    }
+    
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the highest value equivalent to the value at the percentile, 0 if nothing 
+     *         has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int x = 0; x < BUCKETS; x++) {
+            total += counts.get(x);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long)Math.ceil(Math.min(percentile, 100.0) * total / 100.0));
+        long seen = 0;
+        for (int x = 0; x < BUCKETS; x++) {
+            seen += counts.get(x);
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(x), max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    /**
+     * Clears the histogram.  Values recorded concurrently may be partially lost.
+     */
+    public void reset() {
+        for (int x = 0; x < BUCKETS; x++) {
+            counts.set(x, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+    
+    static int index(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int)value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int)(value >>> shift);
+    }
+    
+    static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long)(index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
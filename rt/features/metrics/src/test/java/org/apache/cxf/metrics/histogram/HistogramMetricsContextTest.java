@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.histogram;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.FaultMode;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.phase.PhaseTimer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramMetricsContextTest extends Assert {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    @Test
+    public void testStartStop() {
+        HistogramMetricsContext ctx = new HistogramMetricsContext("test", false);
+        Exchange ex = new ExchangeImpl();
+        ctx.start(ex);
+        assertEquals(1, ctx.getInFlight());
+        assertNull(ex.get(PhaseTimer.class));
+        
+        ctx.stop(2 * MS, 100, 200, ex);
+        assertEquals(0, ctx.getInFlight());
+        assertEquals(1, ctx.getCount());
+        assertEquals(0, ctx.getFaults());
+        assertEquals(100, ctx.getDataRead());
+        assertEquals(200, ctx.getDataWritten());
+        assertEquals(2.0, ctx.getMax(), 0.001);
+        assertEquals(2.0, ctx.getMean(), 0.001);
+        assertEquals(2.0, ctx.getP99(), 2.0 / 32);
+        assertEquals(0, ctx.getPhaseBreakdown().length);
+        
+        // unknown sizes are not counted
+        ex = new ExchangeImpl();
+        ctx.start(ex);
+        ctx.stop(MS, -1, -1, ex);
+        assertEquals(2, ctx.getCount());
+        assertEquals(100, ctx.getDataRead());
+        assertEquals(200, ctx.getDataWritten());
+    }
+    
+    @Test
+    public void testFault() {
+        HistogramMetricsContext ctx = new HistogramMetricsContext("test", false);
+        Exchange ex = new ExchangeImpl();
+        ex.put(FaultMode.class, FaultMode.RUNTIME_FAULT);
+        ctx.start(ex);
+        ctx.stop(MS, 0, 0, ex);
+        assertEquals(1, ctx.getFaults());
+        assertEquals(1, ctx.getCount());
+    }
+    
+    @Test
+    public void testReset() {
+        HistogramMetricsContext ctx = new HistogramMetricsContext("test", true);
+        Exchange ex = new ExchangeImpl();
+        ctx.start(ex);
+        ((PhaseTimer)ex.get(PhaseTimer.class)).enterPhase(new MessageImpl(), Phase.RECEIVE, 0);
+        ctx.stop(MS, 0, 0, ex);
+        assertNotNull(ctx.getPhase(false, Phase.RECEIVE));
+        
+        ctx.reset();
+        assertEquals(0, ctx.getCount());
+        assertEquals(0, ctx.getP50(), 0);
+        assertNull(ctx.getPhase(false, Phase.RECEIVE));
+    }
+    
+    @Test
+    public void testPhasesRecorded() {
+        final HistogramMetricsContext ctx = new HistogramMetricsContext("test", true);
+        SortedSet<Phase> phases = new TreeSet<Phase>();
+        phases.add(new Phase(Phase.RECEIVE, 1));
+        phases.add(new Phase(Phase.UNMARSHAL, 2));
+        phases.add(new Phase(Phase.INVOKE, 3));
+        PhaseInterceptorChain chain = new PhaseInterceptorChain(phases);
+        // started by the first interceptor of the first phase, like the metrics interceptors
+        chain.add(new AbstractPhaseInterceptor<Message>(Phase.RECEIVE) {
+            public void handleMessage(Message message) {
+                ctx.start(message.getExchange());
+            }
+        });
+        chain.add(new AbstractPhaseInterceptor<Message>(Phase.UNMARSHAL) {
+            public void handleMessage(Message message) {
+            }
+        });
+        chain.add(new AbstractPhaseInterceptor<Message>(Phase.INVOKE) {
+            public void handleMessage(Message message) {
+                ctx.stop(MS, -1, -1, message.getExchange());
+            }
+        });
+        
+        Exchange ex = new ExchangeImpl();
+        Message message = new MessageImpl();
+        message.setExchange(ex);
+        message.setInterceptorChain(chain);
+        ex.setInMessage(message);
+        assertTrue(chain.doIntercept(message));
+        
+        assertEquals(1, ctx.getCount());
+        assertEquals(1, ctx.getPhase(false, Phase.RECEIVE).getCount());
+        assertEquals(1, ctx.getPhase(false, Phase.UNMARSHAL).getCount());
+        assertEquals(1, ctx.getPhase(false, Phase.INVOKE).getCount());
+        assertNull(ctx.getPhase(true, Phase.RECEIVE));
+        assertEquals(3, ctx.getPhaseBreakdown().length);
+        assertTrue(ctx.getPhaseBreakdown()[0].startsWith("in:"));
+    }
+    
+    @Test
+    public void testPhasesNotRecordedByDefault() {
+        HistogramMetricsContext ctx = new HistogramMetricsContext("test", false);
+        assertNull(ctx.getPhase(false, Phase.RECEIVE));
+        assertEquals(0, ctx.getPhaseBreakdown().length);
+    }
+}
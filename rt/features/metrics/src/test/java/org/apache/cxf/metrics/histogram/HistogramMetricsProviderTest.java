@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.histogram;
+
+import javax.management.ObjectName;
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistogramMetricsProviderTest extends Assert {
+    private static final String SERVICE_NAME = "\"{urn:test}TestService\"";
+    
+    private IMocksControl control;
+    private Bus bus;
+    private Endpoint endpoint;
+    private BindingOperationInfo boi;
+    
+    @Before
+    public void setUp() {
+        control = EasyMock.createNiceControl();
+        bus = control.createMock(Bus.class);
+        endpoint = control.createMock(Endpoint.class);
+        Service service = control.createMock(Service.class);
+        boi = control.createMock(BindingOperationInfo.class);
+        EndpointInfo ei = new EndpointInfo();
+        ei.setName(new QName("urn:test", "TestPort"));
+        EasyMock.expect(bus.getId()).andReturn("cxf").anyTimes();
+        EasyMock.expect(endpoint.getService()).andReturn(service).anyTimes();
+        EasyMock.expect(endpoint.getEndpointInfo()).andReturn(ei).anyTimes();
+        EasyMock.expect(service.getName()).andReturn(new QName("urn:test", "TestService")).anyTimes();
+        EasyMock.expect(boi.getName()).andReturn(new QName("urn:test", "echo")).anyTimes();
+    }
+    
+    @Test
+    public void testServerObjectNames() throws Exception {
+        control.replay();
+        HistogramMetricsProvider provider = new HistogramMetricsProvider(bus);
+        HistogramMetricsContext ctx = (HistogramMetricsContext)provider.createEndpointContext(endpoint, false, null);
+        assertEquals(new ObjectName("org.apache.cxf:bus.id=cxf,type=Metrics.Server,service=" + SERVICE_NAME 
+                                    + ",port=\"TestPort\",Attribute=Latency Histogram"), 
+                     ctx.getObjectName());
+        
+        ctx = (HistogramMetricsContext)provider.createOperationContext(endpoint, boi, false, null);
+        assertEquals(new ObjectName("org.apache.cxf:bus.id=cxf,type=Metrics.Server,service=" + SERVICE_NAME 
+                                    + ",port=\"TestPort\",Operation=echo,Attribute=Latency Histogram"), 
+                     ctx.getObjectName());
+    }
+    
+    @Test
+    public void testClientObjectNames() throws Exception {
+        control.replay();
+        HistogramMetricsProvider provider = new HistogramMetricsProvider(bus);
+        HistogramMetricsContext ctx = 
+            (HistogramMetricsContext)provider.createEndpointContext(endpoint, true, "client1");
+        assertEquals(new ObjectName("org.apache.cxf:bus.id=cxf,type=Metrics.Client,service=" + SERVICE_NAME 
+                                    + ",port=\"TestPort\",Client=client1,Attribute=Latency Histogram"), 
+                     ctx.getObjectName());
+    }
+    
+    @Test
+    public void testPhaseBreakdownOnlyForEndpoints() throws Exception {
+        control.replay();
+        HistogramMetricsProvider provider = new HistogramMetricsProvider(bus, true);
+        HistogramMetricsContext ctx = (HistogramMetricsContext)provider.createEndpointContext(endpoint, false, null);
+        assertNotNull(ctx.inPhases);
+        ctx = (HistogramMetricsContext)provider.createOperationContext(endpoint, boi, false, null);
+        assertNull(ctx.inPhases);
+    }
+    
+    @Test
+    public void testContextsRegistered() throws Exception {
+        InstrumentationManager im = control.createMock(InstrumentationManager.class);
+        EasyMock.expect(bus.getExtension(InstrumentationManager.class)).andReturn(im).anyTimes();
+        EasyMock.expect(im.register(EasyMock.anyObject(ManagedComponent.class))).andReturn(null).times(2);
+        im.unregister(EasyMock.anyObject(ManagedComponent.class));
+        EasyMock.expectLastCall();
+        control.replay();
+        
+        HistogramMetricsProvider provider = new HistogramMetricsProvider(bus);
+        HistogramMetricsContext ctx = (HistogramMetricsContext)provider.createEndpointContext(endpoint, false, null);
+        provider.createOperationContext(endpoint, boi, false, null);
+        ctx.close();
+        control.verify();
+    }
+}
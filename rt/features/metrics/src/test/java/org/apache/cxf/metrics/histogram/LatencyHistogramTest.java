@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.histogram;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest extends Assert {
+    
+    @Test
+    public void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getMean(), 0);
+        assertEquals(0, h.getValueAtPercentile(50));
+    }
+    
+    @Test
+    public void testSmallValuesExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int x = 1; x <= 50; x++) {
+            h.record(x);
+        }
+        assertEquals(50, h.getCount());
+        assertEquals(50, h.getMax());
+        assertEquals(25.5, h.getMean(), 0.001);
+        assertEquals(1, h.getValueAtPercentile(0));
+        assertEquals(25, h.getValueAtPercentile(50));
+        assertEquals(45, h.getValueAtPercentile(90));
+        assertEquals(50, h.getValueAtPercentile(100));
+    }
+    
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        long ms = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int x = 1; x <= 1000; x++) {
+            h.record(x * ms);
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(1000 * ms, h.getMax());
+        assertPercentile(500 * ms, h.getValueAtPercentile(50));
+        assertPercentile(990 * ms, h.getValueAtPercentile(99));
+        assertPercentile(999 * ms, h.getValueAtPercentile(99.9));
+        assertEquals(1000 * ms, h.getValueAtPercentile(100));
+    }
+    
+    @Test
+    public void testOutliers() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int x = 0; x < 999; x++) {
+            h.record(1000);
+        }
+        h.record(TimeUnit.SECONDS.toNanos(2));
+        assertPercentile(1000, h.getValueAtPercentile(50));
+        assertPercentile(1000, h.getValueAtPercentile(99.9));
+        assertEquals(TimeUnit.SECONDS.toNanos(2), h.getValueAtPercentile(100));
+    }
+    
+    @Test
+    public void testValuesClamped() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        assertEquals(0, h.getValueAtPercentile(100));
+        h.record(Long.MAX_VALUE);
+        assertEquals((1L << 41) - 1, h.getMax());
+        assertEquals(2, h.getCount());
+    }
+    
+    @Test
+    public void testReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(100);
+        h.record(100000);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getMean(), 0);
+        assertEquals(0, h.getValueAtPercentile(99));
+        h.record(70);
+        assertEquals(1, h.getCount());
+        assertEquals(70, h.getValueAtPercentile(50));
+    }
+    
+    @Test
+    public void testIndexRoundTrip() {
+        for (long value = 0; value < 1L << 20; value += 7) {
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(value));
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 32 + 1);
+        }
+    }
+    
+    private static void assertPercentile(long expected, long actual) {
+        // a sub-bucket is at most 1/32 of its values wide
+        assertTrue("expected about " + expected + " but was " + actual, 
+                   Math.abs(actual - expected) <= expected / 32 + 1);
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * Base class for the built in managers.  Resolves the key of the message with the configured
+ * {@link ThrottlingKeyResolver} and makes at most one decision per exchange, so that the 
+ * decision is not repeated when a delayed request is resumed.
+ */
+public abstract class AbstractThrottlingManager implements ThrottlingManager {
+    public static final int TOO_MANY_REQUESTS = 429;
+    public static final int SERVICE_UNAVAILABLE = 503;
+    public static final String RETRY_AFTER = "Retry-After";
+    
+    static final int DEFAULT_MAX_KEYS = 10000;
+    
+    private final String decidedKey = getClass().getName() + ".decided." 
+        + Integer.toHexString(System.identityHashCode(this));
+    private List<String> decisionPhases = Collections.singletonList(Phase.PRE_LOGICAL);
+    private ThrottlingKeyResolver keyResolver;
+    private int rejectResponseCode;
+    private int maxKeys = DEFAULT_MAX_KEYS;
+    
+    protected AbstractThrottlingManager(ThrottlingKeyResolver keyResolver, int rejectResponseCode) {
+        this.keyResolver = keyResolver;
+        this.rejectResponseCode = rejectResponseCode;
+    }
+    
+    public List<String> getDecisionPhases() {
+        return decisionPhases;
+    }
+    
+    /**
+     * Sets the phases the decision is made in.  Defaults to PRE_LOGICAL, where the operation
+     * and the authenticated principal are known.  Only the first phase resolving a key decides.
+     */
+    public void setDecisionPhases(List<String> phases) {
+        decisionPhases = phases;
+    }
+    
+    public ThrottlingKeyResolver getKeyResolver() {
+        return keyResolver;
+    }
+    public void setKeyResolver(ThrottlingKeyResolver resolver) {
+        keyResolver = resolver;
+    }
+    
+    public int getRejectResponseCode() {
+        return rejectResponseCode;
+    }
+    public void setRejectResponseCode(int code) {
+        rejectResponseCode = code;
+    }
+    
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+    
+    /**
+     * Sets the number of keys above which state that is no longer needed is dropped.
+     */
+    public void setMaxKeys(int max) {
+        maxKeys = max;
+    }
+    
+    public ThrottleResponse getThrottleResponse(String phase, Message m) {
+        Exchange ex = m.getExchange();
+        if (ex.containsKey(decidedKey)) {
+            return null;
+        }
+        String key = keyResolver.getKey(m);
+        if (key == null) {
+            return null;
+        }
+        ex.put(decidedKey, Boolean.TRUE);
+        return decide(key, m);
+    }
+    
+    /**
+     * @param key the resolved key
+     * @param m the message
+     * @return the response, or null if the message can be processed without delay
+     */
+    protected abstract ThrottleResponse decide(String key, Message m);
+    
+    /**
+     * Creates the response rejecting a message.
+     * @param retryAfterNanos the time after which the client may retry, 0 if unknown
+     */
+    protected ThrottleResponse reject(long retryAfterNanos) {
+        ThrottleResponse rsp = new ThrottleResponse().setResponseCode(rejectResponseCode);
+        if (retryAfterNanos > 0) {
+            long seconds = TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+            rsp.addResponseHeader(RETRY_AFTER, Long.toString(seconds));
+        }
+        return rsp;
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.message.Message;
+
+/**
+ * A concurrency limit that adapts to the observed latency (additive increase, multiplicative 
+ * decrease).  While requests complete within the target latency and the limit is being used, 
+ * the limit grows by about one per limit's worth of requests.  When a request is slower than the 
+ * target or fails, the limit is multiplied by the backoff ratio, at most once per target latency.
+ * <p>
+ * Once the service or the work queue in front of it starts to saturate, latency grows and the 
+ * limit shrinks, so excess requests are rejected quickly, by default with a 503, instead of 
+ * queueing up behind the slow ones.
+ */
+public class AdaptiveThrottlingManager extends AbstractThrottlingManager {
+    private final ConcurrentMap<String, Limiter> limiters = new ConcurrentHashMap<String, Limiter>();
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+    private double backoffRatio = 0.9;
+    private volatile long targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(500);
+    private long retryAfterNanos = TimeUnit.SECONDS.toNanos(1);
+    
+    public AdaptiveThrottlingManager() {
+        super(StandardThrottlingKeys.GLOBAL, SERVICE_UNAVAILABLE);
+    }
+    
+    public void setInitialLimit(int l) {
+        initialLimit = l;
+    }
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+    public void setMinLimit(int l) {
+        minLimit = l;
+    }
+    public int getMinLimit() {
+        return minLimit;
+    }
+    public void setMaxLimit(int l) {
+        maxLimit = l;
+    }
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+    
+    /**
+     * Sets the factor the limit is multiplied with when the latency is over the target.
+     */
+    public void setBackoffRatio(double r) {
+        if (r <= 0 || r >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        backoffRatio = r;
+    }
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+    
+    /**
+     * Sets the latency in milliseconds above which the limit is decreased.
+     */
+    public void setTargetLatency(long ms) {
+        targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+    public long getTargetLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(targetLatencyNanos);
+    }
+    
+    /**
+     * Sets the value in seconds of the Retry-After header of rejected requests, 0 for none.
+     */
+    public void setRetryAfter(long seconds) {
+        retryAfterNanos = TimeUnit.SECONDS.toNanos(seconds);
+    }
+    
+    @Override
+    protected ThrottleResponse decide(String key, Message m) {
+        final Limiter limiter = getLimiter(key);
+        final int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            return reject(retryAfterNanos);
+        }
+        m.getExchange().put(ThrottlingPermit.class, new ThrottlingPermit() {
+            protected void onRelease(long elapsedNanos, boolean failed) {
+                limiter.release(elapsedNanos, failed, inFlight);
+            }
+        });
+        return null;
+    }
+    
+    private Limiter getLimiter(String key) {
+        Limiter l = limiters.get(key);
+        if (l == null) {
+            if (limiters.size() >= getMaxKeys()) {
+                for (Map.Entry<String, Limiter> e : limiters.entrySet()) {
+                    if (e.getValue().inFlight.get() == 0) {
+                        limiters.remove(e.getKey(), e.getValue());
+                    }
+                }
+            }
+            l = new Limiter(initialLimit);
+            Limiter l2 = limiters.putIfAbsent(key, l);
+            if (l2 != null) {
+                l = l2;
+            }
+        }
+        return l;
+    }
+    
+    /**
+     * Returns the current limit for the key.
+     */
+    public int getLimit(String key) {
+        Limiter l = limiters.get(key);
+        return l == null ? initialLimit : (int)l.getLimit();
+    }
+    
+    /**
+     * Returns the number of requests currently processed for the key.
+     */
+    public int getInFlight(String key) {
+        Limiter l = limiters.get(key);
+        return l == null ? 0 : l.inFlight.get();
+    }
+    
+    class Limiter {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong limitBits;
+        final AtomicLong lastDecrease;
+        
+        Limiter(int initial) {
+            limitBits = new AtomicLong(Double.doubleToLongBits(initial));
+            lastDecrease = new AtomicLong(System.nanoTime() - targetLatencyNanos);
+        }
+        
+        double getLimit() {
+            return Double.longBitsToDouble(limitBits.get());
+        }
+        
+        /**
+         * @return the number of requests in flight including this one, or -1 if over the limit
+         */
+        int tryAcquire() {
+            int limit = (int)getLimit();
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return -1;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return current + 1;
+                }
+            }
+        }
+        
+        void release(long elapsedNanos, boolean failed, int inFlightAtStart) {
+            inFlight.decrementAndGet();
+            long target = targetLatencyNanos;
+            if (failed || elapsedNanos > target) {
+                long now = System.nanoTime();
+                long last = lastDecrease.get();
+                // one decrease per window, a burst of slow responses is one congestion signal
+                if (now - last >= target && lastDecrease.compareAndSet(last, now)) {
+                    update(backoffRatio, 0);
+                }
+            } else if (inFlightAtStart * 2 >= getLimit()) {
+                // only grow while at least half of the limit is actually used
+                update(1, 1 / getLimit());
+            }
+        }
+        
+        private void update(double ratio, double increment) {
+            while (true) {
+                long bits = limitBits.get();
+                double current = Double.longBitsToDouble(bits);
+                double next = Math.min(maxLimit, Math.max(minLimit, current * ratio + increment));
+                if (next == current || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                    return;
+                }
+            }
+        }
+    }
+}
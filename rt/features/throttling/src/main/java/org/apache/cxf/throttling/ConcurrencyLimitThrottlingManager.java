@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.message.Message;
+
+/**
+ * Limits the number of requests per key that are processed at the same time.  Requests over 
+ * the limit are rejected, by default with a 503.
+ */
+public class ConcurrencyLimitThrottlingManager extends AbstractThrottlingManager {
+    private final ConcurrentMap<String, AtomicInteger> counters = new ConcurrentHashMap<String, AtomicInteger>();
+    private volatile int limit;
+    private long retryAfterNanos = TimeUnit.SECONDS.toNanos(1);
+    
+    public ConcurrencyLimitThrottlingManager() {
+        this(25);
+    }
+    
+    public ConcurrencyLimitThrottlingManager(int limit) {
+        super(StandardThrottlingKeys.OPERATION, SERVICE_UNAVAILABLE);
+        this.limit = limit;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    public void setLimit(int l) {
+        limit = l;
+    }
+    
+    /**
+     * Sets the value in seconds of the Retry-After header of rejected requests, 0 for none.
+     */
+    public void setRetryAfter(long seconds) {
+        retryAfterNanos = TimeUnit.SECONDS.toNanos(seconds);
+    }
+    
+    @Override
+    protected ThrottleResponse decide(String key, Message m) {
+        final AtomicInteger counter = getCounter(key);
+        while (true) {
+            int current = counter.get();
+            if (current >= limit) {
+                return reject(retryAfterNanos);
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        m.getExchange().put(ThrottlingPermit.class, new ThrottlingPermit() {
+            protected void onRelease(long elapsedNanos, boolean failed) {
+                counter.decrementAndGet();
+            }
+        });
+        return null;
+    }
+    
+    private AtomicInteger getCounter(String key) {
+        AtomicInteger c = counters.get(key);
+        if (c == null) {
+            if (counters.size() >= getMaxKeys()) {
+                // a request racing with the removal of its idle counter may briefly go uncounted
+                for (Map.Entry<String, AtomicInteger> e : counters.entrySet()) {
+                    if (e.getValue().get() == 0) {
+                        counters.remove(e.getKey(), e.getValue());
+                    }
+                }
+            }
+            c = new AtomicInteger();
+            AtomicInteger c2 = counters.putIfAbsent(key, c);
+            if (c2 != null) {
+                c = c2;
+            }
+        }
+        return c;
+    }
+    
+    /**
+     * Returns the number of requests currently processed for the key.
+     */
+    public int getInFlight(String key) {
+        AtomicInteger c = counters.get(key);
+        return c == null ? 0 : c.get();
+    }
+}
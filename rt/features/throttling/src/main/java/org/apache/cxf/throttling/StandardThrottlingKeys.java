@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.security.Principal;
+
+import org.apache.cxf.configuration.security.AuthorizationPolicy;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.security.SecurityContext;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+/**
+ * The commonly used {@link ThrottlingKeyResolver}s.
+ */
+public enum StandardThrottlingKeys implements ThrottlingKeyResolver {
+    
+    /**
+     * All messages share a single key.
+     */
+    GLOBAL {
+        public String getKey(Message m) {
+            return "";
+        }
+    },
+    
+    /**
+     * The authenticated principal, or the user name of the authorization policy if the 
+     * decision is made before authentication.  Unauthenticated clients share one key.
+     */
+    CLIENT {
+        public String getKey(Message m) {
+            SecurityContext sc = m.get(SecurityContext.class);
+            if (sc != null) {
+                Principal p = sc.getUserPrincipal();
+                if (p != null) {
+                    return p.getName();
+                }
+            }
+            AuthorizationPolicy policy = m.get(AuthorizationPolicy.class);
+            if (policy != null && policy.getUserName() != null) {
+                return policy.getUserName();
+            }
+            return ANONYMOUS;
+        }
+    },
+    
+    /**
+     * The QName of the binding operation, or the resource method name for JAX-RS.
+     * The decision must be made in a phase where the operation has been selected.
+     */
+    OPERATION {
+        public String getKey(Message m) {
+            Exchange ex = m.getExchange();
+            BindingOperationInfo boi = ex.getBindingOperationInfo();
+            if (boi != null) {
+                return boi.getName().toString();
+            }
+            Object op = ex.get(RESOURCE_OPERATION_NAME);
+            return op == null ? null : op.toString();
+        }
+    };
+    
+    public static final String ANONYMOUS = "anonymous";
+    
+    static final String RESOURCE_OPERATION_NAME = "org.apache.cxf.resource.operation.name";
+}
@@ -47,6 +47,14 @@ public class ThrottlingInterceptor extends AbstractPhaseInterceptor<Message> {
             return;
         }
         message.getExchange().put(ThrottleResponse.class, rsp);
+        if (rsp.getResponseCode() >= 400) {
+            // rejected, skip the invocation and let ThrottlingResponseInterceptor
+            // send the response code and headers on the fault chain
+            Fault f = new Fault(new org.apache.cxf.common.i18n.Message("REQUEST_THROTTLED", LOG, 
+                                                                        rsp.getResponseCode()));
+            f.setStatusCode(rsp.getResponseCode());
+            throw f;
+        }
         long l = rsp.getDelay();
         if (l > 0) {
             ContinuationProvider cp = message.get(ContinuationProvider.class);
@@ -63,5 +71,10 @@ public class ThrottlingInterceptor extends AbstractPhaseInterceptor<Message> {
             c.suspend(l);
         }
     }
+    
+    @Override
+    public void handleFault(Message message) {
+        ThrottlingPermit.release(message, true);
+    }
 
 }
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+
+/**
+ * Stored on the exchange by managers that need to know when the request they admitted is done,
+ * such as the concurrency based ones.  The throttling interceptors release it once the response 
+ * has been produced, the request has failed or a one way invocation has returned.
+ */
+public abstract class ThrottlingPermit {
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final long start = System.nanoTime();
+    
+    /**
+     * Releases the permit.  Only the first call has an effect.
+     * @param failed true if the request failed
+     */
+    public void release(boolean failed) {
+        if (released.compareAndSet(false, true)) {
+            onRelease(System.nanoTime() - start, failed);
+        }
+    }
+    
+    /**
+     * @param elapsedNanos the time between the throttling decision and the release
+     * @param failed true if the request failed
+     */
+    protected abstract void onRelease(long elapsedNanos, boolean failed);
+    
+    static void release(Message m, boolean failed) {
+        Exchange ex = m.getExchange();
+        if (ex != null) {
+            ThrottlingPermit permit = ex.get(ThrottlingPermit.class);
+            if (permit != null) {
+                permit.release(failed);
+            }
+        }
+    }
+}
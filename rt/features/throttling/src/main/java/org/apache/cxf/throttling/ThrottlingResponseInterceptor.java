@@ -40,6 +40,7 @@ public class ThrottlingResponseInterceptor extends AbstractPhaseInterceptor<Mess
 
     @Override
     public void handleMessage(Message message) throws Fault {
+        ThrottlingPermit.release(message, isFault(message));
         ThrottleResponse rsp = message.getExchange().get(ThrottleResponse.class);
         if (rsp != null) {
             if (rsp.getResponseCode() > 0) {
@@ -64,4 +65,14 @@ public class ThrottlingResponseInterceptor extends AbstractPhaseInterceptor<Mess
             }
         }
     }
+    
+    @Override
+    public void handleFault(Message message) {
+        ThrottlingPermit.release(message, true);
+    }
+    
+    private static boolean isFault(Message message) {
+        return message == message.getExchange().getOutFaultMessage()
+            || message.getContent(Exception.class) != null;
+    }
 }
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.message.Message;
+
+/**
+ * Limits the rate of requests per key with a token bucket refilled at a fixed rate.  
+ * <p>
+ * Each bucket is a single AtomicLong holding the time at which it will be full again 
+ * (the generic cell rate algorithm), so admitting a request is one compare and set.
+ * A request arriving slightly too early is delayed if the wait is below the maximum delay,
+ * otherwise it is rejected with a Retry-After header.
+ */
+public class TokenBucketThrottlingManager extends AbstractThrottlingManager {
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+    private volatile long intervalNanos;
+    private volatile long toleranceNanos;
+    private volatile long maxDelayNanos;
+    private double permitsPerSecond;
+    private int burstSize;
+    
+    public TokenBucketThrottlingManager() {
+        this(10, 10);
+    }
+    
+    /**
+     * @param permitsPerSecond the sustained rate per key
+     * @param burstSize the number of requests a key may send at once after being idle
+     */
+    public TokenBucketThrottlingManager(double permitsPerSecond, int burstSize) {
+        super(StandardThrottlingKeys.CLIENT, TOO_MANY_REQUESTS);
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstSize = burstSize;
+        updateRate();
+    }
+    
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+    public void setPermitsPerSecond(double pps) {
+        permitsPerSecond = pps;
+        updateRate();
+    }
+    
+    public int getBurstSize() {
+        return burstSize;
+    }
+    public void setBurstSize(int burst) {
+        burstSize = burst;
+        updateRate();
+    }
+    
+    public long getMaxDelay() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDelayNanos);
+    }
+    
+    /**
+     * Sets the longest time in milliseconds a request is delayed instead of being rejected.  
+     * Should be small to prevent the client from timing out.  Defaults to 0.
+     */
+    public void setMaxDelay(long ms) {
+        maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+    
+    private void updateRate() {
+        if (permitsPerSecond <= 0 || burstSize <= 0) {
+            throw new IllegalArgumentException("Rate and burst size must be positive");
+        }
+        long interval = (long)(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        intervalNanos = Math.max(interval, 1);
+        toleranceNanos = intervalNanos * (burstSize - 1);
+    }
+    
+    @Override
+    protected ThrottleResponse decide(String key, Message m) {
+        long now = System.nanoTime();
+        long wait = getBucket(key, now).reserve(now, intervalNanos, toleranceNanos, maxDelayNanos);
+        if (wait < 0) {
+            return reject(-wait);
+        }
+        long delay = TimeUnit.NANOSECONDS.toMillis(wait);
+        return delay > 0 ? new ThrottleResponse().setDelay(delay) : null;
+    }
+    
+    private Bucket getBucket(String key, long now) {
+        Bucket b = buckets.get(key);
+        if (b == null) {
+            if (buckets.size() >= getMaxKeys()) {
+                removeFullBuckets(now);
+            }
+            b = new Bucket(now);
+            Bucket b2 = buckets.putIfAbsent(key, b);
+            if (b2 != null) {
+                b = b2;
+            }
+        }
+        return b;
+    }
+    
+    private void removeFullBuckets(long now) {
+        // a full bucket is indistinguishable from a new one
+        for (Iterator<Bucket> it = buckets.values().iterator(); it.hasNext();) {
+            if (it.next().isFull(now)) {
+                it.remove();
+            }
+        }
+    }
+    
+    int getBucketCount() {
+        return buckets.size();
+    }
+    
+    static class Bucket {
+        // the time at which the bucket will be full again
+        final AtomicLong fullAt;
+        
+        Bucket(long now) {
+            fullAt = new AtomicLong(now);
+        }
+        
+        boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+        
+        /**
+         * @return the delay in nanoseconds if the request is admitted, or minus the time after 
+         *         which it would be admitted if it is rejected
+         */
+        long reserve(long now, long interval, long tolerance, long maxDelay) {
+            while (true) {
+                long current = fullAt.get();
+                long start = current - now > 0 ? current : now;
+                long delay = start - now - tolerance;
+                if (delay > maxDelay) {
+                    return -delay;
+                }
+                if (fullAt.compareAndSet(current, start + interval)) {
+                    return delay > 0 ? delay : 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.cxf.message.Message;
+
+/**
+ * Resolves the request path to the first of a list of URI templates it matches, so that 
+ * "/customers/1" and "/customers/2" are throttled together as "/customers/{id}".
+ * Variables may carry a regular expression, as in "/orders/{id:[0-9]+}".  Requests not 
+ * matching any of the templates are not throttled.
+ */
+public class UriTemplateKeyResolver implements ThrottlingKeyResolver {
+    private final List<String> templates = new ArrayList<String>();
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    
+    public UriTemplateKeyResolver(List<String> templates) {
+        for (String t : templates) {
+            this.templates.add(t);
+            this.patterns.add(compile(t));
+        }
+    }
+    
+    public String getKey(Message m) {
+        String path = (String)m.get(Message.PATH_INFO);
+        if (path == null) {
+            path = (String)m.get(Message.REQUEST_URI);
+        }
+        if (path == null) {
+            return null;
+        }
+        for (int x = 0; x < patterns.size(); x++) {
+            if (patterns.get(x).matcher(path).matches()) {
+                return templates.get(x);
+            }
+        }
+        return null;
+    }
+    
+    static Pattern compile(String template) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            int open = template.indexOf('{', i);
+            if (open == -1) {
+                regex.append(Pattern.quote(template.substring(i)));
+                break;
+            }
+            int close = findClose(template, open);
+            if (open > i) {
+                regex.append(Pattern.quote(template.substring(i, open)));
+            }
+            String var = template.substring(open + 1, close);
+            int colon = var.indexOf(':');
+            regex.append('(');
+            regex.append(colon == -1 ? "[^/]+?" : var.substring(colon + 1).trim());
+            regex.append(')');
+            i = close + 1;
+        }
+        // match sub resources and a trailing slash as well
+        regex.append("(/.*)?");
+        return Pattern.compile(regex.toString());
+    }
+    
+    private static int findClose(String template, int open) {
+        int depth = 0;
+        for (int x = open; x < template.length(); x++) {
+            char c = template.charAt(x);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return x;
+            }
+        }
+        throw new IllegalArgumentException("Unbalanced braces in URI template " + template);
+    }
+}
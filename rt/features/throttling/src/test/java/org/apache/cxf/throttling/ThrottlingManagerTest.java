@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.Arrays;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThrottlingManagerTest extends Assert {
+    
+    @Test
+    public void testTokenBucketBurstAndReject() {
+        TokenBucketThrottlingManager manager = new TokenBucketThrottlingManager(1, 3);
+        manager.setKeyResolver(StandardThrottlingKeys.GLOBAL);
+        for (int x = 0; x < 3; x++) {
+            assertNull(decide(manager, createMessage()));
+        }
+        ThrottleResponse rsp = decide(manager, createMessage());
+        assertNotNull(rsp);
+        assertEquals(AbstractThrottlingManager.TOO_MANY_REQUESTS, rsp.getResponseCode());
+        assertEquals("1", rsp.getResponseHeaders().get(AbstractThrottlingManager.RETRY_AFTER));
+    }
+    
+    @Test
+    public void testTokenBucketDelay() {
+        TokenBucketThrottlingManager manager = new TokenBucketThrottlingManager(10, 1);
+        manager.setKeyResolver(StandardThrottlingKeys.GLOBAL);
+        manager.setMaxDelay(500);
+        assertNull(decide(manager, createMessage()));
+        ThrottleResponse rsp = decide(manager, createMessage());
+        assertNotNull(rsp);
+        assertTrue(rsp.getDelay() > 0 && rsp.getDelay() <= 100);
+        assertEquals(-1, rsp.getResponseCode());
+    }
+    
+    @Test
+    public void testTokenBucketKeysAreIndependent() {
+        TokenBucketThrottlingManager manager = new TokenBucketThrottlingManager(1, 1);
+        manager.setKeyResolver(new UriTemplateKeyResolver(Arrays.asList("/customers/{id}", "/orders")));
+        assertNull(decide(manager, createMessage("/customers/1")));
+        assertNotNull(decide(manager, createMessage("/customers/2/address")));
+        assertNull(decide(manager, createMessage("/orders")));
+        // not matching any template is not throttled
+        assertNull(decide(manager, createMessage("/products")));
+        assertNull(decide(manager, createMessage("/products")));
+        assertEquals(2, manager.getBucketCount());
+    }
+    
+    @Test
+    public void testOneDecisionPerExchange() {
+        TokenBucketThrottlingManager manager = new TokenBucketThrottlingManager(1, 1);
+        manager.setKeyResolver(StandardThrottlingKeys.GLOBAL);
+        Message m = createMessage();
+        assertNull(decide(manager, m));
+        // a resumed request is not charged again
+        assertNull(decide(manager, m));
+        assertNotNull(decide(manager, createMessage()));
+    }
+    
+    @Test
+    public void testConcurrencyLimit() {
+        ConcurrencyLimitThrottlingManager manager = new ConcurrencyLimitThrottlingManager(2);
+        manager.setKeyResolver(StandardThrottlingKeys.GLOBAL);
+        Message m1 = createMessage();
+        Message m2 = createMessage();
+        assertNull(decide(manager, m1));
+        assertNull(decide(manager, m2));
+        ThrottleResponse rsp = decide(manager, createMessage());
+        assertEquals(AbstractThrottlingManager.SERVICE_UNAVAILABLE, rsp.getResponseCode());
+        assertEquals(2, manager.getInFlight(""));
+        
+        ThrottlingPermit.release(m1, false);
+        ThrottlingPermit.release(m1, false);
+        assertEquals(1, manager.getInFlight(""));
+        assertNull(decide(manager, createMessage()));
+    }
+    
+    @Test
+    public void testAdaptiveLimitDecreasesOnSlowResponses() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(10);
+        manager.setTargetLatency(100);
+        manager.setBackoffRatio(0.5);
+        
+        Message m = createMessage();
+        assertNull(decide(manager, m));
+        m.getExchange().get(ThrottlingPermit.class).onRelease(200 * 1000 * 1000L, false);
+        assertEquals(5, manager.getLimit(""));
+        
+        // a second slow response in the same window does not decrease the limit again
+        m = createMessage();
+        assertNull(decide(manager, m));
+        m.getExchange().get(ThrottlingPermit.class).onRelease(200 * 1000 * 1000L, false);
+        assertEquals(5, manager.getLimit(""));
+    }
+    
+    @Test
+    public void testAdaptiveLimitIncreasesWhenUsed() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(2);
+        manager.setTargetLatency(1000);
+        
+        Message m1 = createMessage();
+        Message m2 = createMessage();
+        assertNull(decide(manager, m1));
+        assertNull(decide(manager, m2));
+        assertNotNull(decide(manager, createMessage()));
+        
+        ThrottlingPermit.release(m2, false);
+        ThrottlingPermit.release(m1, false);
+        assertEquals(2, manager.getLimit(""));
+        for (int x = 0; x < 4; x++) {
+            Message m3 = createMessage();
+            Message m4 = createMessage();
+            decide(manager, m3);
+            decide(manager, m4);
+            ThrottlingPermit.release(m3, false);
+            ThrottlingPermit.release(m4, false);
+        }
+        assertTrue(manager.getLimit("") >= 3);
+        assertEquals(0, manager.getInFlight(""));
+    }
+    
+    private static ThrottleResponse decide(ThrottlingManager manager, Message m) {
+        return manager.getThrottleResponse(manager.getDecisionPhases().get(0), m);
+    }
+    
+    private static Message createMessage() {
+        return createMessage("/");
+    }
+    
+    private static Message createMessage(String path) {
+        Message m = new MessageImpl();
+        Exchange ex = new ExchangeImpl();
+        ex.setInMessage(m);
+        m.put(Message.PATH_INFO, path);
+        return m;
+    }
+}
@@ -50,6 +50,7 @@ import org.apache.cxf.jaxrs.provider.ServerProviderFactory;
 import org.apache.cxf.jaxrs.utils.AnnotationUtils;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.jaxrs.utils.ResourceUtils;
 import org.apache.cxf.service.factory.FactoryBeanListener;
 import org.apache.cxf.service.factory.ServiceConstructionException;
 import org.apache.cxf.service.invoker.Invoker;
@@ -83,6 +84,7 @@ public class JAXRSServerFactoryBean extends AbstractJAXRSFactoryBean {
     private ResourceComparator rc;
     private ApplicationInfo appProvider;
     private String documentLocation;
+    private boolean initJaxbContexts;
     
     public JAXRSServerFactoryBean() {
         this(new JAXRSServiceFactoryBean());
@@ -131,6 +133,18 @@ public class JAXRSServerFactoryBean extends AbstractJAXRSFactoryBean {
     public void setStaticSubresourceResolution(boolean enableStatic) {
         serviceFactory.setEnableStaticResolution(enableStatic);
     }
+    
+    /**
+     * Creating a JAXBContext is expensive and is by default done when a given
+     * type is read or written for the first time. Setting this property to true 
+     * makes the JAXB providers create the contexts of all the resource method
+     * entity types when the server is created.
+     * 
+     * @param init create the contexts when the server is created if set to true
+     */
+    public void setInitJaxbContexts(boolean init) {
+        initJaxbContexts = init;
+    }
 
     
     /**
@@ -180,6 +194,10 @@ public class JAXRSServerFactoryBean extends AbstractJAXRSFactoryBean {
             }
             
             ServerProviderFactory factory = setupFactory(ep);
+            if (initJaxbContexts) {
+                factory.initJaxbContexts(ResourceUtils.getAllRequestResponseTypes(
+                    serviceFactory.getRealClassResourceInfo(), true).getAllTypes());
+            }
             ep.put(Application.class.getName(), appProvider);
             factory.setRequestPreprocessor(
                 new RequestPreprocessor(languageMappings, extensionMappings));
@@ -40,6 +40,7 @@ import org.apache.cxf.jaxrs.model.ClassResourceInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfo;
 import org.apache.cxf.jaxrs.model.Parameter;
 import org.apache.cxf.jaxrs.model.ParameterType;
+import org.apache.cxf.jaxrs.model.URITemplateIndex;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
 import org.apache.cxf.service.Service;
@@ -58,6 +59,7 @@ import org.apache.cxf.service.model.ServiceInfo;
 public class JAXRSServiceImpl extends AbstractAttributedInterceptorProvider implements Service, Configurable {
     private static final long serialVersionUID = 6765400202555126993L;
     private List<ClassResourceInfo> classResourceInfos;
+    private transient volatile URITemplateIndex<ClassResourceInfo> classResourceIndex;
     private DataBinding dataBinding;
     private Executor executor;
     private Invoker invoker;
@@ -110,6 +112,21 @@ public class JAXRSServiceImpl extends AbstractAttributedInterceptorProvider impl
         return classResourceInfos;
     }
     
+    /**
+     * @return the dispatch index of the root resources, rebuilt if the resources have changed
+     */
+    public URITemplateIndex<ClassResourceInfo> getClassResourceIndex() {
+        if (classResourceInfos == null) {
+            return null;
+        }
+        URITemplateIndex<ClassResourceInfo> index = classResourceIndex;
+        if (index == null || !index.isIndexOf(classResourceInfos)) {
+            index = URITemplateIndex.createResourceIndex(classResourceInfos);
+            classResourceIndex = index;
+        }
+        return index;
+    }
+    
     public List<ServiceInfo> getServiceInfos() {
         if (!createServiceModel) {
             return Collections.emptyList();
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.etag;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+import org.apache.cxf.common.util.Base64UrlUtility;
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+
+/**
+ * Evaluates If-None-Match against the entity tags known before the response
+ * entity is serialized: the ETag set by the resource method or the one computed
+ * from the version key of {@link VersionedEntity}. The entity is dropped 
+ * and 304 is returned if the tag matches.
+ */
+@Priority(Priorities.HEADER_DECORATOR)
+public class ETagContainerResponseFilter implements ContainerResponseFilter {
+    private String digestAlgorithm = ETagWriterInterceptor.DEFAULT_DIGEST_ALGORITHM;
+    
+    @Override
+    public void filter(ContainerRequestContext reqCtx, ContainerResponseContext respCtx) throws IOException {
+        if (respCtx.getStatus() != 200 || !HttpMethod.GET.equals(reqCtx.getMethod())) {
+            return;
+        }
+        EntityTag tag = respCtx.getEntityTag();
+        if (tag == null) {
+            Object entity = respCtx.getEntity();
+            Object version = entity instanceof VersionedEntity 
+                ? ((VersionedEntity)entity).getEntityVersion() : null;
+            if (version == null) {
+                return;
+            }
+            tag = createEntityTag(version, respCtx.getMediaType());
+            respCtx.getHeaders().putSingle(HttpHeaders.ETAG, tag.toString());
+        }
+        ResponseBuilder rb = reqCtx.getRequest().evaluatePreconditions(tag);
+        if (rb != null) {
+            respCtx.setStatus(rb.build().getStatus());
+            respCtx.setEntity(null);
+        }
+    }
+    
+    protected EntityTag createEntityTag(Object version, MediaType mt) {
+        // the representations of the same version in different formats have different tags
+        MessageDigest digest = ETagWriterInterceptor.createDigest(digestAlgorithm);
+        digest.update(StringUtils.toBytesUTF8(version.toString()));
+        if (mt != null) {
+            digest.update(StringUtils.toBytesUTF8(JAXRSUtils.mediaTypeToString(mt)));
+        }
+        return new EntityTag(Base64UrlUtility.encode(digest.digest()));
+    }
+
+    public String getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    /**
+     * Sets the digest algorithm used to compute the entity tags
+     * @param digestAlgorithm the algorithm, MD5 by default
+     */
+    public void setDigestAlgorithm(String digestAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.etag;
+
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+
+/**
+ * Adds the strong ETag headers to the GET responses and answers 
+ * the matching If-None-Match requests with 304 without the body.
+ * The entity tags are computed from the version keys of the
+ * {@link VersionedEntity} entities when available, otherwise from the 
+ * serialized response body. 
+ */
+public class ETagFeature implements Feature {
+    private String digestAlgorithm = ETagWriterInterceptor.DEFAULT_DIGEST_ALGORITHM;
+    
+    @Override
+    public boolean configure(FeatureContext context) {
+        ETagContainerResponseFilter filter = new ETagContainerResponseFilter();
+        filter.setDigestAlgorithm(digestAlgorithm);
+        ETagWriterInterceptor writer = new ETagWriterInterceptor();
+        writer.setDigestAlgorithm(digestAlgorithm);
+        context.register(filter);
+        context.register(writer);
+        return true;
+    }
+
+    public void setDigestAlgorithm(String digestAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+    }
+}
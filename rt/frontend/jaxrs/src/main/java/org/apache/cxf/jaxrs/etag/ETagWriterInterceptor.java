@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.etag;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.apache.cxf.common.util.Base64UrlUtility;
+import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.jaxrs.impl.RequestImpl;
+import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.message.Message;
+
+/**
+ * Computes a strong entity tag from the serialized response body. The digest
+ * is updated while the body is written to a cached stream, when the tag 
+ * matches If-None-Match the cached body is dropped and 304 is returned, 
+ * otherwise the tag is set as the ETag header and the body is copied
+ * to the original stream.
+ */
+@Priority(Priorities.HEADER_DECORATOR)
+public class ETagWriterInterceptor implements WriterInterceptor {
+    public static final String DEFAULT_DIGEST_ALGORITHM = "MD5";
+    
+    private String digestAlgorithm = DEFAULT_DIGEST_ALGORITHM;
+    
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext ctx) throws IOException, WebApplicationException {
+        Message m = JAXRSUtils.getCurrentMessage();
+        if (!isETagRequired(ctx, m)) {
+            ctx.proceed();
+            return;
+        }
+        MessageDigest digest = createDigest(digestAlgorithm);
+        OutputStream actualOs = ctx.getOutputStream();
+        CachedOutputStream cos = new CachedOutputStream();
+        try {
+            ctx.setOutputStream(new DigestOutputStream(cos, digest));
+            ctx.proceed();
+            
+            EntityTag tag = new EntityTag(Base64UrlUtility.encode(digest.digest()));
+            ctx.getHeaders().putSingle(HttpHeaders.ETAG, tag.toString());
+            ResponseBuilder rb = new RequestImpl(m.getExchange().getInMessage()).evaluatePreconditions(tag);
+            if (rb != null) {
+                // the headers have not been committed yet as nothing has been written
+                int status = rb.build().getStatus();
+                m.getExchange().put(Message.RESPONSE_CODE, status);
+                m.put(Message.RESPONSE_CODE, status);
+            } else {
+                cos.writeCacheTo(actualOs);
+            }
+        } finally {
+            ctx.setOutputStream(actualOs);
+            cos.close();
+        }
+    }
+    
+    protected boolean isETagRequired(WriterInterceptorContext ctx, Message m) {
+        if (m == null || ctx.getEntity() == null || ctx.getHeaders().containsKey(HttpHeaders.ETAG)) {
+            return false;
+        }
+        Integer status = (Integer)m.get(Message.RESPONSE_CODE);
+        if (status != null && status != 200) {
+            return false;
+        }
+        Message inMessage = m.getExchange().getInMessage();
+        return inMessage != null 
+            && HttpMethod.GET.equals(inMessage.get(Message.HTTP_REQUEST_METHOD));
+    }
+    
+    static MessageDigest createDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+    
+    public String getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    /**
+     * Sets the digest algorithm used to compute the entity tags
+     * @param digestAlgorithm the algorithm, MD5 by default
+     */
+    public void setDigestAlgorithm(String digestAlgorithm) {
+        this.digestAlgorithm = digestAlgorithm;
+    }
+}
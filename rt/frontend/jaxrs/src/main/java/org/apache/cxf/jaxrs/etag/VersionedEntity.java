@@ -0,0 +1,34 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.etag;
+
+/**
+ * Can be implemented by the response entities which can report 
+ * a version key cheaply, for example, a revision number or a timestamp 
+ * of the last update. ETagContainerResponseFilter uses the version key to 
+ * compute the entity tag before the entity is serialized, so no body is
+ * written at all when the client already has the current representation. 
+ */
+public interface VersionedEntity {
+    /**
+     * Returns the version key of this entity
+     * @return the version key, null if not known
+     */
+    Object getEntityVersion();
+}
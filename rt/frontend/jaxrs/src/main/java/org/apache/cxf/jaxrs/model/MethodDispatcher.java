@@ -19,6 +19,7 @@
 package org.apache.cxf.jaxrs.model;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -31,6 +32,7 @@ public class MethodDispatcher {
     private Map<Method, OperationResourceInfo> methodToOri = 
         new LinkedHashMap<Method, OperationResourceInfo>();
     private ConcurrentHashMap<Method, Method> proxyMethodMap = new ConcurrentHashMap<Method, Method>();
+    private volatile URITemplateIndex<OperationResourceInfo> operationIndex;
     
     public MethodDispatcher() {
         
@@ -52,6 +54,7 @@ public class MethodDispatcher {
         }
 
         oriToMethod.put(o, primary);
+        operationIndex = null;
     }
 
     public OperationResourceInfo getOperationResourceInfo(Method method) {
@@ -61,6 +64,23 @@ public class MethodDispatcher {
     public Set<OperationResourceInfo> getOperationResourceInfos() {
         return oriToMethod.keySet();
     }
+    
+    /**
+     * @param path the path to match
+     * @return the operations whose URI template may match the path, in their original order
+     */
+    public Collection<OperationResourceInfo> getOperationResourceInfos(String path) {
+        Set<OperationResourceInfo> oris = oriToMethod.keySet();
+        if (oris.size() <= 1) {
+            return oris;
+        }
+        URITemplateIndex<OperationResourceInfo> index = operationIndex;
+        if (index == null || !index.isIndexOf(oris)) {
+            index = URITemplateIndex.createOperationIndex(oris);
+            operationIndex = index;
+        }
+        return index.getCandidates(path);
+    }
 
     public Method getMethod(OperationResourceInfo op) {
         return oriToMethod.get(op);
@@ -35,6 +35,7 @@ import javax.ws.rs.core.MediaType;
 import org.apache.cxf.jaxrs.ext.Oneway;
 import org.apache.cxf.jaxrs.utils.AnnotationUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.jaxrs.utils.ParameterExtractor;
 import org.apache.cxf.jaxrs.utils.ResourceUtils;
 
 public class OperationResourceInfo {
@@ -54,6 +55,7 @@ public class OperationResourceInfo {
     private Type[] actualInGenericParamTypes;
     private Annotation[][] actualInParamAnnotations;
     private Annotation[] actualOutParamAnnotations;
+    private volatile ParameterExtractor[] parameterExtractors;
     
     public OperationResourceInfo(Method mInvoke, ClassResourceInfo cri) {
         this(mInvoke, mInvoke, cri);
@@ -280,4 +282,17 @@ public class OperationResourceInfo {
         return actualOutParamAnnotations;
     }
     
+    /**
+     * Returns the extractors of the method parameters, they are created 
+     * on the first call and reused for all the subsequent invocations
+     */
+    public ParameterExtractor[] getParameterExtractors() {
+        ParameterExtractor[] extractors = parameterExtractors;
+        if (extractors == null) {
+            extractors = ParameterExtractor.createExtractors(this);
+            parameterExtractors = extractors;
+        }
+        return extractors;
+    }
+    
 }
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cxf.jaxrs.utils.HttpUtils;
+
+/**
+ * Dispatch index of the URI templates of a set of resources or operations.  The leading literal 
+ * path segments of the templates are arranged into a trie, a template is attached to the node 
+ * of its last literal segment, where its regular expression takes over.  Looking up a request 
+ * path walks the trie along the path segments and returns the resources attached to the visited 
+ * nodes, in their original order, so only the templates which can possibly match are evaluated 
+ * and the selection and sorting rules applied to them remain those of the JAX-RS algorithm.
+ * 
+ * @param <T> the resource or operation type
+ */
+public final class URITemplateIndex<T> {
+    private static final String NON_LITERAL_CHARS = "{}[]?|^\\;";
+    
+    private final Collection<T> source;
+    private final int sourceSize;
+    private final List<T> items;
+    private final Node root = new Node();
+    
+    private URITemplateIndex(Collection<T> source, List<URITemplate> templates) {
+        this.source = source;
+        this.sourceSize = source.size();
+        this.items = new ArrayList<T>(source);
+        int pos = 0;
+        for (URITemplate template : templates) {
+            if (template != null) {
+                Node node = root;
+                for (String segment : getLiteralSegments(template.getValue())) {
+                    Node child = node.children.get(segment);
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(segment, child);
+                    }
+                    node = child;
+                }
+                node.add(pos);
+            }
+            pos++;
+        }
+    }
+    
+    public static URITemplateIndex<ClassResourceInfo> createResourceIndex(
+        Collection<ClassResourceInfo> resources) {
+        List<URITemplate> templates = new ArrayList<URITemplate>(resources.size());
+        for (ClassResourceInfo cri : resources) {
+            templates.add(cri.getURITemplate());
+        }
+        return new URITemplateIndex<ClassResourceInfo>(resources, templates);
+    }
+    
+    public static URITemplateIndex<OperationResourceInfo> createOperationIndex(
+        Collection<OperationResourceInfo> operations) {
+        List<URITemplate> templates = new ArrayList<URITemplate>(operations.size());
+        for (OperationResourceInfo ori : operations) {
+            templates.add(ori.getURITemplate());
+        }
+        return new URITemplateIndex<OperationResourceInfo>(operations, templates);
+    }
+    
+    /**
+     * @return true if the index was built from this collection and it has not been resized since
+     */
+    public boolean isIndexOf(Collection<T> collection) {
+        return collection == source && collection.size() == sourceSize;
+    }
+    
+    /**
+     * @param path the request path, possibly containing matrix parameters
+     * @return the resources whose template may match the path, in their original order
+     */
+    public List<T> getCandidates(String path) {
+        int[] found = root.positions;
+        int count = root.size;
+        Node node = root;
+        int len = path == null ? 0 : path.length();
+        int start = 0;
+        while (start < len && !node.children.isEmpty()) {
+            int end = path.indexOf('/', start);
+            if (end == -1) {
+                end = len;
+            }
+            if (end > start) {
+                int matrix = path.indexOf(';', start);
+                String segment = path.substring(start, matrix != -1 && matrix < end ? matrix : end);
+                node = node.children.get(segment);
+                if (node == null) {
+                    break;
+                }
+                if (node.size > 0) {
+                    int[] merged = Arrays.copyOf(found, count + node.size);
+                    System.arraycopy(node.positions, 0, merged, count, node.size);
+                    found = merged;
+                    count += node.size;
+                }
+            }
+            start = end + 1;
+        }
+        if (found != root.positions) {
+            Arrays.sort(found, 0, count);
+        }
+        List<T> result = new ArrayList<T>(count);
+        for (int x = 0; x < count; x++) {
+            result.add(items.get(found[x]));
+        }
+        return result;
+    }
+    
+    static List<String> getLiteralSegments(String template) {
+        List<String> segments = new ArrayList<String>();
+        for (String segment : template.split("/")) {
+            if (segment.length() == 0) {
+                continue;
+            }
+            String encoded = HttpUtils.encodePartiallyEncoded(segment, false);
+            if (!isLiteral(encoded)) {
+                break;
+            }
+            segments.add(encoded);
+        }
+        return segments;
+    }
+    
+    private static boolean isLiteral(String segment) {
+        for (int x = 0; x < segment.length(); x++) {
+            if (NON_LITERAL_CHARS.indexOf(segment.charAt(x)) != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<String, Node>();
+        int[] positions = new int[0];
+        int size;
+        
+        void add(int pos) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(4, size * 2));
+            }
+            positions[size++] = pos;
+        }
+    }
+}
@@ -30,7 +30,8 @@ import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.jaxrs.ext.MessageContext;
 
 @Provider
-public class AbstractCachingMessageProvider<T> extends AbstractConfigurableProvider {
+public class AbstractCachingMessageProvider<T> extends AbstractConfigurableProvider
+    implements NonCacheableProvider {
     
     protected static final Logger LOG = LogUtils.getL7dLogger(AbstractCachingMessageProvider.class);
     protected static final ResourceBundle BUNDLE = BundleUtils.getBundle(AbstractCachingMessageProvider.class);
@@ -28,12 +28,12 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
@@ -104,8 +104,14 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
     protected List<String> inDropElements;
     protected Map<String, String> inElementsMap;
     protected Map<String, String> inAppendMap;
-    protected Map<String, JAXBContext> packageContexts = new HashMap<String, JAXBContext>();
-    protected Map<Class<?>, JAXBContext> classContexts = new HashMap<Class<?>, JAXBContext>();
+    protected Map<String, JAXBContext> packageContexts = new ConcurrentHashMap<String, JAXBContext>();
+    protected Map<Class<?>, JAXBContext> classContexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
+    // the contexts created through the registry are only held by the registry, 
+    // these maps only keep what is needed to look them up or create them again
+    private final Map<String, ContextLookup> packageContextLookups = 
+        new ConcurrentHashMap<String, ContextLookup>();
+    private final Map<Class<?>, ContextLookup> classContextLookups = 
+        new ConcurrentHashMap<Class<?>, ContextLookup>();
     private boolean attributesToElements;
     
     private MessageContext mc;
@@ -135,6 +141,7 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
     private Marshaller.Listener marshallerListener;
     private DocumentDepthProperties depthProperties;
     private String namespaceMapperPropertyName;
+    private volatile JAXBContextRegistry contextRegistry;
     
     public void setXmlRootAsJaxbElement(boolean xmlRootAsJaxbElement) {
         this.xmlRootAsJaxbElement = xmlRootAsJaxbElement;
@@ -177,6 +184,7 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
     
     public void setExtraClass(Class<?>[] userExtraClass) {
         extraClass = userExtraClass;
+        clearContextLookups();
     }
     
     @Override
@@ -235,6 +243,7 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
     
     public void setContextProperties(Map<String, Object> contextProperties) {
         cProperties = contextProperties;
+        clearContextLookups();
     }
     
     public void setUnmarshallerProperties(Map<String, Object> unmarshalProperties) {
@@ -345,14 +354,16 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
     }
 
     protected JAXBContext getCollectionContext(Class<?> type) throws JAXBException {
+        Class<?>[] classes;
         synchronized (collectionContextClasses) {
             if (!collectionContextClasses.contains(type)) {
                 collectionContextClasses.add(CollectionWrapper.class);
                 collectionContextClasses.add(type);
             }
-            return JAXBContext.newInstance(
-                collectionContextClasses.toArray(new Class[collectionContextClasses.size()]), cProperties);
+            classes = collectionContextClasses.toArray(new Class[collectionContextClasses.size()]);
         }
+        ContextLookup lookup = new ContextLookup(classes, cProperties);
+        return getContextRegistry().getContext(lookup.key, lookup);
     }
     
     protected QName getCollectionWrapperQName(Class<?> cls, Type type, Object object, boolean pluralName)
@@ -485,14 +496,15 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
             }
         }
         
-        synchronized (classContexts) {
-            JAXBContext context = classContexts.get(type);
-            if (context != null) {
-                return context;
-            }
+        JAXBContext context = classContexts.get(type);
+        if (context != null) {
+            return context;
+        }
+        if (classContextLookups.containsKey(type)) {
+            return getClassContext(type, genericType);
         }
         
-        JAXBContext context = getPackageContext(type, genericType);
+        context = getPackageContext(type, genericType);
                 
         return context != null ? context : getClassContext(type, genericType);
     }
@@ -500,23 +512,24 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
         return getClassContext(type, type);
     }
     protected JAXBContext getClassContext(Class<?> type, Type genericType) throws JAXBException {
-        synchronized (classContexts) {
-            JAXBContext context = classContexts.get(type);
-            if (context == null) {
-                Class<?>[] classes = null;
-                if (extraClass != null) {
-                    classes = new Class[extraClass.length + 1];
-                    classes[0] = type;
-                    System.arraycopy(extraClass, 0, classes, 1, extraClass.length);
-                } else {
-                    classes = new Class[] {type};    
-                }
-                
-                context = JAXBContext.newInstance(classes, cProperties);
-                classContexts.put(type, context);
-            }
+        JAXBContext context = classContexts.get(type);
+        if (context != null) {
             return context;
         }
+        ContextLookup lookup = classContextLookups.get(type);
+        if (lookup == null) {
+            Class<?>[] classes;
+            if (extraClass != null) {
+                classes = new Class[extraClass.length + 1];
+                classes[0] = type;
+                System.arraycopy(extraClass, 0, classes, 1, extraClass.length);
+            } else {
+                classes = new Class[] {type};    
+            }
+            lookup = new ContextLookup(classes, cProperties);
+            classContextLookups.put(type, lookup);
+        }
+        return getContextRegistry().getContext(lookup.key, lookup);
     }
     public JAXBContext getPackageContext(Class<?> type) {
         return getPackageContext(type, type);
@@ -525,35 +538,36 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
         if (type == null || type == JAXBElement.class) {
             return null;
         }
-        synchronized (packageContexts) {
-            String packageName = PackageUtils.getPackageName(type);
-            JAXBContext context = packageContexts.get(packageName);
-            if (context == null) {
-                try {
-                    if (type.getClassLoader() != null && objectFactoryOrIndexAvailable(type)) {
-                        
-                        String contextName = packageName;
-                        if (extraClass != null) {
-                            StringBuilder sb = new StringBuilder(contextName);
-                            for (Class<?> extra : extraClass) {
-                                String extraPackage = PackageUtils.getPackageName(extra);
-                                if (!extraPackage.equals(packageName)) {
-                                    sb.append(":").append(extraPackage);
-                                }
-                            }
-                            contextName = sb.toString();
-                        }
-                        
-                        context = JAXBContext.newInstance(contextName, type.getClassLoader(), cProperties);
-                        packageContexts.put(packageName, context);
+        String packageName = PackageUtils.getPackageName(type);
+        JAXBContext context = packageContexts.get(packageName);
+        if (context != null) {
+            return context;
+        }
+        ContextLookup lookup = packageContextLookups.get(packageName);
+        if (lookup == null) {
+            if (type.getClassLoader() == null || !objectFactoryOrIndexAvailable(type)) {
+                return null;
+            }
+            String contextName = packageName;
+            if (extraClass != null) {
+                StringBuilder sb = new StringBuilder(contextName);
+                for (Class<?> extra : extraClass) {
+                    String extraPackage = PackageUtils.getPackageName(extra);
+                    if (!extraPackage.equals(packageName)) {
+                        sb.append(":").append(extraPackage);
                     }
-                } catch (JAXBException ex) {
-                    LOG.fine("Error creating a JAXBContext using ObjectFactory : " 
-                                + ex.getMessage());
-                    return null;
                 }
+                contextName = sb.toString();
             }
-            return context;
+            lookup = new ContextLookup(contextName, type.getClassLoader(), cProperties);
+            packageContextLookups.put(packageName, lookup);
+        }
+        try {
+            return getContextRegistry().getContext(lookup.key, lookup);
+        } catch (JAXBException ex) {
+            LOG.fine("Error creating a JAXBContext using ObjectFactory : " 
+                        + ex.getMessage());
+            return null;
         }
     }
     
@@ -682,6 +696,45 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
     public void clearContexts() {
         classContexts.clear();
         packageContexts.clear();
+        clearContextLookups();
+    }
+    
+    private void clearContextLookups() {
+        classContextLookups.clear();
+        packageContextLookups.clear();
+    }
+    
+    /**
+     * Creates the contexts of the given types in advance so that 
+     * the first requests do not have to pay for it
+     * @param types the types mapped to their generic types
+     */
+    public void initContexts(Map<Class<?>, Type> types) {
+        for (Map.Entry<Class<?>, Type> entry : types.entrySet()) {
+            try {
+                getJAXBContext(entry.getKey(), entry.getValue());
+            } catch (JAXBException ex) {
+                LOG.fine("JAXBContext for " + entry.getKey().getName() + " can not be created : " 
+                         + ex.getMessage());
+            }
+        }
+    }
+    
+    public void setContextRegistry(JAXBContextRegistry registry) {
+        contextRegistry = registry;
+    }
+    
+    /**
+     * Returns the registry the contexts are created with, 
+     * the registry of the provider bus is used by default
+     */
+    protected JAXBContextRegistry getContextRegistry() {
+        JAXBContextRegistry registry = contextRegistry;
+        if (registry == null) {
+            registry = JAXBContextRegistry.getInstance(getBus());
+            contextRegistry = registry;
+        }
+        return registry;
     }
     
     //TODO: move these methods into the dedicated utility class
@@ -960,5 +1013,35 @@ public abstract class AbstractJAXBProvider<T> extends AbstractConfigurableProvid
         
     }
     
-    
+    /**
+     * The registry key of a context and the data needed to create it again once it has been evicted
+     */
+    private static final class ContextLookup implements JAXBContextRegistry.ContextFactory {
+        private final Object key;
+        private final Class<?>[] classes;
+        private final String contextPath;
+        private final ClassLoader loader;
+        private final Map<String, Object> properties;
+        
+        ContextLookup(Class<?>[] classes, Map<String, Object> properties) {
+            this.key = JAXBContextRegistry.createKey(Arrays.asList(classes), properties);
+            this.classes = classes;
+            this.contextPath = null;
+            this.loader = null;
+            this.properties = properties;
+        }
+        
+        ContextLookup(String contextPath, ClassLoader loader, Map<String, Object> properties) {
+            this.key = JAXBContextRegistry.createKey(contextPath, loader, properties);
+            this.classes = null;
+            this.contextPath = contextPath;
+            this.loader = loader;
+            this.properties = properties;
+        }
+        
+        public JAXBContext createContext() throws JAXBException {
+            return classes != null ? JAXBContext.newInstance(classes, properties)
+                : JAXBContext.newInstance(contextPath, loader, properties);
+        }
+    }
 }
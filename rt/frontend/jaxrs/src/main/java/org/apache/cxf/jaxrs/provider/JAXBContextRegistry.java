@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.provider;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedResource;
+
+/**
+ * Bus wide cache of the JAXBContexts created by the JAXB based providers.
+ * <p/>
+ * Looking up an existing context does not lock, a given context is only created once
+ * even if several threads ask for it at the same time and the least recently used 
+ * contexts are evicted once more than {@link #getMaxSize()} contexts are held. 
+ * The maximum size can be set with the {@link #MAX_SIZE_PROPERTY} bus property.
+ */
+@ManagedResource(componentName = "JAXBContextRegistry", 
+                 description = "Cache of the JAXBContexts used by the JAX-RS providers", 
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate")
+public class JAXBContextRegistry implements ManagedComponent {
+    public static final String MAX_SIZE_PROPERTY = "org.apache.cxf.jaxrs.jaxb.contexts.max";
+    public static final int DEFAULT_MAX_SIZE = 256;
+    
+    private static final Logger LOG = LogUtils.getL7dLogger(JAXBContextRegistry.class);
+    private static final String TYPE_VALUE = "JAXRS.JAXBContextRegistry";
+    
+    private final ConcurrentMap<Object, ContextEntry> contexts = 
+        new ConcurrentHashMap<Object, ContextEntry>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong creationTime = new AtomicLong();
+    private final Bus bus;
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+    
+    /**
+     * Creates a JAXBContext on a cache miss
+     */
+    public interface ContextFactory {
+        JAXBContext createContext() throws JAXBException;
+    }
+    
+    public JAXBContextRegistry(Bus bus) {
+        this.bus = bus;
+        if (bus != null) {
+            Object size = bus.getProperty(MAX_SIZE_PROPERTY);
+            if (size != null) {
+                setMaxSize(Integer.parseInt(size.toString()));
+            }
+        }
+    }
+    
+    /**
+     * Returns the registry of the bus, creating and registering it with the 
+     * InstrumentationManager of the bus if needed. The registry is unregistered
+     * and cleared when the bus shuts down. A new unshared registry is returned
+     * if the bus is null.
+     */
+    public static JAXBContextRegistry getInstance(Bus bus) {
+        if (bus == null) {
+            return new JAXBContextRegistry(null);
+        }
+        JAXBContextRegistry registry = bus.getExtension(JAXBContextRegistry.class);
+        if (registry == null) {
+            synchronized (JAXBContextRegistry.class) {
+                registry = bus.getExtension(JAXBContextRegistry.class);
+                if (registry == null) {
+                    registry = new JAXBContextRegistry(bus);
+                    bus.setExtension(registry, JAXBContextRegistry.class);
+                    registry.register();
+                }
+            }
+        }
+        return registry;
+    }
+    
+    /**
+     * Creates a key identifying a context, the parts are compared with equals()
+     */
+    public static Object createKey(Object... parts) {
+        return Arrays.asList(parts);
+    }
+    
+    /**
+     * Returns the context registered with the given key, using the factory 
+     * to create it if it is not available yet
+     * @param key the context key, see {@link #createKey(Object...)}
+     * @param factory the factory creating the context
+     * @return the context
+     */
+    public JAXBContext getContext(Object key, ContextFactory factory) throws JAXBException {
+        ContextEntry entry = contexts.get(key);
+        if (entry == null) {
+            ContextEntry newEntry = new ContextEntry();
+            entry = contexts.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return createContext(key, newEntry, factory);
+            }
+        }
+        hits.incrementAndGet();
+        entry.lastAccess = System.nanoTime();
+        JAXBContext context = entry.context;
+        return context != null ? context : entry.await(factory);
+    }
+    
+    private JAXBContext createContext(Object key, ContextEntry entry, ContextFactory factory) 
+        throws JAXBException {
+        long start = System.nanoTime();
+        JAXBContext context = null;
+        Throwable failure = null;
+        try {
+            context = factory.createContext();
+            if (context == null) {
+                throw new JAXBException("No JAXBContext has been created for " + key);
+            }
+            return context;
+        } catch (JAXBException ex) {
+            failure = ex;
+            throw ex;
+        } catch (RuntimeException ex) {
+            failure = ex;
+            throw ex;
+        } catch (Error ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            // the waiting threads are always released, a failure is not cached
+            if (failure != null) {
+                contexts.remove(key, entry);
+            }
+            entry.complete(failure == null ? context : null, failure);
+            long elapsed = System.nanoTime() - start;
+            creationTime.addAndGet(elapsed);
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine("JAXBContext for " + key + " created in " 
+                         + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+            }
+            evictIfNeeded();
+        }
+    }
+    
+    private void evictIfNeeded() {
+        while (contexts.size() > maxSize) {
+            Map.Entry<Object, ContextEntry> eldest = null;
+            for (Map.Entry<Object, ContextEntry> e : contexts.entrySet()) {
+                if (e.getValue().context != null 
+                    && (eldest == null || e.getValue().lastAccess - eldest.getValue().lastAccess < 0)) {
+                    eldest = e;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (contexts.remove(eldest.getKey(), eldest.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * Removes the context registered with the given key
+     */
+    public void remove(Object key) {
+        contexts.remove(key);
+    }
+    
+    @ManagedOperation(description = "Remove all the cached contexts")
+    public void clear() {
+        contexts.clear();
+    }
+    
+    @ManagedAttribute(description = "The number of cached contexts")
+    public int getSize() {
+        return contexts.size();
+    }
+    
+    @ManagedAttribute(description = "The maximum number of cached contexts")
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    @ManagedAttribute(description = "The maximum number of cached contexts")
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+        evictIfNeeded();
+    }
+    
+    @ManagedAttribute(description = "The number of lookups finding a cached context")
+    public long getHits() {
+        return hits.get();
+    }
+    
+    @ManagedAttribute(description = "The number of contexts created")
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    @ManagedAttribute(description = "The number of contexts evicted")
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    @ManagedAttribute(description = "The total time spent creating contexts in milliseconds")
+    public long getCreationTime() {
+        return TimeUnit.NANOSECONDS.toMillis(creationTime.get());
+    }
+    
+    private void register() {
+        final InstrumentationManager im = bus.getExtension(InstrumentationManager.class);
+        if (im != null) {
+            try {
+                im.register(this);
+            } catch (JMException ex) {
+                LOG.log(Level.WARNING, "Registering the JAXBContextRegistry failed", ex);
+            }
+        }
+        BusLifeCycleManager lcm = bus.getExtension(BusLifeCycleManager.class);
+        if (lcm != null) {
+            lcm.registerLifeCycleListener(new BusLifeCycleListener() {
+                public void initComplete() {
+                }
+                public void preShutdown() {
+                    if (im != null) {
+                        try {
+                            im.unregister(JAXBContextRegistry.this);
+                        } catch (JMException ex) {
+                            LOG.log(Level.FINE, "Unregistering the JAXBContextRegistry failed", ex);
+                        }
+                    }
+                    clear();
+                }
+                public void postShutdown() {
+                }
+            });
+        }
+    }
+    
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(bus.getId()).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(hashCode());
+        return new ObjectName(buffer.toString());
+    }
+    
+    private static final class ContextEntry {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile JAXBContext context;
+        private volatile long lastAccess = System.nanoTime();
+        private Throwable failure;
+        
+        void complete(JAXBContext c, Throwable ex) {
+            failure = ex;
+            context = c;
+            done.countDown();
+        }
+        
+        JAXBContext await(ContextFactory factory) throws JAXBException {
+            try {
+                done.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return factory.createContext();
+            }
+            if (context != null) {
+                return context;
+            }
+            if (failure instanceof JAXBException) {
+                throw (JAXBException)failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException)failure;
+            } else if (failure instanceof Error) {
+                throw (Error)failure;
+            }
+            throw new JAXBException("No JAXBContext has been created");
+        }
+    }
+}
@@ -75,7 +75,7 @@ import org.apache.cxf.message.MessageUtils;
 @Consumes({"multipart/related", "multipart/mixed", "multipart/alternative", "multipart/form-data" })
 @Produces({"multipart/related", "multipart/mixed", "multipart/alternative", "multipart/form-data" })
 public class MultipartProvider extends AbstractConfigurableProvider
-    implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    implements MessageBodyReader<Object>, MessageBodyWriter<Object>, NonCacheableProvider {
     
     private static final String SUPPORT_TYPE_AS_MULTIPART = "support.type.as.multipart";
     private static final String SINGLE_PART_IS_COLLECTION = "single.multipart.is.collection";
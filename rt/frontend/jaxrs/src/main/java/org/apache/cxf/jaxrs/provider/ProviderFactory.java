@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import javax.ws.rs.Produces;
@@ -90,6 +91,8 @@ public abstract class ProviderFactory {
     private static final String JAXB_PROVIDER_NAME = "org.apache.cxf.jaxrs.provider.JAXBElementProvider";
     private static final String JSON_PROVIDER_NAME = "org.apache.cxf.jaxrs.provider.json.JSONProvider";
     private static final String BUS_PROVIDERS_ALL = "org.apache.cxf.jaxrs.bus.providers";
+    private static final int MAX_SELECTION_CACHE_SIZE = 256;
+    private static final Object NO_PROVIDER = new Object();
     
     protected Map<NameKey, ProviderInfo<ReaderInterceptor>> readerInterceptors = 
         new NameKeyMap<ProviderInfo<ReaderInterceptor>>(true);
@@ -111,6 +114,10 @@ public abstract class ProviderFactory {
     private Collection<ProviderInfo<?>> injectedProviders = 
         new LinkedList<ProviderInfo<?>>();
     
+    // Memoized reader and writer selections, either a ProviderInfo or NO_PROVIDER
+    private Map<MessageBodyKey, Object> readerSelections = new ConcurrentHashMap<MessageBodyKey, Object>();
+    private Map<MessageBodyKey, Object> writerSelections = new ConcurrentHashMap<MessageBodyKey, Object>();
+    
     private Bus bus;
     
     private ProviderFactory baseFactory;
@@ -539,6 +546,12 @@ public abstract class ProviderFactory {
         
         injectContextProxies(messageReaders, messageWriters, contextResolvers, 
             readerInterceptors.values(), writerInterceptors.values());
+        clearSelectionCaches();
+    }
+    
+    protected void clearSelectionCaches() {
+        readerSelections.clear();
+        writerSelections.clear();
     }
     
     protected void injectContextValues(ProviderInfo<?> pi, Message m) {
@@ -630,24 +643,33 @@ public abstract class ProviderFactory {
                                                          Annotation[] annotations,
                                                          MediaType mediaType,
                                                          Message m) {
+        MessageBodyKey key = createMessageBodyKey(type, genericType, annotations, mediaType, m);
+        Object selected = readerSelections.get(key);
+        if (selected != null) {
+            return (MessageBodyReader<T>)getSelectedProvider(selected, m);
+        }
+        
+        boolean cacheable = true;
+        ProviderInfo<MessageBodyReader<?>> match = null;
         List<MessageBodyReader<?>> candidates = new LinkedList<MessageBodyReader<?>>();
         for (ProviderInfo<MessageBodyReader<?>> ep : readers) {
+            cacheable &= !(ep.getProvider() instanceof NonCacheableProvider);
             if (matchesReaderCriterias(ep, type, genericType, annotations, mediaType, m)) {
                 if (isBaseFactory()) {
-                    return (MessageBodyReader<T>) ep.getProvider();
+                    match = ep;
+                    break;
                 }
                 handleMapper(candidates, ep, type, m, MessageBodyReader.class, false);
                 if (!candidates.isEmpty()) {
+                    match = ep;
                     break;
                 }
             }
         }     
-        
-        if (candidates.isEmpty()) {
-            return null;
+        if (cacheable) {
+            cacheSelection(readerSelections, key, match);
         }
-        return (MessageBodyReader<T>) candidates.get(0);
-        
+        return match == null ? null : (MessageBodyReader<T>) match.getProvider();
     }
     
     private <T> boolean matchesReaderCriterias(ProviderInfo<MessageBodyReader<?>> pi,
@@ -688,22 +710,65 @@ public abstract class ProviderFactory {
                                                          Annotation[] annotations,
                                                          MediaType mediaType,
                                                          Message m) {
+        MessageBodyKey key = createMessageBodyKey(type, genericType, annotations, mediaType, m);
+        Object selected = writerSelections.get(key);
+        if (selected != null) {
+            return (MessageBodyWriter<T>)getSelectedProvider(selected, m);
+        }
+        
+        boolean cacheable = true;
+        ProviderInfo<MessageBodyWriter<?>> match = null;
         List<MessageBodyWriter<?>> candidates = new LinkedList<MessageBodyWriter<?>>();
         for (ProviderInfo<MessageBodyWriter<?>> ep : writers) {
+            cacheable &= !(ep.getProvider() instanceof NonCacheableProvider);
             if (matchesWriterCriterias(ep, type, genericType, annotations, mediaType, m)) {
                 if (isBaseFactory()) {
-                    return (MessageBodyWriter<T>) ep.getProvider();
+                    match = ep;
+                    break;
                 }
                 handleMapper(candidates, ep, type, m, MessageBodyWriter.class, false);
                 if (!candidates.isEmpty()) {
+                    match = ep;
                     break;
                 }
             }
         }     
-        if (candidates.isEmpty()) {
+        if (cacheable) {
+            cacheSelection(writerSelections, key, match);
+        }
+        return match == null ? null : (MessageBodyWriter<T>) match.getProvider();
+    }
+    
+    private MessageBodyKey createMessageBodyKey(Class<?> type,
+                                                Type genericType,
+                                                Annotation[] annotations,
+                                                MediaType mediaType,
+                                                Message m) {
+        // handleMapper is only used by non-base factories and it may be told to ignore type variables
+        boolean ignoreTypeVars = !isBaseFactory() && m != null 
+            && MessageUtils.isTrue(m.getContextualProperty(IGNORE_TYPE_VARIABLES));
+        return new MessageBodyKey(type, genericType, annotations, mediaType, ignoreTypeVars);
+    }
+    
+    private Object getSelectedProvider(Object selected, Message m) {
+        if (selected == NO_PROVIDER) {
             return null;
         }
-        return (MessageBodyWriter<T>) candidates.get(0);
+        ProviderInfo<?> pi = (ProviderInfo<?>)selected;
+        Object provider = pi.getProvider();
+        if (m.get(ACTIVE_JAXRS_PROVIDER_KEY) != provider) {
+            injectContextValues(pi, m);
+        }
+        return provider;
+    }
+    
+    private static void cacheSelection(Map<MessageBodyKey, Object> selections, 
+                                       MessageBodyKey key, 
+                                       ProviderInfo<?> pi) {
+        if (selections.size() >= MAX_SELECTION_CACHE_SIZE) {
+            selections.clear();
+        }
+        selections.put(key, pi == null ? NO_PROVIDER : pi);
     }
     
     private <T> boolean matchesWriterCriterias(ProviderInfo<MessageBodyWriter<?>> pi,
@@ -837,6 +902,7 @@ public abstract class ProviderFactory {
         contextProviders.clear();
         readerInterceptors.clear();
         writerInterceptors.clear();
+        clearSelectionCaches();
     }
     
     public void setBus(Bus bus) {
@@ -923,6 +989,22 @@ public abstract class ProviderFactory {
         }
     }
     
+    /**
+     * Creates the JAXBContexts of the given types in advance 
+     * @param types the types mapped to their generic types
+     */
+    public void initJaxbContexts(Map<Class<?>, Type> types) {
+        for (Object o : getReadersWriters()) {
+            Object provider = ((ProviderInfo<?>)o).getProvider();
+            if (provider instanceof AbstractJAXBProvider) {
+                ((AbstractJAXBProvider<?>)provider).initContexts(types);
+            }
+        }
+        if (!isBaseFactory()) {
+            baseFactory.initJaxbContexts(types);
+        }
+    }
+    
     Set<Object> getReadersWriters() {
         Set<Object> set = new HashSet<Object>();
         set.addAll(messageReaders);
@@ -1259,5 +1341,76 @@ public abstract class ProviderFactory {
 
     public void setProviderComparator(Comparator<?> providerComparator) {
         this.providerComparator = providerComparator;
+        clearSelectionCaches();
+    }
+    
+    /**
+     * Identifies a reader or writer selection. Annotations are compared by identity
+     * as the same instances are reused for a given resource method or field.
+     */
+    private static final class MessageBodyKey {
+        private final Class<?> type;
+        private final Type genericType;
+        private final Annotation[] annotations;
+        private final MediaType mediaType;
+        private final boolean ignoreTypeVars;
+        private final int hash;
+        
+        MessageBodyKey(Class<?> type, Type genericType, Annotation[] annotations, 
+                       MediaType mediaType, boolean ignoreTypeVars) {
+            this.type = type;
+            this.genericType = genericType;
+            this.annotations = annotations;
+            this.mediaType = mediaType;
+            this.ignoreTypeVars = ignoreTypeVars;
+            int h = System.identityHashCode(type);
+            h = 31 * h + (genericType == null ? 0 : genericType.hashCode());
+            h = 31 * h + (mediaType == null ? 0 : mediaType.hashCode());
+            if (annotations != null) {
+                for (Annotation a : annotations) {
+                    h = 31 * h + System.identityHashCode(a);
+                }
+            }
+            this.hash = ignoreTypeVars ? ~h : h;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MessageBodyKey)) {
+                return false;
+            }
+            MessageBodyKey other = (MessageBodyKey)o;
+            return hash == other.hash
+                && type == other.type
+                && ignoreTypeVars == other.ignoreTypeVars
+                && (genericType == null ? other.genericType == null : genericType.equals(other.genericType))
+                && (mediaType == null ? other.mediaType == null : mediaType.equals(other.mediaType))
+                && sameAnnotations(annotations, other.annotations);
+        }
+        
+        private static boolean sameAnnotations(Annotation[] a1, Annotation[] a2) {
+            if (a1 == a2) {
+                return true;
+            }
+            int len1 = a1 == null ? 0 : a1.length;
+            int len2 = a2 == null ? 0 : a2.length;
+            if (len1 != len2) {
+                return false;
+            }
+            for (int i = 0; i < len1; i++) {
+                if (a1[i] != a2[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 }
@@ -55,7 +55,7 @@ import org.apache.cxf.transport.http.AbstractHTTPDestination;
 @Produces("text/html")
 @Provider
 public class RequestDispatcherProvider extends AbstractConfigurableProvider
-    implements MessageBodyWriter<Object> {
+    implements MessageBodyWriter<Object>, NonCacheableProvider {
     
     private static final ResourceBundle BUNDLE = BundleUtils.getBundle(RequestDispatcherProvider.class);
     private static final Logger LOG = LogUtils.getL7dLogger(RequestDispatcherProvider.class);
@@ -106,7 +106,7 @@ public final class InjectionUtils {
     private static final String HTTP_SERVLET_RESPONSE_CLASS_NAME = "javax.servlet.http.HttpServletResponse";
     private static final String ENUM_CONVERSION_CASE_SENSITIVE = "enum.conversion.case.sensitive";    
     
-    private static final String IGNORE_MATRIX_PARAMETERS = "ignore.matrix.parameters";
+    static final String IGNORE_MATRIX_PARAMETERS = "ignore.matrix.parameters";
     
     private InjectionUtils() {
         
@@ -376,38 +376,54 @@ public final class InjectionUtils {
             }
         }
         
-        boolean adapterHasToBeUsed = false;
-        Class<?> cls = pClass;        
         Class<?> valueType = JAXBUtils.getValueTypeFromAdapter(pClass, pClass, paramAnns);
-        if (valueType != cls) {
-            cls = valueType;
-            adapterHasToBeUsed = true;
+        if (pClass == String.class && valueType == pClass) {
+            return pClass.cast(value);
         }
+        return createFromString(value, pClass, paramAnns, pType, valueType, 
+                                getStringConstructor(valueType), null);
+    }
+    
+    /**
+     * Converts the parameter value using the String constructor or the static factory methods 
+     * of the value type, XmlJavaTypeAdapter is applied if the value type differs from the parameter type. 
+     * The constructor and the factory methods are passed in so that the callers can resolve them once.
+     */
+    //CHECKSTYLE:OFF
+    static <T> T createFromString(String value,
+                                  Class<T> pClass,
+                                  Annotation[] paramAnns,
+                                  ParameterType pType,
+                                  Class<?> valueType,
+                                  Constructor<?> stringConstructor,
+                                  List<Method> factoryMethods) {
+    //CHECKSTYLE:ON
+        boolean adapterHasToBeUsed = valueType != pClass;
         if (pClass == String.class && !adapterHasToBeUsed) {
             return pClass.cast(value);
         }
+        Object result = null;
         // check constructors accepting a single String value
-        try {
-            Constructor<?> c = cls.getConstructor(new Class<?>[]{String.class});
-            result = c.newInstance(new Object[]{value});
-        } catch (NoSuchMethodException ex) {
-            // try valueOf
-        } catch (WebApplicationException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            Throwable t = getOrThrowActualException(ex);
-            LOG.severe(new org.apache.cxf.common.i18n.Message("CLASS_CONSTRUCTOR_FAILURE", 
-                                                               BUNDLE, 
-                                                               pClass.getName()).toString());
-            Response r = JAXRSUtils.toResponse(HttpUtils.getParameterFailureStatus(pType));
-            throw ExceptionUtils.toHttpException(t, r);
+        if (stringConstructor != null) {
+            try {
+                result = stringConstructor.newInstance(new Object[]{value});
+            } catch (WebApplicationException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                Throwable t = getOrThrowActualException(ex);
+                LOG.severe(new org.apache.cxf.common.i18n.Message("CLASS_CONSTRUCTOR_FAILURE", 
+                                                                   BUNDLE, 
+                                                                   pClass.getName()).toString());
+                Response r = JAXRSUtils.toResponse(HttpUtils.getParameterFailureStatus(pType));
+                throw ExceptionUtils.toHttpException(t, r);
+            }
         }
         if (result == null) {
             // check for valueOf(String) static methods
-            String[] methodNames = cls.isEnum() 
-                ? new String[] {"fromString", "fromValue", "valueOf"} 
-                : new String[] {"valueOf", "fromString"};
-            result = evaluateFactoryMethods(value, pType, result, cls, methodNames);
+            if (factoryMethods == null) {
+                factoryMethods = getFactoryMethods(valueType);
+            }
+            result = evaluateFactoryMethods(value, pType, valueType, factoryMethods);
         }
         
         if (adapterHasToBeUsed) {
@@ -426,8 +442,34 @@ public final class InjectionUtils {
         
         return pClass.cast(result);
     }
+    
+    static Constructor<?> getStringConstructor(Class<?> cls) {
+        try {
+            return cls.getConstructor(new Class<?>[]{String.class});
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+    
+    static List<Method> getFactoryMethods(Class<?> cls) {
+        String[] methodNames = cls.isEnum() 
+            ? new String[] {"fromString", "fromValue", "valueOf"} 
+            : new String[] {"valueOf", "fromString"};
+        List<Method> methods = new ArrayList<Method>(methodNames.length);
+        for (String mName : methodNames) {
+            try {
+                Method m = cls.getMethod(mName, new Class<?>[]{String.class});
+                if (Modifier.isStatic(m.getModifiers())) {
+                    methods.add(m);
+                }
+            } catch (NoSuchMethodException ex) {
+                // no luck: try another factory methods
+            }
+        }
+        return methods;
+    }
 
-    private static RuntimeException createParamConversionException(ParameterType pType, Exception ex) {
+    static RuntimeException createParamConversionException(ParameterType pType, Exception ex) {
         //
         //  For path, query & matrix parameters this is 404,
         //  for others 400...
@@ -472,21 +514,24 @@ public final class InjectionUtils {
         throw ExceptionUtils.toInternalServerErrorException(null, r);
     }
 
-    private static Object evaluateFactoryMethods(String value, ParameterType pType, Object result,
-                                                 Class<?> cls, String[] methodNames) {
+    private static Object evaluateFactoryMethods(String value, ParameterType pType, 
+                                                 Class<?> cls, List<Method> methods) {
+        Object result = null;
         Exception factoryMethodEx = null; 
-        for (String mName : methodNames) {
+        for (Method m : methods) {
             try {
-                result = evaluateFactoryMethod(value, cls, pType, mName);
+                result = cls.cast(m.invoke(null, new Object[]{value}));
                 if (result != null) {
                     factoryMethodEx = null;
                     break;
                 }
+            } catch (IllegalAccessException ex) {
+                // factory method is not accessible: try another
             } catch (Exception ex) {
                 // If it is enum and the method name is "fromValue" then don't throw 
                 // the exception immediately but try the next factory method
                 factoryMethodEx = ex;
-                if (!cls.isEnum() || !"fromValue".equals(mName)) {
+                if (!cls.isEnum() || !"fromValue".equals(m.getName())) {
                     break;
                 }
             }            
@@ -502,25 +547,6 @@ public final class InjectionUtils {
         }
     }
 
-    private static <T> T evaluateFactoryMethod(String value,
-                                               Class<T> pClass,
-                                               ParameterType pType,
-                                               String methodName) 
-        throws InvocationTargetException {
-        try {
-            Method m = pClass.getMethod(methodName, new Class<?>[]{String.class});
-            if (Modifier.isStatic(m.getModifiers())) {
-                return pClass.cast(m.invoke(null, new Object[]{value}));
-            }
-        } catch (NoSuchMethodException ex) {
-            // no luck: try another factory methods
-        } catch (IllegalAccessException ex) {
-            // factory method is not accessible: try another
-        }
-
-        return null;
-    }
-    
     private static Throwable getOrThrowActualException(Throwable ex) {
         Throwable t = ex instanceof InvocationTargetException ? ((InvocationTargetException)ex).getCause() : ex; 
         if (t instanceof WebApplicationException) {    
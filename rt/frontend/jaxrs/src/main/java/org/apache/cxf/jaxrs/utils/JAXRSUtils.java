@@ -130,6 +130,7 @@ import org.apache.cxf.jaxrs.model.Parameter;
 import org.apache.cxf.jaxrs.model.ParameterType;
 import org.apache.cxf.jaxrs.model.ProviderInfo;
 import org.apache.cxf.jaxrs.model.URITemplate;
+import org.apache.cxf.jaxrs.model.URITemplateIndex;
 import org.apache.cxf.jaxrs.provider.AbstractConfigurableProvider;
 import org.apache.cxf.jaxrs.provider.ProviderFactory;
 import org.apache.cxf.jaxrs.provider.ServerProviderFactory;
@@ -154,6 +155,7 @@ public final class JAXRSUtils {
     public static final String DOC_LOCATION = "wadl.location";
     public static final String MEDIA_TYPE_Q_PARAM = "q";
     public static final String MEDIA_TYPE_QS_PARAM = "qs";
+    static final Annotation[] EMPTY_ANNOTATIONS = new Annotation[0];
     private static final String MEDIA_TYPE_DISTANCE_PARAM = "d";
     private static final String DEFAULT_CONTENT_TYPE = "default.content.type";
     private static final String KEEP_SUBRESOURCE_CANDIDATES = "keep.subresource.candidates";
@@ -163,7 +165,8 @@ public final class JAXRSUtils {
     private static final String REPORT_FAULT_MESSAGE_PROPERTY = "org.apache.cxf.jaxrs.report-fault-message";
     private static final String NO_CONTENT_EXCEPTION = "javax.ws.rs.core.NoContentException";
     private static final String HTTP_CHARSET_PARAM = "charset";
-    private static final Annotation[] EMPTY_ANNOTATIONS = new Annotation[0]; 
+    private static final String DECODED_QUERY_PARAMETERS = "org.apache.cxf.jaxrs.query.decoded";
+    private static final String ENCODED_QUERY_PARAMETERS = "org.apache.cxf.jaxrs.query.encoded";
     
     private JAXRSUtils() {        
     }
@@ -310,7 +313,7 @@ public final class JAXRSUtils {
             new TreeMap<ClassResourceInfo, MultivaluedMap<String, String>>(
                 new ClassResourceInfoComparator(message));
         
-        for (ClassResourceInfo cri : resources) {
+        for (ClassResourceInfo cri : getResourceCandidates(resources, path, message)) {
             MultivaluedMap<String, String> map = new MetadataMap<String, String>();
             if (cri.getURITemplate().match(path, map)) {
                 candidateList.put(cri, map);
@@ -355,6 +358,20 @@ public final class JAXRSUtils {
         
         return null;
     }
+    
+    private static List<ClassResourceInfo> getResourceCandidates(List<ClassResourceInfo> resources, 
+                                                                 String path, Message message) {
+        Exchange exchange = message.getExchange();
+        Service service = exchange == null ? null : exchange.get(Service.class);
+        if (service instanceof JAXRSServiceImpl) {
+            URITemplateIndex<ClassResourceInfo> index = ((JAXRSServiceImpl)service).getClassResourceIndex();
+            if (index != null && index.isIndexOf(resources)) {
+                return index.getCandidates(path);
+            }
+        }
+        return resources;
+    }
+    
     public static OperationResourceInfo findTargetMethod(
         Map<ClassResourceInfo, MultivaluedMap<String, String>> matchedResources,
         Message message,
@@ -409,7 +426,7 @@ public final class JAXRSUtils {
                 
             }
             
-            for (OperationResourceInfo ori : resource.getMethodDispatcher().getOperationResourceInfos()) {
+            for (OperationResourceInfo ori : resource.getMethodDispatcher().getOperationResourceInfos(path)) {
                 boolean added = false;
                 
                 URITemplate uriTemplate = ori.getURITemplate();
@@ -763,31 +780,33 @@ public final class JAXRSUtils {
         boolean preferModelParams = paramsInfo.size() > parameterTypes.length 
             && !PropertyUtils.isTrue(message.getContextualProperty("org.apache.cxf.preferMethodParameters"));
         
-        int parameterTypesLengh = preferModelParams ? paramsInfo.size() : parameterTypes.length;
+        if (!preferModelParams) {
+            ParameterExtractor[] extractors = ori.getParameterExtractors();
+            List<Object> params = new ArrayList<Object>(extractors.length);
+            for (ParameterExtractor extractor : extractors) {
+                Parameter p = extractor.getParameter();
+                Object paramValue = isHttpParameter(p.getType()) 
+                    ? extractor.extract(message, values, ori)
+                    : processParameter(extractor.getParameterClass(), 
+                                       extractor.getGenericType(),
+                                       extractor.getParameterAnnotations(),
+                                       p, 
+                                       values, 
+                                       message,
+                                       ori);
+                params.add(paramValue);
+            }
+            return params;
+        }
         
-        Type[] genericParameterTypes = ori.getInGenericParameterTypes();
-        Annotation[][] anns = ori.getInParameterAnnotations();
+        int parameterTypesLengh = paramsInfo.size();
         List<Object> params = new ArrayList<Object>(parameterTypesLengh);
 
         for (int i = 0; i < parameterTypesLengh; i++) {
-            Class<?> param = null;
-            Type genericParam = null;
-            Annotation[] paramAnns = null;
-            if (!preferModelParams) {
-                param = parameterTypes[i]; 
-                genericParam = InjectionUtils.processGenericTypeIfNeeded(
-                    ori.getClassResourceInfo().getServiceClass(), param, genericParameterTypes[i]);
-                param = InjectionUtils.updateParamClassToTypeIfNeeded(param, genericParam);
-                paramAnns = anns == null ? EMPTY_ANNOTATIONS : anns[i];
-            } else {
-                param = paramsInfo.get(i).getJavaType();
-                genericParam = param;
-                paramAnns = EMPTY_ANNOTATIONS;
-            }
-            
+            Class<?> param = paramsInfo.get(i).getJavaType();
             Object paramValue = processParameter(param, 
-                                                 genericParam,
-                                                 paramAnns,
+                                                 param,
+                                                 EMPTY_ANNOTATIONS,
                                                  paramsInfo.get(i), 
                                                  values, 
                                                  message,
@@ -797,6 +816,11 @@ public final class JAXRSUtils {
 
         return params;
     }
+    
+    private static boolean isHttpParameter(ParameterType pType) {
+        return pType != ParameterType.REQUEST_BODY && pType != ParameterType.CONTEXT 
+            && pType != ParameterType.BEAN;
+    }
 
     private static Object processParameter(Class<?> parameterClass, 
                                            Type parameterType,
@@ -1191,7 +1215,24 @@ public final class JAXRSUtils {
     
     
     
-    //TODO : multiple query string parsing, do it once
+    /**
+     * Returns the query parameters of the current request, the query string is parsed 
+     * once per request for all the query parameters of the invoked method
+     */
+    static MultivaluedMap<String, String> getQueryParameters(Message m, boolean decode) {
+        String key = decode ? DECODED_QUERY_PARAMETERS : ENCODED_QUERY_PARAMETERS;
+        String query = (String)m.get(Message.QUERY_STRING);
+        Object[] parsed = (Object[])m.get(key);
+        if (parsed != null && parsed[0] == query) {
+            @SuppressWarnings("unchecked")
+            MultivaluedMap<String, String> queryMap = (MultivaluedMap<String, String>)parsed[1];
+            return queryMap;
+        }
+        MultivaluedMap<String, String> queryMap = new UriInfoImpl(m, null).getQueryParameters(decode);
+        m.put(key, new Object[]{query, queryMap});
+        return queryMap;
+    }
+    
     private static Object readQueryString(String queryName,
                                           Class<?> paramType,
                                           Type genericType,
@@ -1200,7 +1241,7 @@ public final class JAXRSUtils {
                                           String defaultValue,
                                           boolean decode) {
         
-        MultivaluedMap<String, String> queryMap = new UriInfoImpl(m, null).getQueryParameters(decode);
+        MultivaluedMap<String, String> queryMap = getQueryParameters(m, decode);
         
         if ("".equals(queryName)) {
             return InjectionUtils.handleBean(paramType, paramAnns, queryMap, ParameterType.QUERY, m, false);
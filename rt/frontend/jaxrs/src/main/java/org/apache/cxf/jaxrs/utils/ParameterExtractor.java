@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.utils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.PathSegment;
+
+import org.apache.cxf.common.util.PrimitiveUtils;
+import org.apache.cxf.jaxrs.impl.HttpHeadersImpl;
+import org.apache.cxf.jaxrs.impl.PathSegmentImpl;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.model.Parameter;
+import org.apache.cxf.jaxrs.model.ParameterType;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageUtils;
+
+/**
+ * Resource method parameter with its type, default value and decoding flag 
+ * and, for path, query and header parameters, the way the String values are
+ * converted resolved once per operation instead of on every request.
+ */
+public final class ParameterExtractor {
+    private final Parameter parameter;
+    private final Class<?> paramClass;
+    private final Type genericType;
+    private final Annotation[] paramAnns;
+    private final String defaultValue;
+    private final boolean decode;
+    private final boolean singleValue;
+    private final Class<?> valueType;
+    private final Constructor<?> stringConstructor;
+    private final List<Method> factoryMethods;
+    
+    ParameterExtractor(Parameter parameter, 
+                       Class<?> paramClass,
+                       Type genericType,
+                       Annotation[] paramAnns,
+                       OperationResourceInfo ori) {
+        this.parameter = parameter;
+        this.paramClass = paramClass;
+        this.genericType = genericType;
+        this.paramAnns = paramAnns;
+        String dv = parameter.getDefaultValue();
+        this.defaultValue = dv == null ? ori.getDefaultParameterValue() : dv;
+        this.decode = !(parameter.isEncoded() || ori.isEncodedEnabled());
+        
+        ParameterType pType = parameter.getType();
+        this.singleValue = (pType == ParameterType.PATH || pType == ParameterType.QUERY 
+            || pType == ParameterType.HEADER) && !"".equals(parameter.getName())
+            && !InjectionUtils.isSupportedCollectionOrArray(paramClass);
+        if (singleValue && !paramClass.isPrimitive() && !PathSegment.class.isAssignableFrom(paramClass)) {
+            valueType = JAXBUtils.getValueTypeFromAdapter(paramClass, paramClass, paramAnns);
+            if (paramClass == String.class && valueType == paramClass) {
+                stringConstructor = null;
+                factoryMethods = null;
+            } else {
+                stringConstructor = InjectionUtils.getStringConstructor(valueType);
+                factoryMethods = InjectionUtils.getFactoryMethods(valueType);
+            }
+        } else {
+            valueType = paramClass;
+            stringConstructor = null;
+            factoryMethods = null;
+        }
+    }
+    
+    /**
+     * Creates the extractors for the parameters of the given operation
+     * @param ori the operation
+     * @return the extractors, one per method parameter
+     */
+    public static ParameterExtractor[] createExtractors(OperationResourceInfo ori) {
+        Class<?>[] parameterTypes = ori.getInParameterTypes();
+        Type[] genericParameterTypes = ori.getInGenericParameterTypes();
+        Annotation[][] anns = ori.getInParameterAnnotations();
+        List<Parameter> paramsInfo = ori.getParameters();
+        
+        ParameterExtractor[] extractors = new ParameterExtractor[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> param = parameterTypes[i]; 
+            Type genericParam = InjectionUtils.processGenericTypeIfNeeded(
+                ori.getClassResourceInfo().getServiceClass(), param, genericParameterTypes[i]);
+            param = InjectionUtils.updateParamClassToTypeIfNeeded(param, genericParam);
+            Annotation[] paramAnns = anns == null ? JAXRSUtils.EMPTY_ANNOTATIONS : anns[i];
+            extractors[i] = new ParameterExtractor(paramsInfo.get(i), param, genericParam, paramAnns, ori);
+        }
+        return extractors;
+    }
+    
+    public Parameter getParameter() {
+        return parameter;
+    }
+    
+    public Class<?> getParameterClass() {
+        return paramClass;
+    }
+    
+    public Type getGenericType() {
+        return genericType;
+    }
+    
+    public Annotation[] getParameterAnnotations() {
+        return paramAnns;
+    }
+    
+    /**
+     * Creates the value of the HTTP (path, query, matrix, form, cookie or header) parameter  
+     * @param m the current message
+     * @param values the path template values
+     * @param ori the current operation
+     * @return the parameter value
+     */
+    public Object extract(Message m, MultivaluedMap<String, String> values, OperationResourceInfo ori) {
+        if (!singleValue) {
+            return JAXRSUtils.createHttpParameterValue(parameter, paramClass, genericType, paramAnns, 
+                                                       m, values, ori);
+        }
+        String name = parameter.getName();
+        switch (parameter.getType()) {
+        case PATH:
+            return toValue(values.get(name), decode, m);
+        case QUERY:
+            return toValue(JAXRSUtils.getQueryParameters(m, decode).get(name), false, m);
+        default:
+            List<String> headers = new HttpHeadersImpl(m).getRequestHeader(name);
+            return toValue(headers != null && headers.isEmpty() ? null : headers, false, m);
+        }
+    }
+    
+    // follows InjectionUtils.createParameterObject
+    private Object toValue(List<String> paramValues, boolean decoded, Message m) {
+        String value;
+        if (paramValues == null) {
+            if (defaultValue != null) {
+                value = defaultValue;
+            } else if (paramClass.isPrimitive()) {
+                value = boolean.class == paramClass ? "false" 
+                    : char.class == paramClass ? Character.toString('\u0000') : "0";
+            } else {
+                return null;
+            }
+        } else if (paramValues.isEmpty()) {
+            return null;
+        } else {
+            value = parameter.getType() == ParameterType.PATH 
+                ? paramValues.get(paramValues.size() - 1) : paramValues.get(0);
+        }
+        return value == null ? null : convert(value, decoded, m);
+    }
+    
+    // follows InjectionUtils.handleParameter
+    private Object convert(String value, boolean decoded, Message m) {
+        ParameterType pType = parameter.getType();
+        if (pType == ParameterType.PATH) {
+            if (PathSegment.class.isAssignableFrom(paramClass)) {
+                return paramClass.cast(new PathSegmentImpl(value, decoded));   
+            } else if (!MessageUtils.isTrue(
+                        m.getContextualProperty(InjectionUtils.IGNORE_MATRIX_PARAMETERS))) {
+                value = new PathSegmentImpl(value, false).getPath();    
+            }
+        }
+        value = InjectionUtils.decodeValue(value, decoded, pType);
+        
+        Object result = null;
+        try {
+            result = InjectionUtils.createFromParameterHandler(value, paramClass, genericType, paramAnns, m);
+        } catch (IllegalArgumentException nfe) {
+            throw InjectionUtils.createParamConversionException(pType, nfe);
+        }
+        if (result != null) {
+            return paramClass.cast(result);
+        }
+        if (paramClass.isPrimitive()) {
+            try {
+                return PrimitiveUtils.read(value, paramClass);
+            } catch (NumberFormatException nfe) {
+                throw InjectionUtils.createParamConversionException(pType, nfe);
+            }
+        }
+        if (paramClass == String.class && valueType == paramClass) {
+            return value;
+        }
+        return InjectionUtils.createFromString(value, paramClass, paramAnns, pType, valueType, 
+                                               stringConstructor, factoryMethods);
+    }
+}
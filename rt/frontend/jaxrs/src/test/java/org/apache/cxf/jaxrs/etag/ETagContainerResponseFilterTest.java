@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.etag;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.apache.cxf.jaxrs.impl.ContainerRequestContextImpl;
+import org.apache.cxf.jaxrs.impl.ContainerResponseContextImpl;
+import org.apache.cxf.jaxrs.impl.ResponseImpl;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ETagContainerResponseFilterTest extends Assert {
+
+    @Test
+    public void testVersionedEntityNotModified() throws Exception {
+        ContainerResponseContextImpl response = filter(new Book(1), null);
+        String etag = response.getHeaderString(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getEntity());
+        
+        response = filter(new Book(1), etag);
+        assertEquals(304, response.getStatus());
+        assertNull(response.getEntity());
+        assertEquals(etag, response.getHeaderString(HttpHeaders.ETAG));
+    }
+    
+    @Test
+    public void testVersionedEntityModified() throws Exception {
+        String etag = filter(new Book(1), null).getHeaderString(HttpHeaders.ETAG);
+        ContainerResponseContextImpl response = filter(new Book(2), etag);
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getEntity());
+        assertFalse(etag.equals(response.getHeaderString(HttpHeaders.ETAG)));
+    }
+    
+    @Test
+    public void testResourceETagNotModified() throws Exception {
+        Message in = createRequest("\"123\"");
+        ResponseImpl r = (ResponseImpl)Response.ok("book").tag("123").build();
+        ContainerResponseContextImpl response = 
+            new ContainerResponseContextImpl(r, in.getExchange().getOutMessage(), null, null);
+        new ETagContainerResponseFilter().filter(new ContainerRequestContextImpl(in, false, true), response);
+        assertEquals(304, response.getStatus());
+        assertNull(response.getEntity());
+    }
+    
+    @Test
+    public void testNoETag() throws Exception {
+        ContainerResponseContextImpl response = filter("book", null);
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeaderString(HttpHeaders.ETAG));
+    }
+    
+    private static ContainerResponseContextImpl filter(Object entity, String ifNoneMatch) throws Exception {
+        Message in = createRequest(ifNoneMatch);
+        ResponseImpl r = (ResponseImpl)Response.ok(entity).type("application/xml").build();
+        ContainerResponseContextImpl response = 
+            new ContainerResponseContextImpl(r, in.getExchange().getOutMessage(), null, null);
+        new ETagContainerResponseFilter().filter(new ContainerRequestContextImpl(in, false, true), response);
+        return response;
+    }
+    
+    private static Message createRequest(String ifNoneMatch) {
+        Message in = new MessageImpl();
+        in.put(Message.HTTP_REQUEST_METHOD, HttpMethod.GET);
+        Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        if (ifNoneMatch != null) {
+            headers.put(HttpHeaders.IF_NONE_MATCH, Collections.singletonList(ifNoneMatch));
+        }
+        in.put(Message.PROTOCOL_HEADERS, headers);
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(in);
+        exchange.setOutMessage(new MessageImpl());
+        return in;
+    }
+    
+    private static class Book implements VersionedEntity {
+        private long revision;
+        
+        Book(long revision) {
+            this.revision = revision;
+        }
+        
+        public Object getEntityVersion() {
+            return revision;
+        }
+    }
+}
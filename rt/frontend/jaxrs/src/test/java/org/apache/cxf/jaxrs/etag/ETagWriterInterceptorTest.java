@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.etag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.WriterInterceptor;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.jaxrs.impl.WriterInterceptorContextImpl;
+import org.apache.cxf.jaxrs.impl.WriterInterceptorMBW;
+import org.apache.cxf.jaxrs.provider.StringTextProvider;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ETagWriterInterceptorTest extends Assert {
+
+    @Test
+    public void testETagIsAdded() throws Exception {
+        Message m = createMessage(null);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        write(m, "hello", os);
+        assertEquals("hello", os.toString());
+        assertNull(m.get(Message.RESPONSE_CODE));
+        String etag = (String)getResponseHeaders(m).getFirst(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        
+        // the same body gets the same tag
+        Message m2 = createMessage(null);
+        write(m2, "hello", new ByteArrayOutputStream());
+        assertEquals(etag, getResponseHeaders(m2).getFirst(HttpHeaders.ETAG));
+    }
+    
+    @Test
+    public void testNotModified() throws Exception {
+        Message m = createMessage(null);
+        write(m, "hello", new ByteArrayOutputStream());
+        String etag = (String)getResponseHeaders(m).getFirst(HttpHeaders.ETAG);
+        
+        Message m2 = createMessage(etag);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        write(m2, "hello", os);
+        assertEquals(0, os.size());
+        assertEquals(Integer.valueOf(304), m2.get(Message.RESPONSE_CODE));
+        assertEquals(etag, getResponseHeaders(m2).getFirst(HttpHeaders.ETAG));
+    }
+    
+    @Test
+    public void testModified() throws Exception {
+        Message m = createMessage(null);
+        write(m, "hello", new ByteArrayOutputStream());
+        String etag = (String)getResponseHeaders(m).getFirst(HttpHeaders.ETAG);
+        
+        Message m2 = createMessage(etag);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        write(m2, "hello, world", os);
+        assertEquals("hello, world", os.toString());
+        assertNull(m2.get(Message.RESPONSE_CODE));
+        assertFalse(etag.equals(getResponseHeaders(m2).getFirst(HttpHeaders.ETAG)));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static MultivaluedMap<String, Object> getResponseHeaders(Message m) {
+        return (MultivaluedMap<String, Object>)m.get(Message.PROTOCOL_HEADERS);
+    }
+    
+    private static Message createMessage(String ifNoneMatch) {
+        Message in = new MessageImpl();
+        in.put(Message.HTTP_REQUEST_METHOD, HttpMethod.GET);
+        Map<String, List<String>> requestHeaders = 
+            new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        if (ifNoneMatch != null) {
+            requestHeaders.put(HttpHeaders.IF_NONE_MATCH, Collections.singletonList(ifNoneMatch));
+        }
+        in.put(Message.PROTOCOL_HEADERS, requestHeaders);
+        Message out = new MessageImpl();
+        MultivaluedMap<String, Object> responseHeaders = new MetadataMap<String, Object>();
+        responseHeaders.putSingle(HttpHeaders.CONTENT_TYPE, "text/plain");
+        out.put(Message.PROTOCOL_HEADERS, responseHeaders);
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(in);
+        exchange.setOutMessage(out);
+        return out;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes" })
+    private static void write(Message m, String entity, ByteArrayOutputStream os) {
+        List<WriterInterceptor> writers = new ArrayList<WriterInterceptor>();
+        writers.add(new ETagWriterInterceptor());
+        writers.add(new WriterInterceptorMBW((MessageBodyWriter)new StringTextProvider(), m));
+        final WriterInterceptorContextImpl ctx = new WriterInterceptorContextImpl(entity, String.class, 
+            String.class, new Annotation[]{}, os, m, writers);
+        // the interceptor expects to be called by JAXRSOutInterceptor
+        PhaseInterceptorChain chain = 
+            new PhaseInterceptorChain(new TreeSet<Phase>(Collections.singleton(new Phase(Phase.MARSHAL, 1))));
+        chain.add(new AbstractPhaseInterceptor<Message>(Phase.MARSHAL) {
+            public void handleMessage(Message message) throws Fault {
+                try {
+                    ctx.proceed();
+                } catch (IOException ex) {
+                    throw new Fault(ex);
+                }
+            }
+        });
+        chain.doIntercept(m);
+    }
+}
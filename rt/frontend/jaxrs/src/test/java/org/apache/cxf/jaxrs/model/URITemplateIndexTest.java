@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class URITemplateIndexTest extends Assert {
+    private static final String[] TEMPLATES = {
+        "/", "/books", "/books/{id}", "/books/special", "/{any}", "/books/{id}/chapters", 
+        "/bookstore", "/books/special/{id: \\d+}", "/a b/c", "/books.xml", "/books/"
+    };
+    private static final String[] PATHS = {
+        "/", "/books", "/books/", "/books/1", "/books/special", "/books/special/2", "/bookstore/1",
+        "/books;a=b/1", "/books/special;x=y", "/a%20b/c", "/books.xml", "/unknown/path", "", 
+        "/books//1", "/books/1/chapters"
+    };
+    
+    @Test
+    public void testLiteralSegments() {
+        assertEquals(list("books"), URITemplateIndex.getLiteralSegments("/books/{id}/chapters"));
+        assertEquals(list("books", "special"), URITemplateIndex.getLiteralSegments("/books/special/"));
+        assertEquals(list(), URITemplateIndex.getLiteralSegments("/{id}/books"));
+        assertEquals(list("a%20b"), URITemplateIndex.getLiteralSegments("/a b/c{x}"));
+        assertEquals(list(), URITemplateIndex.getLiteralSegments("/a;b"));
+    }
+    
+    @Test
+    public void testCandidatesOnlyExcludeNonMatchingTemplates() {
+        List<ClassResourceInfo> resources = createResources();
+        URITemplateIndex<ClassResourceInfo> index = URITemplateIndex.createResourceIndex(resources);
+        for (String path : PATHS) {
+            List<ClassResourceInfo> candidates = index.getCandidates(path);
+            List<ClassResourceInfo> matching = new ArrayList<ClassResourceInfo>();
+            int last = -1;
+            for (ClassResourceInfo cri : candidates) {
+                int pos = resources.indexOf(cri);
+                assertTrue("Candidates are not in the original order for " + path, pos > last);
+                last = pos;
+            }
+            for (ClassResourceInfo cri : resources) {
+                if (cri.getURITemplate().match(path, new MetadataMap<String, String>())) {
+                    matching.add(cri);
+                }
+            }
+            assertTrue("Matching template excluded for " + path, candidates.containsAll(matching));
+        }
+    }
+    
+    @Test
+    public void testLiteralPrefixFiltersCandidates() {
+        List<ClassResourceInfo> resources = createResources();
+        URITemplateIndex<ClassResourceInfo> index = URITemplateIndex.createResourceIndex(resources);
+        assertEquals(list("/", "/{any}", "/bookstore"), templates(index.getCandidates("/bookstore/1")));
+        assertEquals(list("/", "/books", "/books/{id}", "/{any}", "/books/{id}/chapters", "/books/"), 
+                     templates(index.getCandidates("/books/1")));
+        assertEquals(list("/", "/{any}"), templates(index.getCandidates("/unknown/path")));
+        assertTrue(index.isIndexOf(resources));
+        resources.add(new ClassResourceInfo(Object.class));
+        assertFalse(index.isIndexOf(resources));
+    }
+    
+    private static List<ClassResourceInfo> createResources() {
+        List<ClassResourceInfo> resources = new ArrayList<ClassResourceInfo>();
+        for (String template : TEMPLATES) {
+            ClassResourceInfo cri = new ClassResourceInfo(Object.class);
+            cri.setURITemplate(new URITemplate(template));
+            resources.add(cri);
+        }
+        return resources;
+    }
+    
+    private static List<String> templates(List<ClassResourceInfo> resources) {
+        List<String> result = new ArrayList<String>();
+        for (ClassResourceInfo cri : resources) {
+            result.add(cri.getURITemplate().getValue());
+        }
+        return result;
+    }
+    
+    private static List<String> list(String... values) {
+        List<String> result = new ArrayList<String>();
+        for (String value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+}
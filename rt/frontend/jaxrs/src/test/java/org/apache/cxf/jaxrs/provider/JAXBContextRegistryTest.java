@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.provider;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.jaxrs.resources.Book;
+import org.apache.cxf.jaxrs.resources.SuperBook;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JAXBContextRegistryTest extends Assert {
+    
+    @Test
+    public void testContextCreatedOnce() throws Exception {
+        JAXBContextRegistry registry = new JAXBContextRegistry(null);
+        CountingFactory factory = new CountingFactory();
+        Object key = JAXBContextRegistry.createKey(Book.class, null);
+        JAXBContext context = registry.getContext(key, factory);
+        assertSame(context, registry.getContext(JAXBContextRegistry.createKey(Book.class, null), factory));
+        assertEquals(1, factory.count);
+        assertEquals(1, registry.getMisses());
+        assertEquals(1, registry.getHits());
+        assertEquals(1, registry.getSize());
+    }
+    
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        JAXBContextRegistry registry = new JAXBContextRegistry(null);
+        registry.setMaxSize(2);
+        CountingFactory factory = new CountingFactory();
+        registry.getContext("a", factory);
+        Thread.sleep(1);
+        registry.getContext("b", factory);
+        Thread.sleep(1);
+        registry.getContext("a", factory);
+        Thread.sleep(1);
+        registry.getContext("c", factory);
+        assertEquals(3, factory.count);
+        assertEquals(2, registry.getSize());
+        assertEquals(1, registry.getEvictions());
+        
+        registry.getContext("a", factory);
+        assertEquals(3, factory.count);
+        registry.getContext("b", factory);
+        assertEquals(4, factory.count);
+    }
+    
+    @Test
+    public void testFailureNotCached() throws Exception {
+        JAXBContextRegistry registry = new JAXBContextRegistry(null);
+        try {
+            registry.getContext("a", new JAXBContextRegistry.ContextFactory() {
+                public JAXBContext createContext() throws JAXBException {
+                    throw new JAXBException("failure");
+                }
+            });
+            fail("JAXBException expected");
+        } catch (JAXBException ex) {
+            assertEquals("failure", ex.getMessage());
+        }
+        assertEquals(0, registry.getSize());
+        CountingFactory factory = new CountingFactory();
+        assertNotNull(registry.getContext("a", factory));
+        assertEquals(1, factory.count);
+    }
+    
+    @Test
+    public void testErrorReleasesWaitingThreads() throws Exception {
+        final JAXBContextRegistry registry = new JAXBContextRegistry(null);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicReference<Throwable> creatorFailure = new AtomicReference<Throwable>();
+        final AtomicReference<Throwable> waiterFailure = new AtomicReference<Throwable>();
+        Thread creator = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    registry.getContext("a", new JAXBContextRegistry.ContextFactory() {
+                        public JAXBContext createContext() throws JAXBException {
+                            started.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                            }
+                            throw new NoClassDefFoundError("failure");
+                        }
+                    });
+                } catch (Throwable t) {
+                    creatorFailure.set(t);
+                }
+            }
+        });
+        creator.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread waiter = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    registry.getContext("a", new CountingFactory());
+                } catch (Throwable t) {
+                    waiterFailure.set(t);
+                }
+            }
+        });
+        waiter.start();
+        // the waiter has found the entry which is being created
+        for (int x = 0; x < 500 && registry.getHits() == 0; x++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, registry.getHits());
+        release.countDown();
+        creator.join(5000);
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertTrue(creatorFailure.get() instanceof NoClassDefFoundError);
+        assertSame(creatorFailure.get(), waiterFailure.get());
+        assertEquals(0, registry.getSize());
+        
+        CountingFactory factory = new CountingFactory();
+        assertNotNull(registry.getContext("a", factory));
+        assertEquals(1, factory.count);
+    }
+    
+    @Test
+    public void testNullContextRejected() throws Exception {
+        JAXBContextRegistry registry = new JAXBContextRegistry(null);
+        try {
+            registry.getContext("a", new JAXBContextRegistry.ContextFactory() {
+                public JAXBContext createContext() throws JAXBException {
+                    return null;
+                }
+            });
+            fail("JAXBException expected");
+        } catch (JAXBException ex) {
+            // expected
+        }
+        assertEquals(0, registry.getSize());
+    }
+    
+    @Test
+    public void testEvictedContextNotHeldByProvider() throws Exception {
+        JAXBContextRegistry registry = new JAXBContextRegistry(null);
+        registry.setMaxSize(1);
+        JAXBElementProvider<Object> provider = new JAXBElementProvider<Object>();
+        provider.setContextRegistry(registry);
+        JAXBContext context = provider.getClassContext(Book.class);
+        assertSame(context, provider.getClassContext(Book.class));
+        assertEquals(1, registry.getMisses());
+        
+        Thread.sleep(1);
+        provider.getClassContext(SuperBook.class);
+        assertEquals(1, registry.getSize());
+        assertEquals(1, registry.getEvictions());
+        
+        // the provider asks the registry again instead of keeping the evicted context
+        assertNotSame(context, provider.getClassContext(Book.class));
+        assertEquals(3, registry.getMisses());
+    }
+    
+    @Test
+    public void testUnregisteredOnBusShutdown() throws Exception {
+        IMocksControl control = EasyMock.createNiceControl();
+        Bus bus = control.createMock(Bus.class);
+        InstrumentationManager im = control.createMock(InstrumentationManager.class);
+        BusLifeCycleManager lcm = control.createMock(BusLifeCycleManager.class);
+        EasyMock.expect(bus.getId()).andReturn("bus").anyTimes();
+        EasyMock.expect(bus.getExtension(InstrumentationManager.class)).andReturn(im).anyTimes();
+        EasyMock.expect(bus.getExtension(BusLifeCycleManager.class)).andReturn(lcm).anyTimes();
+        Capture<BusLifeCycleListener> listener = Capture.newInstance();
+        lcm.registerLifeCycleListener(EasyMock.capture(listener));
+        EasyMock.expectLastCall();
+        EasyMock.expect(im.register(EasyMock.anyObject(ManagedComponent.class))).andReturn(null);
+        im.unregister(EasyMock.anyObject(ManagedComponent.class));
+        EasyMock.expectLastCall();
+        control.replay();
+        
+        JAXBContextRegistry registry = JAXBContextRegistry.getInstance(bus);
+        registry.getContext("a", new CountingFactory());
+        assertEquals(1, registry.getSize());
+        
+        listener.getValue().preShutdown();
+        control.verify();
+        assertEquals(0, registry.getSize());
+    }
+    
+    private static class CountingFactory implements JAXBContextRegistry.ContextFactory {
+        private int count;
+        
+        public JAXBContext createContext() throws JAXBException {
+            count++;
+            return JAXBContext.newInstance(Book.class);
+        }
+    }
+}
@@ -262,6 +262,41 @@ public class ProviderFactoryTest extends Assert {
                                               MediaType.APPLICATION_XML_TYPE, new MessageImpl()));
     }
     
+    @Test
+    public void testMessageBodyReaderSelectionIsCached() throws Exception {
+        ProviderFactory pf = ServerProviderFactory.getInstance();
+        CountingBookReader reader = new CountingBookReader();
+        pf.registerUserProvider(reader);
+        Annotation[] anns = new Annotation[]{};
+        for (int i = 0; i < 3; i++) {
+            assertSame(reader, pf.createMessageBodyReader(Book.class, Book.class, anns, 
+                                                          MediaType.APPLICATION_XML_TYPE, new MessageImpl()));
+        }
+        assertEquals(1, reader.getCount());
+        
+        pf.registerUserProvider(new TestRuntimeExceptionMapper());
+        assertSame(reader, pf.createMessageBodyReader(Book.class, Book.class, anns, 
+                                                      MediaType.APPLICATION_XML_TYPE, new MessageImpl()));
+        assertEquals(2, reader.getCount());
+        
+        assertSame(reader, pf.createMessageBodyReader(Book.class, Book.class, anns, 
+                                                      MediaType.TEXT_XML_TYPE, new MessageImpl()));
+        assertEquals(3, reader.getCount());
+    }
+    
+    @Test
+    public void testNonCacheableMessageBodyReaderSelection() throws Exception {
+        ProviderFactory pf = ServerProviderFactory.getInstance();
+        CountingBookReader reader = new NonCacheableBookReader();
+        pf.registerUserProvider(reader);
+        Annotation[] anns = new Annotation[]{};
+        for (int i = 0; i < 3; i++) {
+            assertSame(reader, pf.createMessageBodyReader(Book.class, Book.class, anns, 
+                                                          MediaType.APPLICATION_XML_TYPE, new MessageImpl()));
+        }
+        assertEquals(3, reader.getCount());
+    }
+    
     @Test
     public void testSortEntityProviders() throws Exception {
         ProviderFactory pf = ServerProviderFactory.getInstance();
@@ -747,6 +782,30 @@ public class ProviderFactoryTest extends Assert {
         
     }
     
+    @Consumes("*/*")
+    private static class CountingBookReader implements MessageBodyReader<Book> {
+        private int count;
+        
+        public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, 
+                                  MediaType mediaType) {
+            count++;
+            return type == Book.class;
+        }
+
+        public Book readFrom(Class<Book> arg0, Type arg1, Annotation[] arg2, MediaType arg3, 
+                             MultivaluedMap<String, String> arg4, InputStream arg5) 
+            throws IOException, WebApplicationException {
+            return null;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+    }
+    
+    private static class NonCacheableBookReader extends CountingBookReader implements NonCacheableProvider {
+    }
+    
     private static class RuntimeExceptionMapper1 
         extends AbstractTestExceptionMapper<RuntimeException> {
         
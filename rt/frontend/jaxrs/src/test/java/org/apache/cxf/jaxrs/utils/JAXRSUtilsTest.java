@@ -833,6 +833,30 @@ public class JAXRSUtilsTest extends Assert {
         assertNull(params.get(3));
     }
     
+    @Test
+    public void testQueryParametersWithReusedExtractors() throws Exception {
+        Class<?>[] argType = {String.class, Integer.TYPE, String.class, String.class};
+        Method m = Customer.class.getMethod("testQuery", argType);
+        OperationResourceInfo ori = new OperationResourceInfo(m, new ClassResourceInfo(Customer.class));
+        ParameterExtractor[] extractors = ori.getParameterExtractors();
+        assertEquals(4, extractors.length);
+        
+        Message messageImpl = createMessage();
+        messageImpl.put(Message.QUERY_STRING, "query=24&query2");
+        List<Object> params = JAXRSUtils.processParameters(ori, null, messageImpl);
+        assertEquals("24", params.get(0));
+        assertEquals(24, params.get(1));
+        
+        messageImpl = createMessage();
+        messageImpl.put(Message.QUERY_STRING, "query=25");
+        params = JAXRSUtils.processParameters(ori, null, messageImpl);
+        assertSame(extractors, ori.getParameterExtractors());
+        assertEquals("25", params.get(0));
+        assertEquals(25, params.get(1));
+        assertNull(params.get(2));
+        assertNull(params.get(3));
+    }
+    
     @Test
     public void testQueryParametersIntegerArray() throws Exception {
         Class<?>[] argType = {Integer[].class};
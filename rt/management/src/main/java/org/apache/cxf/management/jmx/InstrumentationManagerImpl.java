@@ -46,10 +46,13 @@ import javax.management.modelmbean.RequiredModelMBean;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.bus.ManagedBus;
+import org.apache.cxf.bus.managers.DirectBufferPoolMBeanWrapper;
 import org.apache.cxf.buslifecycle.BusLifeCycleListener;
 import org.apache.cxf.buslifecycle.BusLifeCycleManager;
 import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.io.DirectBufferPool;
 import org.apache.cxf.management.InstrumentationManager;
 import org.apache.cxf.management.ManagedComponent;
 import org.apache.cxf.management.ManagementConstants;
@@ -187,6 +190,11 @@ public class InstrumentationManagerImpl extends JMXConnectorPolicyType
                     if (LOG.isLoggable(Level.INFO)) {
                         LOG.info("registered " + mbus.getObjectName());
                     }
+                    if (CachedOutputStream.isDefaultPooledBuffers()
+                        || Boolean.parseBoolean((String)bus.getProperty(
+                            "bus.io.CachedOutputStream.PooledBuffers"))) {
+                        register(new DirectBufferPoolMBeanWrapper(DirectBufferPool.getDefaultPool(), bus));
+                    }
                 } catch (JMException jmex) {
                     LOG.log(Level.SEVERE, "REGISTER_FAILURE_MSG", new Object[]{bus, jmex});
                 }
@@ -85,7 +85,6 @@ import org.apache.cxf.message.MessageContentsList;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
-import org.apache.cxf.phase.PhaseChainCache;
 import org.apache.cxf.phase.PhaseInterceptorChain;
 import org.apache.cxf.phase.PhaseManager;
 import org.apache.cxf.service.Service;
@@ -846,7 +845,7 @@ public abstract class AbstractClient implements Client {
         List<Interceptor<? extends Message>> i1 = cfg.getBus().getOutInterceptors();
         List<Interceptor<? extends Message>> i2 = cfg.getOutInterceptors();
         List<Interceptor<? extends Message>> i3 = cfg.getConduitSelector().getEndpoint().getOutInterceptors();
-        PhaseInterceptorChain chain = new PhaseChainCache().get(pm.getOutPhases(), i1, i2, i3);
+        PhaseInterceptorChain chain = cfg.getOutChainCache().get(pm.getOutPhases(), i1, i2, i3);
         chain.add(new ClientRequestFilterInterceptor());
         return chain;
     }
@@ -856,7 +855,7 @@ public abstract class AbstractClient implements Client {
         List<Interceptor<? extends Message>> i1 = cfg.getBus().getInInterceptors();
         List<Interceptor<? extends Message>> i2 = cfg.getInInterceptors();
         List<Interceptor<? extends Message>> i3 = cfg.getConduitSelector().getEndpoint().getInInterceptors();
-        PhaseInterceptorChain chain = new PhaseChainCache().get(pm.getInPhases(), i1, i2, i3);
+        PhaseInterceptorChain chain = cfg.getInChainCache().get(pm.getInPhases(), i1, i2, i3);
         chain.add(new ClientResponseFilterInterceptor());
         return chain;
     }
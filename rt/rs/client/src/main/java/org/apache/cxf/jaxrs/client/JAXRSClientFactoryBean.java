@@ -369,8 +369,6 @@ public class JAXRSClientFactoryBean extends AbstractJAXRSFactoryBean {
         client.getConfiguration().getInInterceptors().addAll(ep.getInInterceptors());
         client.getConfiguration().getInFaultInterceptors().addAll(getInFaultInterceptors());
 
-        applyFeatures(client);
-        
         if (headers != null && addHeaders) {
             client.headers(headers);
         }
@@ -398,6 +396,8 @@ public class JAXRSClientFactoryBean extends AbstractJAXRSFactoryBean {
             
             });
         }
+        // the features may register the providers
+        applyFeatures(client);
     }
     
     protected void applyFeatures(AbstractClient client) {
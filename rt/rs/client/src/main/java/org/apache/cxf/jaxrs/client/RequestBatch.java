@@ -0,0 +1,268 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.client;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.Response;
+
+/**
+ * Executes a batch of requests relative to the current URI of a WebClient.
+ * All the requests share the configuration, the conduit and the prepared 
+ * interceptor chains of the originating client, at most the given number 
+ * of requests is in flight at any time and the next pending request is sent 
+ * as soon as one of the active ones completes.
+ * <p>
+ * The futures returned from the add methods can be used to correlate the
+ * results, invoke() returns the same futures in the order they complete.
+ * Note the requests are executed asynchronously, so the shared conduit should
+ * support the asynchronous invocations, for example, AsyncHTTPConduit.  
+ */
+public class RequestBatch {
+    private final WebClient client;
+    private final int maxConcurrentRequests;
+    private final Queue<BatchRequest> pending = new ConcurrentLinkedQueue<BatchRequest>();
+    private final BlockingQueue<Future<Response>> completed = new LinkedBlockingQueue<Future<Response>>();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+    private final AtomicBoolean invoked = new AtomicBoolean();
+    private int size;
+    
+    RequestBatch(WebClient client, int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("At least one concurrent request is required");
+        }
+        this.client = client;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+    
+    /**
+     * Adds a request without a body to the current URI
+     * @param httpMethod the HTTP method
+     * @return the future response
+     */
+    public Future<Response> add(String httpMethod) {
+        return add(httpMethod, null, null);
+    }
+    
+    /**
+     * Adds a request without a body 
+     * @param httpMethod the HTTP method
+     * @param path the path relative to the current URI, can be null
+     * @return the future response
+     */
+    public Future<Response> add(String httpMethod, String path) {
+        return add(httpMethod, path, null);
+    }
+    
+    /**
+     * Adds a request 
+     * @param httpMethod the HTTP method
+     * @param path the path relative to the current URI, can be null
+     * @param body the request body, can be an Entity, can be null
+     * @return the future response
+     */
+    public Future<Response> add(String httpMethod, String path, Object body) {
+        if (invoked.get()) {
+            throw new IllegalStateException("The batch has already been invoked");
+        }
+        WebClient wc = WebClient.fromClient(client, true);
+        if (path != null) {
+            wc.path(path);
+        }
+        BatchRequest request = new BatchRequest(wc, httpMethod, body);
+        pending.add(request);
+        size++;
+        return request;
+    }
+    
+    /**
+     * Returns the number of the requests in this batch
+     * @return the number of requests
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Starts sending the requests. 
+     * @return the iterator over the future responses in the order they complete,
+     *         next() blocks until the next response is available 
+     */
+    public Iterator<Future<Response>> invoke() {
+        if (!invoked.compareAndSet(false, true)) {
+            throw new IllegalStateException("The batch has already been invoked");
+        }
+        final int total = size;
+        dispatch();
+        return new Iterator<Future<Response>>() {
+            private int count;
+            
+            public boolean hasNext() {
+                return count < total;
+            }
+
+            public Future<Response> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Future<Response> next = completed.take();
+                    count++;
+                    return next;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new ProcessingException(ex);
+                }
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+    
+    private void dispatch() {
+        // Only a single thread sends the requests at a time, completions which happen 
+        // while it is sending just make it check again instead of recursing into dispatch
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (missed != 0) {
+            while (activeRequests.get() < maxConcurrentRequests) {
+                BatchRequest request = pending.poll();
+                if (request == null) {
+                    break;
+                }
+                activeRequests.incrementAndGet();
+                request.send();
+            }
+            missed = dispatchRequests.addAndGet(-missed);
+        }
+    }
+    
+    private void onCompletion(BatchRequest request) {
+        completed.add(request);
+        if (request.sent) {
+            activeRequests.decrementAndGet();
+            dispatch();
+        }
+    }
+    
+    private class BatchRequest implements Future<Response>, InvocationCallback<Response> {
+        private final WebClient wc;
+        private final String httpMethod;
+        private final Object body;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile boolean sent;
+        private volatile Future<Response> inflight;
+        private volatile Response response;
+        private volatile Throwable exception;
+        
+        BatchRequest(WebClient wc, String httpMethod, Object body) {
+            this.wc = wc;
+            this.httpMethod = httpMethod;
+            this.body = body;
+        }
+        
+        void send() {
+            sent = true;
+            try {
+                Class<?> requestClass = body == null ? null : body.getClass();
+                inflight = wc.doInvokeAsync(httpMethod, body, requestClass, requestClass, 
+                                            Response.class, Response.class, this);
+            } catch (RuntimeException ex) {
+                failed(ex);
+            }
+        }
+        
+        public void completed(Response r) {
+            complete(r, null);
+        }
+
+        public void failed(Throwable t) {
+            complete(null, t);
+        }
+        
+        private void complete(Response r, Throwable t) {
+            if (finished.compareAndSet(false, true)) {
+                response = r;
+                exception = t;
+                done.countDown();
+                onCompletion(this);
+            }
+        }
+        
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (pending.remove(this)) {
+                failed(new CancellationException());
+                return true;
+            }
+            Future<Response> f = inflight;
+            return f != null && !isDone() && f.cancel(mayInterruptIfRunning);
+        }
+
+        public boolean isCancelled() {
+            return exception instanceof CancellationException;
+        }
+
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        public Response get() throws InterruptedException, ExecutionException {
+            done.await();
+            return getResponse();
+        }
+
+        public Response get(long timeout, TimeUnit unit) 
+            throws InterruptedException, ExecutionException, TimeoutException {
+            if (!done.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return getResponse();
+        }
+        
+        private Response getResponse() throws ExecutionException {
+            if (exception instanceof CancellationException) {
+                throw (CancellationException)exception;
+            } else if (exception != null) {
+                throw new ExecutionException(exception);
+            }
+            return response;
+        }
+    }
+}
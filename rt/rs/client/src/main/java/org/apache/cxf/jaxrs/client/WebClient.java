@@ -1304,6 +1304,16 @@ public class WebClient extends AbstractClient {
         return new SyncInvokerImpl();
     }
     
+    /**
+     * Creates a batch of requests relative to the current URI, the requests
+     * will share the configuration, the conduit and the headers of this client 
+     * @param maxConcurrentRequests the maximum number of requests in flight
+     * @return the batch
+     */
+    public RequestBatch batch(int maxConcurrentRequests) {
+        return new RequestBatch(this, maxConcurrentRequests);
+    }
+    
     class ClientAsyncResponseInterceptor extends AbstractPhaseInterceptor<Message> {
         public ClientAsyncResponseInterceptor() {
             super(Phase.UNMARSHAL);
@@ -24,7 +24,9 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Priority;
@@ -44,6 +46,7 @@ import org.apache.cxf.transport.http.Headers;
 
 @Priority(Priorities.USER - 1)
 public class CacheControlClientReaderInterceptor implements ReaderInterceptor {
+    private static final String ANY_VARY_HEADER = "*";
     private Cache<Key, Entry> cache;
 
     @Context
@@ -88,10 +91,12 @@ public class CacheControlClientReaderInterceptor implements ReaderInterceptor {
         }
         final MultivaluedMap<String, String> responseHeaders = context.getHeaders(); 
         final String cacheControlHeader = responseHeaders.getFirst(HttpHeaders.CACHE_CONTROL);
-        final CacheControl cacheControl = CacheControl.valueOf(cacheControlHeader.toString());
+        final CacheControl cacheControl = 
+            cacheControlHeader == null ? null : CacheControl.valueOf(cacheControlHeader);
         
         byte[] cachedBytes = null;
-        final boolean validCacheControl = isCacheControlValid(context, cacheControl);
+        final boolean validCacheControl = isCacheControlValid(context, cacheControl)
+            && !ANY_VARY_HEADER.equals(responseHeaders.getFirst(HttpHeaders.VARY));
         if (validCacheControl && cacheResponseInputStream) {
             // if Cache-Control is set and the stream needs to be cached then do it
             cachedBytes = IOUtils.readBytesFromStream((InputStream)context.getInputStream());
@@ -108,14 +113,16 @@ public class CacheControlClientReaderInterceptor implements ReaderInterceptor {
         if (expiry == -1) {
             //TODO: Review if Expires can be supported as an alternative to Cache-Control
             String expiresHeader = responseHeaders.getFirst(HttpHeaders.EXPIRES);
-            if (expiresHeader.startsWith("'") && expiresHeader.endsWith("'")) {
-                expiresHeader = expiresHeader.substring(1, expiresHeader.length() - 1);
-            }
-            try {
-                expiry = (Headers.getHttpDateFormat().parse(expiresHeader).getTime() 
-                    - System.currentTimeMillis()) / 1000;
-            } catch (final ParseException e) {
-                // TODO: Revisit the possibility of supporting multiple formats 
+            if (expiresHeader != null) {
+                if (expiresHeader.startsWith("'") && expiresHeader.endsWith("'")) {
+                    expiresHeader = expiresHeader.substring(1, expiresHeader.length() - 1);
+                }
+                try {
+                    expiry = (Headers.getHttpDateFormat().parse(expiresHeader).getTime() 
+                        - System.currentTimeMillis()) / 1000;
+                } catch (final ParseException e) {
+                    // TODO: Revisit the possibility of supporting multiple formats 
+                }
             }
         }
         Serializable ser = null;
@@ -138,6 +145,7 @@ public class CacheControlClientReaderInterceptor implements ReaderInterceptor {
         if (ser != null) { 
             final Entry entry = 
                 new Entry(ser, responseHeaders, computeCacheHeaders(responseHeaders), expiry);
+            entry.setVaryHeaders(computeVaryHeaders(context, responseHeaders));
             final URI uri = uriInfo.getRequestUri();
             final String accepts = (String)context.getProperty(CacheControlClientRequestFilter.CLIENT_ACCEPTS);
             cache.put(new Key(uri, accepts), entry);
@@ -145,7 +153,44 @@ public class CacheControlClientReaderInterceptor implements ReaderInterceptor {
         return responseEntity;
     }
 
-    private Map<String, String> computeCacheHeaders(final MultivaluedMap<String, String> responseHeaders) {
+    private Map<String, String> computeVaryHeaders(final ReaderInterceptorContext context,
+                                                   final MultivaluedMap<String, String> responseHeaders) {
+        final List<String> vary = responseHeaders.get(HttpHeaders.VARY);
+        if (vary == null || vary.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        @SuppressWarnings("unchecked")
+        final MultivaluedMap<String, String> requestHeaders = (MultivaluedMap<String, String>)
+            context.getProperty(CacheControlClientRequestFilter.CLIENT_HEADERS);
+        final Map<String, String> varyHeaders = new HashMap<String, String>();
+        for (String value : vary) {
+            for (String name : value.split(",")) {
+                name = name.trim();
+                if (!name.isEmpty()) {
+                    varyHeaders.put(name, requestHeaders == null ? null : getHeaderString(requestHeaders, name));
+                }
+            }
+        }
+        return varyHeaders;
+    }
+    
+    private static String getHeaderString(final MultivaluedMap<String, String> headers, final String name) {
+        for (Map.Entry<String, List<String>> h : headers.entrySet()) {
+            if (h.getKey().equalsIgnoreCase(name)) {
+                StringBuilder sb = new StringBuilder();
+                for (String value : h.getValue()) {
+                    if (sb.length() > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(value);
+                }
+                return sb.toString();
+            }
+        }
+        return null;
+    }
+
+    static Map<String, String> computeCacheHeaders(final MultivaluedMap<String, String> responseHeaders) {
         final Map<String, String> cacheHeaders = new HashMap<String, String>(2);
 
         final String etagHeader = responseHeaders.getFirst(HttpHeaders.ETAG);
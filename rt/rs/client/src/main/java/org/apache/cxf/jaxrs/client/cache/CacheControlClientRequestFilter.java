@@ -29,6 +29,7 @@ import javax.ws.rs.HttpMethod;
 import javax.ws.rs.Priorities;
 import javax.ws.rs.client.ClientRequestContext;
 import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
@@ -38,6 +39,9 @@ public class CacheControlClientRequestFilter implements ClientRequestFilter {
     static final String CACHED_ENTITY_PROPERTY = "client_cached_entity";
     static final String CLIENT_ACCEPTS = "client_accepts";
     static final String CLIENT_CACHE_CONTROL = "client_cache_control";
+    static final String CLIENT_HEADERS = "client_headers";
+    static final String REVALIDATED_KEY_PROPERTY = "client_revalidated_key";
+    static final String REVALIDATED_ENTRY_PROPERTY = "client_revalidated_entry";
     private Cache<Key, Entry> cache;
 
     public CacheControlClientRequestFilter(final Cache<Key, Entry> cache) {
@@ -56,15 +60,24 @@ public class CacheControlClientRequestFilter implements ClientRequestFilter {
             request.setProperty(NO_CACHE_PROPERTY, "true");
             return;
         }
+        final String clientCacheControl = request.getHeaderString(HttpHeaders.CACHE_CONTROL);
+        final CacheControl clientControl = 
+            clientCacheControl == null ? null : CacheControl.valueOf(clientCacheControl);
+        if (clientControl != null && clientControl.isNoStore()) {
+            request.setProperty(NO_CACHE_PROPERTY, "true");
+            return;
+        }
         final URI uri = request.getUri();
         final String accepts = request.getHeaderString(HttpHeaders.ACCEPT);
         final Key key = new Key(uri, accepts);
         Entry entry = cache.get(key);
-        if (entry != null) {
+        if (entry != null && isVaryMatched(request, entry)) {
             //TODO: do the extra validation against the conditional headers
             //      which may be contained in the current request
-            if (entry.isOutDated()) {
-                cache.remove(key, entry);
+            if (entry.isOutDated() || clientControl != null && clientControl.isNoCache()) {
+                if (!revalidate(request, key, entry)) {
+                    cache.remove(key, entry);
+                }
             } else {
                 Object cachedEntity = entry.getData();
                 Response.ResponseBuilder ok = Response.ok(cachedEntity);
@@ -81,7 +94,37 @@ public class CacheControlClientRequestFilter implements ClientRequestFilter {
         }
         // Should the map of all request headers shared ?
         request.setProperty(CLIENT_ACCEPTS, accepts);
-        request.setProperty(CLIENT_CACHE_CONTROL, request.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        request.setProperty(CLIENT_CACHE_CONTROL, clientCacheControl);
+        request.setProperty(CLIENT_HEADERS, request.getStringHeaders());
+    }
+
+    private boolean revalidate(final ClientRequestContext request, final Key key, final Entry entry) {
+        // the stale entry can only be reused if the server confirms it with 304
+        final Map<String, String> cacheHeaders = entry.getCacheHeaders();
+        if (cacheHeaders == null || cacheHeaders.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, String> h : cacheHeaders.entrySet()) {
+            if (!request.getHeaders().containsKey(h.getKey())) {
+                request.getHeaders().putSingle(h.getKey(), h.getValue());
+            }
+        }
+        request.setProperty(REVALIDATED_KEY_PROPERTY, key);
+        request.setProperty(REVALIDATED_ENTRY_PROPERTY, entry);
+        return true;
+    }
+    
+    private static boolean isVaryMatched(final ClientRequestContext request, final Entry entry) {
+        final Map<String, String> varyHeaders = entry.getVaryHeaders();
+        if (varyHeaders != null) {
+            for (Map.Entry<String, String> h : varyHeaders.entrySet()) {
+                String value = request.getHeaderString(h.getKey());
+                if (value == null ? h.getValue() != null : !value.equals(h.getValue())) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     public CacheControlClientRequestFilter setCache(final Cache<Key, Entry> c) {
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.client.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Priority;
+import javax.cache.Cache;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+/**
+ * Completes the revalidation of the stale cache entries started by 
+ * {@link CacheControlClientRequestFilter}: 304 refreshes the entry and 
+ * is turned into 200 with the cached entity, any other response drops 
+ * the entry.  
+ */
+@Priority(Priorities.USER - 1)
+public class CacheControlClientResponseFilter implements ClientResponseFilter {
+    private Cache<Key, Entry> cache;
+
+    public CacheControlClientResponseFilter(final Cache<Key, Entry> cache) {
+        setCache(cache);
+    }
+
+    public CacheControlClientResponseFilter() {
+        // no-op: use setCache then
+    }
+
+    @Override
+    public void filter(final ClientRequestContext request, final ClientResponseContext response) 
+        throws IOException {
+        final Entry entry = (Entry)request.getProperty(CacheControlClientRequestFilter.REVALIDATED_ENTRY_PROPERTY);
+        if (entry == null) {
+            return;
+        }
+        final Key key = (Key)request.getProperty(CacheControlClientRequestFilter.REVALIDATED_KEY_PROPERTY);
+        if (response.getStatus() != Response.Status.NOT_MODIFIED.getStatusCode()) {
+            // the new representation will be cached by the reader interceptor if allowed 
+            cache.remove(key, entry);
+            return;
+        }
+        
+        // 304 carries the updated validators and freshness information only
+        final MultivaluedMap<String, String> headers = response.getHeaders();
+        if (entry.getHeaders() != null) {
+            for (Map.Entry<String, List<String>> h : entry.getHeaders().entrySet()) {
+                if (!headers.containsKey(h.getKey())) {
+                    headers.put(h.getKey(), h.getValue());
+                }
+            }
+        }
+        final String cacheControlHeader = headers.getFirst(HttpHeaders.CACHE_CONTROL);
+        final CacheControl cacheControl = 
+            cacheControlHeader == null ? null : CacheControl.valueOf(cacheControlHeader);
+        if (cacheControl != null && cacheControl.isNoStore()) {
+            cache.remove(key, entry);
+        } else {
+            if (cacheControl != null && cacheControl.getMaxAge() != -1) {
+                entry.setExpiresValue(cacheControl.getMaxAge());
+            }
+            entry.setHeaders(headers);
+            entry.setCacheHeaders(CacheControlClientReaderInterceptor.computeCacheHeaders(headers));
+            entry.setInitialTimestamp(System.currentTimeMillis());
+            cache.put(key, entry);
+        }
+        
+        request.setProperty(CacheControlClientRequestFilter.CACHED_ENTITY_PROPERTY, entry.getData());
+        response.setStatus(Response.Status.OK.getStatusCode());
+        response.setEntityStream(new ByteArrayInputStream(new byte[0]));
+    }
+
+    public CacheControlClientResponseFilter setCache(final Cache<Key, Entry> c) {
+        this.cache = c;
+        return this;
+    }
+}
@@ -22,11 +22,14 @@ import java.io.Closeable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.logging.Logger;
 
 import javax.annotation.PreDestroy;
 import javax.cache.Cache;
+import javax.cache.CacheException;
 import javax.cache.CacheManager;
 import javax.cache.Caching;
 import javax.cache.configuration.Factory;
@@ -38,23 +41,65 @@ import javax.cache.spi.CachingProvider;
 import javax.ws.rs.core.Feature;
 import javax.ws.rs.core.FeatureContext;
 
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.feature.AbstractFeature;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.jaxrs.client.ClientConfiguration;
+import org.apache.cxf.jaxrs.client.ClientProviderFactory;
 
-
-public class CacheControlFeature implements Feature {
+/**
+ * Enables the client side HTTP cache. It can be registered as a JAX-RS Feature 
+ * with the JAX-RS 2.0 Client API or set as a CXF feature on WebClient and 
+ * proxy client factory beans.
+ * <p>
+ * The entries are kept by a JCache provider if one is available, otherwise 
+ * by an on-heap LRU cache. A custom cache, for example, one backed by an 
+ * off-heap or disk store, can be set directly.
+ */
+public class CacheControlFeature extends AbstractFeature implements Feature {
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final Logger LOG = LogUtils.getL7dLogger(CacheControlFeature.class);
+    
     private CachingProvider provider;
     private CacheManager manager;
     private Cache<Key, Entry> cache;
+    private Cache<Key, Entry> customCache;
     private boolean cacheResponseInputStream;
+    private boolean inMemoryCache;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
     
     @Override
     public boolean configure(final FeatureContext context) {
         // TODO: read context properties to exclude some patterns?
-        final Cache<Key, Entry> entryCache = createCache(context.getConfiguration().getProperties());
-        context.register(new CacheControlClientRequestFilter(entryCache));
+        for (Object p : createProviders(context.getConfiguration().getProperties())) {
+            context.register(p);
+        }
+        return true;
+    }
+    
+    @Override
+    protected void initializeProvider(InterceptorProvider interceptorProvider, Bus bus) {
+        // WebClient and proxies are configured with ClientConfiguration
+        if (interceptorProvider instanceof ClientConfiguration) {
+            Endpoint ep = ((ClientConfiguration)interceptorProvider).getEndpoint();
+            ClientProviderFactory factory = ep == null ? null : ClientProviderFactory.getInstance(ep);
+            if (factory != null) {
+                factory.setUserProviders(createProviders(ep));
+                return;
+            }
+        }
+        LOG.warning("CacheControlFeature can only be applied to JAX-RS clients");
+    }
+    
+    private List<Object> createProviders(final Map<String, Object> properties) {
+        final Cache<Key, Entry> entryCache = customCache != null ? customCache : createCache(properties);
         CacheControlClientReaderInterceptor reader = new CacheControlClientReaderInterceptor(entryCache);
         reader.setCacheResponseInputStream(cacheResponseInputStream);
-        context.register(reader);
-        return true;
+        return Arrays.<Object>asList(new CacheControlClientRequestFilter(entryCache), 
+                                     new CacheControlClientResponseFilter(entryCache),
+                                     reader);
     }
 
     @PreDestroy // TODO: check it is called
@@ -80,7 +125,18 @@ public class CacheControlFeature implements Feature {
 
         final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 
-        provider = Caching.getCachingProvider();
+        if (!inMemoryCache) {
+            try {
+                provider = Caching.getCachingProvider();
+            } catch (final CacheException e) {
+                LOG.fine("No JCache provider is available, using the in-memory cache");
+            }
+        }
+        if (provider == null) {
+            final String max = props.getProperty(prefix + "maxEntries");
+            cache = new LruCache<Key, Entry>(name, max == null ? maxEntries : Integer.parseInt(max));
+            return cache;
+        }
         try {
             manager = provider.getCacheManager(
                     uri == null ? provider.getDefaultURI() : new URI(uri),
@@ -134,4 +190,30 @@ public class CacheControlFeature implements Feature {
     public void setCacheResponseInputStream(boolean cacheStream) {
         this.cacheResponseInputStream = cacheStream;
     }
+
+    /**
+     * Sets the cache which will keep the entries, the cache 
+     * is not closed when this feature is closed
+     * @param c the cache
+     */
+    public void setCache(Cache<Key, Entry> c) {
+        this.customCache = c;
+    }
+    
+    /**
+     * Forces the use of the in-memory LRU cache even if a JCache provider
+     * is available
+     * @param inMemory true if the in-memory cache is used
+     */
+    public void setInMemoryCache(boolean inMemory) {
+        this.inMemoryCache = inMemory;
+    }
+    
+    /**
+     * Sets the maximum number of entries kept by the in-memory cache
+     * @param maxEntries the maximum number of entries
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
 }
@@ -27,6 +27,7 @@ import javax.ws.rs.core.MultivaluedMap;
 public class Entry implements Serializable {
     private static final long serialVersionUID = -3551501551331222546L;
     private Map<String, String> cacheHeaders = Collections.emptyMap();
+    private Map<String, String> varyHeaders = Collections.emptyMap();
     private Serializable data;
     private MultivaluedMap<String, String> headers;
     private long expiresValue;
@@ -56,6 +57,14 @@ public class Entry implements Serializable {
         this.cacheHeaders = cacheHeaders;
     }
 
+    public Map<String, String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    public void setVaryHeaders(final Map<String, String> varyHeaders) {
+        this.varyHeaders = varyHeaders;
+    }
+
     public Serializable getData() {
         return data;
     }
@@ -0,0 +1,522 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.client.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.CacheEntryListenerConfiguration;
+import javax.cache.configuration.Configuration;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryEventFilter;
+import javax.cache.event.CacheEntryListener;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+import javax.cache.event.EventType;
+import javax.cache.integration.CompletionListener;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Simple on-heap cache which keeps up to the given number of the entries 
+ * and evicts the least recently used ones. It is used by CacheControlFeature 
+ * when no JCache provider is available, the providers offering off-heap 
+ * or disk stores can be used instead. 
+ * <p/>
+ * The cache is not managed by a CacheManager and has no loader or writer, 
+ * entry processors run under the cache lock and the listeners are notified 
+ * synchronously of the created, updated and removed entries. Evicted entries 
+ * are not reported, JCache has no event for them.
+ */
+public class LruCache<K, V> implements Cache<K, V> {
+    private final String name;
+    private final int maxEntries;
+    private final Map<K, V> entries;
+    private final MutableConfiguration<K, V> configuration = new MutableConfiguration<K, V>();
+    private final List<Registration<K, V>> registrations = new CopyOnWriteArrayList<Registration<K, V>>();
+    private volatile boolean closed;
+    
+    public LruCache(String name, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = -1838394557284185297L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+    
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    @Override
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized Map<K, V> getAll(Set<? extends K> keys) {
+        Map<K, V> result = new HashMap<K, V>();
+        for (K key : keys) {
+            V value = entries.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public void loadAll(Set<? extends K> keys, boolean replaceExistingValues, CompletionListener listener) {
+        if (keys == null) {
+            throw new NullPointerException("keys");
+        }
+        // there is no CacheLoader, nothing has to be loaded
+        if (listener != null) {
+            listener.onCompletion();
+        }
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        doPut(key, value);
+    }
+
+    @Override
+    public synchronized V getAndPut(K key, V value) {
+        return doPut(key, value);
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends K, ? extends V> map) {
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            doPut(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public synchronized boolean putIfAbsent(K key, V value) {
+        if (entries.containsKey(key)) {
+            return false;
+        }
+        doPut(key, value);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(K key) {
+        return doRemove(key) != null;
+    }
+
+    @Override
+    public synchronized boolean remove(K key, V oldValue) {
+        V value = entries.get(key);
+        if (value != null && value.equals(oldValue)) {
+            doRemove(key);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized V getAndRemove(K key) {
+        return doRemove(key);
+    }
+
+    @Override
+    public synchronized boolean replace(K key, V oldValue, V newValue) {
+        V value = entries.get(key);
+        if (value != null && value.equals(oldValue)) {
+            doPut(key, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean replace(K key, V value) {
+        if (entries.containsKey(key)) {
+            doPut(key, value);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized V getAndReplace(K key, V value) {
+        return entries.containsKey(key) ? doPut(key, value) : null;
+    }
+
+    @Override
+    public synchronized void removeAll(Set<? extends K> keys) {
+        for (K key : keys) {
+            doRemove(key);
+        }
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        if (registrations.isEmpty()) {
+            entries.clear();
+        } else {
+            for (K key : new ArrayList<K>(entries.keySet())) {
+                doRemove(key);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public <C extends Configuration<K, V>> C getConfiguration(Class<C> clazz) {
+        if (clazz.isInstance(configuration)) {
+            return clazz.cast(configuration);
+        }
+        throw new IllegalArgumentException("Unsupported configuration type " + clazz.getName());
+    }
+
+    @Override
+    public synchronized <T> T invoke(K key, EntryProcessor<K, V, T> processor, Object... arguments) {
+        if (key == null || processor == null) {
+            throw new NullPointerException();
+        }
+        ProcessorEntry entry = new ProcessorEntry(key, entries.get(key));
+        T result;
+        try {
+            result = processor.process(entry, arguments);
+        } catch (EntryProcessorException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new EntryProcessorException(ex);
+        }
+        entry.apply();
+        return result;
+    }
+
+    @Override
+    public synchronized <T> Map<K, EntryProcessorResult<T>> invokeAll(Set<? extends K> keys, 
+                                                                      EntryProcessor<K, V, T> processor, 
+                                                                      Object... arguments) {
+        Map<K, EntryProcessorResult<T>> results = new HashMap<K, EntryProcessorResult<T>>();
+        for (K key : keys) {
+            try {
+                T result = invoke(key, processor, arguments);
+                if (result != null) {
+                    results.put(key, new ProcessorResult<T>(result, null));
+                }
+            } catch (EntryProcessorException ex) {
+                results.put(key, new ProcessorResult<T>(null, ex));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return null, the cache is not managed
+     */
+    @Override
+    public CacheManager getCacheManager() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        clear();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+        if (clazz.isInstance(this)) {
+            return clazz.cast(this);
+        }
+        throw new IllegalArgumentException("Unsupported type " + clazz.getName());
+    }
+
+    @Override
+    public synchronized void registerCacheEntryListener(
+        CacheEntryListenerConfiguration<K, V> listenerConfiguration) {
+        // rejects a configuration registered already
+        configuration.addCacheEntryListenerConfiguration(listenerConfiguration);
+        registrations.add(new Registration<K, V>(listenerConfiguration));
+    }
+
+    @Override
+    public synchronized void deregisterCacheEntryListener(
+        CacheEntryListenerConfiguration<K, V> listenerConfiguration) {
+        configuration.removeCacheEntryListenerConfiguration(listenerConfiguration);
+        for (Registration<K, V> r : registrations) {
+            if (r.configuration.equals(listenerConfiguration)) {
+                registrations.remove(r);
+            }
+        }
+    }
+
+    @Override
+    public synchronized Iterator<Cache.Entry<K, V>> iterator() {
+        // iterate over a snapshot to let the entries be updated concurrently
+        List<Cache.Entry<K, V>> snapshot = new ArrayList<Cache.Entry<K, V>>(entries.size());
+        for (Map.Entry<K, V> e : entries.entrySet()) {
+            snapshot.add(new CacheEntry<K, V>(e.getKey(), e.getValue()));
+        }
+        return snapshot.iterator();
+    }
+    
+    private V doPut(K key, V value) {
+        V oldValue = entries.put(key, value);
+        if (!registrations.isEmpty()) {
+            notifyListeners(oldValue == null ? EventType.CREATED : EventType.UPDATED, key, value, oldValue);
+        }
+        return oldValue;
+    }
+    
+    private V doRemove(K key) {
+        V oldValue = entries.remove(key);
+        if (oldValue != null && !registrations.isEmpty()) {
+            notifyListeners(EventType.REMOVED, key, oldValue, oldValue);
+        }
+        return oldValue;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void notifyListeners(EventType type, K key, V value, V oldValue) {
+        for (Registration<K, V> r : registrations) {
+            CacheEntryEvent<K, V> event = new EntryEvent<K, V>(this, type, key, value, oldValue);
+            if (r.filter != null && !((CacheEntryEventFilter<K, V>)r.filter).evaluate(event)) {
+                continue;
+            }
+            List<CacheEntryEvent<? extends K, ? extends V>> events = 
+                Collections.<CacheEntryEvent<? extends K, ? extends V>>singletonList(event);
+            if (type == EventType.CREATED && r.listener instanceof CacheEntryCreatedListener) {
+                ((CacheEntryCreatedListener<K, V>)r.listener).onCreated(events);
+            } else if (type == EventType.UPDATED && r.listener instanceof CacheEntryUpdatedListener) {
+                ((CacheEntryUpdatedListener<K, V>)r.listener).onUpdated(events);
+            } else if (type == EventType.REMOVED && r.listener instanceof CacheEntryRemovedListener) {
+                ((CacheEntryRemovedListener<K, V>)r.listener).onRemoved(events);
+            }
+        }
+    }
+    
+    /**
+     * The entry an EntryProcessor works on, the changes are applied once the processor returns
+     */
+    private final class ProcessorEntry implements MutableEntry<K, V> {
+        private final K key;
+        private V value;
+        private boolean modified;
+        
+        ProcessorEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+        
+        @Override
+        public K getKey() {
+            return key;
+        }
+        
+        @Override
+        public V getValue() {
+            return value;
+        }
+        
+        @Override
+        public boolean exists() {
+            return value != null;
+        }
+        
+        @Override
+        public void remove() {
+            value = null;
+            modified = true;
+        }
+        
+        @Override
+        public void setValue(V v) {
+            if (v == null) {
+                throw new NullPointerException("value");
+            }
+            value = v;
+            modified = true;
+        }
+        
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+            if (clazz.isInstance(this)) {
+                return clazz.cast(this);
+            }
+            throw new IllegalArgumentException("Unsupported type " + clazz.getName());
+        }
+        
+        void apply() {
+            if (modified) {
+                if (value == null) {
+                    doRemove(key);
+                } else {
+                    doPut(key, value);
+                }
+            }
+        }
+    }
+    
+    private static class ProcessorResult<T> implements EntryProcessorResult<T> {
+        private final T value;
+        private final EntryProcessorException exception;
+        
+        ProcessorResult(T value, EntryProcessorException exception) {
+            this.value = value;
+            this.exception = exception;
+        }
+        
+        @Override
+        public T get() {
+            if (exception != null) {
+                throw exception;
+            }
+            return value;
+        }
+    }
+    
+    private static class Registration<K, V> {
+        private final CacheEntryListenerConfiguration<K, V> configuration;
+        private final CacheEntryListener<? super K, ? super V> listener;
+        private final CacheEntryEventFilter<? super K, ? super V> filter;
+        
+        Registration(CacheEntryListenerConfiguration<K, V> configuration) {
+            this.configuration = configuration;
+            this.listener = configuration.getCacheEntryListenerFactory().create();
+            Factory<CacheEntryEventFilter<? super K, ? super V>> filterFactory = 
+                configuration.getCacheEntryEventFilterFactory();
+            this.filter = filterFactory == null ? null : filterFactory.create();
+        }
+    }
+    
+    private static class EntryEvent<K, V> extends CacheEntryEvent<K, V> {
+        private static final long serialVersionUID = 4508437165213460787L;
+        private final transient K key;
+        private final transient V value;
+        private final transient V oldValue;
+        
+        EntryEvent(Cache<K, V> source, EventType type, K key, V value, V oldValue) {
+            super(source, type);
+            this.key = key;
+            this.value = value;
+            this.oldValue = oldValue;
+        }
+        
+        @Override
+        public K getKey() {
+            return key;
+        }
+        
+        @Override
+        public V getValue() {
+            return value;
+        }
+        
+        @Override
+        public V getOldValue() {
+            return oldValue;
+        }
+        
+        @Override
+        public boolean isOldValueAvailable() {
+            return oldValue != null;
+        }
+        
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+            if (clazz.isInstance(this)) {
+                return clazz.cast(this);
+            }
+            throw new IllegalArgumentException("Unsupported type " + clazz.getName());
+        }
+    }
+    
+    private static class CacheEntry<K, V> implements Cache.Entry<K, V> {
+        private final K key;
+        private final V value;
+        
+        CacheEntry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+        
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+            if (clazz.isInstance(this)) {
+                return clazz.cast(this);
+            }
+            throw new IllegalArgumentException("Unsupported type " + clazz.getName());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.client;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.apache.cxf.transport.local.LocalTransportFactory;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RequestBatchTest extends Assert {
+    public static final String ADDRESS = "local://batch";
+    private static final long TIMEOUT = 10;
+    private static Server server;
+    private static HoldingServer resource = new HoldingServer();
+
+    @BeforeClass
+    public static void bind() throws Exception {
+        final JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
+        sf.setResourceClasses(HoldingServer.class);
+        sf.setResourceProvider(HoldingServer.class, new SingletonResourceProvider(resource, false));
+        sf.setTransportId(LocalTransportFactory.TRANSPORT_ID);
+        sf.setAddress(ADDRESS);
+        server = sf.create();
+    }
+
+    @AfterClass
+    public static void unbind() throws Exception {
+        resource.releaseAll();
+        server.stop();
+        server.destroy();
+    }
+
+    @Test
+    public void testConcurrencyBoundAndCompletionOrder() throws Exception {
+        WebClient wc = WebClient.create(ADDRESS).accept("text/plain");
+        RequestBatch batch = wc.batch(2);
+        Future<Response> f1 = batch.add("GET", "1");
+        Future<Response> f2 = batch.add("GET", "2");
+        Future<Response> f3 = batch.add("GET", "3");
+        Future<Response> f4 = batch.add("GET", "4");
+        assertEquals(4, batch.size());
+
+        Iterator<Future<Response>> it = batch.invoke();
+
+        // only the first two requests are sent while both are held by the server
+        assertArrived("1", "2");
+        assertNull(resource.arrived.poll(200, TimeUnit.MILLISECONDS));
+        assertFalse(f1.isDone());
+        assertFalse(f2.isDone());
+
+        // completing one request sends the next pending one
+        resource.release("2");
+        assertSame(f2, it.next());
+        assertEquals("2", f2.get(TIMEOUT, TimeUnit.SECONDS).readEntity(String.class));
+        assertArrived("3");
+        assertNull(resource.arrived.poll(200, TimeUnit.MILLISECONDS));
+
+        resource.release("1");
+        assertSame(f1, it.next());
+        assertEquals("1", f1.get(TIMEOUT, TimeUnit.SECONDS).readEntity(String.class));
+        assertArrived("4");
+
+        // the results are returned in the order the requests complete, not the order they were added
+        resource.release("4");
+        assertSame(f4, it.next());
+        resource.release("3");
+        assertSame(f3, it.next());
+        assertFalse(it.hasNext());
+        assertEquals("4", f4.get(TIMEOUT, TimeUnit.SECONDS).readEntity(String.class));
+        assertEquals("3", f3.get(TIMEOUT, TimeUnit.SECONDS).readEntity(String.class));
+
+        assertEquals(2, resource.maxActive.get());
+        assertEquals(0, resource.active.get());
+    }
+
+    private static void assertArrived(String... ids) throws InterruptedException {
+        for (String id : ids) {
+            String arrived = resource.arrived.poll(TIMEOUT, TimeUnit.SECONDS);
+            assertNotNull("Request " + id + " has not been sent", arrived);
+            assertTrue("Unexpected request " + arrived, Arrays.asList(ids).contains(arrived));
+        }
+    }
+
+    @Path("/")
+    public static class HoldingServer {
+        private final BlockingQueue<String> arrived = new LinkedBlockingQueue<String>();
+        private final ConcurrentMap<String, CountDownLatch> latches = new ConcurrentHashMap<String, CountDownLatch>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+
+        @GET
+        @Path("{id}")
+        @Produces("text/plain")
+        public String hold(@PathParam("id") String id) throws InterruptedException {
+            int current = active.incrementAndGet();
+            while (true) {
+                int max = maxActive.get();
+                if (current <= max || maxActive.compareAndSet(max, current)) {
+                    break;
+                }
+            }
+            try {
+                arrived.add(id);
+                latch(id).await(TIMEOUT, TimeUnit.SECONDS);
+                return id;
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        void release(String id) {
+            latch(id).countDown();
+        }
+
+        void releaseAll() {
+            for (CountDownLatch latch : latches.values()) {
+                latch.countDown();
+            }
+        }
+
+        private CountDownLatch latch(String id) {
+            CountDownLatch latch = new CountDownLatch(1);
+            CountDownLatch existing = latches.putIfAbsent(id, latch);
+            return existing == null ? latch : existing;
+        }
+    }
+}
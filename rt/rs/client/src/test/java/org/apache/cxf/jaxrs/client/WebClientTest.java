@@ -23,7 +23,12 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
 
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ParamConverter;
 import javax.ws.rs.ext.ParamConverterProvider;
 
@@ -286,6 +291,38 @@ public class WebClientTest extends Assert {
         assertEquals(URI.create("http://foo/1/2"), wc.getCurrentURI());
     }
     
+    @Test
+    public void testBatchCancelledBeforeInvoke() throws Exception {
+        RequestBatch batch = WebClient.create("http://foo").batch(2);
+        Future<Response> f = batch.add(HttpMethod.GET, "bar");
+        assertEquals(1, batch.size());
+        assertTrue(f.cancel(false));
+        assertTrue(f.isDone());
+        assertTrue(f.isCancelled());
+        Iterator<Future<Response>> it = batch.invoke();
+        assertTrue(it.hasNext());
+        assertSame(f, it.next());
+        assertFalse(it.hasNext());
+        try {
+            f.get();
+            fail("CancellationException expected");
+        } catch (CancellationException ex) {
+            // expected
+        }
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testBatchInvokedTwice() {
+        RequestBatch batch = WebClient.create("http://foo").batch(1);
+        batch.invoke();
+        batch.invoke();
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchWithoutConcurrentRequests() {
+        WebClient.create("http://foo").batch(0);
+    }
+    
     @Test
     public void testWebClientConfiguration() {
         WebClient wc = WebClient.create(URI.create("http://foo"));
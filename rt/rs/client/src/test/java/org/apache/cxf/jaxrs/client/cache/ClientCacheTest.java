@@ -21,6 +21,8 @@ package org.apache.cxf.jaxrs.client.cache;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -29,13 +31,17 @@ import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.helpers.IOUtils;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.client.JAXRSClientFactoryBean;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
 import org.apache.cxf.transport.local.LocalConduit;
@@ -159,6 +165,47 @@ public class ClientCacheTest extends Assert {
         }    
     }
     
+    @Test
+    public void testRevalidateStaleEntry() {
+        CacheControlFeature feature = new CacheControlFeature();
+        try {
+            final WebTarget base = ClientBuilder.newBuilder().register(feature).build().target(ADDRESS);
+            final Invocation.Builder cached = base.path("revalidate").request("text/plain")
+                .header(HttpHeaders.CACHE_CONTROL, "public");
+            final Response r = cached.get();
+            assertEquals(Response.Status.OK.getStatusCode(), r.getStatus());
+            final String r1 = r.readEntity(String.class);
+            waitABit();
+            // the entry is stale, the server is asked to confirm it is still valid
+            final Response r2 = cached.get();
+            assertEquals(Response.Status.OK.getStatusCode(), r2.getStatus());
+            assertEquals(r1, r2.readEntity(String.class));
+            assertEquals(1, TheServer.NOT_MODIFIED.get());
+        } finally {
+            feature.close();
+        }    
+    }
+    
+    @Test
+    public void testGetTimeStringWebClientInMemoryCache() {
+        CacheControlFeature feature = new CacheControlFeature();
+        feature.setInMemoryCache(true);
+        try {
+            JAXRSClientFactoryBean bean = new JAXRSClientFactoryBean();
+            bean.setAddress(ADDRESS);
+            bean.setFeatures(Collections.singletonList(feature));
+            final WebClient wc = bean.createWebClient().accept("text/plain")
+                .header(HttpHeaders.CACHE_CONTROL, "public");
+            final Response r = wc.get();
+            assertEquals(Response.Status.OK.getStatusCode(), r.getStatus());
+            final String r1 = r.readEntity(String.class);
+            waitABit();
+            assertEquals(r1, wc.get().readEntity(String.class));
+        } finally {
+            feature.close();
+        }    
+    }
+    
     private static Invocation.Builder setAsLocal(final Invocation.Builder client) {
         WebClient.getConfig(client).getRequestContext().put(LocalConduit.DIRECT_DISPATCH, Boolean.TRUE);
         return client;
@@ -174,6 +221,8 @@ public class ClientCacheTest extends Assert {
 
     @Path("/")
     public static class TheServer {
+        static final AtomicInteger NOT_MODIFIED = new AtomicInteger();
+        
         @GET
         @Produces("text/plain")
         public Response getString() {
@@ -188,6 +237,19 @@ public class ClientCacheTest extends Assert {
             b.setName("JCache");
             return Response.ok(b).tag("123").cacheControl(CacheControl.valueOf("max-age=50000")).build();
         }
+        @GET
+        @Path("revalidate")
+        @Produces("text/plain")
+        public Response getRevalidatedString(@Context Request request) {
+            EntityTag tag = new EntityTag("123");
+            Response.ResponseBuilder rb = request.evaluatePreconditions(tag);
+            if (rb != null) {
+                NOT_MODIFIED.incrementAndGet();
+                return rb.build();
+            }
+            return Response.ok(Long.toString(System.currentTimeMillis()))
+                .tag(tag).cacheControl(CacheControl.valueOf("max-age=0")).build();
+        }
     }
     @XmlRootElement
     public static class Book implements Serializable {
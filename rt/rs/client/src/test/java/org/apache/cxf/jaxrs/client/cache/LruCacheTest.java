@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.client.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.cache.Cache;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryEventFilter;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+import javax.cache.integration.CompletionListener;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LruCacheTest extends Assert {
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        LruCache<String, String> cache = new LruCache<String, String>("test", 2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        assertEquals(2, cache.size());
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+    }
+    
+    @Test
+    public void testConditionalOperations() {
+        Cache<String, String> cache = new LruCache<String, String>("test", 10);
+        assertTrue(cache.putIfAbsent("a", "1"));
+        assertFalse(cache.putIfAbsent("a", "2"));
+        assertFalse(cache.remove("a", "2"));
+        assertTrue(cache.replace("a", "1", "3"));
+        assertEquals("3", cache.getAndRemove("a"));
+        assertFalse(cache.replace("a", "4"));
+        assertNull(cache.get("a"));
+    }
+    
+    @Test
+    public void testInvoke() {
+        Cache<String, String> cache = new LruCache<String, String>("test", 10);
+        cache.put("a", "1");
+        assertEquals("1", cache.invoke("a", new AppendProcessor(), "2"));
+        assertEquals("12", cache.get("a"));
+        assertNull(cache.invoke("b", new AppendProcessor(), "3"));
+        assertEquals("3", cache.get("b"));
+        
+        cache.invoke("a", new EntryProcessor<String, String, Void>() {
+            public Void process(MutableEntry<String, String> entry, Object... arguments) {
+                assertTrue(entry.exists());
+                entry.remove();
+                assertFalse(entry.exists());
+                return null;
+            }
+        });
+        assertFalse(cache.containsKey("a"));
+    }
+    
+    @Test
+    public void testInvokeFailureLeavesEntry() {
+        Cache<String, String> cache = new LruCache<String, String>("test", 10);
+        cache.put("a", "1");
+        try {
+            cache.invoke("a", new EntryProcessor<String, String, Void>() {
+                public Void process(MutableEntry<String, String> entry, Object... arguments) {
+                    entry.setValue("2");
+                    throw new IllegalStateException("failure");
+                }
+            });
+            fail("EntryProcessorException expected");
+        } catch (EntryProcessorException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        assertEquals("1", cache.get("a"));
+    }
+    
+    @Test
+    public void testInvokeAll() {
+        Cache<String, String> cache = new LruCache<String, String>("test", 10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Map<String, EntryProcessorResult<String>> results = 
+            cache.invokeAll(new HashSet<String>(Arrays.asList("a", "b", "c")), new AppendProcessor(), "0");
+        assertEquals(2, results.size());
+        assertEquals("1", results.get("a").get());
+        assertEquals("2", results.get("b").get());
+        assertEquals("10", cache.get("a"));
+        assertEquals("20", cache.get("b"));
+        assertEquals("0", cache.get("c"));
+    }
+    
+    @Test
+    public void testListeners() {
+        Cache<String, String> cache = new LruCache<String, String>("test", 10);
+        RecordingListener.EVENTS.clear();
+        MutableCacheEntryListenerConfiguration<String, String> listenerConfiguration = 
+            new MutableCacheEntryListenerConfiguration<String, String>(
+                FactoryBuilder.factoryOf(RecordingListener.class), null, true, true);
+        cache.registerCacheEntryListener(listenerConfiguration);
+        try {
+            cache.registerCacheEntryListener(listenerConfiguration);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        
+        cache.put("a", "1");
+        cache.put("a", "2");
+        cache.invoke("b", new AppendProcessor(), "3");
+        cache.remove("a");
+        cache.removeAll();
+        cache.put("c", "4");
+        cache.clear();
+        assertEquals(Arrays.asList("CREATED a=1", "UPDATED a=2 was 1", "CREATED b=3", 
+                                   "REMOVED a=2", "REMOVED b=3", "CREATED c=4"), 
+                     RecordingListener.EVENTS);
+        
+        cache.deregisterCacheEntryListener(listenerConfiguration);
+        cache.put("d", "5");
+        assertEquals(6, RecordingListener.EVENTS.size());
+    }
+    
+    @Test
+    public void testListenerFilter() {
+        Cache<String, String> cache = new LruCache<String, String>("test", 10);
+        RecordingListener.EVENTS.clear();
+        cache.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<String, String>(
+            FactoryBuilder.factoryOf(RecordingListener.class), 
+            FactoryBuilder.factoryOf(KeyFilter.class), false, true));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals(Arrays.asList("CREATED a=1"), RecordingListener.EVENTS);
+    }
+    
+    @Test
+    public void testLoadAllCompletes() {
+        Cache<String, String> cache = new LruCache<String, String>("test", 10);
+        final boolean[] completed = new boolean[1];
+        cache.loadAll(new HashSet<String>(Arrays.asList("a")), true, new CompletionListener() {
+            public void onCompletion() {
+                completed[0] = true;
+            }
+            public void onException(Exception e) {
+                fail(e.getMessage());
+            }
+        });
+        assertTrue(completed[0]);
+        assertFalse(cache.containsKey("a"));
+        assertNull(cache.getCacheManager());
+    }
+    
+    private static class AppendProcessor implements EntryProcessor<String, String, String> {
+        public String process(MutableEntry<String, String> entry, Object... arguments) {
+            String value = entry.getValue();
+            entry.setValue(value == null ? (String)arguments[0] : value + arguments[0]);
+            return value;
+        }
+    }
+    
+    public static class RecordingListener implements CacheEntryCreatedListener<String, String>, 
+        CacheEntryUpdatedListener<String, String>, CacheEntryRemovedListener<String, String> {
+        static final List<String> EVENTS = new ArrayList<String>();
+        
+        public void onCreated(Iterable<CacheEntryEvent<? extends String, ? extends String>> events) {
+            for (CacheEntryEvent<? extends String, ? extends String> e : events) {
+                EVENTS.add(e.getEventType() + " " + e.getKey() + "=" + e.getValue());
+            }
+        }
+        
+        public void onUpdated(Iterable<CacheEntryEvent<? extends String, ? extends String>> events) {
+            for (CacheEntryEvent<? extends String, ? extends String> e : events) {
+                EVENTS.add(e.getEventType() + " " + e.getKey() + "=" + e.getValue() + " was " + e.getOldValue());
+            }
+        }
+        
+        public void onRemoved(Iterable<CacheEntryEvent<? extends String, ? extends String>> events) {
+            onCreated(events);
+        }
+    }
+    
+    public static class KeyFilter implements CacheEntryEventFilter<String, String> {
+        public boolean evaluate(CacheEntryEvent<? extends String, ? extends String> event) {
+            return "a".equals(event.getKey());
+        }
+    }
+}
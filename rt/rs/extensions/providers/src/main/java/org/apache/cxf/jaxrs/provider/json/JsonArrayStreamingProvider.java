@@ -0,0 +1,342 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.provider.json;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.jaxrs.provider.AbstractConfigurableProvider;
+import org.apache.cxf.jaxrs.utils.ExceptionUtils;
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+
+/**
+ * Writes {@link Iterator} and {@link Iterable} entities as JSON arrays one element 
+ * at a time and reads JSON arrays as {@link Iterator}s which parse the elements
+ * only when they are requested, so that neither the whole array nor its 
+ * serialized form has to be kept in memory.
+ * <p/>
+ * The elements are written and read by the JSON providers registered for their types.
+ * Collections are only handled if {@link #setSupportCollections(boolean)} is enabled 
+ * so that the default JSON representation of the collections is kept otherwise.
+ * Iterators which are {@link Closeable} are closed once they have been written.
+ */
+@Produces({"application/json", "application/*+json" })
+@Consumes({"application/json", "application/*+json" })
+@Provider
+public class JsonArrayStreamingProvider extends AbstractConfigurableProvider 
+    implements MessageBodyWriter<Object>, MessageBodyReader<Iterator<?>> {
+    private static final int DEFAULT_FLUSH_INTERVAL = 100;
+    private static final byte[] NULL_VALUE = {'n', 'u', 'l', 'l'};
+    
+    @Context
+    private Providers providers;
+    private int flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private boolean supportCollections;
+    
+    /**
+     * Sets the number of elements after which the output is flushed, 
+     * 0 disables the intermediate flushes
+     */
+    public void setFlushInterval(int flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+    
+    public void setSupportCollections(boolean supportCollections) {
+        this.supportCollections = supportCollections;
+    }
+    
+    @Override
+    public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mt) {
+        return -1;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mt) {
+        return Iterator.class.isAssignableFrom(type)
+            || Iterable.class.isAssignableFrom(type) 
+                && (supportCollections || !Collection.class.isAssignableFrom(type));
+    }
+
+    @Override
+    public void writeTo(Object obj, Class<?> type, Type genericType, Annotation[] annotations, MediaType mt,
+                        MultivaluedMap<String, Object> headers, OutputStream os)
+        throws IOException, WebApplicationException {
+        Iterator<?> it = obj instanceof Iterator ? (Iterator<?>)obj : ((Iterable<?>)obj).iterator();
+        Type elementType = getElementType(genericType);
+        Class<?> elementClass = elementType == null ? null : InjectionUtils.getActualType(genericType);
+        OutputStream elementOs = new ElementOutputStream(os);
+        
+        MessageBodyWriter<Object> writer = null;
+        Class<?> writerClass = null;
+        try {
+            os.write('[');
+            for (int count = 0; it.hasNext(); count++) {
+                Object element = it.next();
+                if (count > 0) {
+                    os.write(',');
+                }
+                if (element == null) {
+                    os.write(NULL_VALUE);
+                } else {
+                    Class<?> cls = element.getClass();
+                    Type clsType = cls == elementClass ? elementType : cls;
+                    if (cls != writerClass) {
+                        writer = getElementWriter(cls, clsType, annotations, mt);
+                        writerClass = cls;
+                    }
+                    writer.writeTo(element, cls, clsType, annotations, mt, headers, elementOs);
+                }
+                if (flushInterval > 0 && (count + 1) % flushInterval == 0) {
+                    os.flush();
+                }
+            }
+            os.write(']');
+        } finally {
+            if (it instanceof Closeable) {
+                ((Closeable)it).close();
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private MessageBodyWriter<Object> getElementWriter(Class<?> cls, Type type, 
+                                                       Annotation[] annotations, MediaType mt) {
+        MessageBodyWriter<?> writer = providers.getMessageBodyWriter(cls, type, annotations, mt);
+        if (writer == null) {
+            LOG.warning("No JSON writer is available for the array elements of type " + cls.getName());
+            throw ExceptionUtils.toInternalServerErrorException(null, null);
+        }
+        return (MessageBodyWriter<Object>)writer;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mt) {
+        return type == Iterator.class && getElementType(genericType) != null;
+    }
+
+    @Override
+    public Iterator<?> readFrom(Class<Iterator<?>> type, Type genericType, Annotation[] annotations, 
+                                MediaType mt, MultivaluedMap<String, String> headers, InputStream is) 
+        throws IOException, WebApplicationException {
+        Type elementType = getElementType(genericType);
+        Class<?> elementClass = InjectionUtils.getActualType(genericType);
+        MessageBodyReader<?> reader = 
+            providers.getMessageBodyReader(elementClass, elementType, annotations, mt);
+        if (reader == null) {
+            LOG.warning("No JSON reader is available for the array elements of type " 
+                        + elementClass.getName());
+            throw ExceptionUtils.toNotSupportedException(null, null);
+        }
+        
+        MultivaluedMap<String, String> elementHeaders = new MetadataMap<String, String>(headers, false, true);
+        elementHeaders.remove(HttpHeaders.CONTENT_LENGTH);
+        
+        @SuppressWarnings({"unchecked", "rawtypes" })
+        Iterator<?> it = new JsonArrayIterator(new BufferedInputStream(is), (MessageBodyReader<Object>)reader,
+                                               elementClass, elementType, annotations, mt, elementHeaders);
+        return it;
+    }
+    
+    private static Type getElementType(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type type = ((ParameterizedType)genericType).getActualTypeArguments()[0];
+            if (type instanceof Class || type instanceof ParameterizedType) {
+                return type;
+            }
+            return InjectionUtils.getActualType(genericType);
+        }
+        return null;
+    }
+    
+    /**
+     * Lets the element writers close or flush the entity stream without affecting it
+     */
+    private static class ElementOutputStream extends FilterOutputStream {
+        ElementOutputStream(OutputStream os) {
+            super(os);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+        
+        @Override
+        public void flush() {
+            // the array writer flushes
+        }
+        
+        @Override
+        public void close() {
+            // the array is still being written
+        }
+    }
+    
+    /**
+     * Reads the next top level array element from the stream when it is requested
+     */
+    private static class JsonArrayIterator<T> implements Iterator<T> {
+        private final InputStream is;
+        private final MessageBodyReader<T> reader;
+        private final Class<T> elementClass;
+        private final Type elementType;
+        private final Annotation[] annotations;
+        private final MediaType mt;
+        private final MultivaluedMap<String, String> headers;
+        private final ByteArrayOutputStream element = new ByteArrayOutputStream();
+        private boolean started;
+        private boolean done;
+        private boolean elementAvailable;
+        
+        JsonArrayIterator(InputStream is, MessageBodyReader<T> reader, Class<T> elementClass, 
+                          Type elementType, Annotation[] annotations, MediaType mt,
+                          MultivaluedMap<String, String> headers) {
+            this.is = is;
+            this.reader = reader;
+            this.elementClass = elementClass;
+            this.elementType = elementType;
+            this.annotations = annotations;
+            this.mt = mt;
+            this.headers = headers;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (!elementAvailable && !done) {
+                try {
+                    elementAvailable = readElement();
+                } catch (IOException ex) {
+                    done = true;
+                    throw ExceptionUtils.toBadRequestException(ex, null);
+                }
+            }
+            return elementAvailable;
+        }
+        
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            elementAvailable = false;
+            byte[] bytes = element.toByteArray();
+            if (Arrays.equals(NULL_VALUE, bytes)) {
+                return null;
+            }
+            try {
+                return reader.readFrom(elementClass, elementType, annotations, mt, headers, 
+                                       new ByteArrayInputStream(bytes));
+            } catch (IOException ex) {
+                throw ExceptionUtils.toBadRequestException(ex, null);
+            }
+        }
+        
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+        
+        /**
+         * Copies the next element into the buffer, the structural characters are 
+         * all ASCII so the UTF-8 encoded input can be scanned byte by byte
+         */
+        private boolean readElement() throws IOException {
+            if (!started) {
+                started = true;
+                if (skipWhiteSpace() != '[') {
+                    throw new IOException("JSON array is expected");
+                }
+            }
+            element.reset();
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            int c = skipWhiteSpace();
+            for (;; c = is.read()) {
+                if (c == -1) {
+                    throw new IOException("Unexpected end of the JSON array");
+                }
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (depth == 0) {
+                        done = true;
+                        break;
+                    }
+                    depth--;
+                } else if (c == ',' && depth == 0) {
+                    break;
+                } else if (isWhiteSpace(c) && depth == 0) {
+                    continue;
+                }
+                element.write(c);
+            }
+            return element.size() > 0;
+        }
+        
+        private int skipWhiteSpace() throws IOException {
+            int c = is.read();
+            while (isWhiteSpace(c)) {
+                c = is.read();
+            }
+            return c;
+        }
+        
+        private static boolean isWhiteSpace(int c) {
+            return c == ' ' || c == '\r' || c == '\n' || c == '\t';
+        }
+    }
+}
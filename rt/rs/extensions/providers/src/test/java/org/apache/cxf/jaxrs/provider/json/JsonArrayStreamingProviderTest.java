@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.jaxrs.provider.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonArrayStreamingProviderTest extends Assert {
+    
+    @Test
+    public void testIsWriteable() throws Exception {
+        JsonArrayStreamingProvider p = new JsonArrayStreamingProvider();
+        assertTrue(p.isWriteable(Iterator.class, getType("iterator"), null, MediaType.APPLICATION_JSON_TYPE));
+        assertFalse(p.isWriteable(List.class, getType("list"), null, MediaType.APPLICATION_JSON_TYPE));
+        p.setSupportCollections(true);
+        assertTrue(p.isWriteable(List.class, getType("list"), null, MediaType.APPLICATION_JSON_TYPE));
+    }
+    
+    @Test
+    public void testWriteIterator() throws Exception {
+        JsonArrayStreamingProvider p = createProvider();
+        p.setFlushInterval(2);
+        CountingOutputStream os = new CountingOutputStream();
+        Iterator<String> it = Arrays.asList("{\"a\":1}", "2", "\"3\"").iterator();
+        p.writeTo(it, Iterator.class, getType("iterator"), new Annotation[]{}, 
+                  MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, Object>(), os);
+        assertEquals("[{\"a\":1},2,\"3\"]", os.toString());
+        assertEquals(1, os.flushes);
+    }
+    
+    @Test
+    public void testWriteNullElement() throws Exception {
+        JsonArrayStreamingProvider p = createProvider();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        p.writeTo(Arrays.asList("1", null).iterator(), Iterator.class, getType("iterator"), 
+                  new Annotation[]{}, MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, Object>(), os);
+        assertEquals("[1,null]", os.toString());
+    }
+    
+    @Test
+    public void testReadIterator() throws Exception {
+        String json = " [ {\"a\" : \"b,]}\\\"\"} , [1, 2],\"c\\\\\", 3.5 ,null, {\"d\":{\"e\":[]}} ] ";
+        List<String> elements = read(json);
+        assertEquals(Arrays.asList("{\"a\" : \"b,]}\\\"\"}", "[1, 2]", "\"c\\\\\"", "3.5", null, 
+                                   "{\"d\":{\"e\":[]}}"), elements);
+    }
+    
+    @Test
+    public void testReadEmptyArray() throws Exception {
+        assertTrue(read(" [ ] ").isEmpty());
+    }
+    
+    @Test(expected = WebApplicationException.class)
+    public void testReadNotArray() throws Exception {
+        read("{\"a\":1}");
+    }
+    
+    @Test(expected = WebApplicationException.class)
+    public void testReadIncompleteArray() throws Exception {
+        read("[{\"a\":1}, {");
+    }
+    
+    private List<String> read(String json) throws Exception {
+        JsonArrayStreamingProvider p = createProvider();
+        assertTrue(p.isReadable(Iterator.class, getType("iterator"), null, MediaType.APPLICATION_JSON_TYPE));
+        @SuppressWarnings({"unchecked", "rawtypes" })
+        Iterator<String> it = (Iterator<String>)p.readFrom((Class)Iterator.class, getType("iterator"), 
+            new Annotation[]{}, MediaType.APPLICATION_JSON_TYPE, new MetadataMap<String, String>(), 
+            new ByteArrayInputStream(json.getBytes("UTF-8")));
+        List<String> elements = new ArrayList<String>();
+        while (it.hasNext()) {
+            elements.add(it.next());
+        }
+        return elements;
+    }
+    
+    private static JsonArrayStreamingProvider createProvider() throws Exception {
+        JsonArrayStreamingProvider p = new JsonArrayStreamingProvider();
+        Field f = JsonArrayStreamingProvider.class.getDeclaredField("providers");
+        f.setAccessible(true);
+        f.set(p, new RawJsonProviders());
+        return p;
+    }
+    
+    private static Type getType(String name) throws Exception {
+        Method m = JsonArrayStreamingProviderTest.class.getDeclaredMethod(name);
+        return m.getGenericReturnType();
+    }
+    
+    @SuppressWarnings("unused")
+    private static Iterator<String> iterator() {
+        return null;
+    }
+    
+    @SuppressWarnings("unused")
+    private static List<String> list() {
+        return null;
+    }
+    
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+        private int flushes;
+        
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+    
+    /**
+     * Reads and writes the elements as raw JSON strings
+     */
+    private static class RawJsonProviders implements Providers {
+        @SuppressWarnings("unchecked")
+        public <T> MessageBodyReader<T> getMessageBodyReader(Class<T> type, Type genericType, 
+                                                             Annotation[] annotations, MediaType mt) {
+            return (MessageBodyReader<T>)new RawJsonProvider();
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> MessageBodyWriter<T> getMessageBodyWriter(Class<T> type, Type genericType, 
+                                                             Annotation[] annotations, MediaType mt) {
+            return (MessageBodyWriter<T>)new RawJsonProvider();
+        }
+
+        public <T extends Throwable> ExceptionMapper<T> getExceptionMapper(Class<T> type) {
+            return null;
+        }
+
+        public <T> ContextResolver<T> getContextResolver(Class<T> contextType, MediaType mt) {
+            return null;
+        }
+    }
+    
+    private static class RawJsonProvider implements MessageBodyReader<String>, MessageBodyWriter<String> {
+        public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, 
+                                  MediaType mt) {
+            return true;
+        }
+
+        public String readFrom(Class<String> type, Type genericType, Annotation[] annotations, 
+                               MediaType mt, MultivaluedMap<String, String> headers, InputStream is) 
+            throws IOException {
+            return IOUtils.toString(is);
+        }
+
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, 
+                                   MediaType mt) {
+            return true;
+        }
+
+        public long getSize(String t, Class<?> type, Type genericType, Annotation[] annotations, 
+                            MediaType mt) {
+            return -1;
+        }
+
+        public void writeTo(String t, Class<?> type, Type genericType, Annotation[] annotations, 
+                            MediaType mt, MultivaluedMap<String, Object> headers, OutputStream os) 
+            throws IOException {
+            os.write(t.getBytes("UTF-8"));
+            os.close();
+        }
+    }
+}
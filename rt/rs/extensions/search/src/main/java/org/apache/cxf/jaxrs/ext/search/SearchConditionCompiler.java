@@ -0,0 +1,476 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.search;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.cxf.jaxrs.ext.search.collections.CollectionCheckStatement;
+import org.apache.cxf.jaxrs.utils.InjectionUtils;
+
+/**
+ * Compiles search conditions produced by FIQL, OData or custom parsers into
+ * {@link SearchPredicate} trees which can be evaluated against many objects without
+ * repeating the expression parsing and the bean introspection on every check.
+ * 
+ * Primitive conditions and their 'and'/'or' compositions are compiled into predicates 
+ * holding the pre-processed comparison values and the resolved getters, other conditions 
+ * are checked by delegating to {@link SearchCondition#isMet(Object)}. The compiled 
+ * predicates are thread-safe and are cached per expression.
+ *
+ * @param <T> the type of the objects being checked
+ */
+public class SearchConditionCompiler<T> {
+    public static final int DEFAULT_CACHE_SIZE = 256;
+    
+    private final Map<String, SearchPredicate<T>> predicates = 
+        new ConcurrentHashMap<String, SearchPredicate<T>>();
+    private int maxCacheSize = DEFAULT_CACHE_SIZE;
+    
+    /**
+     * Sets the maximum number of the compiled expressions to keep,
+     * zero or negative value disables the caching
+     * @param size the cache size
+     */
+    public void setMaxCacheSize(int size) {
+        this.maxCacheSize = size;
+    }
+    
+    public int getMaxCacheSize() {
+        return maxCacheSize;
+    }
+    
+    /**
+     * Returns the compiled predicate for the search expression available in the current context
+     * @param context the search context
+     * @param cls the type of the objects being checked
+     * @return the predicate, null if no search expression is available 
+     */
+    public SearchPredicate<T> compile(final SearchContext context, final Class<T> cls) {
+        String expression = context.getSearchExpression();
+        if (expression == null) {
+            return null;
+        }
+        return compile(expression, new SearchConditionParser<T>() {
+            public SearchCondition<T> parse(String searchExpression) throws SearchParseException {
+                return context.getCondition(searchExpression, cls);
+            }
+        });
+    }
+    
+    /**
+     * Returns the compiled predicate for the given search expression, the expression
+     * is only parsed if no predicate has been compiled for it yet
+     * @param expression the search expression
+     * @param parser the parser
+     * @return the predicate
+     * @throws SearchParseException if the expression is invalid
+     */
+    public SearchPredicate<T> compile(String expression, SearchConditionParser<T> parser) 
+        throws SearchParseException {
+        String key = normalize(expression);
+        SearchPredicate<T> predicate = predicates.get(key);
+        if (predicate == null) {
+            SearchCondition<T> sc = parser.parse(expression);
+            if (sc == null) {
+                return null;
+            }
+            predicate = compile(sc);
+            if (maxCacheSize > 0) {
+                if (predicates.size() >= maxCacheSize) {
+                    predicates.clear();
+                }
+                predicates.put(key, predicate);
+            }
+        }
+        return predicate;
+    }
+    
+    /**
+     * Compiles the search condition
+     * @param sc the search condition
+     * @return the predicate
+     */
+    public SearchPredicate<T> compile(SearchCondition<T> sc) {
+        Class<?> scClass = sc.getClass();
+        List<SearchCondition<T>> conditions = sc.getSearchConditions();
+        if (conditions != null) {
+            ConditionType ct = sc.getConditionType();
+            if (scClass == AndSearchCondition.class 
+                || (scClass == SimpleSearchCondition.class && ct == ConditionType.AND)) {
+                return new AndPredicate<T>(compileAll(conditions));
+            } else if (scClass == OrSearchCondition.class) {
+                return new OrPredicate<T>(compileAll(conditions));
+            }
+        } else if (scClass == SimpleSearchCondition.class || scClass == PrimitiveSearchCondition.class) {
+            PrimitiveStatement st = sc.getStatement();
+            if (st != null && !(st instanceof CollectionCheckStatement) && isSupported(st.getCondition())) {
+                return new PropertyPredicate<T>(st.getProperty(), st.getValue(), st.getCondition());
+            }
+        }
+        return new ConditionPredicate<T>(sc);
+    }
+    
+    /**
+     * Returns the key the compiled predicate is cached with 
+     * @param expression the search expression
+     * @return the normalized expression
+     */
+    protected String normalize(String expression) {
+        return expression.trim();
+    }
+    
+    private List<SearchPredicate<T>> compileAll(List<SearchCondition<T>> conditions) {
+        List<SearchPredicate<T>> list = new ArrayList<SearchPredicate<T>>(conditions.size());
+        for (SearchCondition<T> sc : conditions) {
+            list.add(compile(sc));
+        }
+        return list;
+    }
+    
+    private static boolean isSupported(ConditionType ct) {
+        switch (ct) {
+        case EQUALS:
+        case NOT_EQUALS:
+        case GREATER_THAN:
+        case GREATER_OR_EQUALS:
+        case LESS_THAN:
+        case LESS_OR_EQUALS:
+            return true;
+        default:
+            return false;
+        }
+    }
+    
+    private abstract static class AbstractPredicate<T> implements SearchPredicate<T> {
+        public List<T> findAll(Collection<T> pojos) {
+            List<T> result = new ArrayList<T>();
+            for (T pojo : pojos) {
+                if (isMet(pojo)) {
+                    result.add(pojo);
+                }
+            }
+            return result;
+        }
+    }
+    
+    private static class AndPredicate<T> extends AbstractPredicate<T> {
+        private final SearchPredicate<T>[] predicates;
+        
+        @SuppressWarnings("unchecked")
+        AndPredicate(List<SearchPredicate<T>> list) {
+            predicates = list.toArray(new SearchPredicate[list.size()]);
+        }
+        
+        public boolean isMet(T pojo) {
+            for (SearchPredicate<T> p : predicates) {
+                if (!p.isMet(pojo)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    private static class OrPredicate<T> extends AbstractPredicate<T> {
+        private final SearchPredicate<T>[] predicates;
+        
+        @SuppressWarnings("unchecked")
+        OrPredicate(List<SearchPredicate<T>> list) {
+            predicates = list.toArray(new SearchPredicate[list.size()]);
+        }
+        
+        public boolean isMet(T pojo) {
+            for (SearchPredicate<T> p : predicates) {
+                if (p.isMet(pojo)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    private static class ConditionPredicate<T> extends AbstractPredicate<T> {
+        private final SearchCondition<T> sc;
+        
+        ConditionPredicate(SearchCondition<T> sc) {
+            this.sc = sc;
+        }
+        
+        public boolean isMet(T pojo) {
+            return sc.isMet(pojo);
+        }
+    }
+    
+    /**
+     * Compiled form of {@link PrimitiveSearchCondition}, the property values are
+     * compared the same way
+     */
+    private static class PropertyPredicate<T> extends AbstractPredicate<T> {
+        private final String propertyName;
+        private final Getter[] getters;
+        private final Comparison primitiveComparison;
+        private final Comparison propertyComparison;
+        
+        PropertyPredicate(String propertyName, Object value, ConditionType ct) {
+            this.propertyName = propertyName;
+            this.primitiveComparison = new Comparison(ct, value);
+            if (propertyName != null) {
+                String[] names = propertyName.split("\\.");
+                getters = new Getter[names.length];
+                getters[0] = new Getter(names[0].toLowerCase(), true);
+                for (int i = 1; i < names.length; i++) {
+                    getters[i] = new Getter(names[i], false);
+                }
+                propertyComparison = new Comparison(ct, 
+                    PrimitiveSearchCondition.getPrimitiveValue(propertyName, value));
+            } else {
+                getters = null;
+                propertyComparison = primitiveComparison;
+            }
+        }
+        
+        public boolean isMet(T pojo) {
+            if (getters == null || pojo.getClass().getName().startsWith("java.lang")) {
+                return primitiveComparison.compare(pojo);
+            }
+            Object value = getValue(pojo);
+            return value == null ? false : propertyComparison.compare(value);
+        }
+        
+        private Object getValue(T pojo) {
+            try {
+                Object value;
+                if (pojo instanceof SearchBean) {
+                    value = ((SearchBean)pojo).get(propertyName);
+                } else {
+                    value = getters[0].invoke(pojo);
+                }
+                for (int i = 1; i < getters.length; i++) {
+                    if (value == null || InjectionUtils.isPrimitive(value.getClass())) {
+                        break;
+                    }
+                    value = getters[i].invoke(value);
+                }
+                return value;
+            } catch (Throwable ex) {
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Getter resolved on the first use and cached for the last seen class, the method handles
+     * are shared by all the getters of the same class and property
+     */
+    private static class Getter {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        private static final Object NO_GETTER = new Object();
+        private static final ClassValue<ConcurrentHashMap<String, Object>> HANDLES = 
+            new ClassValue<ConcurrentHashMap<String, Object>>() {
+                protected ConcurrentHashMap<String, Object> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<String, Object>();
+                }
+            };
+        
+        private final String name;
+        private final boolean property;
+        private final String key;
+        private volatile ResolvedGetter resolved;
+        
+        Getter(String name, boolean property) {
+            this.name = name;
+            this.property = property;
+            this.key = (property ? "property:" : "method:") + name;
+        }
+        
+        Object invoke(Object target) throws Throwable {
+            Class<?> cls = target.getClass();
+            ResolvedGetter r = resolved;
+            if (r == null || r.cls != cls) {
+                r = new ResolvedGetter(cls, getHandle(cls));
+                resolved = r;
+            }
+            if (r.handle == null) {
+                throw new NoSuchMethodException(name);
+            }
+            return (Object)r.handle.invokeExact(target);
+        }
+        
+        private MethodHandle getHandle(Class<?> cls) {
+            ConcurrentHashMap<String, Object> handles = HANDLES.get(cls);
+            Object h = handles.get(key);
+            if (h == null) {
+                h = createHandle(findMethod(cls));
+                handles.putIfAbsent(key, h);
+            }
+            return h == NO_GETTER ? null : (MethodHandle)h;
+        }
+        
+        private static Object createHandle(Method m) {
+            if (m == null) {
+                return NO_GETTER;
+            }
+            try {
+                m.setAccessible(true);
+            } catch (SecurityException ex) {
+                // only the public methods of the public classes can be used
+            }
+            try {
+                return MethodHandles.lookup().unreflect(m).asType(GETTER_TYPE);
+            } catch (IllegalAccessException ex) {
+                return NO_GETTER;
+            }
+        }
+        
+        /**
+         * Finds the getter, a 'get' method is preferred to an 'is' one, bridge and synthetic 
+         * methods are skipped and the lowest name wins if several methods only differ by case
+         */
+        private Method findMethod(Class<?> cls) {
+            String methodName = property 
+                ? null : "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            Method getMethod = null;
+            Method isMethod = null;
+            for (Method method : cls.getMethods()) {
+                if (method.isBridge() || method.isSynthetic() 
+                    || method.getParameterTypes().length != 0
+                    || method.getReturnType() == Void.TYPE) {
+                    continue;
+                }
+                String n = method.getName();
+                if (!property) {
+                    if (n.equals(methodName)) {
+                        getMethod = method;
+                    }
+                    continue;
+                }
+                // same lookup as Beanspector does
+                String lower = n.toLowerCase();
+                if (lower.startsWith("get") && name.equals(lower.substring(3))) {
+                    getMethod = first(getMethod, method);
+                } else if (lower.startsWith("is") && name.equals(lower.substring(2))) {
+                    isMethod = first(isMethod, method);
+                }
+            }
+            return getMethod != null ? getMethod : isMethod;
+        }
+        
+        private static Method first(Method current, Method candidate) {
+            return current == null || candidate.getName().compareTo(current.getName()) < 0
+                ? candidate : current;
+        }
+    }
+    
+    private static class ResolvedGetter {
+        private final Class<?> cls;
+        private final MethodHandle handle;
+        
+        ResolvedGetter(Class<?> cls, MethodHandle handle) {
+            this.cls = cls;
+            this.handle = handle;
+        }
+    }
+    
+    /**
+     * Comparison with the value and the wildcards pre-processed
+     */
+    private static class Comparison {
+        private static final int EXACT = 0;
+        private static final int STARTS_WITH = 1;
+        private static final int ENDS_WITH = 2;
+        private static final int CONTAINS = 3;
+        
+        private final ConditionType ct;
+        private final Object value;
+        private final boolean comparable;
+        private final String text;
+        private final int textMatch;
+        
+        Comparison(ConditionType ct, Object value) {
+            this.ct = ct;
+            this.value = value;
+            this.comparable = value instanceof Comparable;
+            if (value instanceof String) {
+                String str = (String)value;
+                boolean starts = str.length() > 0 && str.charAt(0) == '*';
+                if (starts) {
+                    str = str.substring(1);
+                }
+                boolean ends = str.length() > 0 && str.charAt(str.length() - 1) == '*';
+                if (ends) {
+                    str = str.substring(0, str.length() - 1);
+                }
+                text = str;
+                textMatch = starts && ends ? CONTAINS : starts ? ENDS_WITH : ends ? STARTS_WITH : EXACT;
+            } else {
+                text = null;
+                textMatch = EXACT;
+            }
+        }
+        
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        boolean compare(Object lval) {
+            if (ct == ConditionType.EQUALS || ct == ConditionType.NOT_EQUALS) {
+                if (value == null) {
+                    return true;
+                } else if (lval == null) {
+                    return false;
+                }
+                boolean compares = lval instanceof String && text != null 
+                    ? textCompare((String)lval) : lval.equals(value);
+                return ct == ConditionType.NOT_EQUALS ? !compares : compares;
+            } 
+            if (comparable && lval instanceof Comparable) {
+                int comp = ((Comparable)lval).compareTo(value);
+                switch (ct) {
+                case GREATER_THAN:
+                    return comp > 0;
+                case GREATER_OR_EQUALS:
+                    return comp >= 0;
+                case LESS_THAN:
+                    return comp < 0;
+                default:
+                    return comp <= 0;
+                }
+            }
+            return true;
+        }
+        
+        private boolean textCompare(String lval) {
+            switch (textMatch) {
+            case STARTS_WITH:
+                return lval.startsWith(text);
+            case ENDS_WITH:
+                return lval.endsWith(text);
+            case CONTAINS:
+                return lval.contains(text);
+            default:
+                return lval.equals(text);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.search;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compiled form of a search condition, see {@link SearchConditionCompiler}.
+ * The predicates are immutable and can be shared between threads.
+ *
+ * @param <T> the type of the objects being checked
+ */
+public interface SearchPredicate<T> {
+    
+    /**
+     * Checks if the given object meets the compiled condition
+     * @param pojo the object
+     * @return true if the condition is met
+     */
+    boolean isMet(T pojo);
+    
+    /**
+     * Returns all the objects which meet the compiled condition 
+     * @param pojos the objects
+     * @return the matching objects
+     */
+    List<T> findAll(Collection<T> pojos);
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.ext.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.cxf.jaxrs.ext.search.fiql.FiqlParser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchConditionCompilerTest extends Assert {
+    private static final List<Book> BOOKS = Arrays.asList(new Book("CXF in Action", 1L),
+                                                          new Book("CXF Rocks", 2L),
+                                                          new Book("Camel in Action", 3L),
+                                                          new Book("Web Services", 4L));
+    
+    private FiqlParser<Book> parser = new FiqlParser<Book>(Book.class);
+    private SearchConditionCompiler<Book> compiler = new SearchConditionCompiler<Book>();
+    
+    @Test
+    public void testCompiledPredicatesMatchConditions() throws Exception {
+        String[] expressions = {"name==CXF*", "name==*Action", "name==*in*", "name!=CXF*", 
+                                "id=gt=2", "id=ge=2", "id=lt=2", "id=le=2", "id==3",
+                                "name==CXF*;id=gt=1", "name==Web*,id==1", "name==Camel*;id==3,id==4"};
+        for (String expression : expressions) {
+            SearchCondition<Book> sc = parser.parse(expression);
+            SearchPredicate<Book> predicate = compiler.compile(sc);
+            assertEquals(expression, sc.findAll(BOOKS), predicate.findAll(BOOKS));
+        }
+    }
+    
+    @Test
+    public void testWildcards() throws Exception {
+        SearchPredicate<Book> predicate = compiler.compile("name==*in*", parser);
+        assertTrue(predicate.isMet(new Book("CXF in Action", 1L)));
+        assertFalse(predicate.isMet(new Book("CXF Rocks", 1L)));
+        assertFalse(predicate.isMet(new Book(null, 1L)));
+    }
+    
+    @Test
+    public void testCachedPredicate() throws Exception {
+        SearchPredicate<Book> predicate = compiler.compile("name==CXF*;id=lt=2", parser);
+        assertSame(predicate, compiler.compile(" name==CXF*;id=lt=2 ", parser));
+        assertNotSame(predicate, compiler.compile("name==CXF*;id=lt=3", parser));
+        assertEquals(1, predicate.findAll(BOOKS).size());
+    }
+    
+    @Test
+    public void testCacheDisabled() throws Exception {
+        compiler.setMaxCacheSize(0);
+        SearchPredicate<Book> predicate = compiler.compile("id==1", parser);
+        assertNotSame(predicate, compiler.compile("id==1", parser));
+    }
+    
+    @Test
+    public void testPrimitiveCondition() throws Exception {
+        SearchConditionCompiler<Integer> intCompiler = new SearchConditionCompiler<Integer>();
+        SearchPredicate<Integer> predicate = 
+            intCompiler.compile(new SimpleSearchCondition<Integer>(ConditionType.GREATER_THAN, 10));
+        assertTrue(predicate.isMet(11));
+        assertFalse(predicate.isMet(10));
+    }
+    
+    @Test
+    public void testGetMethodPreferred() throws Exception {
+        SearchConditionCompiler<Flags> flagsCompiler = new SearchConditionCompiler<Flags>();
+        SearchPredicate<Flags> predicate = flagsCompiler.compile(
+            new PrimitiveSearchCondition<Flags>("active", "yes", ConditionType.EQUALS, new Flags()));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(predicate.isMet(new Flags()));
+        }
+    }
+    
+    @Test
+    public void testBridgeMethodSkipped() throws Exception {
+        SearchConditionCompiler<Holder> holderCompiler = new SearchConditionCompiler<Holder>();
+        SearchPredicate<Holder> predicate = holderCompiler.compile(
+            new PrimitiveSearchCondition<Holder>("item.name", new Item("CXF"), ConditionType.EQUALS, 
+                                                 new Holder(null)));
+        assertTrue(predicate.isMet(new Holder(new Item("CXF"))));
+        assertFalse(predicate.isMet(new Holder(new Item("Camel"))));
+        assertFalse(predicate.isMet(new Holder(null)));
+    }
+    
+    public static class Flags {
+        public boolean isActive() {
+            return false;
+        }
+        
+        public String getActive() {
+            return "yes";
+        }
+    }
+    
+    public interface Named<V> {
+        V getName();
+    }
+    
+    public static class Item implements Named<String> {
+        private final String name;
+        
+        public Item(String name) {
+            this.name = name;
+        }
+        
+        public String getName() {
+            return name;
+        }
+    }
+    
+    public static class Holder {
+        private final Item item;
+        
+        public Holder(Item item) {
+            this.item = item;
+        }
+        
+        public Item getItem() {
+            return item;
+        }
+    }
+}
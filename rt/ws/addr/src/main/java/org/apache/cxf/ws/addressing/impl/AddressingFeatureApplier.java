@@ -19,11 +19,22 @@
 
 package org.apache.cxf.ws.addressing.impl;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
 import org.apache.cxf.Bus;
+import org.apache.cxf.binding.soap.interceptor.ReadHeadersInterceptor;
+import org.apache.cxf.binding.soap.interceptor.StreamingHeaderProcessor;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.interceptor.InterceptorProvider;
 import org.apache.cxf.ws.addressing.WSAddressingFeature;
 import org.apache.cxf.ws.addressing.soap.MAPCodec;
+import org.apache.cxf.ws.addressing.soap.StreamingMAPProcessor;
 
 
 /**
@@ -55,6 +66,41 @@ public class AddressingFeatureApplier implements WSAddressingFeature.WSAddressin
         
         provider.getOutFaultInterceptors().add(mapAggregator);
         provider.getOutFaultInterceptors().add(mapCodec);
+
+        registerStreamingProcessors(provider);
+    }
+
+    /**
+     * Lets the ReadHeadersInterceptor hand the simple WS-Addressing headers to the
+     * StreamingMAPProcessor instead of building their DOM, keeping any processors
+     * registered by other features.
+     */
+    private static void registerStreamingProcessors(InterceptorProvider provider) {
+        String key = ReadHeadersInterceptor.STREAMING_HEADER_PROCESSORS;
+        if (provider instanceof Bus) {
+            Bus b = (Bus)provider;
+            b.setProperty(key, addStreamingProcessors(b.getProperty(key)));
+        } else {
+            Endpoint ep = null;
+            if (provider instanceof Endpoint) {
+                ep = (Endpoint)provider;
+            } else if (provider instanceof Client) {
+                ep = ((Client)provider).getEndpoint();
+            }
+            if (ep != null) {
+                ep.put(key, addStreamingProcessors(ep.get(key)));
+            }
+        }
+    }
+
+    private static Map<QName, StreamingHeaderProcessor> addStreamingProcessors(Object registered) {
+        Map<QName, StreamingHeaderProcessor> processors = new HashMap<QName, StreamingHeaderProcessor>();
+        if (registered instanceof Map) {
+            Map<QName, StreamingHeaderProcessor> existing = CastUtils.cast((Map<?, ?>)registered);
+            processors.putAll(existing);
+        }
+        processors.putAll(StreamingMAPProcessor.PROCESSORS);
+        return processors;
     }
 
 }
@@ -565,6 +565,29 @@ public class MAPCodec extends AbstractSoapInterceptor {
                                     "UNSUPPORTED_VERSION_MSG",
                                     headerURI);
                         }
+                    } else if (isStreamedMAP(hdr)) {
+                        // read straight off the stream by the StreamingMAPProcessor
+                        if (maps == null) {
+                            maps = new AddressingProperties();
+                            maps.exposeAs(Names.WSA_NAMESPACE_NAME);
+                        }
+                        Object value = ((JAXBElement<?>)hdr.getObject()).getValue();
+                        String localName = hdr.getName().getLocalPart();
+                        LOG.log(Level.FINE, "{0} : {1}", new Object[] {localName, getLogText(value)});
+                        if (Names.WSA_MESSAGEID_NAME.equals(localName)) {
+                            invalidCardinalityQName = maps.getMessageID() != null
+                                ? Names.WSA_MESSAGEID_QNAME : null;
+                            maps.setMessageID((AttributedURIType)value);
+                        } else if (Names.WSA_TO_NAME.equals(localName)) {
+                            invalidCardinalityQName = maps.getTo() != null ? Names.WSA_TO_QNAME : null;
+                            maps.setTo(EndpointReferenceUtils.getEndpointReference((AttributedURIType)value));
+                        } else if (Names.WSA_RELATESTO_NAME.equals(localName)) {
+                            maps.setRelatesTo((RelatesToType)value);
+                        } else if (Names.WSA_ACTION_NAME.equals(localName)) {
+                            invalidCardinalityQName = maps.getAction() != null
+                                ? Names.WSA_ACTION_QNAME : null;
+                            maps.setAction((AttributedURIType)value);
+                        }
                     }
                 }
                 
@@ -579,6 +602,11 @@ public class MAPCodec extends AbstractSoapInterceptor {
                 }
 
                 if (null != referenceParameterHeaders && null != maps) {
+                    if (unmarshaller == null) {
+                        // all the MAPs were streamed
+                        unmarshaller = VersionTransformer.getExposedJAXBContext(maps.getNamespaceURI())
+                            .createUnmarshaller();
+                    }
                     decodeReferenceParameters(referenceParameterHeaders, maps, unmarshaller);
                 }
                 if (invalidCardinalityQName != null) {
@@ -592,6 +620,13 @@ public class MAPCodec extends AbstractSoapInterceptor {
         return maps;
     }
         
+    private static boolean isStreamedMAP(Header hdr) {
+        return hdr.getDirection() == Header.Direction.DIRECTION_IN
+            && hdr.getObject() instanceof JAXBElement
+            && hdr.getName() != null
+            && Names.WSA_NAMESPACE_NAME.equals(hdr.getName().getNamespaceURI());
+    }
+
     private void storeInvalidCardinalityFault(SoapMessage message, QName wsaHeaderName) {
         LOG.log(Level.WARNING, "INVALID_CARDINALITY_MESSAGE", wsaHeaderName);
         String reason = BUNDLE.getString("INVALID_ADDRESSING_PROPERTY_MESSAGE");
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.soap;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.interceptor.StreamingHeaderProcessor;
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.databinding.DataBinding;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.jaxb.JAXBDataBinding;
+import org.apache.cxf.ws.addressing.AttributedURIType;
+import org.apache.cxf.ws.addressing.ContextUtils;
+import org.apache.cxf.ws.addressing.Names;
+import org.apache.cxf.ws.addressing.RelatesToType;
+
+/**
+ * Reads the simple WS-Addressing 2005/08 headers (MessageID, To, Action and RelatesTo)
+ * straight off the stream, so that no DOM element needs to be built for them. The
+ * header object is a JAXBElement holding the same type MAPCodec would have unmarshalled
+ * from the DOM element. The endpoint reference headers are left to the DOM path.
+ */
+public final class StreamingMAPProcessor implements StreamingHeaderProcessor {
+
+    public static final Map<QName, StreamingHeaderProcessor> PROCESSORS;
+
+    private static final StreamingMAPProcessor INSTANCE = new StreamingMAPProcessor();
+
+    static {
+        Map<QName, StreamingHeaderProcessor> m = new HashMap<QName, StreamingHeaderProcessor>();
+        m.put(Names.WSA_MESSAGEID_QNAME, INSTANCE);
+        m.put(Names.WSA_TO_QNAME, INSTANCE);
+        m.put(Names.WSA_ACTION_QNAME, INSTANCE);
+        m.put(Names.WSA_RELATESTO_QNAME, INSTANCE);
+        PROCESSORS = Collections.unmodifiableMap(m);
+    }
+
+    private volatile DataBinding dataBinding;
+
+    private StreamingMAPProcessor() {
+    }
+
+    public Object readHeader(XMLStreamReader reader, SoapMessage message) throws XMLStreamException {
+        QName name = reader.getName();
+        if (Names.WSA_RELATESTO_QNAME.equals(name)) {
+            RelatesToType relatesTo = ContextUtils.WSA_OBJECT_FACTORY.createRelatesToType();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                QName attr = reader.getAttributeName(i);
+                if (StringUtils.isEmpty(attr.getNamespaceURI())
+                    && Names.WSA_RELATIONSHIPTYPE_NAME.equals(attr.getLocalPart())) {
+                    relatesTo.setRelationshipType(reader.getAttributeValue(i));
+                } else {
+                    relatesTo.getOtherAttributes().put(attr, reader.getAttributeValue(i));
+                }
+            }
+            relatesTo.setValue(reader.getElementText());
+            return new JAXBElement<RelatesToType>(name, RelatesToType.class, relatesTo);
+        }
+        AttributedURIType uri = ContextUtils.WSA_OBJECT_FACTORY.createAttributedURIType();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            uri.getOtherAttributes().put(reader.getAttributeName(i), reader.getAttributeValue(i));
+        }
+        uri.setValue(reader.getElementText());
+        return new JAXBElement<AttributedURIType>(name, AttributedURIType.class, uri);
+    }
+
+    public DataBinding getDataBinding() {
+        DataBinding db = dataBinding;
+        if (db == null) {
+            try {
+                db = new JAXBDataBinding(VersionTransformer.getExposedJAXBContext(Names.WSA_NAMESPACE_NAME));
+            } catch (JAXBException e) {
+                throw new Fault(e);
+            }
+            dataBinding = db;
+        }
+        return db;
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.soap;
+
+import java.io.StringReader;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.interceptor.ReadHeadersInterceptor;
+import org.apache.cxf.headers.Header;
+import org.apache.cxf.helpers.DOMUtils;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.cxf.ws.addressing.AddressingProperties;
+import org.apache.cxf.ws.addressing.AttributedURIType;
+import org.apache.cxf.ws.addressing.Names;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamingMAPProcessorTest extends Assert {
+
+    private static final String ENVELOPE_START =
+        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\""
+        + " xmlns:wsa=\"http://www.w3.org/2005/08/addressing\"><soap:Header>"
+        + "<wsa:MessageID soap:mustUnderstand=\"1\">urn:uuid:5ee6a1f0-1234</wsa:MessageID>"
+        + "<wsa:To>http://localhost:9000/greeter</wsa:To>"
+        + "<wsa:Action>http://example.org/greeter/sayHi</wsa:Action>"
+        + "<wsa:RelatesTo RelationshipType=\"http://example.org/related\">urn:uuid:0042</wsa:RelatesTo>";
+    private static final String ENVELOPE_END =
+        "</soap:Header><soap:Body><sayHi xmlns=\"http://example.org/greeter\"/></soap:Body>"
+        + "</soap:Envelope>";
+
+    @Test
+    public void testReadMAPsFromStream() throws Exception {
+        SoapMessage message = readHeaders(ENVELOPE_START
+            + "<wsa:ReplyTo><wsa:Address>http://localhost:9001/reply</wsa:Address></wsa:ReplyTo>"
+            + ENVELOPE_END);
+
+        List<Header> headers = message.getHeaders();
+        assertEquals(5, headers.size());
+        Header messageID = headers.get(0);
+        assertEquals(Names.WSA_MESSAGEID_QNAME, messageID.getName());
+        assertTrue(messageID.getObject() instanceof JAXBElement);
+        assertTrue(((JAXBElement<?>)messageID.getObject()).getValue() instanceof AttributedURIType);
+        assertTrue(headers.get(4).getObject() instanceof Element);
+
+        // only the endpoint reference header ends up in the DOM
+        Document doc = (Document)message.getContent(Node.class);
+        Element header = DOMUtils.getFirstElement(doc.getDocumentElement());
+        Element replyTo = DOMUtils.getFirstElement(header);
+        assertEquals(Names.WSA_REPLYTO_NAME, replyTo.getLocalName());
+        assertNull(DOMUtils.getNextElement(replyTo));
+
+        AddressingProperties maps = new MAPCodec().unmarshalMAPs(message);
+        assertEquals(Names.WSA_NAMESPACE_NAME, maps.getNamespaceURI());
+        assertEquals("urn:uuid:5ee6a1f0-1234", maps.getMessageID().getValue());
+        assertEquals("http://localhost:9000/greeter", maps.getTo().getValue());
+        assertEquals("http://example.org/greeter/sayHi", maps.getAction().getValue());
+        assertEquals("urn:uuid:0042", maps.getRelatesTo().getValue());
+        assertEquals("http://example.org/related", maps.getRelatesTo().getRelationshipType());
+        assertEquals("http://localhost:9001/reply", maps.getReplyTo().getAddress().getValue());
+    }
+
+    @Test
+    public void testReferenceParameterWithStreamedMAPs() throws Exception {
+        SoapMessage message = readHeaders(ENVELOPE_START
+            + "<ns:customerKey xmlns:ns=\"http://example.org/customer\" wsa:IsReferenceParameter=\"true\">"
+            + "Key#123456789</ns:customerKey>"
+            + ENVELOPE_END);
+
+        AddressingProperties maps = new MAPCodec().unmarshalMAPs(message);
+        assertEquals("urn:uuid:5ee6a1f0-1234", maps.getMessageID().getValue());
+        assertEquals("http://localhost:9000/greeter", maps.getTo().getValue());
+        List<Object> params = maps.getToEndpointReference().getReferenceParameters().getAny();
+        assertEquals(1, params.size());
+        assertEquals("Key#123456789", ((JAXBElement<?>)params.get(0)).getValue());
+    }
+
+    private static SoapMessage readHeaders(String envelope) throws Exception {
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        message.setExchange(new ExchangeImpl());
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(envelope));
+        message.setContent(XMLStreamReader.class, reader);
+        message.put(ReadHeadersInterceptor.STREAMING_HEADER_PROCESSORS, StreamingMAPProcessor.PROCESSORS);
+        new ReadHeadersInterceptor(null).handleMessage(message);
+        return message;
+    }
+
+}